@@ -0,0 +1,59 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.GeoUtils;
+import com.google.android.gms.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link LocationIndex#findWithin(LatLng, double)} against a scan of every claim, for 1000 to 100000 places. Not
+ * part of the test suite, as timings depend on the machine; run {@link #main(String[])} with the app, its libraries
+ * and the tests on the classpath.
+ */
+public final class LocationIndexBenchmark {
+
+    private static final LatLng CALGARY = new LatLng(51.0447, -114.0719);
+    private static final double RADIUS_METERS = 50000;
+    private static final int RUNS = 200;
+
+    private LocationIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final User user = new User("name");
+        final Random random = new Random(42);
+        final LocationIndex index = new LocationIndex();
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int size = 1000; size <= 100000; size *= 10) {
+            while (claims.size() < size) {
+                // spread over North America, where most trips are
+                final LatLng location = new LatLng(25 + random.nextDouble() * 35, -125 + random.nextDouble() * 55);
+                claims.add(new Claim.Builder(user)
+                        .putDestination(new Destination.Builder("place", null).location(location).build())
+                        .build());
+            }
+            index.sync(claims);
+
+            int found = 0;
+            final long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                found = index.findWithin(CALGARY, RADIUS_METERS).size();
+            }
+            final long perQuery = (System.nanoTime() - start) / RUNS;
+
+            int scanned = 0;
+            final long scanStart = System.nanoTime();
+            for (Claim claim : claims) {
+                if (GeoUtils.distanceBetween(CALGARY, claim.getDestinations().get(0).getLocation()) <= RADIUS_METERS) {
+                    scanned += 1;
+                }
+            }
+            final long perScan = System.nanoTime() - scanStart;
+
+            System.out.println(size + " places: " + perQuery / 1000 + " us per 50 km query, " + perScan / 1000
+                    + " us per scan, " + found + " found, " + scanned + " scanned");
+        }
+    }
+}
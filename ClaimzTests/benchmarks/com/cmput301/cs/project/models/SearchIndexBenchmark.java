@@ -0,0 +1,51 @@
+package com.cmput301.cs.project.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link SearchIndex#search(String, int)} over 10000 claims of 10 expenses each. Not part of the test suite, as
+ * timings depend on the machine; run {@link #main(String[])} with the app, its libraries and the tests on the
+ * classpath.
+ */
+public final class SearchIndexBenchmark {
+
+    private static final int CLAIMS = 10000;
+    private static final int EXPENSES = 10;
+    private static final int RUNS = 20;
+
+    private SearchIndexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final String[] places = {"Calgary", "Toronto", "Vancouver", "Edmonton", "Montreal", "Ottawa", "Halifax"};
+        final String[] descriptions = {"Hotel", "Taxi to airport", "Dinner with client", "Conference fee",
+                "Rental car", "Parking", "Flight"};
+        final String[] categories = Expense.CATEGORIES.toArray(new String[Expense.CATEGORIES.size()]);
+        final User user = new User("name");
+        final Random random = new Random(42);
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < CLAIMS; i++) {
+            final Claim.Builder builder = new Claim.Builder(user).putDestination(
+                    new Destination.Builder(places[random.nextInt(places.length)], "Trip " + i).build());
+            for (int j = 0; j < EXPENSES; j++) {
+                builder.putExpense(new Expense.Builder()
+                        .description(descriptions[random.nextInt(descriptions.length)] + " " + i)
+                        .category(categories[random.nextInt(categories.length)])
+                        .build());
+            }
+            claims.add(builder.build());
+        }
+        final SearchIndex index = new SearchIndex();
+        index.sync(claims);
+
+        int hits = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            hits = index.search("calgary hot", 20).size();
+        }
+        final long perQuery = (System.nanoTime() - start) / RUNS;
+        System.out.println(index.size() + " documents: " + perQuery / 1000 + " us per query, " + hits + " hits");
+    }
+}
@@ -0,0 +1,51 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.utils.MockSaves;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link TagIndex#select(TagQuery)} over 100000 claims. Not part of the test suite, as timings depend on the
+ * machine; run {@link #main(String[])} with the app, its libraries and the tests on the classpath.
+ */
+public final class TagQueryBenchmark {
+
+    private static final int CLAIMS = 100000;
+    private static final int RUNS = 1000;
+
+    private TagQueryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final TagsManager manager = TagsManager.ofClaimSaves(new MockSaves());
+        final String[] names = {"travel", "conference", "client", "personal", "meal", "hotel", "taxi", "flight"};
+        final Tag[] tags = new Tag[names.length];
+        for (int i = 0; i < names.length; i++) {
+            tags[i] = manager.getTagByName(names[i]);
+        }
+        final User user = new User("name");
+        final Random random = new Random(301);
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < CLAIMS; i++) {
+            final Claim.Builder builder = new Claim.Builder(user);
+            for (Tag tag : tags) {
+                if (random.nextInt(4) == 0) builder.addTag(tag);
+            }
+            claims.add(builder.build());
+        }
+        final TagIndex index = new TagIndex();
+        index.sync(claims);
+
+        final TagQuery query = TagQuery.parse("travel AND (conference OR client) AND NOT personal");
+        int selected = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            selected = index.select(query).size();
+        }
+        final long perQuery = (System.nanoTime() - start) / RUNS;
+        System.out.println(CLAIMS + " claims: " + perQuery / 1000 + " us per query, " + selected + " selected");
+    }
+}
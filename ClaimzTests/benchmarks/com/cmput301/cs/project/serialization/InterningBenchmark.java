@@ -0,0 +1,92 @@
+package com.cmput301.cs.project.serialization;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.models.*;
+import com.cmput301.cs.project.utils.MockSaves;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by 50000 synthetic claims, of 30 users, 20 tags and 40 destinations, read with and
+ * without {@link InterningTypeAdapterFactory}. Not part of the test suite, as heap sizes depend on the VM and on when
+ * it collects; run {@link #main(String[])} with the app, its libraries and the tests on the classpath.
+ */
+public final class InterningBenchmark {
+
+    private static final Type CLAIMS_TYPE = new TypeToken<List<Claim>>() {
+    }.getType();
+
+    private static final int CLAIMS = 50000;
+    private static final int USERS = 30;
+    private static final int TAGS = 20;
+    private static final int DESTINATIONS = 40;
+
+    private InterningBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        // expenses as arrays, which the plain Gson can read
+        final String json = LocalSaver.getRemoteGson().toJson(syntheticClaims(), CLAIMS_TYPE);
+        final Gson plain = new GsonBuilder()
+                .registerTypeAdapter(Expense.class, Expense.getInstanceCreator())
+                .registerTypeAdapter(Claim.class, Claim.getInstanceCreator())
+                .create();
+
+        final long before = usedHeap();
+        List<Claim> claims = plain.fromJson(json, CLAIMS_TYPE);
+        final long plainBytes = usedHeap() - before;
+        if (claims.size() != CLAIMS) throw new AssertionError(claims.size());
+        claims = null;
+
+        final long beforeInterned = usedHeap();
+        claims = LocalSaver.getGson().fromJson(json, CLAIMS_TYPE);
+        final long internedBytes = usedHeap() - beforeInterned;
+        if (claims.size() != CLAIMS) throw new AssertionError(claims.size());
+
+        System.out.println(CLAIMS + " claims: " + plainBytes / 1024 + " KiB plain, " + internedBytes / 1024
+                + " KiB interned");
+    }
+
+    private static List<Claim> syntheticClaims() {
+        final TagsManager manager = TagsManager.ofClaimSaves(new MockSaves());
+        final List<User> users = new ArrayList<User>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("user" + i));
+        }
+        final List<Tag> tags = new ArrayList<Tag>();
+        for (int i = 0; i < TAGS; i++) {
+            tags.add(manager.getTagByName("tag" + i));
+        }
+        final List<Destination> destinations = new ArrayList<Destination>();
+        for (int i = 0; i < DESTINATIONS; i++) {
+            destinations.add(new Destination.Builder("city" + i, "reason" + i)
+                    .location(new LatLng(50 + i, -110 - i))
+                    .build());
+        }
+
+        final List<Claim> claims = new ArrayList<Claim>(CLAIMS);
+        for (int i = 0; i < CLAIMS; i++) {
+            claims.add(new Claim.Builder(users.get(i % USERS))
+                    .addTag(tags.get(i % TAGS))
+                    .addTag(tags.get((i + 7) % TAGS))
+                    .putDestination(destinations.get(i % DESTINATIONS))
+                    .build());
+        }
+        return claims;
+    }
+
+    // after collecting what it can, so only what is still reachable counts
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
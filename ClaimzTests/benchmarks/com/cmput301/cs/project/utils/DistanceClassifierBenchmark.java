@@ -0,0 +1,38 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link DistanceClassifier#classifyAll(List, int[])} over 100000 points. Not part of the test suite, as timings
+ * depend on the machine; run {@link #main(String[])} with the app, its libraries and the tests on the classpath.
+ */
+public final class DistanceClassifierBenchmark {
+
+    private static final LatLng EDMONTON = new LatLng(53.5461, -113.4938);
+    private static final int POINTS = 100000;
+    private static final int RUNS = 20;
+
+    private DistanceClassifierBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        final List<LatLng> points = new ArrayList<LatLng>();
+        for (int i = 0; i < POINTS; i++) {
+            points.add(new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        final DistanceClassifier classifier = new DistanceClassifier(EDMONTON, 200000, 800000);
+        final int[] bands = new int[points.size()];
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            classifier.classifyAll(points, bands);
+        }
+        final long perPoint = (System.nanoTime() - start) / RUNS / points.size();
+        System.out.println(POINTS + " points: " + perPoint + " ns per point");
+    }
+}
@@ -0,0 +1,58 @@
+package com.cmput301.cs.project.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link ListDiff#of(List, List, ListDiff.Keys)} on a typical refresh of 10000 items. Not part of the test suite,
+ * as timings depend on the machine; run {@link #main(String[])} with the app, its libraries and the tests on the
+ * classpath.
+ */
+public final class ListDiffBenchmark {
+
+    private static final int ITEMS = 10000;
+    private static final int RUNS = 100;
+
+    // items are "key:version"
+    private static final ListDiff.Keys<String> KEYS = new ListDiff.Keys<String>() {
+        @Override
+        public String keyOf(String item) {
+            return item.substring(0, item.indexOf(':'));
+        }
+
+        @Override
+        public boolean isSameVersion(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private ListDiffBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        final List<String> oldItems = new ArrayList<String>();
+        for (int i = 0; i < ITEMS; i++) {
+            oldItems.add(i + ":1");
+        }
+        // a few claims added, removed, edited and moved
+        final List<String> newItems = new ArrayList<String>(oldItems);
+        for (int i = 0; i < 20; i++) {
+            newItems.remove(random.nextInt(newItems.size()));
+            newItems.add(random.nextInt(newItems.size()), "new" + i + ":1");
+            final int edited = random.nextInt(newItems.size());
+            newItems.set(edited, KEYS.keyOf(newItems.get(edited)) + ":2");
+            newItems.add(random.nextInt(newItems.size()), newItems.remove(random.nextInt(newItems.size())));
+        }
+
+        ListDiff diff = null;
+        final long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            diff = ListDiff.of(oldItems, newItems, KEYS);
+        }
+        final long perDiff = (System.nanoTime() - start) / RUNS;
+        System.out.println(ITEMS + " items: " + perDiff / 1000 + " us per diff, " + diff.getOperations()
+                + " operations");
+    }
+}
@@ -0,0 +1,52 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times clustering 100000 points with {@link ZoomClusters}, and {@link ZoomClusters#getClusters(LatLngBounds, float)}
+ * for a phone screen at every zoom. Not part of the test suite, as timings depend on the machine; run
+ * {@link #main(String[])} with the app, its libraries and the tests on the classpath.
+ */
+public final class ZoomClustersBenchmark {
+
+    private static final int POINTS = 100000;
+    private static final int RUNS = 1000;
+
+    private ZoomClustersBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final Random random = new Random(42);
+        final List<LatLng> points = new ArrayList<LatLng>();
+        for (int i = 0; i < POINTS; i++) {
+            points.add(new LatLng(-60 + random.nextDouble() * 130, -180 + random.nextDouble() * 360));
+        }
+        long start = System.nanoTime();
+        final ZoomClusters clusters = new ZoomClusters(points);
+        final long build = System.nanoTime() - start;
+
+        // about a phone screen, 400 by 700 dp, around random points at every zoom
+        int shown = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            final int zoom = i % (ZoomClusters.MAX_ZOOM + 2);
+            final LatLng centre = points.get(random.nextInt(points.size()));
+            final double degreesPerDp = 360 / (256 * Math.pow(2, zoom));
+            final double halfWidth = Math.min(180, 200 * degreesPerDp);
+            final double halfHeight = Math.min(85, 350 * degreesPerDp * Math.cos(Math.toRadians(centre.latitude)));
+            final LatLngBounds bounds = new LatLngBounds(
+                    new LatLng(Math.max(-85, centre.latitude - halfHeight), centre.longitude - halfWidth),
+                    new LatLng(Math.min(85, centre.latitude + halfHeight), centre.longitude + halfWidth));
+            shown += clusters.getClusters(bounds, zoom).size();
+        }
+        final long perQuery = (System.nanoTime() - start) / RUNS;
+
+        System.out.println(POINTS + " points: " + build / 1000000 + " ms to cluster, " + perQuery / 1000
+                + " us per query, " + shown / RUNS + " clusters shown");
+    }
+}
@@ -0,0 +1,120 @@
+package com.cmput301.cs.project;
+
+import com.cmput301.cs.project.controllers.CurrencyConverter;
+import com.cmput301.cs.project.models.*;
+import com.cmput301.cs.project.utils.MockSaves;
+import junit.framework.TestCase;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+public class CurrencyConverterTest extends TestCase {
+
+    private static final CurrencyUnit CNY = CurrencyUnit.getInstance("CNY");
+
+    private ExchangeRates mRates;
+    private CurrencyConverter mConverter;
+
+    @Override
+    protected void setUp() {
+        final MockSaves saves = new MockSaves();
+        saves.saveExchangeRates(Arrays.asList(
+                table("2015-03-02", "1.25", "0.90"),
+                table("2015-03-01", "1.20", "0.80")));
+        mRates = saves.readExchangeRates();
+        mConverter = new CurrencyConverter(mRates, CurrencyUnit.CAD);
+    }
+
+    public void testReadExchangeRates() {
+        assertEquals(2, mRates.size());
+        assertEquals("2015-03-01", mRates.getTable(localTime(2015, Calendar.MARCH, 1)).getDate());
+        assertEquals("2015-03-02", mRates.getTable(localTime(2015, Calendar.MARCH, 2)).getDate());
+        assertTrue(new MockSaves().readExchangeRates().isEmpty());
+    }
+
+    public void testReadBundledExchangeRatesWhenNoneSaved() {
+        final MockSaves saves = new MockSaves();
+        saves.setBundledExchangeRates("[{\"date\": \"2015-03-20\", \"base\": \"USD\", \"rates\": {\"CAD\": 1.25}}]");
+        final ExchangeRates bundled = saves.readExchangeRates();
+        assertEquals(1, bundled.size());
+        assertEquals(new BigDecimal("1.25"), bundled.getRate(CurrencyUnit.USD, CurrencyUnit.CAD, 0));
+
+        // saved rates take precedence
+        saves.saveExchangeRates(Arrays.asList(table("2015-03-01", "1.20", "0.80")));
+        assertEquals("2015-03-01", saves.readExchangeRates().getTable(0).getDate());
+    }
+
+    public void testRateLookupUsesLatestTableOnOrBefore() {
+        assertEquals("2015-03-02", mRates.getTable(localTime(2015, Calendar.MARCH, 20)).getDate());
+        assertEquals("2015-03-01", mRates.getTable(localTime(2014, Calendar.JANUARY, 1)).getDate());
+        // memoized lookups resolve to the same table
+        final long time = localTime(2015, Calendar.MARCH, 20);
+        assertSame(mRates.getTable(time), mRates.getTable(time + 1000));
+        assertNull(ExchangeRates.EMPTY.getTable(time));
+    }
+
+    public void testConvertAtExpenseDate() {
+        final Expense march1 = expense(Money.of(CurrencyUnit.USD, 10), localTime(2015, Calendar.MARCH, 1));
+        final Expense march2 = expense(Money.of(CurrencyUnit.USD, 10), localTime(2015, Calendar.MARCH, 2));
+        assertEquals(Money.of(CurrencyUnit.CAD, 12), mConverter.convert(march1));
+        assertEquals(Money.of(CurrencyUnit.CAD, new BigDecimal("12.50")), mConverter.convert(march2));
+
+        // cross rate through USD: 1 EUR = 1.25 / 0.90 CAD
+        final Expense euros = expense(Money.of(CurrencyUnit.EUR, 9), localTime(2015, Calendar.MARCH, 2));
+        assertEquals(Money.of(CurrencyUnit.CAD, new BigDecimal("12.50")), mConverter.convert(euros));
+
+        final Money cad = Money.of(CurrencyUnit.CAD, 3);
+        assertSame(cad, mConverter.convert(expense(cad, 0)));
+        assertNull(mConverter.convert(expense(Money.of(CNY, 1), localTime(2015, Calendar.MARCH, 2))));
+    }
+
+    public void testClaimTotal() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(expense(Money.of(CurrencyUnit.USD, 10), localTime(2015, Calendar.MARCH, 1)))
+                .putExpense(expense(Money.of(CurrencyUnit.CAD, 5), localTime(2015, Calendar.MARCH, 1)))
+                .build();
+        assertEquals(Money.of(CurrencyUnit.CAD, 17), mConverter.convertTotal(claim));
+
+        final Claim unknown = claim.edit()
+                .putExpense(expense(Money.of(CNY, 1), localTime(2015, Calendar.MARCH, 1)))
+                .build();
+        assertNull(mConverter.convertTotal(unknown));
+    }
+
+    public void testReportTotalInParallel() {
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 1000; i++) {
+            claims.add(new Claim.Builder(new User("name"))
+                    .putExpense(expense(Money.of(CurrencyUnit.USD, 10), localTime(2015, Calendar.MARCH, 1 + i % 2)))
+                    .build());
+        }
+
+        final List<Money> totals = mConverter.convertTotals(claims);
+        assertEquals(claims.size(), totals.size());
+        for (int i = 0; i < totals.size(); i++) {
+            assertEquals(mConverter.convertTotal(claims.get(i)), totals.get(i));
+        }
+        // 500 * 12.00 + 500 * 12.50
+        assertEquals(Money.of(CurrencyUnit.CAD, 12250), mConverter.convertReportTotal(claims));
+    }
+
+    private static ExchangeRateTable table(String date, String cad, String eur) {
+        final Map<CurrencyUnit, BigDecimal> rates = new HashMap<CurrencyUnit, BigDecimal>();
+        rates.put(CurrencyUnit.CAD, new BigDecimal(cad));
+        rates.put(CurrencyUnit.EUR, new BigDecimal(eur));
+        return new ExchangeRateTable(date, CurrencyUnit.USD, rates);
+    }
+
+    private static Expense expense(Money money, long time) {
+        return new Expense.Builder().money(money).time(time).build();
+    }
+
+    private static long localTime(int year, int month, int day) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+}
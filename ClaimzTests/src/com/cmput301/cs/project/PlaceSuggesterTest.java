@@ -0,0 +1,186 @@
+package com.cmput301.cs.project;
+
+import com.cmput301.cs.project.controllers.PlaceSuggester;
+import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.models.PlacePrediction;
+import com.cmput301.cs.project.models.PredictionCache;
+import com.cmput301.cs.project.utils.MockSaves;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PlaceSuggesterTest extends TestCase {
+
+    private static final LatLngBounds CALGARY = new LatLngBounds(new LatLng(50.9, -114.3), new LatLng(51.2, -113.9));
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    // moves on by a step every time it is read, so a wait for the debounce delay ends after a few reads
+    private static final class SteppingClock implements PlaceSuggester.Clock {
+        private final long mStep;
+        private long mNow;
+        private int mReads;
+
+        private SteppingClock(long step) {
+            mStep = step;
+        }
+
+        @Override
+        public synchronized long nowMillis() {
+            mReads++;
+            final long now = mNow;
+            mNow += mStep;
+            return now;
+        }
+
+        private synchronized long peek() {
+            return mNow;
+        }
+
+        private synchronized int getReads() {
+            return mReads;
+        }
+    }
+
+    private static final class FakeSource implements PlaceSuggester.PredictionSource {
+        private final List<String> mAsked = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Long> mAskedAt = Collections.synchronizedList(new ArrayList<Long>());
+        private SteppingClock mClock;
+        private List<PlacePrediction> mPredictions;
+
+        private FakeSource(List<PlacePrediction> predictions) {
+            mPredictions = predictions;
+        }
+
+        @Override
+        public List<PlacePrediction> predict(String text, LatLngBounds bounds) {
+            mAsked.add(text);
+            if (mClock != null) {
+                mAskedAt.add(mClock.peek());
+            }
+            return mPredictions;
+        }
+    }
+
+    private FakeSource mLocal;
+    private FakeSource mRemote;
+    private PlaceSuggester mSuggester;
+
+    @Override
+    protected void setUp() {
+        mLocal = new FakeSource(Arrays.asList(PlacePrediction.ofDestination(
+                new Destination.Builder("Calgary", null).location(new LatLng(51.0447, -114.0719)).build())));
+        mRemote = new FakeSource(Arrays.asList(PlacePrediction.ofPlace("1", "calgary"),
+                PlacePrediction.ofPlace("2", "Calgary Tower, Calgary, AB")));
+        mSuggester = new PlaceSuggester(mLocal, mRemote, new PredictionCache(10), DEBOUNCE_MILLIS);
+    }
+
+    private static List<String> descriptions(List<PlacePrediction> predictions) {
+        final List<String> descriptions = new ArrayList<String>();
+        for (PlacePrediction prediction : predictions) {
+            descriptions.add(prediction.getDescription());
+        }
+        return descriptions;
+    }
+
+    public void testPastDestinationsComeFirst() {
+        mSuggester.request("cal");
+        final List<PlacePrediction> suggestions = mSuggester.suggest("cal", CALGARY);
+
+        // the remote "calgary" is the past destination
+        assertEquals(Arrays.asList("Calgary", "Calgary Tower, Calgary, AB"), descriptions(suggestions));
+        assertNotNull(suggestions.get(0).getLocation());
+        assertEquals("2", suggestions.get(1).getPlaceId());
+    }
+
+    public void testSuggestLocallyNeverAsksRemote() {
+        assertEquals(Arrays.asList("Calgary"), descriptions(mSuggester.suggestLocally("cal", CALGARY)));
+        assertTrue(mRemote.mAsked.isEmpty());
+        assertTrue(mSuggester.suggestLocally("  ", CALGARY).isEmpty());
+    }
+
+    public void testCachesRemotePredictions() {
+        // a step of the whole delay, so the first query never waits
+        final SteppingClock clock = new SteppingClock(DEBOUNCE_MILLIS);
+        final PlaceSuggester suggester = new PlaceSuggester(mLocal, mRemote, new PredictionCache(10), DEBOUNCE_MILLIS,
+                clock);
+        suggester.request("cal");
+        suggester.suggest("cal", CALGARY);
+        suggester.request("Cal ");
+        final int reads = clock.getReads();
+        final List<PlacePrediction> suggestions = suggester.suggest("Cal ", CALGARY);
+
+        assertEquals(1, mRemote.mAsked.size());
+        assertEquals(2, suggestions.size());
+        assertEquals("cached predictions are not debounced", reads, clock.getReads());
+        assertEquals(2, suggester.suggestLocally("cal", CALGARY).size());
+    }
+
+    public void testCollapsesKeystrokes() {
+        final SteppingClock clock = new SteppingClock(DEBOUNCE_MILLIS / 4);
+        mRemote.mClock = clock;
+        final PlaceSuggester suggester = new PlaceSuggester(mLocal, mRemote, new PredictionCache(10), DEBOUNCE_MILLIS,
+                clock);
+        suggester.request("c");
+        suggester.request("ca");
+        suggester.request("cal");
+        final long typedAt = clock.peek() - DEBOUNCE_MILLIS / 4;
+        assertNull(suggester.suggest("c", CALGARY));
+        assertNull(suggester.suggest("ca", CALGARY));
+
+        assertNotNull(suggester.suggest("cal", CALGARY));
+        assertEquals(Arrays.asList("cal"), mRemote.mAsked);
+        assertTrue("asked before the user stopped typing", mRemote.mAskedAt.get(0) >= typedAt + DEBOUNCE_MILLIS);
+    }
+
+    public void testKeystrokeWakesWaitingQuery() throws InterruptedException {
+        final PlaceSuggester suggester = new PlaceSuggester(mLocal, mRemote, new PredictionCache(10), 10000);
+        final List<List<PlacePrediction>> results = new ArrayList<List<PlacePrediction>>();
+        suggester.request("ca");
+        final Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                results.add(suggester.suggest("ca", CALGARY));
+            }
+        });
+        worker.start();
+        Thread.sleep(20);
+        suggester.request("cal");
+        worker.join(2000);
+
+        assertFalse(worker.isAlive());
+        assertEquals(1, results.size());
+        assertNull(results.get(0));
+        assertTrue(mRemote.mAsked.isEmpty());
+    }
+
+    public void testUnavailableRemoteIsAskedAgain() {
+        mRemote.mPredictions = null;
+        mSuggester.request("cal");
+        assertEquals(Arrays.asList("Calgary"), descriptions(mSuggester.suggest("cal", CALGARY)));
+
+        mRemote.mPredictions = Arrays.asList(PlacePrediction.ofPlace("3", "Calgary Zoo"));
+        assertEquals(2, mSuggester.suggest("cal", CALGARY).size());
+        assertEquals(2, mRemote.mAsked.size());
+    }
+
+    public void testSavesCache() {
+        final MockSaves saves = new MockSaves();
+        mSuggester.request("cal");
+        mSuggester.suggest("cal", CALGARY);
+        assertTrue(mSuggester.saveCache(saves));
+
+        final PredictionCache restored = saves.readPredictionCache();
+        assertEquals(1, restored.size());
+        assertEquals("Calgary Tower, Calgary, AB", restored.get("cal", CALGARY).get(1).getDescription());
+
+        final PlaceSuggester next = new PlaceSuggester(mLocal, mRemote, restored, DEBOUNCE_MILLIS);
+        next.request("cal");
+        next.suggest("cal", CALGARY);
+        assertEquals(1, mRemote.mAsked.size());  // from the last session
+    }
+}
@@ -0,0 +1,113 @@
+package com.cmput301.cs.project;
+
+import com.cmput301.cs.project.controllers.CurrencyConverter;
+import com.cmput301.cs.project.controllers.RouteAnalytics;
+import com.cmput301.cs.project.models.*;
+import com.cmput301.cs.project.utils.GeoUtils;
+import com.google.android.gms.maps.model.LatLng;
+import junit.framework.TestCase;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RouteAnalyticsTest extends TestCase {
+
+    private static final LatLng ORIGIN = new LatLng(0, 0);
+    private static final LatLng ONE_NORTH = new LatLng(1, 0);
+    private static final LatLng TWO_NORTH = new LatLng(2, 0);
+
+    private User mUser;
+    private RouteAnalytics mAnalytics;
+
+    @Override
+    protected void setUp() {
+        mUser = new User("name");
+        mAnalytics = new RouteAnalytics(new CurrencyConverter(ExchangeRates.EMPTY, CurrencyUnit.CAD));
+    }
+
+    private static Destination at(String name, LatLng location) {
+        return new Destination.Builder(name, null).location(location).build();
+    }
+
+    private Claim trip(Money cost, LatLng... stops) {
+        final Claim.Builder builder = new Claim.Builder(mUser);
+        for (int i = 0; i < stops.length; i++) {
+            builder.putDestination(at("stop " + i, stops[i]));
+        }
+        if (cost != null) {
+            builder.putExpense(new Expense.Builder().money(cost).build());
+        }
+        return builder.build();
+    }
+
+    public void testLengthSkipsUnlocatedDestinations() {
+        final List<Destination> destinations = Arrays.asList(at("a", ORIGIN),
+                new Destination.Builder("somewhere", null).build(), at("b", ONE_NORTH), at("c", ORIGIN));
+        assertEquals(2 * GeoUtils.METERS_PER_DEGREE, RouteAnalytics.lengthOf(destinations), 1e-6);
+        assertEquals(0.0, RouteAnalytics.lengthOf(new ArrayList<Destination>()));
+    }
+
+    public void testCostPerKm() {
+        final Claim claim = trip(Money.of(CurrencyUnit.CAD, new BigDecimal("222.39")), ORIGIN, ONE_NORTH, TWO_NORTH);
+        final RouteAnalytics.Route route = mAnalytics.analyze(claim);
+
+        assertEquals(claim.getId(), route.getClaimId());
+        assertEquals(2, route.getLegs());
+        assertEquals(222.39, route.getLengthMeters() / 1000, 0.01);
+        assertEquals(Money.of(CurrencyUnit.CAD, new BigDecimal("222.39")), route.getTotal());
+        assertEquals(Money.of(CurrencyUnit.CAD, 1), route.getCostPerKm());
+        assertEquals(1.0, route.getCostPerKmValue(), 0.001);
+    }
+
+    public void testUnknownCostPerKm() {
+        final RouteAnalytics.Route noRoute = mAnalytics.analyze(trip(Money.of(CurrencyUnit.CAD, 5), ORIGIN));
+        assertEquals(0, noRoute.getLegs());
+        assertFalse(noRoute.hasCostPerKm());
+        assertNull(noRoute.getCostPerKm());
+        assertTrue(Double.isNaN(noRoute.getCostPerKmValue()));
+
+        // no rates, so USD cannot be converted
+        final RouteAnalytics.Route noTotal = mAnalytics.analyze(trip(Money.of(CurrencyUnit.USD, 5), ORIGIN, ONE_NORTH));
+        assertNull(noTotal.getTotal());
+        assertFalse(noTotal.hasCostPerKm());
+    }
+
+    public void testMemoizedPerVersion() {
+        final Claim claim = trip(Money.of(CurrencyUnit.CAD, 10), ORIGIN, ONE_NORTH);
+        final RouteAnalytics.Route route = mAnalytics.analyze(claim);
+        assertSame(route, mAnalytics.analyze(claim));
+
+        final Claim extended = claim.edit().putDestination(at("further", TWO_NORTH)).build();
+        final RouteAnalytics.Route longer = mAnalytics.analyze(extended);
+        assertNotSame(route, longer);
+        assertEquals(2, longer.getLegs());
+        assertSame(longer, mAnalytics.analyze(extended));
+    }
+
+    public void testOrderByCostPerKm() {
+        final Claim cheap = trip(Money.of(CurrencyUnit.CAD, 10), ORIGIN, TWO_NORTH);
+        final Claim unknown = trip(Money.of(CurrencyUnit.CAD, 10), ORIGIN);
+        final Claim expensive = trip(Money.of(CurrencyUnit.CAD, 100), ORIGIN, ONE_NORTH);
+        final Claim alsoCheap = trip(Money.of(CurrencyUnit.CAD, 10), ONE_NORTH, new LatLng(3, 0));
+
+        final int[] order = mAnalytics.orderByCostPerKm(Arrays.asList(cheap, unknown, expensive, alsoCheap));
+        assertTrue(Arrays.equals(new int[]{2, 0, 3, 1}, order));  // ties keep their order
+    }
+
+    public void testAnalyzeAllInParallel() {
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 1000; i++) {
+            claims.add(trip(Money.of(CurrencyUnit.CAD, i), ORIGIN, new LatLng(i % 10 + 1, 0)));
+        }
+
+        final List<RouteAnalytics.Route> routes = mAnalytics.analyzeAll(claims);
+        assertEquals(claims.size(), routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            assertSame(mAnalytics.analyze(claims.get(i)), routes.get(i));
+        }
+    }
+}
@@ -3,9 +3,20 @@ package com.cmput301.cs.project;
 import junit.framework.TestCase;
 
 import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.listeners.BackgroundListener;
+import com.cmput301.cs.project.listeners.TagsChangedListener;
+import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.User;
 import com.cmput301.cs.project.utils.MockSaves;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class TagsManagerTest extends TestCase {
 
     private TagsManager mManager;
@@ -29,4 +40,100 @@ public class TagsManagerTest extends TestCase {
         mManager.deleteTagByName("ok");
         assertNull(mManager.findTagByName("ok"));
     }
+
+    public void testRenameKeepsLookups() {
+        final Tag oldTag = mManager.getTagByName("old");
+        final Tag newTag = mManager.renameTag(oldTag, " new ");
+        assertSame(newTag, mManager.findTagById(oldTag.getId()));
+        assertSame(newTag, mManager.findTagByName("new"));
+        assertNull(mManager.findTagByName("old"));
+
+        mManager.deleteTagById(newTag.getId());
+        assertNull(mManager.findTagById(newTag.getId()));
+        assertNull(mManager.findTagByName("new"));
+        assertTrue(mManager.peekTags().isEmpty());
+    }
+
+    public void testCompletionsByUsage() {
+        final Tag travel = mManager.getTagByName("Travel");
+        final Tag train = mManager.getTagByName("train");
+        mManager.getTagByName("hotel");
+        assertEquals(2, mManager.completeTagName(" TR", 5).size());
+
+        final User user = new User("name");
+        final Claim first = new Claim.Builder(user).addTag(travel).addTag(train).build();
+        mManager.onClaimAdded(first);
+        mManager.onClaimAdded(new Claim.Builder(user).addTag(train).build());
+        assertEquals(Arrays.asList(train, travel), mManager.completeTagName("tr", 5));
+
+        mManager.onClaimAdded(first.edit().removeTag(train).build());
+        mManager.onClaimAdded(new Claim.Builder(user).addTag(travel).build());
+        assertEquals(Arrays.asList(travel, train), mManager.completeTagName("tr", 5));
+
+        final Tag renamed = mManager.renameTag(train, "rail");
+        assertEquals(Arrays.asList(travel), mManager.completeTagName("tr", 5));
+        assertEquals(Arrays.asList(renamed), mManager.completeTagName("ra", 5));
+        mManager.deleteTagById(travel.getId());
+        assertTrue(mManager.completeTagName("tr", 5).isEmpty());
+    }
+
+    private static class RecordingListener implements TagsChangedListener {
+        final List<String> mEvents = Collections.synchronizedList(new ArrayList<String>());
+        volatile Thread mThread;
+
+        @Override
+        public void onTagRenamed(Tag newTag, Tag oldTag) {
+            record("renamed " + oldTag.getName() + " " + newTag.getName());
+        }
+
+        @Override
+        public void onTagDeleted(Tag tag) {
+            record("deleted " + tag.getName());
+        }
+
+        @Override
+        public void onTagCreated(Tag tag) {
+            record("created " + tag.getName());
+        }
+
+        void record(String event) {
+            mThread = Thread.currentThread();
+            mEvents.add(event);
+        }
+    }
+
+    private static class SlowListener extends RecordingListener implements BackgroundListener {
+        final CountDownLatch mRelease = new CountDownLatch(1);
+
+        @Override
+        void record(String event) {
+            try {
+                mRelease.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            super.record(event);
+        }
+    }
+
+    public void testBackgroundListeners() throws InterruptedException {
+        final RecordingListener ui = new RecordingListener();
+        final SlowListener slow = new SlowListener();
+        mManager.addTagChangedListener(ui);
+        mManager.addTagChangedListener(slow);
+
+        final Tag tag = mManager.getTagByName("a");
+        mManager.deleteTagById(mManager.renameTag(tag, "b").getId());
+        // returned without waiting for the slow listener
+        final List<String> expected = Arrays.asList("created a", "renamed a b", "deleted b");
+        assertEquals(expected, ui.mEvents);
+        assertSame(Thread.currentThread(), ui.mThread);
+        assertTrue(slow.mEvents.isEmpty());
+        assertFalse(mManager.awaitBackgroundListeners(10, TimeUnit.MILLISECONDS));
+
+        slow.mRelease.countDown();
+        assertTrue(mManager.awaitBackgroundListeners(5, TimeUnit.SECONDS));
+        assertEquals(expected, slow.mEvents);
+        assertNotSame(Thread.currentThread(), slow.mThread);
+    }
 }
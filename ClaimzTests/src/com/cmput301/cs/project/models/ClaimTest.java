@@ -16,8 +16,10 @@ package com.cmput301.cs.project.models;/*
 
 import com.cmput301.cs.project.serialization.LocalSaver;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import junit.framework.TestCase;
 import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -212,4 +214,68 @@ public class ClaimTest extends TestCase {
         assertEquals("no more food", read1.getDescription());
         assertTrue(!read1.equals(read));
     }
-}
\ No newline at end of file
+
+    public void testTotals() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().money(Money.of(CurrencyUnit.CAD, new BigDecimal("10.25"))).build())
+                .putExpense(new Expense.Builder().money(Money.of(CurrencyUnit.USD, new BigDecimal("3.00"))).build())
+                .putExpense(new Expense.Builder().money(Money.of(CurrencyUnit.CAD, new BigDecimal("0.75"))).build())
+                .putExpense(new Expense.Builder().money(Money.ofMajor(CurrencyUnit.JPY, 500)).build())
+                .build();
+
+        final CurrencyTotals totals = claim.getTotals();
+        assertEquals(3, totals.size());
+        assertEquals(1100, totals.getAmountMinor(CurrencyUnit.CAD));
+        assertEquals(300, totals.getAmountMinor(CurrencyUnit.USD));
+        assertEquals(500, totals.getAmountMinor(CurrencyUnit.JPY));
+        assertEquals(0, totals.getAmountMinor(CurrencyUnit.EUR));
+        assertEquals(Money.of(CurrencyUnit.CAD, new BigDecimal("11.00")), totals.getMoney(CurrencyUnit.CAD));
+        assertEquals("CAD 11.00, USD 3.00, JPY 500", claim.getTotalsAsString());
+        assertTrue(totals == claim.getTotals());  // computed once
+    }
+
+    public void testTotalsNotAffectedByBuilder() {
+        final Claim.Builder builder = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().money(Money.ofMajor(CurrencyUnit.CAD, 1)).build());
+        final Claim claim = builder.build();
+        assertEquals("CAD 1.00", claim.getTotalsAsString());
+
+        builder.putExpense(new Expense.Builder().money(Money.ofMajor(CurrencyUnit.CAD, 1)).build());
+        assertEquals(1, claim.peekExpenses().size());
+        assertEquals("CAD 1.00", claim.getTotalsAsString());
+        assertTrue(new Claim.Builder(new User("name")).build().getTotals().isEmpty());
+    }
+    public void testEqualityAfterEditsInSameMillisecond() {
+        final Claim claim = new Claim.Builder(new User("name")).build();
+        final Claim edited = claim.edit()
+                .putExpense(new Expense.Builder().money(Money.ofMajor(CurrencyUnit.CAD, 1)).build())
+                .build();
+        final Claim reverted = edited.edit().removeExpense(edited.peekExpenses().get(0)).build();
+
+        assertTrue(claim.getModified() < edited.getModified());
+        assertEquals(claim.hashCode(), edited.hashCode());  // expenses are left out of the hash
+        assertFalse(claim.equals(edited));
+        assertEquals(claim, reverted);
+
+        final Gson gson = LocalSaver.getGson();
+        final Claim read = gson.fromJson(gson.toJson(edited), Claim.class);
+        assertEquals(edited.getModified(), read.getModified());
+        assertEquals(edited, read);
+        assertEquals(edited.hashCode(), read.hashCode());
+    }
+
+    public void testEqualityComparesExpensesOfSameStamp() {
+        // as from two devices, which may stamp different versions alike
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().money(Money.ofMajor(CurrencyUnit.CAD, 1)).build())
+                .build();
+        final Gson gson = LocalSaver.getGson();
+        final JsonObject json = gson.toJsonTree(claim).getAsJsonObject();
+        json.addProperty("mExpenses", "[]");
+        final Claim other = gson.fromJson(json, Claim.class);
+
+        assertEquals(claim.getModified(), other.getModified());
+        assertEquals(claim.hashCode(), other.hashCode());
+        assertFalse(claim.equals(other));
+    }
+}
@@ -0,0 +1,98 @@
+package com.cmput301.cs.project.models;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DateRangeIndexTest extends TestCase {
+
+    private User mUser;
+
+    @Override
+    protected void setUp() {
+        mUser = new User("name");
+    }
+
+    private Claim claim(long start, long end) {
+        return new Claim.Builder(mUser).startTime(start).endTime(end).build();
+    }
+
+    public void testCoveringAndOverlapping() {
+        final Claim march = claim(100, 200);
+        final Claim april = claim(300, 400);
+        final Claim spring = claim(150, 350);
+        final DateRangeIndex index = new DateRangeIndex();
+        index.sync(Arrays.asList(april, march, spring));
+
+        assertEquals(Arrays.asList(march, spring), index.findCovering(150));
+        assertEquals(Arrays.asList(march), index.findCovering(100));  // inclusive
+        assertEquals(Arrays.asList(april), index.findCovering(400));
+        assertTrue(index.findCovering(99).isEmpty());
+        assertEquals(Arrays.asList(spring, april), index.findOverlapping(201, 300));
+        assertEquals(Arrays.asList(march, spring, april), index.findOverlapping(0, 1000));
+    }
+
+    public void testSkipsUndatedAndDeleted() {
+        final Claim undated = new Claim.Builder(mUser).startTime(100).build();
+        final Claim deleted = claim(100, 200).edit().delete().build();
+        final DateRangeIndex index = new DateRangeIndex();
+        index.sync(Arrays.asList(undated, deleted));
+
+        assertEquals(0, index.size());
+        assertTrue(index.findCovering(150).isEmpty());
+    }
+
+    public void testSync() {
+        final Claim claim = claim(100, 200);
+        final DateRangeIndex index = new DateRangeIndex();
+        index.sync(Arrays.asList(claim));
+        assertEquals(1, index.findCovering(150).size());
+
+        final Claim moved = claim.edit().endTime(500).startTime(400).build();
+        index.sync(Arrays.asList(moved));
+        assertTrue(index.findCovering(150).isEmpty());
+        assertEquals(Arrays.asList(moved), index.findCovering(450));
+
+        index.sync(new ArrayList<Claim>());
+        assertTrue(index.findCovering(450).isEmpty());
+    }
+
+    public void testBadRange() {
+        try {
+            new DateRangeIndex().findOverlapping(2, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMatchesScan() {
+        final Random random = new Random(42);
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 500; i++) {
+            final long start = random.nextInt(10000);
+            claims.add(claim(start, start + random.nextInt(random.nextBoolean() ? 50 : 2000)));
+        }
+        final DateRangeIndex index = new DateRangeIndex();
+        index.sync(claims);
+
+        for (int query = 0; query < 200; query++) {
+            final long start = random.nextInt(11000);
+            final long end = start + random.nextInt(300);
+            int expected = 0;
+            for (Claim claim : claims) {
+                if (claim.getStartTime() <= end && claim.getEndTime() >= start) {
+                    expected += 1;
+                }
+            }
+
+            final List<Claim> found = index.findOverlapping(start, end);
+            assertEquals(expected, found.size());
+            for (int i = 1; i < found.size(); i++) {
+                assertTrue(found.get(i - 1).getStartTime() <= found.get(i).getStartTime());
+            }
+        }
+    }
+}
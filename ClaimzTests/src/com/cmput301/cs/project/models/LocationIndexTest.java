@@ -0,0 +1,161 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.GeoUtils;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class LocationIndexTest extends TestCase {
+
+    private static final LatLng CALGARY = new LatLng(51.0447, -114.0719);
+    private static final LatLng AIRDRIE = new LatLng(51.2917, -114.0144);
+    private static final LatLng VANCOUVER = new LatLng(49.2827, -123.1207);
+
+    private User mUser;
+
+    @Override
+    protected void setUp() {
+        mUser = new User("name");
+    }
+
+    private static Destination at(LatLng location) {
+        return new Destination.Builder("place", null).location(location).build();
+    }
+
+    private Claim visiting(LatLng... locations) {
+        final Claim.Builder builder = new Claim.Builder(mUser);
+        for (int i = 0; i < locations.length; i++) {
+            builder.putDestination(new Destination.Builder("place " + i, null).location(locations[i]).build());
+        }
+        return builder.build();
+    }
+
+    public void testFindWithin() {
+        final Expense taxi = new Expense.Builder().destination(at(AIRDRIE)).build();
+        final Claim calgary = visiting(CALGARY).edit().putExpense(taxi).build();
+        final Claim vancouver = visiting(VANCOUVER);
+        final LocationIndex index = new LocationIndex();
+        index.sync(Arrays.asList(calgary, vancouver));
+        assertEquals(3, index.size());
+
+        final List<LocationIndex.Place> near = index.findWithin(CALGARY, 50000);
+        assertEquals(2, near.size());
+        assertNull(near.get(0).getExpenseId());  // nearest first
+        assertEquals(taxi.getId(), near.get(1).getExpenseId());
+        assertEquals(calgary.getId(), near.get(1).getClaimId());
+
+        assertEquals(1, index.findWithin(CALGARY, 1000).size());
+        assertEquals(3, index.findWithin(CALGARY, 1000000).size());
+    }
+
+    public void testFindInside() {
+        final LocationIndex index = new LocationIndex();
+        index.sync(Arrays.asList(visiting(CALGARY, VANCOUVER), visiting(new LatLng(0, 179.9), new LatLng(0, -179.9))));
+
+        assertEquals(1, index.findInside(new LatLngBounds(new LatLng(49, -120), new LatLng(60, -110))).size());
+        assertEquals(2, index.findInside(new LatLngBounds(new LatLng(-1, 179), new LatLng(1, -179))).size());
+        assertEquals(4, index.findInside(new LatLngBounds(new LatLng(-90, -180), new LatLng(90, 180))).size());
+    }
+
+    public void testSync() {
+        final Claim claim = visiting(CALGARY);
+        final LocationIndex index = new LocationIndex();
+        index.sync(Arrays.asList(claim));
+        assertEquals(1, index.findWithin(CALGARY, 10).size());
+
+        final Claim.Builder builder = claim.edit();
+        builder.removeDestination(claim.getDestinations().get(0));
+        final Claim moved = builder.putDestination(at(VANCOUVER)).build();
+        index.sync(Arrays.asList(moved));
+        assertTrue(index.findWithin(CALGARY, 10).isEmpty());
+        assertEquals(1, index.findWithin(VANCOUVER, 10).size());
+
+        index.sync(Arrays.asList(moved.edit().delete().build()));
+        assertEquals(0, index.size());
+    }
+
+    public void testCompleteName() {
+        final Destination calgary = new Destination.Builder("Calgary", null).location(CALGARY).build();
+        final Destination canmore = new Destination.Builder("Canmore", null).location(AIRDRIE).build();
+        final Claim first = new Claim.Builder(mUser).putDestination(calgary).build();
+        final Claim second = new Claim.Builder(mUser).putDestination(calgary).putDestination(canmore).build();
+        final Claim unlocated = new Claim.Builder(mUser).putDestination(new Destination.Builder("Camrose", null).build()).build();
+        final LocationIndex index = new LocationIndex();
+        index.sync(Arrays.asList(first, second, unlocated));
+
+        final List<LocationIndex.Place> places = index.completeName("  CA", 10);
+        assertEquals(2, places.size());  // Camrose has no location
+        assertEquals("Calgary", places.get(0).getDestination().getName());  // visited twice
+        assertEquals("Canmore", places.get(1).getDestination().getName());
+        assertEquals(1, index.completeName("ca", 1).size());
+        assertTrue(index.completeName("edm", 10).isEmpty());
+
+        index.sync(Arrays.asList(first, unlocated));
+        assertEquals(1, index.completeName("ca", 10).size());
+        assertEquals(first.getId(), index.completeName("cal", 10).get(0).getClaimId());
+        index.sync(Arrays.asList(unlocated));
+        assertTrue(index.completeName("", 10).isEmpty());
+    }
+
+    public void testMatchesScan() {
+        final Random random = new Random(42);
+        final List<LatLng> locations = new ArrayList<LatLng>();
+        for (int i = 0; i < 2000; i++) {
+            locations.add(new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        // crowd some near the poles and the 180th meridian
+        for (int i = 0; i < 200; i++) {
+            locations.add(new LatLng(89 + random.nextDouble(), random.nextDouble() * 360 - 180));
+            locations.add(new LatLng(random.nextDouble() * 10, 179.5 + random.nextDouble() * 0.5));
+        }
+        final LocationIndex index = new LocationIndex();
+        index.sync(Arrays.asList(visiting(locations.toArray(new LatLng[locations.size()]))));
+
+        final LatLng[] centres = {new LatLng(0, 0), new LatLng(5, 179.9), new LatLng(5, -179.9),
+                new LatLng(89.5, 10), new LatLng(-89.9, 0), CALGARY};
+        final double[] radii = {0, 10000, 200000, 2000000, 20000000};
+        for (LatLng centre : centres) {
+            for (double radius : radii) {
+                int expected = 0;
+                for (LatLng location : locations) {
+                    if (GeoUtils.distanceBetween(centre, location) <= radius) {
+                        expected += 1;
+                    }
+                }
+
+                final List<LocationIndex.Place> found = index.findWithin(centre, radius);
+                assertEquals(centre + " " + radius, expected, found.size());
+                for (int i = 1; i < found.size(); i++) {
+                    assertTrue(GeoUtils.distanceBetween(centre, found.get(i - 1).getDestination().getLocation())
+                            <= GeoUtils.distanceBetween(centre, found.get(i).getDestination().getLocation()));
+                }
+            }
+        }
+    }
+
+    public void testMatchesScanAsIndexGrows() {
+        final Random random = new Random(42);
+        final LocationIndex index = new LocationIndex();
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int size = 1000; size <= 100000; size *= 10) {
+            while (claims.size() < size) {
+                // spread over North America, where most trips are
+                claims.add(visiting(new LatLng(25 + random.nextDouble() * 35, -125 + random.nextDouble() * 55)));
+            }
+            index.sync(claims);
+
+            int scanned = 0;
+            for (Claim claim : claims) {
+                if (GeoUtils.distanceBetween(CALGARY, claim.getDestinations().get(0).getLocation()) <= 50000) {
+                    scanned += 1;
+                }
+            }
+            assertEquals(size + " places", scanned, index.findWithin(CALGARY, 50000).size());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cmput301.cs.project.models;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PredictionCacheTest extends TestCase {
+
+    private static final LatLngBounds CALGARY = new LatLngBounds(new LatLng(50.9, -114.3), new LatLng(51.2, -113.9));
+    private static final LatLngBounds CALGARY_PANNED = new LatLngBounds(new LatLng(50.92, -114.28), new LatLng(51.18, -113.92));
+    private static final LatLngBounds TORONTO = new LatLngBounds(new LatLng(43.6, -79.5), new LatLng(43.8, -79.2));
+
+    private static List<PlacePrediction> predictions(String... descriptions) {
+        final PlacePrediction[] predictions = new PlacePrediction[descriptions.length];
+        for (int i = 0; i < descriptions.length; i++) {
+            predictions[i] = PlacePrediction.ofPlace("id " + descriptions[i], descriptions[i]);
+        }
+        return Arrays.asList(predictions);
+    }
+
+    public void testKeys() {
+        assertEquals(PredictionCache.keyOf("  Main  St", CALGARY), PredictionCache.keyOf("main st", CALGARY_PANNED));
+        assertFalse(PredictionCache.keyOf("main st", CALGARY).equals(PredictionCache.keyOf("main st", TORONTO)));
+        assertFalse(PredictionCache.keyOf("main st", CALGARY).equals(PredictionCache.keyOf("main st", null)));
+        assertFalse(PredictionCache.keyOf("main", null).equals(PredictionCache.keyOf("main st", null)));
+    }
+
+    public void testGetAndPut() {
+        final PredictionCache cache = new PredictionCache(10);
+        assertNull(cache.get("main", CALGARY));
+
+        cache.put("Main", CALGARY, predictions("Main St SW", "Main St NE"));
+        assertEquals("Main St SW", cache.get("main ", CALGARY_PANNED).get(0).getDescription());
+        assertNull(cache.get("main", TORONTO));
+
+        cache.put("nowhere", CALGARY, Collections.<PlacePrediction>emptyList());
+        assertTrue(cache.get("nowhere", CALGARY).isEmpty());  // known to have none, unlike null
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        final PredictionCache cache = new PredictionCache(2);
+        cache.put("a", null, predictions("A"));
+        cache.put("b", null, predictions("B"));
+        cache.get("a", null);
+        cache.put("c", null, predictions("C"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a", null));
+        assertNull(cache.get("b", null));
+        assertNotNull(cache.get("c", null));
+    }
+
+    public void testRestoresEntries() {
+        final PredictionCache cache = new PredictionCache(10);
+        cache.put("a", CALGARY, predictions("A"));
+        cache.put("b", CALGARY, predictions("B"));
+        cache.get("a", CALGARY);
+
+        final PredictionCache restored = PredictionCache.of(cache.peekEntries());
+        assertEquals(2, restored.size());
+        assertEquals("A", restored.get("a", CALGARY).get(0).getDescription());
+        assertEquals("id B", restored.get("b", CALGARY).get(0).getPlaceId());
+        assertEquals(PredictionCache.DEFAULT_CAPACITY, restored.getCapacity());
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new PredictionCache(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.cmput301.cs.project.models;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ReceiptIndexTest extends TestCase {
+
+    private static final User USER = new User("name");
+
+    private static Receipt receipt(long hash) {
+        return Receipt.ofBytes(new byte[]{1, 2, 3}, hash);
+    }
+
+    private static Claim claimWith(Receipt... receipts) {
+        final Claim.Builder builder = new Claim.Builder(USER);
+        for (Receipt receipt : receipts) {
+            builder.putExpense(new Expense.Builder().receipt(receipt).build());
+        }
+        return builder.build();
+    }
+
+    public void testFindsNearDuplicatesAcrossClaims() {
+        final Claim first = claimWith(receipt(0xF0F0F0F0F0F0F0F0L));
+        final Claim second = claimWith(receipt(0xF0F0F0F0F0F0F0F3L), receipt(0x0F0F0F0F0F0F0F0FL));
+        final ReceiptIndex index = new ReceiptIndex();
+        index.sync(Arrays.asList(first, second));
+        assertEquals(3, index.size());
+
+        final Expense expense = first.peekExpenses().get(0);
+        final List<ReceiptIndex.Match> matches = index.find(expense.getReceipt(), expense.getId());
+        assertEquals(1, matches.size());
+        assertEquals(second.getId(), matches.get(0).getClaimId());
+        assertEquals(second.peekExpenses().get(0).getId(), matches.get(0).getExpenseId());
+        assertEquals(2, matches.get(0).getDistance());
+    }
+
+    public void testFindsUpToMaxDistance() {
+        final long hash = 0x0123456789ABCDEFL;
+        // MAX_DISTANCE bits flipped, one per byte, is still found
+        long far = hash;
+        for (int i = 0; i < ReceiptIndex.MAX_DISTANCE; i++) {
+            far ^= 1L << (i * 8);
+        }
+        final ReceiptIndex index = new ReceiptIndex();
+        index.sync(Collections.singletonList(claimWith(receipt(far), receipt(far ^ 1L << 60))));
+
+        final List<ReceiptIndex.Match> matches = index.find(receipt(hash), null);
+        assertEquals(1, matches.size());
+        assertEquals(ReceiptIndex.MAX_DISTANCE, matches.get(0).getDistance());
+    }
+
+    public void testSyncRemovesClaims() {
+        final Claim claim = claimWith(receipt(42));
+        final ReceiptIndex index = new ReceiptIndex();
+        index.sync(Collections.singletonList(claim));
+        assertEquals(1, index.find(receipt(42), null).size());
+
+        index.sync(Collections.singletonList(claim.edit().delete().build()));
+        assertEquals(0, index.find(receipt(42), null).size());
+        index.sync(Collections.<Claim>emptyList());
+        assertEquals(0, index.size());
+    }
+
+    public void testFindsAmongManyClaims() {
+        final Random random = new Random(301);
+        final Claim[] claims = new Claim[2000];
+        for (int i = 0; i < claims.length; i++) {
+            claims[i] = claimWith(receipt(random.nextLong()), receipt(random.nextLong()),
+                    receipt(random.nextLong()), receipt(random.nextLong()), receipt(random.nextLong()));
+        }
+        final ReceiptIndex index = new ReceiptIndex();
+        index.sync(Arrays.asList(claims));
+        assertEquals(5 * claims.length, index.size());
+
+        for (int i = 0; i < claims.length; i += 20) {
+            final Expense expense = claims[i].peekExpenses().get(i % 5);
+            final List<ReceiptIndex.Match> matches = index.find(expense.getReceipt(), null);
+            assertEquals(1, matches.size());
+            assertEquals(claims[i].getId(), matches.get(0).getClaimId());
+            assertEquals(0, matches.get(0).getDistance());
+            // random hashes are far apart
+            assertTrue(index.find(expense.getReceipt(), expense.getId()).isEmpty());
+        }
+    }
+}
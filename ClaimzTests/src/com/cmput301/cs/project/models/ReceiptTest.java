@@ -1,5 +1,8 @@
 package com.cmput301.cs.project.models;
 
+import com.cmput301.cs.project.serialization.LocalSaver;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import junit.framework.TestCase;
 
 public class ReceiptTest extends TestCase {
@@ -26,6 +29,37 @@ public class ReceiptTest extends TestCase {
         }
     }
 
+    public void testBytesLimit() {
+        assertEquals(Receipt.MAX_BYTES, Receipt.ofBytes(new byte[Receipt.MAX_BYTES]).getSize());
+        assertTrue(Receipt.ofBytes(new byte[Receipt.MAX_BYTES]).toBase64().length() <= Receipt.MAX_FILE_SIZE);
+        try {
+            Receipt.ofBytes(new byte[Receipt.MAX_BYTES + 1]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Success
+        }
+    }
+
+    public void testSavedAsBase64() {
+        final byte[] bytes = {(byte) 0xff, (byte) 0xd8, 1, 2, 3};
+        final Expense expense = new Expense.Builder().receipt(Receipt.ofBytes(bytes)).build();
+        final Gson gson = LocalSaver.getGson();
+
+        final JsonObject json = gson.toJsonTree(expense).getAsJsonObject();
+        assertEquals("/9gBAgM=", json.getAsJsonObject("mReceipt").get("mBase64String").getAsString());
+
+        final Receipt read = gson.fromJson(json, Expense.class).getReceipt();
+        assertEquals(bytes.length, read.getSize());
+        assertEquals("/9gBAgM=", read.toBase64());
+        assertEquals(5, new Receipt("/9gBAgM=").getSize());
+    }
+
+    public void testSampleSize() {
+        assertEquals(1, Receipt.sampleSizeFor(1024, 768, 1024, 768));
+        assertEquals(4, Receipt.sampleSizeFor(1024, 768, 160, 160));
+        assertEquals(2, Receipt.sampleSizeFor(1024, 768, 300, 300));  // keeps at least 300px
+        assertEquals(1, Receipt.sampleSizeFor(1024, 768, 0, 0));
+    }
 
     private String generateSmallImage() {
         byte bytes[] = new byte[Receipt.MAX_FILE_SIZE];
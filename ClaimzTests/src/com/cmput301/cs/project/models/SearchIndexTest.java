@@ -0,0 +1,170 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.utils.MockSaves;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class SearchIndexTest extends TestCase {
+
+    private User mUser;
+    private User mApprover;
+
+    @Override
+    protected void setUp() {
+        mUser = new User("name");
+        mApprover = new User("approver");
+    }
+
+    private Claim trip(String destination, String reason, Expense... expenses) {
+        final Claim.Builder builder = new Claim.Builder(mUser)
+                .putDestination(new Destination.Builder(destination, reason).build());
+        for (Expense expense : expenses) {
+            builder.putExpense(expense);
+        }
+        return builder.build();
+    }
+
+    private static Expense expense(String description, String category) {
+        return new Expense.Builder().description(description).category(category).build();
+    }
+
+    private static List<String> claimIds(List<SearchIndex.Hit> hits) {
+        final List<String> ids = new ArrayList<String>();
+        for (SearchIndex.Hit hit : hits) {
+            ids.add(hit.getClaimId());
+        }
+        return ids;
+    }
+
+    public void testTokenize() {
+        assertEquals(Arrays.asList("calgary", "hotel", "2", "nights"),
+                SearchIndex.tokenize("Calgary hotel -- 2 nights!"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+        assertTrue(SearchIndex.tokenize(" ,. ").isEmpty());
+    }
+
+    public void testFindsClaimsAndExpenses() {
+        final Expense hotel = expense("Marriott downtown", "Accomodation");
+        final Claim calgary = trip("Calgary", "Client visit", hotel, expense("Taxi", "Ground Transport"));
+        final Claim toronto = trip("Toronto", "Conference", expense("Hilton", "Accomodation"));
+        final SearchIndex index = new SearchIndex();
+        index.sync(Arrays.asList(calgary, toronto));
+
+        final List<SearchIndex.Hit> hits = index.search("calgary marriott", 10);
+        assertEquals(1, hits.size());
+        assertEquals(calgary.getId(), hits.get(0).getClaimId());
+        assertEquals(hotel.getId(), hits.get(0).getExpenseId());
+
+        assertEquals(Arrays.asList(toronto.getId()), claimIds(index.search("conference", 10)));
+        assertTrue(index.search("calgary hilton", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    public void testCommentsAndTags() {
+        final Claim claim = trip("Edmonton", null).edit()
+                .submitClaim()
+                .returnClaim(mApprover, new Comment("Missing receipts", mApprover))
+                .addTag(TagsManager.ofClaimSaves(new MockSaves()).getTagByName("Quarterly Review"))
+                .build();
+        final SearchIndex index = new SearchIndex();
+        index.sync(Arrays.asList(claim));
+
+        assertEquals(1, index.search("receipts", 10).size());
+        assertEquals(1, index.search("quarterly", 10).size());
+        assertNull(index.search("quarterly", 10).get(0).getExpenseId());
+    }
+
+    public void testPrefixRanksBelowExact() {
+        final Claim exact = trip("Banff", "Ski");
+        final Claim prefixed = trip("Banff", "Skiing");
+        final SearchIndex index = new SearchIndex();
+        index.sync(Arrays.asList(prefixed, exact));
+
+        final List<SearchIndex.Hit> hits = index.search("ski", 10);
+        assertEquals(Arrays.asList(exact.getId(), prefixed.getId()), claimIds(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    public void testRareTermsRankHigher() {
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 10; i++) {
+            claims.add(trip("Vancouver", "Meeting"));
+        }
+        final Claim rare = trip("Vancouver", "Audit");
+        claims.add(rare);
+        final SearchIndex index = new SearchIndex();
+        index.sync(claims);
+
+        final List<SearchIndex.Hit> hits = index.search("vancouver audit", 1);
+        assertEquals(Arrays.asList(rare.getId()), claimIds(hits));
+    }
+
+    public void testSyncOnlyReindexesChanges() {
+        final Claim calgary = trip("Calgary", null);
+        final Claim toronto = trip("Toronto", null);
+        final SearchIndex index = new SearchIndex();
+        assertTrue(index.sync(Arrays.asList(calgary, toronto)));
+        assertFalse(index.sync(Arrays.asList(calgary, toronto)));
+
+        final Claim edited = calgary.edit().putDestination(new Destination.Builder("Red Deer", null).build()).build();
+        assertTrue(index.sync(Arrays.asList(edited, toronto)));
+        assertEquals(1, index.search("red deer", 10).size());
+
+        assertTrue(index.sync(Arrays.asList(edited, toronto.edit().delete().build())));
+        assertTrue(index.search("toronto", 10).isEmpty());
+        assertTrue(index.sync(Arrays.asList(edited)));
+        assertEquals(1, index.size());
+    }
+
+    public void testRestoresDocuments() {
+        final Claim calgary = trip("Calgary", "Client visit", expense("Marriott", "Accomodation"));
+        final SearchIndex index = new SearchIndex();
+        index.sync(Arrays.asList(calgary));
+
+        final SearchIndex restored = SearchIndex.of(index.peekDocuments());
+        assertEquals(index.size(), restored.size());
+        assertFalse(restored.sync(Arrays.asList(calgary)));  // nothing is tokenized again
+        assertEquals(index.search("calgary", 10).size(), restored.search("calgary", 10).size());
+        assertEquals(index.search("marr", 10).get(0).getScore(), restored.search("marr", 10).get(0).getScore());
+    }
+
+    public void testSearchAmongManyDocuments() {
+        final String[] places = {"Calgary", "Toronto", "Vancouver", "Edmonton", "Montreal", "Ottawa", "Halifax"};
+        final String[] descriptions = {"Hotel", "Taxi to airport", "Dinner with client", "Conference fee",
+                "Rental car", "Parking", "Flight"};
+        final String[] categories = Expense.CATEGORIES.toArray(new String[Expense.CATEGORIES.size()]);
+        final Random random = new Random(42);
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 10000; i++) {
+            final Expense[] expenses = new Expense[10];
+            for (int j = 0; j < expenses.length; j++) {
+                expenses[j] = expense(descriptions[random.nextInt(descriptions.length)] + " " + i,
+                        categories[random.nextInt(categories.length)]);
+            }
+            claims.add(trip(places[random.nextInt(places.length)], "Trip " + i, expenses));
+        }
+        final SearchIndex index = new SearchIndex();
+        index.sync(claims);
+        assertEquals(110000, index.size());
+
+        final Map<String, Claim> claimsById = new HashMap<String, Claim>();
+        for (Claim claim : claims) {
+            claimsById.put(claim.getId(), claim);
+        }
+        final List<SearchIndex.Hit> hits = index.search("calgary hot", 20);
+        assertEquals(20, hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            final Claim claim = claimsById.get(hits.get(i).getClaimId());
+            assertEquals("Calgary", claim.getDestinations().get(0).getName());
+            assertTrue(claim.getExpense(hits.get(i).getExpenseId()).getDescription().startsWith("Hotel"));
+            if (i > 0) assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.utils.MockSaves;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TagQueryTest extends TestCase {
+
+    private TagsManager mManager;
+    private User mUser;
+
+    @Override
+    protected void setUp() {
+        mManager = TagsManager.ofClaimSaves(new MockSaves());
+        mUser = new User("name");
+    }
+
+    private Claim claimWith(String... tags) {
+        final Claim.Builder builder = new Claim.Builder(mUser);
+        for (String tag : tags) {
+            builder.addTag(mManager.getTagByName(tag));
+        }
+        return builder.build();
+    }
+
+    public void testToString() {
+        assertEquals("travel AND (conference OR client) AND NOT personal",
+                TagQuery.parse("travel and (conference OR client) NOT personal").toString());
+        assertEquals("a OR b AND c", TagQuery.parse("a OR (b AND c)").toString());
+        assertEquals("NOT (a OR b)", TagQuery.parse("not(a or b)").toString());
+        assertEquals("\"client visit\" OR \"and\"", TagQuery.parse("\"Client Visit\" OR \"and\"").toString());
+        assertEquals("", TagQuery.parse("  ").toString());
+        assertSame(TagQuery.ALL, TagQuery.parse(""));
+    }
+
+    public void testMalformed() {
+        for (String query : new String[]{"a AND", "(a OR b", "a)", "OR a", "NOT", "\"a", "()"}) {
+            try {
+                TagQuery.parse(query);
+                fail(query);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testSelect() {
+        final Claim both = claimWith("travel", "conference");
+        final Claim personal = claimWith("travel", "client", "personal");
+        final Claim client = claimWith("Travel", "client");
+        final Claim none = claimWith();
+        final Claim deleted = claimWith("travel").edit().delete().build();
+        final TagIndex index = new TagIndex();
+        index.sync(Arrays.asList(both, personal, client, none, deleted));
+
+        final ClaimSelection selection = index.select(TagQuery.parse("travel AND (conference OR client) AND NOT personal"));
+        assertEquals(2, selection.size());
+        assertTrue(selection.contains(both));
+        assertTrue(selection.contains(client));
+        assertFalse(selection.contains(personal));
+
+        assertEquals(4, index.select(TagQuery.ALL).size());
+        assertEquals(1, index.select(TagQuery.parse("NOT travel")).size());
+        assertTrue(index.select(TagQuery.parse("NOT travel")).contains(none));
+    }
+
+    public void testSyncUpdatesPostings() {
+        final Claim claim = claimWith("old");
+        final TagIndex index = new TagIndex();
+        index.sync(Arrays.asList(claim));
+        final ClaimSelection before = index.select(TagQuery.parse("old"));
+
+        final Tag old = mManager.findTagByName("old");
+        final Claim renamed = claim.edit().removeTag(old).addTag(mManager.renameTag(old, "new")).build();
+        index.sync(Arrays.asList(renamed));
+        assertEquals(0, index.select(TagQuery.parse("old")).size());
+        assertTrue(index.select(TagQuery.parse("new")).contains(renamed));
+        assertEquals(1, before.size());  // selections do not change
+    }
+
+    public void testOfSelection() {
+        final List<Tag> tags = Arrays.asList(mManager.getTagByName("a"), mManager.getTagByName("b"));
+        assertEquals("a OR b", TagQuery.of(TagQuery.Mode.ANY, tags).toString());
+        assertEquals("a AND b", TagQuery.of(TagQuery.Mode.ALL, tags).toString());
+        assertEquals("NOT (a OR b)", TagQuery.of(TagQuery.Mode.NONE, tags).toString());
+        assertSame(TagQuery.ALL, TagQuery.of(TagQuery.Mode.NONE, new ArrayList<Tag>()));
+    }
+
+    public void testSelectBySelection() {
+        final Claim both = claimWith("food", "travel");
+        final Claim foodOnly = claimWith("food");
+        final Claim untagged = claimWith();
+        final TagIndex index = new TagIndex();
+        index.sync(Arrays.asList(both, foodOnly, untagged));
+        final List<Tag> tags = Arrays.asList(mManager.findTagByName("food"), mManager.findTagByName("travel"));
+
+        final ClaimSelection any = index.select(TagQuery.of(TagQuery.Mode.ANY, tags));
+        assertEquals(2, any.size());
+        assertFalse(any.contains(untagged));
+        final ClaimSelection all = index.select(TagQuery.of(TagQuery.Mode.ALL, tags));
+        assertEquals(1, all.size());
+        assertTrue(all.contains(both));
+        final ClaimSelection none = index.select(TagQuery.of(TagQuery.Mode.NONE, tags.subList(1, 2)));
+        assertEquals(2, none.size());
+        assertFalse(none.contains(both));
+    }
+
+    public void testSelectMatchesScan() {
+        final String[] names = {"travel", "conference", "client", "personal"};
+        final Random random = new Random(301);
+        final List<Claim> claims = new ArrayList<Claim>();
+        for (int i = 0; i < 5000; i++) {
+            final List<String> tags = new ArrayList<String>();
+            for (String name : names) {
+                if (random.nextInt(2) == 0) tags.add(name);
+            }
+            claims.add(claimWith(tags.toArray(new String[tags.size()])));
+        }
+        final TagIndex index = new TagIndex();
+        index.sync(claims);
+
+        final ClaimSelection selection = index.select(TagQuery.parse("travel AND (conference OR client) AND NOT personal"));
+        int expected = 0;
+        for (Claim claim : claims) {
+            final boolean matches = has(claim, "travel") && (has(claim, "conference") || has(claim, "client"))
+                    && !has(claim, "personal");
+            assertEquals(matches, selection.contains(claim));
+            if (matches) expected += 1;
+        }
+        assertEquals(expected, selection.size());
+    }
+
+    private static boolean has(Claim claim, String name) {
+        for (Tag tag : claim.peekTags()) {
+            if (tag.getName().equals(name)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.utils.MockSaves;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TagStatisticsTest extends TestCase {
+
+    private TagStatistics mStatistics;
+    private TagsManager mManager;
+    private User mUser;
+
+    @Override
+    protected void setUp() {
+        mStatistics = new TagStatistics();
+        mManager = TagsManager.ofClaimSaves(new MockSaves());
+        mUser = new User("name");
+    }
+
+    private Claim claimWith(String... names) {
+        final Claim.Builder builder = new Claim.Builder(mUser);
+        for (String name : names) {
+            builder.addTag(mManager.getTagByName(name));
+        }
+        return builder.build();
+    }
+
+    public void testCounts() {
+        mStatistics.onClaimAdded(claimWith("food", "travel"));
+        mStatistics.onClaimAdded(claimWith("Food", "hotel", "travel"));
+        mStatistics.onClaimAdded(claimWith("hotel"));
+
+        assertEquals(2, mStatistics.getUsage("FOOD"));
+        assertEquals(2, mStatistics.getUsage("hotel"));
+        assertEquals(0, mStatistics.getUsage("none"));
+        assertEquals(2, mStatistics.getCooccurrence("food", "travel"));
+        assertEquals(1, mStatistics.getCooccurrence("travel", "hotel"));
+        assertEquals(0, mStatistics.getCooccurrence("food", "food"));
+        assertEquals(Arrays.asList("food", "hotel", "travel"), mStatistics.findMostUsed(5));
+    }
+
+    public void testEditAndDelete() {
+        final Claim claim = claimWith("food", "travel");
+        mStatistics.onClaimAdded(claim);
+
+        final Claim edited = claim.edit().removeTag(mManager.getTagByName("food")).addTag(mManager.getTagByName("hotel")).build();
+        mStatistics.onClaimAdded(edited);  // replaces the claim with the same id
+        assertEquals(0, mStatistics.getUsage("food"));
+        assertEquals(1, mStatistics.getCooccurrence("hotel", "travel"));
+        assertEquals(0, mStatistics.getCooccurrence("food", "travel"));
+
+        mStatistics.onClaimRemoved(claim);
+        assertEquals(0, mStatistics.getUsage("travel"));
+        assertTrue(mStatistics.findMostUsed(5).isEmpty());
+        assertTrue(mStatistics.findCooccurring(Collections.singleton("hotel"), 5).isEmpty());
+
+        mStatistics.onClaimAdded(edited.edit().delete().build());
+        assertEquals(0, mStatistics.getUsage("hotel"));
+    }
+
+    public void testCooccurring() {
+        mStatistics.onClaimAdded(claimWith("food", "travel", "hotel"));
+        mStatistics.onClaimAdded(claimWith("food", "travel"));
+        mStatistics.onClaimAdded(claimWith("food", "gas"));
+        mStatistics.onClaimAdded(claimWith("travel", "gas"));
+
+        assertEquals(Arrays.asList("travel", "gas", "hotel"),
+                mStatistics.findCooccurring(Collections.singleton("food"), 5));
+        // gas: 1 and 1, hotel: 1 and 1; ties by name
+        assertEquals(Arrays.asList("gas", "hotel"), mStatistics.findCooccurring(Arrays.asList("food", "travel"), 5));
+        assertEquals(Arrays.asList("gas"), mStatistics.findCooccurring(Arrays.asList("food", "travel"), 1));
+
+        // coffee occurs most with food, but never with travel
+        mStatistics.onClaimAdded(claimWith("food", "coffee"));
+        mStatistics.onClaimAdded(claimWith("food", "coffee"));
+        mStatistics.onClaimAdded(claimWith("food", "coffee"));
+        assertEquals("coffee", mStatistics.findCooccurring(Collections.singleton("food"), 1).get(0));
+        assertEquals(Arrays.asList("gas", "hotel"), mStatistics.findCooccurring(Arrays.asList("food", "travel"), 5));
+        assertTrue(mStatistics.findCooccurring(Arrays.asList("food", "nothing"), 5).isEmpty());
+    }
+
+    public void testSuggestions() {
+        final Tag food = mManager.getTagByName("food");
+        final Tag travel = mManager.getTagByName("travel");
+        mManager.onClaimAdded(claimWith("food", "travel"));
+        mManager.onClaimAdded(claimWith("food", "travel", "elsewhere"));
+        mManager.deleteTagByName("elsewhere");  // another claimant's tag, not here
+
+        assertEquals(2, mManager.getUsage(food));
+        assertEquals(Arrays.asList(travel), mManager.findCooccurringTags(Collections.singleton(food), 5));
+    }
+}
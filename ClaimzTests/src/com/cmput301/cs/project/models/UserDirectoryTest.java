@@ -0,0 +1,43 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.MockSaves;
+import junit.framework.TestCase;
+
+import java.util.Collections;
+
+public class UserDirectoryTest extends TestCase {
+
+    private static final long NOW = 1428000000000L;
+
+    public void testTtl() {
+        final UserDirectory directory = UserDirectory.of(Collections.<UserDirectory.Entry>emptyList());
+        final User user = new User("name");
+        directory.put(user, NOW);
+
+        assertSame(user, directory.find("name", NOW + UserDirectory.TTL_MILLIS - 1));
+        assertNull(directory.find("name", NOW + UserDirectory.TTL_MILLIS));
+        assertSame(user, directory.findExpired("name"));
+        assertNull(directory.find("Name", NOW));
+        assertNull(directory.findExpired("other"));
+    }
+
+    public void testSaveAndRead() {
+        final MockSaves saves = new MockSaves();
+        final UserDirectory directory = saves.readUserDirectory();
+        assertTrue(directory.peekEntries().isEmpty());
+
+        final User user = new User("name");
+        directory.put(user, NOW);
+        assertTrue(saves.saveUserDirectory(directory));
+
+        final UserDirectory read = saves.readUserDirectory();
+        assertEquals(1, read.peekEntries().size());
+        assertEquals(user, read.find("name", NOW));
+        assertEquals(NOW, read.peekEntries().iterator().next().getVerified());
+    }
+
+    public void testNameBasedIds() {
+        assertEquals(User.withNameBasedId("name"), User.withNameBasedId("name"));
+        assertFalse(User.withNameBasedId("name").getId().equals(User.withNameBasedId("Name").getId()));
+    }
+}
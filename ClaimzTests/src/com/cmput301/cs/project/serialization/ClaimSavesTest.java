@@ -5,6 +5,9 @@ import com.cmput301.cs.project.models.*;
 
 import com.cmput301.cs.project.serialization.LocalSaver;
 import com.cmput301.cs.project.utils.MockSaves;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
 import junit.framework.TestCase;
 import org.joda.money.CurrencyUnit;
 
@@ -280,4 +283,87 @@ public class ClaimSavesTest extends TestCase {
         assertEquals(0, claims1.get(0).peekTags().size());
     }
 
+    public void testListingDoesNotDecodeExpenses() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().amount(BigDecimal.TEN).currencyUnit(CurrencyUnit.CAD).completed(true).build())
+                .putExpense(new Expense.Builder().amount(BigDecimal.ONE).currencyUnit(CurrencyUnit.USD).completed(true).build())
+                .build();
+        final Gson gson = LocalSaver.getGson();
+        final JsonObject json = gson.toJsonTree(claim).getAsJsonObject();
+        assertTrue(json.get("mExpenses").isJsonPrimitive());  // saved as a segment
+        json.addProperty("mExpenses", "[1, 2]");  // an array, but not of expenses
+
+        final Claim read = gson.fromJson(json, Claim.class);
+        assertEquals("CAD 10.00, USD 1.00", read.getTotalsAsString());
+        assertTrue(read.isCompleted());
+        // decoded on access, and read as none rather than thrown
+        assertTrue(read.peekExpenses().isEmpty());
+        assertEquals("\"[1, 2]\"", gson.toJsonTree(read).getAsJsonObject().get("mExpenses").toString());
+    }
+
+    public void testEditingKeepsUndecodableExpenses() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().amount(BigDecimal.TEN).currencyUnit(CurrencyUnit.CAD).build())
+                .build();
+        final JsonObject json = LocalSaver.getGson().toJsonTree(claim).getAsJsonObject();
+        json.addProperty("mExpenses", "[1, 2]");
+        final Claim read = LocalSaver.getGson().fromJson(json, Claim.class);
+
+        final Claim edited = read.edit().submitClaim().build();
+        mClaimSaves.saveAllClaims(Collections.singleton(edited));
+        final Claim saved = mClaimSaves.readAllClaims().get(0);
+        assertEquals(Claim.Status.SUBMITTED, saved.getStatus());
+        assertEquals("CAD 10.00", saved.getTotalsAsString());
+        assertEquals("\"[1, 2]\"", LocalSaver.getGson().toJsonTree(saved).getAsJsonObject().get("mExpenses").toString());
+
+        try {
+            saved.edit().putExpense(new Expense.Builder().build());
+            fail("changing expenses that could not be read should lose them");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testMalformedExpensesFailOnRead() {
+        final JsonObject json = LocalSaver.getGson().toJsonTree(new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().amount(BigDecimal.TEN).build())
+                .build()).getAsJsonObject();
+        json.addProperty("mExpenses", "[{\"mAmount\": ");
+        try {
+            LocalSaver.getGson().fromJson(json, Claim.class);
+            fail("malformed expenses should fail with the file");
+        } catch (JsonSyntaxException e) {
+            // expected
+        }
+    }
+
+    public void testRemoteExpensesAreArrays() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().amount(BigDecimal.TEN).build())
+                .build();
+        mClaimSaves.saveAllClaims(Collections.singleton(claim));
+        final Claim read = mClaimSaves.readAllClaims().get(0);
+
+        // written from the undecoded segment
+        final JsonObject json = LocalSaver.getRemoteGson().toJsonTree(read).getAsJsonObject();
+        assertTrue(json.get("mExpenses").isJsonArray());
+
+        final Claim remote = LocalSaver.getRemoteGson().fromJson(json, Claim.class);
+        assertEquals(claim, remote);
+        assertEquals(claim.peekExpenses(), remote.peekExpenses());
+    }
+
+    public void testClaimsSavedWithoutSummary() {
+        final Claim claim = new Claim.Builder(new User("name"))
+                .putExpense(new Expense.Builder().amount(BigDecimal.TEN).currencyUnit(CurrencyUnit.CAD).build())
+                .build();
+        final Gson gson = LocalSaver.getGson();
+        final JsonObject json = gson.toJsonTree(claim).getAsJsonObject();
+        json.remove("mSummary");
+
+        final Claim read = gson.fromJson(json, Claim.class);
+        assertEquals("CAD 10.00", read.getTotalsAsString());
+        assertFalse(read.isCompleted());
+    }
+
 }
\ No newline at end of file
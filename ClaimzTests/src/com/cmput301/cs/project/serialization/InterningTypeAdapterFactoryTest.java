@@ -0,0 +1,101 @@
+package com.cmput301.cs.project.serialization;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.models.*;
+import com.cmput301.cs.project.utils.MockSaves;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import junit.framework.TestCase;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InterningTypeAdapterFactoryTest extends TestCase {
+
+    private static final Type CLAIMS_TYPE = new TypeToken<List<Claim>>() {
+    }.getType();
+
+    private static final int USERS = 30;
+    private static final int TAGS = 20;
+    private static final int DESTINATIONS = 40;
+    // claims i and i + REPEAT have the same user, tags and destination
+    private static final int REPEAT = 120;
+
+    public void testReadClaimsShareInstances() {
+        final Gson gson = LocalSaver.getGson();
+        final String json = gson.toJson(syntheticClaims(100), CLAIMS_TYPE);
+
+        final List<Claim> first = gson.fromJson(json, CLAIMS_TYPE);
+        final List<Claim> second = gson.fromJson(json, CLAIMS_TYPE);
+        for (int i = 0; i < first.size(); i++) {
+            final Claim a = first.get(i);
+            final Claim b = second.get(i);
+            assertNotSame(a, b);
+            assertEquals(a, b);
+            assertSame(a.getClaimant(), b.getClaimant());
+            assertSame(a.peekTags().first(), b.peekTags().first());
+            assertSame(a.peekDestinations().get(0), b.peekDestinations().get(0));
+        }
+        assertSame(first.get(0).getClaimant(), first.get(USERS).getClaimant());
+    }
+
+    public void testInternLatLng() {
+        final LatLng latLng = InterningTypeAdapterFactory.intern(new LatLng(53.5, -113.5));
+        assertSame(latLng, InterningTypeAdapterFactory.intern(new LatLng(53.5, -113.5)));
+        assertNull(InterningTypeAdapterFactory.intern((LatLng) null));
+    }
+
+    public void testInternsWithinOneRead() {
+        // expenses as arrays, which the plain Gson can read
+        final String json = LocalSaver.getRemoteGson().toJson(syntheticClaims(2 * REPEAT), CLAIMS_TYPE);
+        final Gson plain = new GsonBuilder()
+                .registerTypeAdapter(Expense.class, Expense.getInstanceCreator())
+                .registerTypeAdapter(Claim.class, Claim.getInstanceCreator())
+                .create();
+
+        final List<Claim> interned = LocalSaver.getGson().fromJson(json, CLAIMS_TYPE);
+        final List<Claim> notInterned = plain.fromJson(json, CLAIMS_TYPE);
+        for (int i = 0; i < REPEAT; i++) {
+            final Claim a = interned.get(i);
+            final Claim b = interned.get(i + REPEAT);
+            assertSame(a.getClaimant(), b.getClaimant());
+            assertSame(a.peekTags().first(), b.peekTags().first());
+            assertSame(a.peekTags().last(), b.peekTags().last());
+            assertSame(a.peekDestinations().get(0), b.peekDestinations().get(0));
+
+            assertEquals(notInterned.get(i), a);
+            assertNotSame(notInterned.get(i).getClaimant(), notInterned.get(i + REPEAT).getClaimant());
+        }
+    }
+
+    private static List<Claim> syntheticClaims(int count) {
+        final TagsManager manager = TagsManager.ofClaimSaves(new MockSaves());
+        final List<User> users = new ArrayList<User>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("user" + i));
+        }
+        final List<Tag> tags = new ArrayList<Tag>();
+        for (int i = 0; i < TAGS; i++) {
+            tags.add(manager.getTagByName("tag" + i));
+        }
+        final List<Destination> destinations = new ArrayList<Destination>();
+        for (int i = 0; i < DESTINATIONS; i++) {
+            destinations.add(new Destination.Builder("city" + i, "reason" + i)
+                    .location(new LatLng(50 + i, -110 - i))
+                    .build());
+        }
+
+        final List<Claim> claims = new ArrayList<Claim>(count);
+        for (int i = 0; i < count; i++) {
+            claims.add(new Claim.Builder(users.get(i % USERS))
+                    .addTag(tags.get(i % TAGS))
+                    .addTag(tags.get((i + 7) % TAGS))
+                    .putDestination(destinations.get(i % DESTINATIONS))
+                    .build());
+        }
+        return claims;
+    }
+}
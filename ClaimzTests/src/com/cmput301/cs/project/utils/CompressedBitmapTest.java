@@ -0,0 +1,79 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+public class CompressedBitmapTest extends TestCase {
+
+    private static int[] toArray(SortedSet<Integer> set) {
+        final int[] values = new int[set.size()];
+        int i = 0;
+        for (int value : set) {
+            values[i++] = value;
+        }
+        return values;
+    }
+
+    // sparse and dense chunks, across several chunks
+    private static void fill(Random random, CompressedBitmap bitmap, SortedSet<Integer> set, int count, int bound) {
+        for (int i = 0; i < count; i++) {
+            final int value = random.nextInt(bound);
+            assertEquals(set.add(value), bitmap.add(value));
+        }
+    }
+
+    public void testAddRemoveContains() {
+        final Random random = new Random(301);
+        final CompressedBitmap bitmap = new CompressedBitmap();
+        final SortedSet<Integer> set = new TreeSet<Integer>();
+        fill(random, bitmap, set, 20000, 70000);  // first chunk becomes a bitmap
+        fill(random, bitmap, set, 100, 1000000);
+        assertEquals(set.size(), bitmap.size());
+        assertTrue(Arrays.equals(toArray(set), bitmap.toArray()));
+
+        for (int i = 0; i < 30000; i++) {
+            final int value = random.nextInt(70000);
+            assertEquals(set.remove(value), bitmap.remove(value));
+        }
+        assertTrue(Arrays.equals(toArray(set), bitmap.toArray()));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.contains(Integer.MAX_VALUE));
+    }
+
+    public void testOperations() {
+        final Random random = new Random(301);
+        for (int density : new int[]{10, CompressedBitmap.ARRAY_MAX + 1, 50000}) {
+            final CompressedBitmap lhs = new CompressedBitmap();
+            final CompressedBitmap rhs = new CompressedBitmap();
+            final SortedSet<Integer> lhsSet = new TreeSet<Integer>();
+            final SortedSet<Integer> rhsSet = new TreeSet<Integer>();
+            fill(random, lhs, lhsSet, density, 200000);
+            fill(random, rhs, rhsSet, density / 2 + 1, 200000);
+
+            final SortedSet<Integer> and = new TreeSet<Integer>(lhsSet);
+            and.retainAll(rhsSet);
+            final SortedSet<Integer> or = new TreeSet<Integer>(lhsSet);
+            or.addAll(rhsSet);
+            final SortedSet<Integer> andNot = new TreeSet<Integer>(lhsSet);
+            andNot.removeAll(rhsSet);
+
+            assertTrue(Arrays.equals(toArray(and), CompressedBitmap.and(lhs, rhs).toArray()));
+            assertTrue(Arrays.equals(toArray(or), CompressedBitmap.or(lhs, rhs).toArray()));
+            assertTrue(Arrays.equals(toArray(andNot), CompressedBitmap.andNot(lhs, rhs).toArray()));
+        }
+    }
+
+    public void testRange() {
+        assertTrue(CompressedBitmap.range(0).isEmpty());
+        assertTrue(Arrays.equals(new int[]{0, 1, 2}, CompressedBitmap.range(3).toArray()));
+
+        final CompressedBitmap range = CompressedBitmap.range(100000);
+        assertEquals(100000, range.size());
+        assertTrue(range.contains(99999));
+        assertFalse(range.contains(100000));
+    }
+}
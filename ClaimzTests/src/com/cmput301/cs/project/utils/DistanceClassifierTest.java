@@ -0,0 +1,81 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DistanceClassifierTest extends TestCase {
+
+    private static final LatLng EDMONTON = new LatLng(53.5461, -113.4938);
+    private static final LatLng CALGARY = new LatLng(51.0447, -114.0719);
+    private static final LatLng VANCOUVER = new LatLng(49.2827, -123.1207);
+    private static final LatLng LONDON = new LatLng(51.5074, -0.1278);
+
+    public void testBands() {
+        final DistanceClassifier classifier = new DistanceClassifier(EDMONTON, 300000, 1000000);
+        assertEquals(0, classifier.classify(EDMONTON));
+        assertEquals(0, classifier.classify(CALGARY));
+        assertEquals(1, classifier.classify(VANCOUVER));
+        assertEquals(2, classifier.classify(LONDON));
+        assertEquals(DistanceClassifier.UNKNOWN, classifier.classify(null));
+    }
+
+    public void testMatchesDistance() {
+        final Random random = new Random(42);
+        final double[] thresholds = {1000, 200000, 800000, 5000000};
+        for (int i = 0; i < 20; i++) {
+            final LatLng centre = new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            final DistanceClassifier classifier = new DistanceClassifier(centre, thresholds);
+            for (int j = 0; j < 500; j++) {
+                final LatLng point = new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+                final double distance = GeoUtils.distanceBetween(centre, point);
+                int expected = 0;
+                while (expected < thresholds.length && distance > thresholds[expected]) {
+                    expected += 1;
+                }
+                assertEquals(expected, classifier.classify(point));
+            }
+        }
+    }
+
+    public void testClassifyAll() {
+        final DistanceClassifier classifier = new DistanceClassifier(EDMONTON, 300000, 1000000);
+        final List<LatLng> points = Arrays.asList(LONDON, null, CALGARY, VANCOUVER);
+        final int[] bands = new int[5];
+        classifier.classifyAll(points, bands);
+        assertTrue(Arrays.equals(new int[]{2, DistanceClassifier.UNKNOWN, 0, 1, 0}, bands));
+
+        try {
+            classifier.classifyAll(points, new int[3]);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testThresholdsMustAscend() {
+        try {
+            new DistanceClassifier(EDMONTON, 2, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testClassifyAllMatchesClassify() {
+        final Random random = new Random(42);
+        final List<LatLng> points = new ArrayList<LatLng>();
+        for (int i = 0; i < 10000; i++) {
+            points.add(new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        final DistanceClassifier classifier = new DistanceClassifier(EDMONTON, 200000, 800000);
+        final int[] bands = new int[points.size()];
+
+        classifier.classifyAll(points, bands);
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(classifier.classify(points.get(i)), bands[i]);
+        }
+    }
+}
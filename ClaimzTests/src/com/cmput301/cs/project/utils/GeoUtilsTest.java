@@ -0,0 +1,33 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import junit.framework.TestCase;
+
+public class GeoUtilsTest extends TestCase {
+
+    private static final LatLng CALGARY = new LatLng(51.0447, -114.0719);
+    private static final LatLng EDMONTON = new LatLng(53.5461, -113.4938);
+
+    public void testDistanceBetween() {
+        assertEquals(0, GeoUtils.distanceBetween(CALGARY, CALGARY), 1e-6);
+        assertEquals(281000, GeoUtils.distanceBetween(CALGARY, EDMONTON), 2000);
+        assertEquals(GeoUtils.distanceBetween(CALGARY, EDMONTON), GeoUtils.distanceBetween(EDMONTON, CALGARY), 1e-6);
+        // a quarter of the way around
+        assertEquals(Math.PI / 2 * GeoUtils.EARTH_RADIUS_METERS,
+                GeoUtils.distanceBetween(new LatLng(0, 0), new LatLng(0, 90)), 1);
+    }
+
+    public void testContains() {
+        final LatLngBounds alberta = new LatLngBounds(new LatLng(49, -120), new LatLng(60, -110));
+        assertTrue(GeoUtils.contains(alberta, CALGARY));
+        assertTrue(GeoUtils.contains(alberta, new LatLng(49, -110)));  // edges included
+        assertFalse(GeoUtils.contains(alberta, new LatLng(48.9, -114)));
+        assertFalse(GeoUtils.contains(alberta, new LatLng(51, -109)));
+
+        final LatLngBounds pacific = new LatLngBounds(new LatLng(-10, 170), new LatLng(10, -170));
+        assertTrue(GeoUtils.contains(pacific, new LatLng(0, 179)));
+        assertTrue(GeoUtils.contains(pacific, new LatLng(0, -179)));
+        assertFalse(GeoUtils.contains(pacific, new LatLng(0, 0)));
+    }
+}
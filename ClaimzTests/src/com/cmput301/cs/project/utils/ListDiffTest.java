@@ -0,0 +1,165 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ListDiffTest extends TestCase {
+
+    // items are "key:version"
+    private static final ListDiff.Keys<String> KEYS = new ListDiff.Keys<String>() {
+        @Override
+        public String keyOf(String item) {
+            return item.substring(0, item.indexOf(':'));
+        }
+
+        @Override
+        public boolean isSameVersion(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private static final class ListTarget implements ListDiff.Target<String> {
+        private final List<String> mItems;
+        private int mOperations;
+
+        private ListTarget(List<String> items) {
+            mItems = new ArrayList<String>(items);
+        }
+
+        @Override
+        public void remove(int position) {
+            mItems.remove(position);
+            mOperations += 1;
+        }
+
+        @Override
+        public void insert(String item, int position) {
+            mItems.add(position, item);
+            mOperations += 1;
+        }
+
+        @Override
+        public void set(String item, int position) {
+            mItems.set(position, item);
+            mOperations += 1;
+        }
+    }
+
+    public void testSameList() {
+        final List<String> items = Arrays.asList("a:1", "b:1", "c:1");
+        final ListDiff diff = ListDiff.of(items, new ArrayList<String>(items), KEYS);
+        assertTrue(diff.isEmpty());
+
+        final ListTarget target = new ListTarget(items);
+        diff.applyTo(target, items);
+        assertEquals(0, target.mOperations);
+    }
+
+    public void testInsertsAndRemoves() {
+        final List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1");
+        final List<String> newItems = Arrays.asList("x:1", "a:1", "c:1", "y:1");
+        final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+
+        assertTrue(Arrays.equals(new int[]{1}, diff.getRemoved()));
+        assertTrue(Arrays.equals(new int[]{0, 3}, diff.getInserted()));
+        assertEquals(0, diff.getMoved().length);
+        assertEquals(0, diff.getChanged().length);
+        assertApplies(oldItems, newItems, 3);
+    }
+
+    public void testMovesFewestItems() {
+        final List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1", "e:1");
+        final List<String> newItems = Arrays.asList("e:1", "a:1", "b:1", "c:1", "d:1");
+        final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+
+        assertTrue(Arrays.equals(new int[]{0}, diff.getMoved()));
+        assertEquals(0, diff.getRemoved().length);
+        assertEquals(0, diff.getInserted().length);
+        assertApplies(oldItems, newItems, 2);
+    }
+
+    public void testChanges() {
+        final List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1");
+        final List<String> newItems = Arrays.asList("c:2", "a:1", "b:2");
+        final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+
+        assertTrue(Arrays.equals(new int[]{0, 2}, diff.getChanged()));
+        assertTrue(Arrays.equals(new int[]{0}, diff.getMoved()));
+        assertApplies(oldItems, newItems, 3);  // move c, set b
+    }
+
+    public void testDuplicateKeys() {
+        try {
+            ListDiff.of(Arrays.asList("a:1", "a:2"), Collections.<String>emptyList(), KEYS);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            ListDiff.of(Collections.<String>emptyList(), Arrays.asList("a:1", "a:2"), KEYS);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testRandomLists() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            final List<String> oldItems = randomItems(random, 30);
+            final List<String> newItems = randomItems(random, 30);
+            final ListTarget target = new ListTarget(oldItems);
+            final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+            diff.applyTo(target, newItems);
+            assertEquals(newItems, target.mItems);
+            assertEquals(diff.getOperations(), target.mOperations);
+        }
+    }
+
+    public void testLongList() {
+        final Random random = new Random(42);
+        final List<String> oldItems = new ArrayList<String>();
+        for (int i = 0; i < 10000; i++) {
+            oldItems.add(i + ":1");
+        }
+        // a typical refresh: a few claims added, removed, edited and moved
+        final List<String> newItems = new ArrayList<String>(oldItems);
+        for (int i = 0; i < 20; i++) {
+            newItems.remove(random.nextInt(newItems.size()));
+            newItems.add(random.nextInt(newItems.size()), "new" + i + ":1");
+            final int edited = random.nextInt(newItems.size());
+            newItems.set(edited, KEYS.keyOf(newItems.get(edited)) + ":2");
+            newItems.add(random.nextInt(newItems.size()), newItems.remove(random.nextInt(newItems.size())));
+        }
+
+        final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+        assertTrue(diff.getMoved().length <= 20);
+        final ListTarget target = new ListTarget(oldItems);
+        diff.applyTo(target, newItems);
+        assertEquals(newItems, target.mItems);
+        assertEquals(diff.getOperations(), target.mOperations);
+    }
+
+    private static List<String> randomItems(Random random, int keys) {
+        final List<String> items = new ArrayList<String>();
+        for (int key = 0; key < keys; key++) {
+            if (random.nextBoolean()) {
+                items.add(key + ":" + random.nextInt(2));
+            }
+        }
+        Collections.shuffle(items, random);
+        return items;
+    }
+
+    private static void assertApplies(List<String> oldItems, List<String> newItems, int operations) {
+        final ListTarget target = new ListTarget(oldItems);
+        final ListDiff diff = ListDiff.of(oldItems, newItems, KEYS);
+        diff.applyTo(target, newItems);
+        assertEquals(newItems, target.mItems);
+        assertEquals(operations, target.mOperations);
+        assertEquals(operations, diff.getOperations());
+    }
+}
@@ -6,6 +6,11 @@ import java.io.*;
 
 public final class MockSaves extends LocalSaver {
     private String mJsonString;
+    private String mBundledExchangeRates;
+
+    public void setBundledExchangeRates(String json) {
+        mBundledExchangeRates = json;
+    }
 
     @Override
     protected InputStream getInputStreamForReading(String fileName) throws IOException {
@@ -15,6 +20,14 @@ public final class MockSaves extends LocalSaver {
         return new ByteArrayInputStream(mJsonString.getBytes());
     }
 
+    @Override
+    protected InputStream getBundledExchangeRatesForReading() throws IOException {
+        if (mBundledExchangeRates == null) {
+            throw new FileNotFoundException();
+        }
+        return new ByteArrayInputStream(mBundledExchangeRates.getBytes());
+    }
+
     @Override
     protected OutputStream getOutputStreamForSaving(String fileName) throws IOException {
         return new ByteArrayOutputStream() {
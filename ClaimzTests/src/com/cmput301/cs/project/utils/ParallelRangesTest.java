@@ -0,0 +1,40 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ParallelRangesTest extends TestCase {
+
+    public void testRunsEveryIndexOnce() {
+        for (int size : new int[]{0, 1, ParallelRanges.PARALLEL_THRESHOLD - 1, ParallelRanges.PARALLEL_THRESHOLD, 1001}) {
+            final AtomicIntegerArray runs = new AtomicIntegerArray(size);
+            ParallelRanges.run(size, new ParallelRanges.Range() {
+                @Override
+                public void run(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        runs.incrementAndGet(i);
+                    }
+                }
+            });
+            for (int i = 0; i < size; i++) {
+                assertEquals(size + " items", 1, runs.get(i));
+            }
+        }
+    }
+
+    public void testRethrowsFailures() {
+        final RuntimeException failure = new RuntimeException();
+        try {
+            ParallelRanges.run(1000, new ParallelRanges.Range() {
+                @Override
+                public void run(int from, int to) {
+                    if (from == 0) throw failure;
+                }
+            });
+            fail();
+        } catch (RuntimeException e) {
+            assertSame(failure, e);
+        }
+    }
+}
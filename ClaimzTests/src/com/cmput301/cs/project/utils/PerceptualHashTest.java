@@ -0,0 +1,46 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+public class PerceptualHashTest extends TestCase {
+
+    private static int[] gradient(boolean brighterToTheLeft) {
+        final int[] grey = new int[PerceptualHash.WIDTH * PerceptualHash.HEIGHT];
+        for (int i = 0; i < grey.length; i++) {
+            final int x = i % PerceptualHash.WIDTH;
+            grey[i] = brighterToTheLeft ? 255 - x * 20 : x * 20;
+        }
+        return grey;
+    }
+
+    public void testBitPerComparison() {
+        assertEquals(-1L, PerceptualHash.ofGrey(gradient(true)));
+        assertEquals(0L, PerceptualHash.ofGrey(gradient(false)));
+    }
+
+    public void testSmallChangesKeepHashClose() {
+        final int[] grey = gradient(true);
+        final long hash = PerceptualHash.ofGrey(grey);
+        // brighter overall, one pixel noisy
+        for (int i = 0; i < grey.length; i++) {
+            grey[i] += 10;
+        }
+        grey[4] = 0;
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.ofGrey(grey)) <= 2);
+    }
+
+    public void testDistance() {
+        assertEquals(0, PerceptualHash.distance(42, 42));
+        assertEquals(64, PerceptualHash.distance(0, -1L));
+        assertEquals(2, PerceptualHash.distance(0x3, 0x0));
+    }
+
+    public void testWrongSize() {
+        try {
+            PerceptualHash.ofGrey(new int[10]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class PrefixTrieTest extends TestCase {
+
+    private PrefixTrie<String> mTrie;
+
+    @Override
+    protected void setUp() {
+        mTrie = new PrefixTrie<String>();
+        mTrie.put("travel", "travel", 5);
+        mTrie.put("train", "train", 9);
+        mTrie.put("trade show", "trade show", 1);
+        mTrie.put("tr", "tr", 3);
+        mTrie.put("hotel", "hotel", 7);
+    }
+
+    public void testCompleteByWeight() {
+        assertEquals(Arrays.asList("train", "travel", "tr", "trade show"), mTrie.complete("tr", 10));
+        assertEquals(Arrays.asList("train", "travel"), mTrie.complete("tr", 2));
+        assertEquals(Arrays.asList("train", "hotel"), mTrie.complete("", 2));
+        assertEquals(Collections.<String>emptyList(), mTrie.complete("x", 2));
+        assertEquals(Collections.<String>emptyList(), mTrie.complete("tr", 0));
+    }
+
+    public void testSetWeight() {
+        mTrie.setWeight("trade show", 100);
+        mTrie.setWeight("unknown", 100);
+        assertEquals("trade show", mTrie.complete("t", 1).get(0));
+    }
+
+    public void testRemove() {
+        assertEquals("train", mTrie.remove("train"));
+        assertNull(mTrie.remove("train"));
+        assertNull(mTrie.remove("t"));
+        assertEquals(4, mTrie.size());
+        assertEquals(Arrays.asList("travel", "tr", "trade show"), mTrie.complete("tr", 10));
+
+        mTrie.remove("tr");
+        assertNull(mTrie.get("tr"));
+        assertEquals("travel", mTrie.get("travel"));
+        assertEquals(Arrays.asList("travel", "trade show"), mTrie.complete("tr", 10));
+    }
+
+    public void testCompleteAmongManyKeys() {
+        final Random random = new Random(301);
+        final PrefixTrie<String> trie = new PrefixTrie<String>();
+        for (int i = 0; i < 50000; i++) {
+            final String key = Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+            trie.put(key, key, random.nextInt(1000));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            final String prefix = Integer.toString(1 + random.nextInt(35), 36);
+            final List<String> completions = trie.complete(prefix, 8);
+            assertEquals(8, completions.size());
+            for (String completion : completions) {
+                assertTrue(completion.startsWith(prefix));
+            }
+        }
+    }
+}
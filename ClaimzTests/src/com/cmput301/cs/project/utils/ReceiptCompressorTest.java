@@ -0,0 +1,35 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+public class ReceiptCompressorTest extends TestCase {
+
+    /**
+     * Pretends every quality step adds 1000 bytes.
+     */
+    private static final class FakeEncoder implements ReceiptCompressor.Encoder {
+        private int mEncodes;
+
+        @Override
+        public byte[] encode(int quality) {
+            mEncodes += 1;
+            return new byte[quality * 1000];
+        }
+    }
+
+    public void testHighestQualityWithinBudget() {
+        final FakeEncoder encoder = new FakeEncoder();
+        final byte[] bytes = ReceiptCompressor.fitQuality(encoder, 49149);
+        assertEquals(49000, bytes.length);
+        assertTrue(encoder.mEncodes <= 7);
+    }
+
+    public void testBudgetFitsMaxQuality() {
+        final byte[] bytes = ReceiptCompressor.fitQuality(new FakeEncoder(), Integer.MAX_VALUE);
+        assertEquals(ReceiptCompressor.MAX_QUALITY * 1000, bytes.length);
+    }
+
+    public void testNothingFits() {
+        assertNull(ReceiptCompressor.fitQuality(new FakeEncoder(), ReceiptCompressor.MIN_QUALITY * 1000 - 1));
+    }
+}
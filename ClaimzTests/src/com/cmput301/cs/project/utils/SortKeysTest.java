@@ -0,0 +1,39 @@
+package com.cmput301.cs.project.utils;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SortKeysTest extends TestCase {
+
+    public void testEmpty() {
+        assertEquals(0, SortKeys.order(new long[0], false).length);
+    }
+
+    public void testStable() {
+        final long[] keys = {3, 1, 3, 2, 1};
+        assertTrue(Arrays.equals(new int[]{1, 4, 3, 0, 2}, SortKeys.order(keys, false)));
+        assertTrue(Arrays.equals(new int[]{0, 2, 3, 1, 4}, SortKeys.order(keys, true)));
+    }
+
+    public void testSortsRandomKeys() {
+        final Random random = new Random(42);
+        for (int length = 1; length < 300; length += 37) {
+            final long[] keys = new long[length];
+            for (int i = 0; i < length; i++) {
+                keys[i] = random.nextInt(50) - 25L;
+            }
+            final int[] order = SortKeys.order(keys, false);
+
+            final long[] expected = keys.clone();
+            Arrays.sort(expected);
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[i], keys[order[i]]);
+                if (i > 0 && keys[order[i]] == keys[order[i - 1]]) {
+                    assertTrue(order[i] > order[i - 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class ZoomClustersTest extends TestCase {
+
+    private static final LatLngBounds WORLD = new LatLngBounds(new LatLng(-90, -180), new LatLng(90, 180));
+    private static final LatLng CALGARY = new LatLng(51.0447, -114.0719);
+    private static final LatLng CALGARY_TOWER = new LatLng(51.0443, -114.0631);
+    private static final LatLng EDMONTON = new LatLng(53.5461, -113.4938);
+
+    private static int total(List<ZoomClusters.Cluster> clusters) {
+        int total = 0;
+        for (ZoomClusters.Cluster cluster : clusters) {
+            total += cluster.getCount();
+        }
+        return total;
+    }
+
+    public void testMergesWhenZoomedOut() {
+        final ZoomClusters clusters = new ZoomClusters(Arrays.asList(CALGARY, CALGARY_TOWER, EDMONTON));
+        assertEquals(3, clusters.size());
+
+        final List<ZoomClusters.Cluster> world = clusters.getClusters(WORLD, 2);
+        assertEquals(1, world.size());
+        assertEquals(3, world.get(0).getCount());
+        assertEquals(-1, world.get(0).getPointIndex());
+
+        final List<ZoomClusters.Cluster> province = clusters.getClusters(WORLD, 8);
+        assertEquals(2, province.size());
+        assertEquals(3, total(province));
+
+        final List<ZoomClusters.Cluster> street = clusters.getClusters(WORLD, 18);
+        assertEquals(3, street.size());
+        for (ZoomClusters.Cluster cluster : street) {
+            assertEquals(1, cluster.getCount());
+            assertTrue(cluster.getPointIndex() >= 0);
+        }
+    }
+
+    public void testEveryPointInOneClusterAtEveryZoom() {
+        final Random random = new Random(42);
+        final List<LatLng> points = new ArrayList<LatLng>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new LatLng(49 + random.nextDouble() * 11, -120 + random.nextDouble() * 10));
+        }
+        points.add(points.get(0));  // the same place twice
+        final ZoomClusters clusters = new ZoomClusters(points);
+
+        for (int zoom = 0; zoom <= ZoomClusters.MAX_ZOOM + 1; zoom++) {
+            final boolean[] seen = new boolean[points.size()];
+            for (ZoomClusters.Cluster cluster : clusters.getClusters(WORLD, zoom)) {
+                final int[] indices = clusters.getPointIndices(cluster);
+                assertEquals(cluster.getCount(), indices.length);
+                for (int index : indices) {
+                    assertFalse(seen[index]);
+                    seen[index] = true;
+                }
+            }
+            for (boolean s : seen) {
+                assertTrue("zoom " + zoom, s);
+            }
+        }
+    }
+
+    public void testExpansionZoom() {
+        final ZoomClusters clusters = new ZoomClusters(Arrays.asList(CALGARY, CALGARY_TOWER));
+        final ZoomClusters.Cluster both = clusters.getClusters(WORLD, 0).get(0);
+        assertEquals(2, both.getCount());
+
+        final int expansion = clusters.getExpansionZoom(both);
+        assertEquals(1, clusters.getClusters(WORLD, expansion - 1).size());
+        assertEquals(2, clusters.getClusters(WORLD, expansion).size());
+
+        final ZoomClusters same = new ZoomClusters(Arrays.asList(CALGARY, CALGARY));
+        assertEquals(ZoomClusters.MAX_ZOOM + 1, same.getExpansionZoom(same.getClusters(WORLD, 0).get(0)));
+    }
+
+    public void testCentreIsWeighted() {
+        final ZoomClusters clusters = new ZoomClusters(Arrays.asList(new LatLng(0, 0), new LatLng(0, 0), new LatLng(0, 3)));
+        final ZoomClusters.Cluster cluster = clusters.getClusters(WORLD, 0).get(0);
+        assertEquals(3, cluster.getCount());
+        assertEquals(1, cluster.getPosition().longitude, 1e-9);
+        assertEquals(0, cluster.getPosition().latitude, 1e-9);
+    }
+
+    public void testBounds() {
+        final ZoomClusters clusters = new ZoomClusters(Arrays.asList(CALGARY, new LatLng(0, 179.5), new LatLng(0, -179.5)));
+        final LatLngBounds alberta = new LatLngBounds(new LatLng(49, -120), new LatLng(60, -110));
+        assertEquals(1, clusters.getClusters(alberta, 10).size());
+
+        final LatLngBounds dateLine = new LatLngBounds(new LatLng(-1, 179), new LatLng(1, -179));
+        assertEquals(2, clusters.getClusters(dateLine, 10).size());
+        assertTrue(clusters.getClusters(new LatLngBounds(new LatLng(-10, 0), new LatLng(10, 10)), 10).isEmpty());
+    }
+}
@@ -22,14 +22,25 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.CalendarView;
+import android.widget.TextView;
 import com.cmput301.cs.project.R;
+import com.cmput301.cs.project.controllers.App;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ClaimsList;
+import com.cmput301.cs.project.models.User;
 import com.cmput301.cs.project.utils.Utils;
 
+import java.util.Calendar;
+import java.util.List;
+
 /**
  * Activity for picking a date. This activity is used whenever a date needs to be picked in the app.<p>
  * If an activity relies on both a start date and an end date the calendar will restrict choices to the user so
  * that an end date can't come before a start date and vice versa.
  * <p/>
+ * Lists the claims of the user that already cover the selected day, other than the claim passed as
+ * {@link App#KEY_CLAIM_ID}, so a new trip can be planned around them.
+ * <p/>
  * Returns the date as a result in an intent as {@link #KEY_DATE} (as {@code long})
  * <p/>
  * this activity is linked to in:
@@ -92,6 +103,17 @@ public class CalendarActivity extends Activity {
             return this;
         }
 
+        /**
+         * Sets the claim whose dates are being picked, so it is not listed as covering the selected day.
+         *
+         * @param claimId nullable {@link Claim#getId() id}; null for a claim that was not saved yet
+         * @return this same {@code Builder}
+         */
+        public Builder editedClaim(String claimId) {
+            mIntent.putExtra(App.KEY_CLAIM_ID, claimId);
+            return this;
+        }
+
         /**
          * Sets the min date limit on the calendar. Negative values are ignored (no-op).
          *
@@ -125,6 +147,7 @@ public class CalendarActivity extends Activity {
     private static final long FIVE_DAYS = 432000000L;
 
     private CalendarView mCalendarView;
+    private TextView mTrips;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -147,8 +170,54 @@ public class CalendarActivity extends Activity {
         setContentView(R.layout.calendar_activity);
 
         mCalendarView = (CalendarView) findViewById(R.id.calendar);
+        mTrips = (TextView) findViewById(R.id.trips);
+        mCalendarView.setOnDateChangeListener(new CalendarView.OnDateChangeListener() {
+            @Override
+            public void onSelectedDayChange(CalendarView view, int year, int month, int dayOfMonth) {
+                final Calendar day = Calendar.getInstance();
+                day.clear();
+                day.set(year, month, dayOfMonth);
+                updateTrips(day);
+            }
+        });
 
         tryFindingExtras();
+
+        final Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(mCalendarView.getDate());
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        updateTrips(day);
+    }
+
+    // day is set to the start of the day
+    private void updateTrips(Calendar day) {
+        final User user = App.get(this).getUser();
+        if (user == null) return;
+
+        final long start = day.getTimeInMillis();
+        day.add(Calendar.DAY_OF_MONTH, 1);
+        final long end = day.getTimeInMillis() - 1;
+        final List<Claim> covering = ClaimsList.getInstance(this).findOverlappingClaims(user, start, end);
+
+        final String editedId = getIntent().getStringExtra(App.KEY_CLAIM_ID);
+        final StringBuilder names = new StringBuilder();
+        for (Claim claim : covering) {
+            if (claim.getId().equals(editedId)) continue;
+
+            final String destinations = claim.getDestinationsAsString();
+            names.append(names.length() == 0 ? "" : ", ")
+                    .append(destinations.isEmpty() ? getString(R.string.untitled_claim) : destinations);
+        }
+
+        if (names.length() == 0) {
+            mTrips.setVisibility(View.GONE);
+        } else {
+            mTrips.setText(getString(R.string.formatted_trips_on_day, names));
+            mTrips.setVisibility(View.VISIBLE);
+        }
     }
 
     private void tryFindingExtras() {
@@ -6,29 +6,39 @@ import android.app.DialogFragment;
 import android.app.FragmentTransaction;
 import android.app.ListActivity;
 import android.content.Intent;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ArrayAdapter;
+import android.widget.ListAdapter;
 import android.widget.ListView;
-import android.widget.Toast;
+import android.widget.SearchView;
 import com.cmput301.cs.project.controllers.App;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.ClaimsApproverAdapter;
 import com.cmput301.cs.project.adapters.ClaimsClaimantAdapter;
 import com.cmput301.cs.project.controllers.ClaimListController;
+import com.cmput301.cs.project.controllers.ClaimListQuery;
+import com.cmput301.cs.project.controllers.RouteAnalytics;
 import com.cmput301.cs.project.controllers.TagsManager;
 import com.cmput301.cs.project.dialogs.TagSelectorDialogFragment;
+import com.cmput301.cs.project.listeners.ClaimsChangedListener;
 import com.cmput301.cs.project.listeners.TagSelectorListener;
 import com.cmput301.cs.project.listeners.TagsChangedListener;
 import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.ClaimsList;
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.TagQuery;
 import com.cmput301.cs.project.models.User;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Is the activity that launches at start of app. <p>
@@ -41,6 +51,10 @@ import java.util.ArrayList;
  * for the current user and Approver shows a list of the claims for every user EXCEPT the current user.
  * <p/>
  * If a tag is renamed or deleted the onTagRename and onTagResume methods, respectively, will reload the list of claims.
+ * The claims with the tag are edited in the background, so the list is reloaded again once they change; changes made
+ * on any thread are posted to the UI thread, one reload for however many claims changed.
+ * Both lists are filtered and sorted on a worker thread by {@link ClaimListQuery}, and narrowed to the claims that match
+ * the text typed in the search box, if any.
  *
  * @author rozsa
  * @author jbenson
@@ -53,10 +67,43 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
     private static final int VIEW_CLAIM = 0;
 
     private ArrayList<Tag> mWantedTags;
+    private TagQuery.Mode mFilterMode = TagQuery.Mode.ANY;
+    // typed in the tag selector; takes the place of mWantedTags and mFilterMode unless blank
+    private String mTagQuery = "";
+    // typed in the search box; blank to show every claim
+    private String mSearch = "";
+    // chosen in the menu; the approver list is otherwise oldest first
+    private boolean mSortByCostPerKm;
 
     private ClaimListController mClaimListController;
     private ClaimsApproverAdapter mApproverAdapter;
     private ClaimsClaimantAdapter mClaimantAdapter;
+    private ClaimListQuery mApproverQuery;
+    private ClaimListQuery mClaimantQuery;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean mReloadPosted = new AtomicBoolean();
+    private final Runnable mReload = new Runnable() {
+        @Override
+        public void run() {
+            mReloadPosted.set(false);
+            if (!isFinishing()) {
+                setupListView();
+            }
+        }
+    };
+    // called on the thread that changed the claims
+    private final ClaimsChangedListener mClaimsChangedListener = new ClaimsChangedListener() {
+        @Override
+        public void onClaimAdded(Claim claim) {
+            postReload();
+        }
+
+        @Override
+        public void onClaimRemoved(Claim claim) {
+            postReload();
+        }
+    };
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -72,11 +119,22 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
 
         mWantedTags = new ArrayList<Tag>();
         mClaimListController = new ClaimListController(user, ClaimsList.getInstance(this));
+        mApproverQuery = new ClaimListQuery(ClaimsList.getInstance(this));
+        mClaimantQuery = new ClaimListQuery(ClaimsList.getInstance(this));
+        mApproverAdapter = new ClaimsApproverAdapter(this, new ArrayList<Claim>());
+        mClaimantAdapter = new ClaimsClaimantAdapter(this, new ArrayList<Claim>());
 
         setupListView();
         setupActionBar();
 
         TagsManager.get(this).addTagChangedListener(mClaimListController);
+        ClaimsList.getInstance(this).addClaimsChangedListener(mClaimsChangedListener);
+    }
+
+    private void postReload() {
+        if (mReloadPosted.compareAndSet(false, true)) {
+            mMainHandler.post(mReload);
+        }
     }
 
     @Override
@@ -86,27 +144,60 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
         setupListView();
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+
+        final ClaimsList claimsList = ClaimsList.getInstance(this);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                claimsList.saveSearchIndex();  // searched from this activity, so saved when the user leaves it
+            }
+        });
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         TagsManager.get(this).removeTagChangedListener(mClaimListController);
+        ClaimsList.getInstance(this).removeClaimsChangedListener(mClaimsChangedListener);
+        mMainHandler.removeCallbacks(mReload);
+        mApproverQuery.cancel();
+        mClaimantQuery.cancel();
     }
 
     private void setupListView() {
-        mApproverAdapter = new ClaimsApproverAdapter(this, mClaimListController.getApprovableClaims());
-        mClaimantAdapter = new ClaimsClaimantAdapter(this, mClaimListController.getClaimantClaims());
-        mClaimantAdapter.updateFilter(mWantedTags);
-
-        mClaimantAdapter.sort(Claim.START_ASCENDING);
-        mApproverAdapter.sort(Claim.START_DESCENDING);
+        final TagQuery query = currentQuery();
+        final RouteAnalytics routeAnalytics = RouteAnalytics.get(this);  // a new instance if the currency changed
+        mApproverQuery.run(mClaimListController.getApprovableClaims(), query, mSearch,
+                mSortByCostPerKm ? ClaimListQuery.Order.HIGHEST_COST_PER_KM_FIRST : ClaimListQuery.Order.OLDEST_FIRST,
+                routeAnalytics, new ClaimListQuery.Callback() {
+                    @Override
+                    public void onClaimsQueried(List<Claim> claims) {
+                        mApproverAdapter.setClaims(claims);
+                    }
+                });
+        mClaimantQuery.run(mClaimListController.getClaimantClaims(), query, mSearch,
+                ClaimListQuery.Order.NEWEST_FIRST, routeAnalytics, new ClaimListQuery.Callback() {
+                    @Override
+                    public void onClaimsQueried(List<Claim> claims) {
+                        mClaimantAdapter.setClaims(claims);
+                    }
+                });
 
-        if (showClaimantList()) {
-            setListAdapter(mClaimantAdapter);
-        } else {
-            setListAdapter(mApproverAdapter);
+        final ListAdapter shown = showClaimantList() ? mClaimantAdapter : mApproverAdapter;
+        if (getListAdapter() != shown) {  // setting it again would lose the scroll position
+            setListAdapter(shown);
         }
     }
 
+    private TagQuery currentQuery() {
+        return mTagQuery.trim().isEmpty()
+                ? TagQuery.of(mFilterMode, mWantedTags)
+                : TagQuery.parse(mTagQuery);  // checked by TagSelectorDialogFragment
+    }
+
     private boolean showClaimantList() {
         final ActionBar actionBar = getActionBar();
         return actionBar == null || actionBar.getSelectedTab() == null || actionBar.getSelectedTab().getPosition() == POSITION_CLAIMANT;
@@ -168,6 +259,22 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
     public boolean onCreateOptionsMenu(Menu menu) {
         MenuInflater inflater = getMenuInflater();
         inflater.inflate(R.menu.claim_list_activity, menu);
+
+        final SearchView searchView = (SearchView) menu.findItem(R.id.search).getActionView();
+        searchView.setQueryHint(getString(R.string.search_hint));
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                return false;  // already shown as typed
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                mSearch = newText;
+                setupListView();  // only the last query made is shown, however fast the text changes
+                return true;
+            }
+        });
         return true;
     }
 
@@ -186,27 +293,21 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
             case R.id.action_settings:
                 startActivity(new Intent(this, SettingsActivity.class));
                 return true;
+            case R.id.sortByCostPerKm:
+                mSortByCostPerKm = !item.isChecked();
+                item.setChecked(mSortByCostPerKm);
+                setupListView();
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
     }
 
     private void startTagSelector() {
+        // shown even without tags of our own; a query can name the tags of other claimants
         ArrayList<Tag> allTags = new ArrayList<Tag>(TagsManager.get(this).peekTags());
-        if (allTags.size() > 0) {
-            DialogFragment fragment = TagSelectorDialogFragment.newInstance(allTags, mWantedTags);
-            fragment.show(getFragmentManager(), "dialog");
-        } else {
-            Toast.makeText(this, "There are no tags to filter", Toast.LENGTH_LONG).show();
-        }
-    }
-
-    @Override
-    public void onActivityResult(int requestCode, int resultCode, Intent data) {
-        if (requestCode == VIEW_CLAIM) {
-            mClaimantAdapter = new ClaimsClaimantAdapter(this, mClaimListController.getClaimantClaims());
-            setListAdapter(mClaimantAdapter);
-        }
+        DialogFragment fragment = TagSelectorDialogFragment.newInstance(allTags, mWantedTags, mFilterMode, mTagQuery);
+        fragment.show(getFragmentManager(), "dialog");
     }
 
     @Override
@@ -214,10 +315,10 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
         setupListView();
 
         if (mWantedTags.contains(oldName)) {
-            mWantedTags.remove(tag);
+            mWantedTags.remove(oldName);
             mWantedTags.add(tag);
 
-            mClaimantAdapter.updateFilter(mWantedTags);
+            setupListView();
         }
     }
 
@@ -228,7 +329,7 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
         if (mWantedTags.contains(tag)) {
             mWantedTags.remove(tag);
 
-            mClaimantAdapter.updateFilter(mWantedTags);
+            setupListView();
         }
     }
 
@@ -238,8 +339,10 @@ public class ClaimListActivity extends ListActivity implements TagsChangedListen
     }
 
     @Override
-    public void wantedTagsChanged(ArrayList<Tag> newWantedTags) {
+    public void wantedTagsChanged(ArrayList<Tag> newWantedTags, TagQuery.Mode mode, String query) {
         mWantedTags = newWantedTags;
-        mClaimantAdapter.updateFilter(mWantedTags);
+        mFilterMode = mode;
+        mTagQuery = query;
+        setupListView();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -13,6 +14,7 @@ import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 import com.cmput301.cs.project.controllers.App;
+import com.cmput301.cs.project.controllers.CurrencyConverter;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.DestinationAdapter;
 import com.cmput301.cs.project.controllers.TagsManager;
@@ -56,6 +58,8 @@ public class ClaimViewActivity extends Activity implements TagsChangedListener {
     private TextView mStatus;
     private TextView mTags;
     private TextView mCurrency;
+    private TextView mDuplicateReceipts;
+    private FindDuplicateReceiptsTask mFindDuplicateReceiptsTask;
     private DateFormat mDateFormat;
 
     private ClaimsList mClaimList;
@@ -120,6 +124,7 @@ public class ClaimViewActivity extends Activity implements TagsChangedListener {
         mTags.setHint(R.string.tags_view_hint);
         mCurrency = (TextView) findViewById(R.id.currencies);
         mCurrency.setHint(R.string.currencies_view_hint);
+        mDuplicateReceipts = (TextView) findViewById(R.id.duplicateReceipts);
 
 
     }
@@ -130,7 +135,7 @@ public class ClaimViewActivity extends Activity implements TagsChangedListener {
         mStatus.setText(Utils.stringIdForClaimStatus(mClaim.getStatus()));
         mDestinations.setAdapter(new DestinationAdapter(this, mClaim.getDestinations()));
         mTags.setText(mClaim.getTagsAsString());
-        mCurrency.setText(mClaim.getTotalsAsString());
+        mCurrency.setText(CurrencyConverter.get(this).formatTotals(this, mClaim));
 
         if (mEditMenuItem != null) {
             updateEditMenuItem();
@@ -153,6 +158,8 @@ public class ClaimViewActivity extends Activity implements TagsChangedListener {
             mApproveButton.setVisibility(View.GONE);
         }
 
+        updateDuplicateReceipts();
+
         if(mClaim.peekComments().size() == 0) {
             mCommentButton.setVisibility(View.GONE);
         } else {
@@ -160,6 +167,39 @@ public class ClaimViewActivity extends Activity implements TagsChangedListener {
         }
     }
 
+    // only approvers are warned; the claimant sees their own receipts
+    private void updateDuplicateReceipts() {
+        if (mFindDuplicateReceiptsTask != null) {
+            mFindDuplicateReceiptsTask.cancel(false);
+            mFindDuplicateReceiptsTask = null;
+        }
+        mDuplicateReceipts.setVisibility(View.GONE);  // until found
+
+        if (mClaim.canApprove(mUser)) {
+            mFindDuplicateReceiptsTask = new FindDuplicateReceiptsTask();
+            mFindDuplicateReceiptsTask.execute(mClaim);
+        }
+    }
+
+    // the first search indexes the receipts of every claim
+    private final class FindDuplicateReceiptsTask extends AsyncTask<Claim, Void, Integer> {
+        @Override
+        protected Integer doInBackground(Claim... params) {
+            return mClaimList.findDuplicateReceipts(params[0]).size();
+        }
+
+        @Override
+        protected void onPostExecute(Integer duplicates) {
+            if (isFinishing() || mFindDuplicateReceiptsTask != this) return;
+            mFindDuplicateReceiptsTask = null;
+
+            if (duplicates > 0) {
+                mDuplicateReceipts.setText(getString(R.string.formatted_duplicate_receipts, duplicates));
+                mDuplicateReceipts.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
     private void initButtons() {
         mExpenseButton.setOnClickListener(new View.OnClickListener() {
             @Override
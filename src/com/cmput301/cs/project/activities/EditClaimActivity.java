@@ -6,14 +6,19 @@ import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.KeyEvent;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
 import android.widget.AdapterView;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
+import android.widget.LinearLayout;
 import android.widget.ListView;
 import android.widget.TextView;
 import com.cmput301.cs.project.controllers.App;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.DestinationAdapter;
+import com.cmput301.cs.project.adapters.TagCompletionAdapter;
 import com.cmput301.cs.project.controllers.TagsManager;
 import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.ClaimsList;
@@ -22,6 +27,7 @@ import com.cmput301.cs.project.models.Tag;
 import com.cmput301.cs.project.utils.Utils;
 
 import java.text.DateFormat;
+import java.util.List;
 import java.util.SortedSet;
 
 /**
@@ -48,10 +54,15 @@ public class EditClaimActivity extends Activity {
     private static final int REQ_CODE_PICK_START_DATE = 1;
     private static final int REQ_CODE_PICK_END_DATE = 2;
 
+    private static final int MAX_TAG_SUGGESTIONS = 3;
+
     private Button mStartDate;
     private Button mEndDate;
     private Button mNewDestination;
     private TextView mTags;
+    private TextView mOverlappingClaims;
+    private LinearLayout mTagSuggestions;
+    private AutoCompleteTextView mNewTag;
     private ListView mDestinations;
 
     private Claim.Builder mBuilder;
@@ -72,10 +83,16 @@ public class EditClaimActivity extends Activity {
         mNewDestination = (Button) findViewById(R.id.newDestination);
         mDestinations = (ListView) findViewById(R.id.destinationList);
         mTags = (TextView) findViewById(R.id.tags);
+        mOverlappingClaims = (TextView) findViewById(R.id.overlappingClaims);
+        mNewTag = (AutoCompleteTextView) findViewById(R.id.newTag);
+        mTagSuggestions = (LinearLayout) findViewById(R.id.tagSuggestions);
+
+        mNewTag.setAdapter(new TagCompletionAdapter(this));
 
         initBuilder();
         initButtons();
         initListeners();
+        initNewTag();
 
 
         update();
@@ -150,6 +167,34 @@ public class EditClaimActivity extends Activity {
         });
     }
 
+    private void initNewTag() {
+        mNewTag.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                mBuilder.addTag((Tag) parent.getItemAtPosition(position));
+                mNewTag.setText("");
+                update();
+            }
+        });
+
+        mNewTag.setOnEditorActionListener(new TextView.OnEditorActionListener() {
+            @Override
+            public boolean onEditorAction(TextView v, int actionId, KeyEvent event) {
+                if (actionId != EditorInfo.IME_ACTION_DONE) return false;
+
+                final String name = v.getText().toString();
+                if (name.trim().isEmpty()) {
+                    mNewTag.setError(getString(R.string.empty_error));
+                } else {
+                    mBuilder.addTag(TagsManager.get(EditClaimActivity.this).getTagByName(name));
+                    mNewTag.setText("");
+                    update();
+                }
+                return true;
+            }
+        });
+    }
+
     private String[] getTagNamesFromManager() {
         final SortedSet<Tag> tags = TagsManager.get(EditClaimActivity.this).peekTags();
         final String[] out = new String[tags.size()];
@@ -171,6 +216,7 @@ public class EditClaimActivity extends Activity {
             public void onClick(View v) {
                 startActivityForResult(new CalendarActivity.Builder(EditClaimActivity.this)
                         .selectedDate(mBuilder.getStartTime()).maxDate(mBuilder.getEndTime())
+                        .editedClaim(getClaimId())
                         .build(), REQ_CODE_PICK_START_DATE);
             }
         });
@@ -180,6 +226,7 @@ public class EditClaimActivity extends Activity {
             public void onClick(View v) {
                 startActivityForResult(new CalendarActivity.Builder(EditClaimActivity.this)
                         .selectedDate(mBuilder.getEndTime()).minDate(mBuilder.getStartTime())
+                        .editedClaim(getClaimId())
                         .build(), REQ_CODE_PICK_END_DATE);
             }
         });
@@ -280,6 +327,60 @@ public class EditClaimActivity extends Activity {
 
         mDestinations.setAdapter(new DestinationAdapter(this, mBuilder.getDestinations()));
         mTags.setText(getTagsAsCharSequence());
+        updateTagSuggestions();
+        updateOverlappingClaims();
+    }
+
+    // a warning only; a claimant may well have two claims for one trip
+    private void updateOverlappingClaims() {
+        if (!mBuilder.isStartTimeSet() || !mBuilder.isEndTimeSet()) {
+            mOverlappingClaims.setVisibility(View.GONE);
+            return;
+        }
+
+        final List<Claim> overlapping = ClaimsList.getInstance(this)
+                .findOverlappingClaims(mBuilder.getClaimant(), mBuilder.getStartTime(), mBuilder.getEndTime());
+        int count = 0;
+        final StringBuilder names = new StringBuilder();
+        for (Claim claim : overlapping) {
+            if (claim.getId().equals(mBuilder.getId())) continue;
+
+            final String destinations = claim.getDestinationsAsString();
+            names.append(count++ == 0 ? "" : ", ")
+                    .append(destinations.isEmpty() ? getString(R.string.untitled_claim) : destinations)
+                    .append(" (").append(mDateFormat.format(claim.getStartTime()))
+                    .append(" – ").append(mDateFormat.format(claim.getEndTime())).append(')');
+        }
+
+        if (count == 0) {
+            mOverlappingClaims.setVisibility(View.GONE);
+        } else {
+            mOverlappingClaims.setText(getString(R.string.formatted_overlapping_claims, count, names));
+            mOverlappingClaims.setVisibility(View.VISIBLE);
+        }
+    }
+
+    private void updateTagSuggestions() {
+        mTagSuggestions.removeAllViews();
+        if (mBuilder.peekTags().isEmpty()) {
+            mTagSuggestions.setVisibility(View.GONE);
+            return;
+        }
+
+        final List<Tag> suggestions = TagsManager.get(this).findCooccurringTags(mBuilder.peekTags(), MAX_TAG_SUGGESTIONS);
+        for (final Tag tag : suggestions) {
+            final Button button = (Button) getLayoutInflater().inflate(R.layout.tag_suggestion_button, mTagSuggestions, false);
+            button.setText(tag.getName());
+            button.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    mBuilder.addTag(tag);
+                    update();
+                }
+            });
+            mTagSuggestions.addView(button);
+        }
+        mTagSuggestions.setVisibility(suggestions.isEmpty() ? View.GONE : View.VISIBLE);
     }
 
     private CharSequence getTagsAsCharSequence() {
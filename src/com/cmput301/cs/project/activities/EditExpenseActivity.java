@@ -3,10 +3,10 @@ package com.cmput301.cs.project.activities;
 import android.app.Activity;
 import android.content.Intent;
 import android.graphics.Bitmap;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.text.Editable;
-import android.util.Base64;
 import android.view.View;
 import android.widget.*;
 import com.cmput301.cs.project.controllers.App;
@@ -14,11 +14,12 @@ import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.TextWatcherAdapter;
 import com.cmput301.cs.project.controllers.SettingsController;
 import com.cmput301.cs.project.models.*;
+import com.cmput301.cs.project.utils.ReceiptCompressor;
+import com.cmput301.cs.project.utils.ReceiptImageLoader;
 import com.cmput301.cs.project.utils.Utils;
 import org.joda.money.CurrencyUnit;
 import org.joda.money.Money;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.util.ArrayList;
@@ -233,7 +234,6 @@ public class EditExpenseActivity extends Activity {
 
             case REQ_CODE_RECEIPT:
                 createReceipt(data);
-                updateUI();
                 break;
 
             case REQ_CODE_LOCATION:
@@ -249,29 +249,37 @@ public class EditExpenseActivity extends Activity {
 
 
     /*
-     *  Will take the image given by the data, convert it to a Base64 String, then create a receipt.
-     *  Is able to handle any possible exceptions that may occur
+     *  Will take the image given by the data, and compress it into a receipt in the background.
      */
     private void createReceipt(Intent data) {
-        // http://stackoverflow.com/questions/4830711/how-to-convert-a-image-into-base64-string
-        // April 6, 2015
-
-        data.getData();
         Bitmap bm = data.getParcelableExtra(MediaStore.EXTRA_OUTPUT);
 
         // The default camera app is a piece of shit
         if (bm == null) {
             bm = data.getParcelableExtra("data");
         }
+        if (bm == null) {
+            Toast.makeText(this, R.string.receipt_failed, Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        mReceipt.setEnabled(false);  // until compressed
+        new CompressReceiptTask().execute(bm);
+    }
+
+    private final class CompressReceiptTask extends AsyncTask<Bitmap, Void, Receipt> {
+        @Override
+        protected Receipt doInBackground(Bitmap... params) {
+            return ReceiptCompressor.compress(params[0]);
+        }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bm.compress(Bitmap.CompressFormat.JPEG, 100, baos);
-        byte[] bytes = baos.toByteArray();
+        @Override
+        protected void onPostExecute(Receipt receipt) {
+            if (isFinishing()) return;
 
-        try {
-            mBuilder.receipt(new Receipt(Base64.encodeToString(bytes, Base64.DEFAULT)));
-        } catch (IllegalArgumentException e) {
-            Toast.makeText(this, "Image was too large", Toast.LENGTH_LONG).show();
+            mReceipt.setEnabled(true);
+            mBuilder.receipt(receipt);
+            updateUI();
         }
     }
 
@@ -298,10 +306,12 @@ public class EditExpenseActivity extends Activity {
         mCompleted.setChecked(mBuilder.isCompleted());
 
         if (mBuilder.hasReceipt()) {
-            mReceipt.setImageBitmap(mBuilder.getReceipt().getBitmap());
+            final int size = getResources().getDimensionPixelSize(R.dimen.receipt_thumbnail_size);
+            ReceiptImageLoader.get().load(mBuilder.getReceipt(), mReceipt, size, size);
 
             mDeleteReceipt.setEnabled(true);
         } else {
+            ReceiptImageLoader.get().cancel(mReceipt);
             mReceipt.setImageDrawable(getResources().getDrawable(android.R.drawable.gallery_thumb));
 
             mDeleteReceipt.setEnabled(false);
@@ -15,6 +15,8 @@ import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.ClaimsList;
 import com.cmput301.cs.project.models.Expense;
 
+import java.util.Collections;
+
 /**
  * An activity that shows a list of all {@link com.cmput301.cs.project.models.Expense Expenses} associated with a {@link com.cmput301.cs.project.models.Claim Claim}. <p>
  * When an {@link com.cmput301.cs.project.models.Expense Expense} is clicked, {@link com.cmput301.cs.project.activities.ExpenseViewActivity ExpenseViewActivity} is called. <p>
@@ -134,14 +136,11 @@ public class ExpenseListActivity extends ListActivity {
         mAddExpense.getIcon().setAlpha(editable ? 255 : 255 / 2);
     }
 
-    /*
-     * This is basically a hack..... Will create a new adapter everytime it
-     * needs to update the list
-     */
     private void updateList() {
-        mAdapter = new ExpensesAdapter(this, mClaim.peekExpenses());
-        setListAdapter(mAdapter);
-
-        mAdapter.sort(Expense.OCCURRED_DESCENDING);
+        if (mAdapter == null) {
+            mAdapter = new ExpensesAdapter(this, Collections.<Expense>emptyList());
+            setListAdapter(mAdapter);
+        }
+        mAdapter.setExpenses(mClaim.peekExpenses());
     }
 }
@@ -16,6 +16,7 @@ import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.ClaimsList;
 import com.cmput301.cs.project.models.Destination;
 import com.cmput301.cs.project.models.Expense;
+import com.cmput301.cs.project.utils.ReceiptImageLoader;
 import com.google.android.gms.maps.model.LatLng;
 import org.joda.money.Money;
 
@@ -150,8 +151,11 @@ public class ExpenseViewActivity extends Activity {
         mCompleted.setText(mExpense.isCompleted() ? "Completed" : "In Progress");
 
         if (mExpense.hasReceipt()) {
-            mReceipt.setImageBitmap(mExpense.getReceipt().getBitmap());
+            // shown across the screen
+            final int width = getResources().getDisplayMetrics().widthPixels;
+            ReceiptImageLoader.get().load(mExpense.getReceipt(), mReceipt, width, width);
         } else {
+            ReceiptImageLoader.get().cancel(mReceipt);
             mReceipt.setImageDrawable(null);
         }
 
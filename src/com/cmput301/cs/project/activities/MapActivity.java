@@ -7,15 +7,23 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.location.Location;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.AutoCompleteTextView;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.PlaceAutocompleteAdapter;
+import com.cmput301.cs.project.controllers.App;
 import com.cmput301.cs.project.controllers.SettingsController;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ClaimsList;
 import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.models.LocationIndex;
+import com.cmput301.cs.project.models.PlacePrediction;
+import com.cmput301.cs.project.models.User;
 import com.cmput301.cs.project.utils.Utils;
+import com.cmput301.cs.project.utils.ZoomClusters;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GooglePlayServicesUtil;
 import com.google.android.gms.common.api.GoogleApiClient;
@@ -29,21 +37,32 @@ import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapFragment;
 import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 
 /**
  * Map activity returns a result with a destination packaged in the intent as {@link #KEY_DESTINATION}
  * <p/>
- * It allows a user to select a place on the map or enter the place name in a text box
+ * It allows a user to select a place on the map or enter the place name in a text box. The past destinations of the user
+ * are shown as markers, grouped into {@link ZoomClusters clusters} at the zoom level of the camera; tapping one picks
+ * it, and tapping a cluster zooms in until it splits up.
  */
 // Apr 3, 2015 https://github.com/googlesamples/android-play-places/blob/master/PlaceComplete/Application/src/main/java/com/example/google/playservices/placecomplete/MainActivity.java
 // Mar 31, 2015 http://developer.android.com/google/auth/api-client.html#Starting
 public class MapActivity extends Activity
-        implements OnMapReadyCallback, GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener, GoogleMap.OnMapClickListener, GoogleMap.OnCameraChangeListener, GoogleMap.OnMyLocationChangeListener {
+        implements OnMapReadyCallback, GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener, GoogleMap.OnMapClickListener, GoogleMap.OnCameraChangeListener, GoogleMap.OnMyLocationChangeListener, GoogleMap.OnMarkerClickListener {
     public static final String KEY_DESTINATION = "key_destination";
 
     // Request code to use when launching the resolution activity
@@ -56,6 +75,7 @@ public class MapActivity extends Activity
     private static final LatLngBounds BOUNDS_GREATER_SYDNEY = new LatLngBounds(
             new LatLng(-34.041458, 150.790100), new LatLng(-33.682247, 151.383362));
     private static final float ZOOM_PERCENTAGE = 0.8f;  // 80% zoom level
+    private static final LatLngBounds WORLD = new LatLngBounds(new LatLng(-90, -180), new LatLng(90, 180));
     private AutoCompleteTextView mAddressSearch;
 
     private Destination mOriginalDestination;
@@ -66,6 +86,13 @@ public class MapActivity extends Activity
     private GoogleMap mGoogleMap;
     private PlaceAutocompleteAdapter mAdapter;
     private Destination mHome;
+    // the marker of the place picked; null if none
+    private Marker mSelectedMarker;
+    // null until clustered in the background
+    private ZoomClusters mClusters;
+    private List<Destination> mPastDestinations;
+    // the markers of the clusters on screen; kept for the clusters still shown as the camera moves
+    private Map<ZoomClusters.Cluster, Marker> mClusterMarkers = new HashMap<ZoomClusters.Cluster, Marker>();
 
     private final Destination.Builder mBuilder = new Destination.Builder();
 
@@ -84,11 +111,15 @@ public class MapActivity extends Activity
         public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
             /*
              Retrieve the place ID of the selected item from the Adapter.
-             The adapter stores each Place suggestion in a PlaceAutocomplete object from which we
-             read the place ID.
+             The adapter stores each Place suggestion in a PlacePrediction object from which we
+             read the place ID; a past destination already has its location.
               */
-            final PlaceAutocompleteAdapter.PlaceAutocomplete item = mAdapter.getItem(position);
-            final String placeId = String.valueOf(item.placeId);
+            final PlacePrediction item = mAdapter.getItem(position);
+            if (item.getLocation() != null) {
+                updateWithNameAndLatLng(item.getDescription(), item.getLocation());
+                return;
+            }
+            final String placeId = item.getPlaceId();
 
             /*
              Issue a request to the Places Geo Data API to retrieve a Place object with additional
@@ -150,6 +181,8 @@ public class MapActivity extends Activity
 
         mOriginalDestination = getIntent().getParcelableExtra(KEY_DESTINATION);
 
+        new ClusterPastDestinationsTask().execute(App.get(this).getUser());
+
         mHome = SettingsController.get(this).loadHomeAsDestination();
         final LatLng location = mHome.getLocation();
         final String name = mHome.getName();
@@ -188,8 +221,10 @@ public class MapActivity extends Activity
 
     private void updateLatLng(LatLng latLng) {
         if (latLng == null) return;
-        mGoogleMap.clear();
-        mGoogleMap.addMarker(new MarkerOptions().position(latLng));
+        if (mSelectedMarker != null) {
+            mSelectedMarker.remove();
+        }
+        mSelectedMarker = mGoogleMap.addMarker(new MarkerOptions().position(latLng));
         animateMapTo(latLng);
         setResult(RESULT_OK, new Intent()
                 .putExtra(KEY_DESTINATION, mBuilder
@@ -215,6 +250,13 @@ public class MapActivity extends Activity
     @Override
     protected void onStop() {
         mGoogleApiClient.disconnect();
+        final PlaceAutocompleteAdapter adapter = mAdapter;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                adapter.saveCache();  // writes a file
+            }
+        });
         super.onStop();
     }
 
@@ -266,6 +308,7 @@ public class MapActivity extends Activity
         map.setMyLocationEnabled(true);
         map.setOnMapClickListener(this);
         map.setOnCameraChangeListener(this);
+        map.setOnMarkerClickListener(this);
         if (mOriginalDestination != null) {
             final String name = mOriginalDestination.getName();
             final LatLng location = mOriginalDestination.getLocation();
@@ -295,6 +338,85 @@ public class MapActivity extends Activity
     @Override
     public void onCameraChange(CameraPosition cameraPosition) {
         mAdapter.setBounds(mGoogleMap.getProjection().getVisibleRegion().latLngBounds);
+        showClusters();
+    }
+
+    // adds the markers of the clusters that came on screen, and removes the others
+    private void showClusters() {
+        if (mGoogleMap == null || mClusters == null) return;
+
+        final LatLngBounds bounds = mGoogleMap.getProjection().getVisibleRegion().latLngBounds;
+        final float zoom = mGoogleMap.getCameraPosition().zoom;
+        final Map<ZoomClusters.Cluster, Marker> shown = new HashMap<ZoomClusters.Cluster, Marker>();
+        for (ZoomClusters.Cluster cluster : mClusters.getClusters(bounds, zoom)) {
+            Marker marker = mClusterMarkers.remove(cluster);
+            if (marker == null) {
+                final String title = cluster.getCount() == 1
+                        ? mPastDestinations.get(cluster.getPointIndex()).getName()
+                        : getString(R.string.formatted_past_destinations, cluster.getCount());
+                marker = mGoogleMap.addMarker(new MarkerOptions()
+                        .position(cluster.getPosition())
+                        .title(title)
+                        .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_AZURE)));
+            }
+            shown.put(cluster, marker);
+        }
+        for (Marker gone : mClusterMarkers.values()) {
+            gone.remove();
+        }
+        mClusterMarkers = shown;
+    }
+
+    @Override
+    public boolean onMarkerClick(Marker marker) {
+        for (Map.Entry<ZoomClusters.Cluster, Marker> entry : mClusterMarkers.entrySet()) {
+            if (!entry.getValue().equals(marker)) continue;
+
+            final ZoomClusters.Cluster cluster = entry.getKey();
+            if (cluster.getCount() == 1) {
+                final Destination destination = mPastDestinations.get(cluster.getPointIndex());
+                updateWithNameAndLatLng(destination.getName(), destination.getLocation());
+            } else {
+                mGoogleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(cluster.getPosition(),
+                        Math.min(mGoogleMap.getMaxZoomLevel(), mClusters.getExpansionZoom(cluster))));
+            }
+            return true;
+        }
+        return false;  // the marker of the place picked
+    }
+
+    // clusters the destinations, with a location, of the claims and expenses of the user
+    private final class ClusterPastDestinationsTask extends AsyncTask<User, Void, ZoomClusters> {
+        private final List<Destination> mDestinations = new ArrayList<Destination>();
+
+        @Override
+        protected ZoomClusters doInBackground(User... params) {
+            final ClaimsList claimsList = ClaimsList.getInstance(MapActivity.this);
+            final Set<String> claimIds = new HashSet<String>();
+            for (Claim claim : claimsList.peekClaims()) {
+                if (claim.getClaimant().equals(params[0])) {
+                    claimIds.add(claim.getId());
+                }
+            }
+
+            final List<LatLng> locations = new ArrayList<LatLng>();
+            for (LocationIndex.Place place : claimsList.findPlacesInside(WORLD)) {
+                if (claimIds.contains(place.getClaimId())) {
+                    mDestinations.add(place.getDestination());
+                    locations.add(place.getDestination().getLocation());
+                }
+            }
+            return new ZoomClusters(locations);
+        }
+
+        @Override
+        protected void onPostExecute(ZoomClusters clusters) {
+            if (isFinishing()) return;
+
+            mPastDestinations = mDestinations;
+            mClusters = clusters;
+            showClusters();
+        }
     }
 
     @Override
@@ -4,14 +4,21 @@ import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.Spinner;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.controllers.SettingsController;
 import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.models.Expense;
+import org.joda.money.CurrencyUnit;
+
+import java.util.ArrayList;
 
 
 /**
- * Allows a user to choose a home location using a {@link MapActivity}
+ * Allows a user to choose a home location using a {@link MapActivity}, and a home currency that totals are converted into
  */
 public class SettingsActivity extends Activity {
 
@@ -36,6 +43,22 @@ public class SettingsActivity extends Activity {
             }
         });
 
+        final ArrayAdapter<CurrencyUnit> currencies = new ArrayAdapter<CurrencyUnit>(this,
+                android.R.layout.simple_spinner_item, new ArrayList<CurrencyUnit>(Expense.CURRENCIES));
+        final Spinner homeCurrency = (Spinner) findViewById(R.id.home_currency);
+        homeCurrency.setAdapter(currencies);
+        homeCurrency.setSelection(currencies.getPosition(SettingsController.get(this).loadHomeCurrency()));
+        homeCurrency.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                SettingsController.get(SettingsActivity.this).saveHomeCurrency(currencies.getItem(position));
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
         updateUi();
     }
 
@@ -15,6 +15,7 @@ import com.cmput301.cs.project.controllers.TagsManager;
   * An activity that shows a list of {@link com.cmput301.cs.project.models.Tag Tags} that can be clicked to be edited.
  * Also has a menu button for the addition of new tags. Both of these call 
  * {@link com.cmput301.cs.project.activities.TagEditActivity TagEditActivity}. 
+ * Each tag shows how many claims use it and what it is often used with.
  *
   * This is launched from the ClaimsListActivity
   *
@@ -34,6 +35,13 @@ public class TagManagerActivity extends ListActivity {
         setListAdapter(mTagsAdapter);
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // usage may have changed while another activity was shown
+        mTagsAdapter.notifyDataSetChanged();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
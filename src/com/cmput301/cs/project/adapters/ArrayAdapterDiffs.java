@@ -0,0 +1,90 @@
+package com.cmput301.cs.project.adapters;
+
+import android.widget.ArrayAdapter;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.Expense;
+import com.cmput301.cs.project.utils.ListDiff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Updates an {@link ArrayAdapter} to a new list with only the changes found by {@link ListDiff}, notifying observers
+ * once, or not at all if nothing changed. Must be used on the UI thread.
+ * <p/>
+ * Each change shifts the items after it, and removing an item first searches for it with {@code equals}, so a diff of
+ * more than {@link #MAX_OPERATIONS} changes is applied by refilling the adapter instead, in one pass.
+ */
+final class ArrayAdapterDiffs {
+
+    private static final int MAX_OPERATIONS = 16;
+
+    /**
+     * Matches claims by id; a claim changed if it was built again.
+     */
+    static final ListDiff.Keys<Claim> CLAIM_KEYS = new ListDiff.Keys<Claim>() {
+        @Override
+        public String keyOf(Claim item) {
+            return item.getId();
+        }
+
+        @Override
+        public boolean isSameVersion(Claim oldItem, Claim newItem) {
+            return oldItem.getModified() == newItem.getModified();
+        }
+    };
+
+    /**
+     * Matches expenses by id; an expense changed if any field did.
+     */
+    static final ListDiff.Keys<Expense> EXPENSE_KEYS = new ListDiff.Keys<Expense>() {
+        @Override
+        public String keyOf(Expense item) {
+            return item.getId();
+        }
+
+        @Override
+        public boolean isSameVersion(Expense oldItem, Expense newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private ArrayAdapterDiffs() {
+        throw new AssertionError();
+    }
+
+    static <T> void update(final ArrayAdapter<T> adapter, List<T> newItems, ListDiff.Keys<T> keys) {
+        final List<T> oldItems = new ArrayList<T>(adapter.getCount());
+        for (int i = 0; i < adapter.getCount(); i++) {
+            oldItems.add(adapter.getItem(i));
+        }
+
+        final ListDiff diff = ListDiff.of(oldItems, newItems, keys);
+        if (diff.isEmpty()) return;
+
+        adapter.setNotifyOnChange(false);
+        if (diff.getOperations() > MAX_OPERATIONS) {
+            adapter.clear();
+            adapter.addAll(newItems);
+        } else {
+            diff.applyTo(new ListDiff.Target<T>() {
+                @Override
+                public void remove(int position) {
+                    adapter.remove(adapter.getItem(position));  // keys are unique, so it is the first equal item
+                }
+
+                @Override
+                public void insert(T item, int position) {
+                    adapter.insert(item, position);
+                }
+
+                @Override
+                public void set(T item, int position) {
+                    adapter.remove(adapter.getItem(position));
+                    adapter.insert(item, position);
+                }
+            }, newItems);
+        }
+        adapter.notifyDataSetChanged();  // also turns notifying on change back on
+    }
+}
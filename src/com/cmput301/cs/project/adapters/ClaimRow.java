@@ -0,0 +1,114 @@
+package com.cmput301.cs.project.adapters;
+
+import android.graphics.Color;
+import com.cmput301.cs.project.models.Claim;
+
+/**
+ * Everything a row of {@link ClaimsClaimantAdapter} or {@link ClaimsApproverAdapter} shows for one version of a
+ * {@link Claim}, formatted ahead of time so binding a row only sets fields. This is an immutable class.
+ *
+ * @see ClaimRows
+ */
+public final class ClaimRow {
+    private final String mClaimId;
+    private final long mModified;
+    private final String mClaimantName;
+    private final String mStartDate;
+    private final int mStatus;
+    private final String mTags;
+    private final String mTotals;
+    private final String mConvertedTotals;
+    private final String mDestinations;
+    private final String mApprovers;
+    private final int mDistanceColour;
+    private final String mRoute;
+
+    ClaimRow(Claim claim, String startDate, int status, String convertedTotals, int distanceColour, String route) {
+        this(claim, startDate, status, claim.getTagsAsString(), claim.getTotalsAsString(), convertedTotals,
+                claim.getDestinationsAsString(), claim.getAllApprovers(), distanceColour, route);
+    }
+
+    private ClaimRow(Claim claim, String startDate, int status, String tags, String totals, String convertedTotals,
+                     String destinations, String approvers, int distanceColour, String route) {
+        mClaimId = claim.getId();
+        mModified = claim.getModified();
+        mClaimantName = claim.getClaimant().getUserName();
+        mStartDate = startDate;
+        mStatus = status;
+        mTags = tags;
+        mTotals = totals;
+        mConvertedTotals = convertedTotals;
+        mDestinations = destinations;
+        mApprovers = approvers;
+        mDistanceColour = distanceColour;
+        mRoute = route;
+    }
+
+    /**
+     * Makes a row to show until the row of the claim is made, with only what is cheap to format: the claimant, start
+     * date and status. The rest is blank, and the distance colour transparent.
+     */
+    static ClaimRow placeholderOf(Claim claim, String startDate, int status) {
+        return new ClaimRow(claim, startDate, status, "", "", "", "", "", Color.TRANSPARENT, "");
+    }
+
+    /**
+     * @param claim non-null {@link Claim}
+     * @return if this row was made from this version of the claim
+     */
+    public boolean isOf(Claim claim) {
+        return mModified == claim.getModified() && mClaimId.equals(claim.getId());
+    }
+
+    public String getClaimantName() {
+        return mClaimantName;
+    }
+
+    public String getStartDate() {
+        return mStartDate;
+    }
+
+    /**
+     * @return the string resource id of the status
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    public String getTags() {
+        return mTags;
+    }
+
+    public String getTotals() {
+        return mTotals;
+    }
+
+    /**
+     * @return the totals, followed by the total in the home currency if any other currency is used
+     */
+    public String getConvertedTotals() {
+        return mConvertedTotals;
+    }
+
+    public String getDestinations() {
+        return mDestinations;
+    }
+
+    public String getApprovers() {
+        return mApprovers;
+    }
+
+    /**
+     * @return the colour for the distance of the first destination from home; transparent if unknown
+     */
+    public int getDistanceColour() {
+        return mDistanceColour;
+    }
+
+    /**
+     * @return the length of the route and the cost per kilometre; empty if there is no route
+     */
+    public String getRoute() {
+        return mRoute;
+    }
+}
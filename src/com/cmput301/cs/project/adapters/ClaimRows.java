@@ -0,0 +1,150 @@
+package com.cmput301.cs.project.adapters;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import com.cmput301.cs.project.R;
+import com.cmput301.cs.project.controllers.CurrencyConverter;
+import com.cmput301.cs.project.controllers.RouteAnalytics;
+import com.cmput301.cs.project.controllers.SettingsController;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLng;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes and caches a {@link ClaimRow} for each version of a {@link Claim}, by its {@link Claim#getId() id} and
+ * {@link Claim#getModified() modified} stamp. {@link #prepare(List, Runnable)} makes the rows of a list off the UI
+ * thread, so scrolling through it only looks rows up. A row looked up before it is made is a cheap placeholder, and the
+ * adapter is told to bind its rows again once they are made.
+ * <p/>
+ * Use {@link #get(Context)} to obtain the instance for the current home currency and home location; the rows depend on
+ * both. Apart from {@code get(Context)}, thread safe.
+ */
+public final class ClaimRows {
+
+    private static ClaimRows sInstance;
+
+    /**
+     * Obtains the {@code ClaimRows} for the current settings. Must be called on the UI thread.
+     *
+     * @param context non-null instance of {@link Context}
+     * @return an instance of {@code ClaimRows}; never null
+     */
+    public static ClaimRows get(Context context) {
+        final CurrencyConverter converter = CurrencyConverter.get(context);  // a new instance if the currency changed
+        final LatLng home = SettingsController.get(context).loadHomeAsDestination().getLocation();
+        if (sInstance == null || sInstance.mConverter != converter
+                || (home == null ? sInstance.mHome != null : !home.equals(sInstance.mHome))) {
+            sInstance = new ClaimRows(context.getApplicationContext(), converter, RouteAnalytics.get(context), home);
+        }
+        return sInstance;
+    }
+
+    private final Context mContext;
+    private final CurrencyConverter mConverter;
+    private final RouteAnalytics mRouteAnalytics;
+    private final LatLng mHome;
+    private final SettingsController mSettings;
+    private final DateFormat mDateFormat;  // guarded by itself; DateFormat is not thread safe
+    private final ConcurrentHashMap<String, ClaimRow> mRowsById = new ConcurrentHashMap<String, ClaimRow>();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private ClaimRows(Context context, CurrencyConverter converter, RouteAnalytics routeAnalytics, LatLng home) {
+        mContext = context;
+        mConverter = converter;
+        mRouteAnalytics = routeAnalytics;
+        mHome = home;
+        mSettings = SettingsController.get(context);
+        mDateFormat = android.text.format.DateFormat.getMediumDateFormat(context);  // with respect to user settings
+    }
+
+    /**
+     * Finds the row of this version of the claim. If it is not made yet, gives a placeholder, which is not cached;
+     * the claim must be in a list given to {@link #prepare(List, Runnable)}, which makes the row.
+     *
+     * @param claim non-null {@link Claim}
+     * @return the row, or a placeholder with only the claimant, start date and status; never null
+     */
+    public ClaimRow rowOf(Claim claim) {
+        Utils.nonNullOrThrow(claim, "claim");
+        final ClaimRow cached = mRowsById.get(claim.getId());
+        if (cached != null && cached.isOf(claim)) {
+            return cached;
+        }
+
+        return ClaimRow.placeholderOf(claim, formatStartDate(claim), Utils.stringIdForClaimStatus(claim.getStatus()));
+    }
+
+    /**
+     * Makes the rows of the claims that are not cached yet on a background thread, classifying their distances from
+     * home in one batch.
+     *
+     * @param claims     non-null {@link List} of non-null {@link Claim Claims}; copied, so it may be changed afterwards
+     * @param onPrepared non-null {@link Runnable} run on the UI thread once the rows are made, if any were, such as to
+     *                   replace placeholders with {@code notifyDataSetChanged()}
+     */
+    public void prepare(List<Claim> claims, final Runnable onPrepared) {
+        Utils.nonNullOrThrow(onPrepared, "onPrepared");
+        final List<Claim> copy = new ArrayList<Claim>(claims);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<Claim> missing = new ArrayList<Claim>();
+                final List<LatLng> locations = new ArrayList<LatLng>();
+                for (Claim claim : copy) {
+                    final ClaimRow cached = mRowsById.get(claim.getId());
+                    if (cached == null || !cached.isOf(claim)) {
+                        missing.add(claim);
+                        locations.add(locationOf(claim));
+                    }
+                }
+
+                final int[] colours = new int[missing.size()];
+                if (mHome != null) {
+                    mSettings.coloursForLatLngs(locations, colours);  // else all Color.TRANSPARENT, which is 0
+                }
+                for (int i = 0; i < colours.length; i++) {
+                    mRowsById.put(missing.get(i).getId(), newRow(missing.get(i), colours[i]));
+                }
+                if (!missing.isEmpty()) {
+                    mMainHandler.post(onPrepared);
+                }
+            }
+        });
+    }
+
+    // the location the row is coloured by; null if none
+    private static LatLng locationOf(Claim claim) {
+        final List<Destination> destinations = claim.getDestinations();
+        return destinations.isEmpty() ? null : destinations.get(0).getLocation();
+    }
+
+    private ClaimRow newRow(Claim claim, int colour) {
+        return new ClaimRow(claim, formatStartDate(claim), Utils.stringIdForClaimStatus(claim.getStatus()),
+                mConverter.formatTotals(mContext, claim), colour, formatRoute(claim));
+    }
+
+    private String formatStartDate(Claim claim) {
+        synchronized (mDateFormat) {
+            return mDateFormat.format(new Date(claim.getStartTime()));
+        }
+    }
+
+    private String formatRoute(Claim claim) {
+        final RouteAnalytics.Route route = mRouteAnalytics.analyze(claim);
+        if (route.getLegs() == 0) return "";
+
+        final double km = route.getLengthMeters() / 1000;
+        return route.hasCostPerKm()
+                ? mContext.getString(R.string.formatted_route, km, route.getCostPerKm().toString())
+                : mContext.getString(R.string.formatted_route_length, km);
+    }
+}
@@ -10,17 +10,18 @@ import android.widget.ArrayAdapter;
 import android.widget.TextView;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.models.Claim;
-import com.cmput301.cs.project.utils.Utils;
 
-import java.text.DateFormat;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Adapts a claim to be viewed by an approver with all special fields set.
  * Uses a custom layout.
  * Only valid constructor is ClaimsApproverAdapter(Context context, List<Claim> claims)
- * Displays the claimant name, claim startdate, status, total expense costs and previous approver names
+ * Displays the claimant name, claim startdate, status, total expense costs (also in the home currency), route length and
+ * cost per km, and previous approver names
+ * Rows are bound from {@link ClaimRows}, which formats them off the UI thread. The claims are filtered and sorted
+ * before {@link #setClaims(List)}, by {@link com.cmput301.cs.project.controllers.ClaimListQuery ClaimListQuery}.
  */
 
 public class ClaimsApproverAdapter extends ArrayAdapter<Claim> {
@@ -30,12 +31,14 @@ public class ClaimsApproverAdapter extends ArrayAdapter<Claim> {
         private final TextView startDate;
         private final TextView status;
         private final TextView totals;
+        private final TextView route;
         private final TextView approverName;
 
         private ViewHolder(View parent) {
             name = (TextView) parent.findViewById(R.id.name);
             startDate = (TextView) parent.findViewById(R.id.start_date);
             totals = (TextView) parent.findViewById(R.id.totals);
+            route = (TextView) parent.findViewById(R.id.route);
             status = (TextView) parent.findViewById(R.id.status);
             approverName = (TextView) parent.findViewById(R.id.approverName);
         }
@@ -43,13 +46,21 @@ public class ClaimsApproverAdapter extends ArrayAdapter<Claim> {
 
     private final LayoutInflater mInflater;
 
-    private final DateFormat mDateFormat;
+    private final ClaimRows mRows;
+    // binds the rows again once ClaimRows made them, replacing any placeholders shown
+    private final Runnable mRebind = new Runnable() {
+        @Override
+        public void run() {
+            notifyDataSetChanged();
+        }
+    };
 
     public ClaimsApproverAdapter(Context context, List<Claim> claims) {
-        super(context, R.layout.claim_list_approver_item, claims);
+        super(context, R.layout.claim_list_approver_item, new ArrayList<Claim>(claims));
 
         mInflater = LayoutInflater.from(context);
-        mDateFormat = android.text.format.DateFormat.getMediumDateFormat(context);
+        mRows = ClaimRows.get(context);
+        mRows.prepare(claims, mRebind);
     }
 
     @Override
@@ -63,14 +74,36 @@ public class ClaimsApproverAdapter extends ArrayAdapter<Claim> {
             holder = (ViewHolder) convertView.getTag();
         }
 
-        final Claim claim = getItem(position);
+        final ClaimRow row = mRows.rowOf(getItem(position));
 
-        holder.name.setText(claim.getClaimant().getUserName());
-        holder.startDate.setText(mDateFormat.format(new Date(claim.getStartTime())));
-        holder.status.setText(Utils.stringIdForClaimStatus(claim.getStatus()));
-        holder.totals.setText(claim.getTotalsAsString());
-        holder.approverName.setText(claim.getAllApprovers());
+        holder.name.setText(row.getClaimantName());
+        holder.startDate.setText(row.getStartDate());
+        holder.status.setText(row.getStatus());
+        holder.totals.setText(row.getConvertedTotals());
+        holder.route.setText(row.getRoute());
+        holder.approverName.setText(row.getApprovers());
 
         return convertView;
     }
+
+    /**
+     * Replaces the claims shown. Only the claims added, removed, moved or edited since are changed, and observers are
+     * not notified if none are, so the list keeps its rows and scroll position.
+     *
+     * @param claims non-null {@link List} of non-null {@link Claim Claims}, in the order to show them
+     */
+    public void setClaims(List<Claim> claims) {
+        mRows.prepare(claims, mRebind);
+        ArrayAdapterDiffs.update(this, claims, ArrayAdapterDiffs.CLAIM_KEYS);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId().hashCode();  // the same for every version of the claim
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
 }
@@ -21,32 +21,21 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.widget.TextView;
 import com.cmput301.cs.project.R;
-import com.cmput301.cs.project.controllers.SettingsController;
 import com.cmput301.cs.project.models.Claim;
-import com.cmput301.cs.project.models.Destination;
-import com.cmput301.cs.project.models.Tag;
-import com.cmput301.cs.project.utils.Utils;
-import com.google.android.gms.maps.model.LatLng;
 
-import java.text.DateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
  * Basic adapter that adapts a {@link com.cmput301.cs.project.models.Claim Claim} to be viewable in a ListView. Not entirely correct yet.
+ * Rows are bound from {@link ClaimRows}, which formats them off the UI thread. The claims are filtered and sorted
+ * before {@link #setClaims(List)}, by {@link com.cmput301.cs.project.controllers.ClaimListQuery ClaimListQuery}.
  *
  * @author rozsa
  */
-// The code for filtering was from
-// From http://stackoverflow.com/questions/5780289/filtering-listview-with-custom-object-adapter April 5, 2015
-// and http://www.survivingwithandroid.com/2012/10/android-listview-custom-filter-and.html April 5, 2015
-// (Used some ideas from both)
-public final class ClaimsClaimantAdapter extends ArrayAdapter<Claim> implements Filterable {
+public final class ClaimsClaimantAdapter extends ArrayAdapter<Claim> {
 
     private static final class ViewHolder {
         private final TextView status;
@@ -66,30 +55,24 @@ public final class ClaimsClaimantAdapter extends ArrayAdapter<Claim> implements
         }
     }
 
-    private final ClaimsFilter mFilter;
-
     private final LayoutInflater mInflater;
 
-    private final DateFormat mDateFormat;
-
-    private final SettingsController mSettingsController;
-
-    private final List<Claim> mUnfilteredClaims;
-    private final LatLng mHome;
-    private List<Claim> mFilteredClaims;
+    private final ClaimRows mRows;
+    // binds the rows again once ClaimRows made them, replacing any placeholders shown
+    private final Runnable mRebind = new Runnable() {
+        @Override
+        public void run() {
+            notifyDataSetChanged();
+        }
+    };
 
     public ClaimsClaimantAdapter(Context context, List<Claim> claims) {
-        super(context, R.layout.claim_list_claimant_item, claims);
-        mHome = SettingsController.get(context).loadHomeAsDestination().getLocation();
+        super(context, R.layout.claim_list_claimant_item, new ArrayList<Claim>(claims));
 
         mInflater = LayoutInflater.from(context);
-        mDateFormat = android.text.format.DateFormat.getMediumDateFormat(context);  // with respect to user settings
 
-        mFilter = new ClaimsFilter();
-        mSettingsController = SettingsController.get(context);
-
-        mUnfilteredClaims = claims;
-        mFilteredClaims = claims;
+        mRows = ClaimRows.get(context);
+        mRows.prepare(claims, mRebind);
     }
 
     @Override
@@ -103,94 +86,36 @@ public final class ClaimsClaimantAdapter extends ArrayAdapter<Claim> implements
             holder = (ViewHolder) convertView.getTag();
         }
 
-        final Claim claim = getItem(position);
-
-        holder.startDate.setText(mDateFormat.format(new Date(claim.getStartTime())));
-        holder.status.setText(Utils.stringIdForClaimStatus(claim.getStatus()));
-        holder.tags.setText(claim.getTagsAsString());
-        holder.totals.setText(claim.getTotalsAsString());
-        holder.destinations.setText(claim.getDestinationsAsString());
+        final ClaimRow row = mRows.rowOf(getItem(position));
 
-        final List<Destination> destinations = claim.getDestinations();
-        if (!destinations.isEmpty()) {
-            final int colour = mSettingsController.colourForLatLng(destinations.get(0).getLocation());
-            holder.distanceColour.setBackgroundColor(colour);
-        }
+        holder.startDate.setText(row.getStartDate());
+        holder.status.setText(row.getStatus());
+        holder.tags.setText(row.getTags());
+        holder.totals.setText(row.getTotals());
+        holder.destinations.setText(row.getDestinations());
+        holder.distanceColour.setBackgroundColor(row.getDistanceColour());  // also clears the colour of a recycled row
 
         return convertView;
     }
 
-    @Override
-    public int getCount() {
-        return mFilteredClaims.size();
-    }
-
-    @Override
-    public Claim getItem(int position) {
-        return mFilteredClaims.get(position);
-    }
-
     @Override
     public long getItemId(int position) {
-        return mFilteredClaims.get(position).hashCode();
+        return getItem(position).getId().hashCode();  // the same for every version of the claim
     }
 
-    /*
-     * Will automatically refilter the adapter
+    /**
+     * Replaces the claims shown. Only the claims added, removed, moved or edited since are changed, and observers are
+     * not notified if none are, so the list keeps its rows and scroll position.
+     *
+     * @param claims non-null {@link List} of non-null {@link Claim Claims}, in the order to show them
      */
-    public void updateFilter(List<Tag> allWantedTags) {
-        mFilter.setWantedTags(allWantedTags);
-        getFilter().filter("");
-    }
-
-    public Filter getFilter() {
-        return mFilter;
+    public void setClaims(List<Claim> claims) {
+        mRows.prepare(claims, mRebind);
+        ArrayAdapterDiffs.update(this, claims, ArrayAdapterDiffs.CLAIM_KEYS);
     }
 
-
-    private class ClaimsFilter extends Filter {
-        private List<Tag> mWantedTags;
-
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            FilterResults results = new FilterResults();
-
-            if (mWantedTags.size() == 0) {
-                // In this case, keep everything
-                results.values = mUnfilteredClaims;
-
-            } else {
-                final ArrayList<Claim> newFilteredList = new ArrayList<Claim>();
-
-                for (Claim claim : mUnfilteredClaims) {
-                    boolean oneTagWasInList = false;
-
-                    for (Tag tag : claim.peekTags()) {
-                        if (mWantedTags.contains(tag)) {
-                            oneTagWasInList = true;
-                        }
-                    }
-
-                    if (oneTagWasInList) {
-                        newFilteredList.add(claim);
-                    }
-                }
-
-                results.values = newFilteredList;
-            }
-
-            return results;
-        }
-
-        @SuppressWarnings("unchecked") // Know the values will be a List<Claim>
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            mFilteredClaims = (List<Claim>) results.values;
-            ClaimsClaimantAdapter.this.notifyDataSetChanged();
-        }
-
-        public void setWantedTags(List<Tag> wantedTags) {
-            this.mWantedTags = wantedTags;
-        }
+    @Override
+    public boolean hasStableIds() {
+        return true;
     }
-}
\ No newline at end of file
+}
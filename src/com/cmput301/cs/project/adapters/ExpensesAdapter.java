@@ -29,6 +29,7 @@ import com.cmput301.cs.project.models.Expense;
 
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -77,6 +78,28 @@ public final class ExpensesAdapter extends ArrayAdapter<Expense> {
         mSettingsController = SettingsController.get(context);
     }
 
+    /**
+     * Replaces the expenses shown, most recent first. Only the expenses added, removed, moved or edited since are
+     * changed, and observers are not notified if none are, so the list keeps its rows and scroll position.
+     *
+     * @param expenses non-null {@link List} of non-null {@link Expense Expenses}; copied before sorting
+     */
+    public void setExpenses(List<Expense> expenses) {
+        final List<Expense> sorted = new ArrayList<Expense>(expenses);
+        Collections.sort(sorted, Expense.OCCURRED_DESCENDING);
+        ArrayAdapterDiffs.update(this, sorted, ArrayAdapterDiffs.EXPENSE_KEYS);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId().hashCode();  // the same for every version of the expense
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
         final ViewHolder holder;
@@ -17,11 +17,17 @@
 package com.cmput301.cs.project.adapters;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.widget.ArrayAdapter;
 import android.widget.Filter;
 import android.widget.Filterable;
 import android.widget.Toast;
+import com.cmput301.cs.project.controllers.PlaceSuggester;
+import com.cmput301.cs.project.models.ClaimsList;
+import com.cmput301.cs.project.models.PlacePrediction;
+import com.cmput301.cs.project.serialization.LocalSaver;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.api.Status;
@@ -33,13 +39,19 @@ import com.google.android.gms.maps.model.LatLngBounds;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Adapter that handles Autocomplete requests from the Places Geo Data API.
- * Results are encoded as {@link PlaceAutocomplete}
+ * Results are encoded as {@link PlacePrediction}
  * objects
- * that contain both the Place ID and the text description from the autocomplete query.
+ * that contain either the Place ID and the text description from the autocomplete query, or the location of a past
+ * destination of the user, which needs no query at all.
+ * <p/>
+ * Queries go through a {@link PlaceSuggester}: past destinations are shown as soon as the user types, and the API is
+ * only asked once the user stops typing, and only for text and bounds it has not answered before, even in an earlier
+ * session. Call {@link #saveCache()} off the UI thread when the user leaves, such as from {@code onStop}.
  * <p/>
  * Note that this adapter requires a valid {@link com.google.android.gms.common.api.GoogleApiClient}.
  * The API client must be maintained in the encapsulating Activity, including all lifecycle and
@@ -52,29 +64,36 @@ import java.util.concurrent.TimeUnit;
  */
 // Apr 3, 2015 https://github.com/googlesamples/android-play-places/blob/master/PlaceComplete/Application/src/main/java/com/example/google/playservices/placecomplete/PlaceAutocompleteAdapter.java
 public class PlaceAutocompleteAdapter
-        extends ArrayAdapter<PlaceAutocompleteAdapter.PlaceAutocomplete> implements Filterable {
+        extends ArrayAdapter<PlacePrediction> implements Filterable {
 
     private static final String TAG = "PlaceAutoAdapter";
     /**
-     * Current results returned by this adapter.
+     * Current results returned by this adapter. Only changed on the UI thread.
      */
-    private ArrayList<PlaceAutocomplete> mResultList;
+    private List<PlacePrediction> mResultList = new ArrayList<PlacePrediction>();
 
     /**
      * Handles autocomplete requests.
      */
-    private GoogleApiClient mGoogleApiClient;
+    private volatile GoogleApiClient mGoogleApiClient;
 
     /**
      * The bounds used for Places Geo Data autocomplete API requests.
      */
-    private LatLngBounds mBounds;
+    private volatile LatLngBounds mBounds;
 
     /**
      * The autocomplete filter used to restrict queries to a specific set of place types.
      */
     private AutocompleteFilter mPlaceFilter;
 
+    /**
+     * Debounces and caches the autocomplete requests, and adds past destinations.
+     */
+    private final PlaceSuggester mSuggester;
+    private final LocalSaver mSaver;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
     /**
      * Initializes with a resource for text rows and autocomplete query bounds.
      *
@@ -85,6 +104,14 @@ public class PlaceAutocompleteAdapter
         super(context, resource);
         mBounds = bounds;
         mPlaceFilter = filter;
+        mSaver = LocalSaver.ofAndroid(context);
+        mSuggester = new PlaceSuggester(PlaceSuggester.pastDestinationsOf(ClaimsList.getInstance(context)),
+                new PlaceSuggester.PredictionSource() {
+                    @Override
+                    public List<PlacePrediction> predict(String text, LatLngBounds bounds) {
+                        return getAutocomplete(text, bounds);
+                    }
+                }, mSaver.readPredictionCache(), PlaceSuggester.DEBOUNCE_MILLIS);
     }
 
     /**
@@ -110,6 +137,14 @@ public class PlaceAutocompleteAdapter
         mBounds = bounds;
     }
 
+    /**
+     * Saves the autocomplete results received in this session, so later sessions need not ask for them again. Writes a
+     * file, so must not be called on the UI thread.
+     */
+    public void saveCache() {
+        mSuggester.saveCache(mSaver);
+    }
+
     /**
      * Returns the number of results received in the last autocomplete query.
      */
@@ -122,7 +157,7 @@ public class PlaceAutocompleteAdapter
      * Returns an item from the last autocomplete query.
      */
     @Override
-    public PlaceAutocomplete getItem(int position) {
+    public PlacePrediction getItem(int position) {
         return mResultList.get(position);
     }
 
@@ -132,29 +167,57 @@ public class PlaceAutocompleteAdapter
     @Override
     public Filter getFilter() {
         Filter filter = new Filter() {
+            @Override
+            public void filter(CharSequence constraint, FilterListener listener) {
+                // Called on the UI thread for every keystroke; a query still waiting for the user to stop typing
+                // is dropped.
+                mSuggester.request(constraint == null ? "" : constraint.toString());
+                super.filter(constraint, listener);
+            }
+
             @Override
             protected FilterResults performFiltering(CharSequence constraint) {
                 FilterResults results = new FilterResults();
                 // Skip the autocomplete query if no constraints are given.
-                if (constraint != null) {
-                    // Query the autocomplete API for the (constraint) search string.
-                    mResultList = getAutocomplete(constraint);
-                    if (mResultList != null) {
-                        // The API successfully returned results.
-                        results.values = mResultList;
-                        results.count = mResultList.size();
+                if (constraint == null) {
+                    results.values = new ArrayList<PlacePrediction>();
+                } else {
+                    final String text = constraint.toString();
+                    final LatLngBounds bounds = mBounds;
+
+                    // Show the past destinations and cached results at once.
+                    final List<PlacePrediction> local = mSuggester.suggestLocally(text, bounds);
+                    if (!local.isEmpty()) {
+                        mHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                setResults(local);
+                            }
+                        });
                     }
+
+                    // Query the autocomplete API for the (constraint) search string, once the user stops typing.
+                    final List<PlacePrediction> suggestions = mSuggester.suggest(text, bounds);
+                    // null if the user typed something else meanwhile; keep what is shown until that is done
+                    results.values = suggestions;
+                    results.count = suggestions == null ? 0 : suggestions.size();
                 }
                 return results;
             }
 
             @Override
+            @SuppressWarnings("unchecked")  // from performFiltering
             protected void publishResults(CharSequence constraint, FilterResults results) {
+                if (results != null && results.values == null) {
+                    // Superseded by what the user typed since, whose results come next; clearing would flicker.
+                    return;
+                }
                 if (results != null && results.count > 0) {
                     // The API returned at least one result, update the data.
-                    notifyDataSetChanged();
+                    setResults((List<PlacePrediction>) results.values);
                 } else {
                     // The API did not return any results, invalidate the data set.
+                    mResultList = new ArrayList<PlacePrediction>();
                     notifyDataSetInvalidated();
                 }
             }
@@ -162,9 +225,14 @@ public class PlaceAutocompleteAdapter
         return filter;
     }
 
+    private void setResults(List<PlacePrediction> results) {
+        mResultList = results;
+        notifyDataSetChanged();
+    }
+
     /**
      * Submits an autocomplete query to the Places Geo Data Autocomplete API.
-     * Results are returned as {@link PlaceAutocomplete}
+     * Results are returned as {@link PlacePrediction}
      * objects to store the Place ID and description that the API returns.
      * Returns an empty list if no results were found.
      * Returns null if the API client is not available or the query did not complete
@@ -173,19 +241,21 @@ public class PlaceAutocompleteAdapter
      * from the API, which may include a network request.
      *
      * @param constraint Autocomplete query string
+     * @param bounds     The bounds to bias the results to
      * @return Results from the autocomplete API or null if the query was not successful.
      * @see Places#GEO_DATA_API#getAutocomplete(CharSequence)
      */
-    private ArrayList<PlaceAutocomplete> getAutocomplete(CharSequence constraint) {
-        if (mGoogleApiClient != null) {
+    private List<PlacePrediction> getAutocomplete(String constraint, LatLngBounds bounds) {
+        final GoogleApiClient googleApiClient = mGoogleApiClient;
+        if (googleApiClient != null) {
             Log.i(TAG, "Starting autocomplete query for: " + constraint);
 
             // Submit the query to the autocomplete API and retrieve a PendingResult that will
             // contain the results when the query completes.
             PendingResult<AutocompletePredictionBuffer> results =
                     Places.GeoDataApi
-                            .getAutocompletePredictions(mGoogleApiClient, constraint.toString(),
-                                    mBounds, mPlaceFilter);
+                            .getAutocompletePredictions(googleApiClient, constraint,
+                                    bounds, mPlaceFilter);
 
             // This method should have been called off the main UI thread. Block and wait for at most 60s
             // for a result from the API.
@@ -195,8 +265,13 @@ public class PlaceAutocompleteAdapter
             // Confirm that the query completed successfully, otherwise return null
             final Status status = autocompletePredictions.getStatus();
             if (!status.isSuccess()) {
-                Toast.makeText(getContext(), "Error contacting API: " + status.toString(),
-                        Toast.LENGTH_SHORT).show();
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        Toast.makeText(getContext(), "Error contacting API: " + status.toString(),
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
                 Log.e(TAG, "Error getting autocomplete prediction API call: " + status.toString());
                 autocompletePredictions.release();
                 return null;
@@ -206,11 +281,11 @@ public class PlaceAutocompleteAdapter
             // AutocompletePrediction objects encapsulate the API response (place ID and description).
 
             Iterator<AutocompletePrediction> iterator = autocompletePredictions.iterator();
-            ArrayList<PlaceAutocomplete> resultList = new ArrayList<PlaceAutocomplete>(autocompletePredictions.getCount());
+            List<PlacePrediction> resultList = new ArrayList<PlacePrediction>(autocompletePredictions.getCount());
             while (iterator.hasNext()) {
                 AutocompletePrediction prediction = iterator.next();
-                // Get the details of this prediction and copy it into a new PlaceAutocomplete object.
-                resultList.add(new PlaceAutocomplete(prediction.getPlaceId(),
+                // Get the details of this prediction and copy it into a new PlacePrediction object.
+                resultList.add(PlacePrediction.ofPlace(prediction.getPlaceId(),
                         prediction.getDescription()));
             }
 
@@ -222,23 +297,4 @@ public class PlaceAutocompleteAdapter
         Log.e(TAG, "Google API client is not connected for autocomplete query.");
         return null;
     }
-
-    /**
-     * Holder for Places Geo Data Autocomplete API results.
-     */
-    public class PlaceAutocomplete {
-
-        public CharSequence placeId;
-        public CharSequence description;
-
-        PlaceAutocomplete(CharSequence placeId, CharSequence description) {
-            this.placeId = placeId;
-            this.description = description;
-        }
-
-        @Override
-        public String toString() {
-            return description.toString();
-        }
-    }
-}
\ No newline at end of file
+}
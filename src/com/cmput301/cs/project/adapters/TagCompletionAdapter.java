@@ -0,0 +1,90 @@
+package com.cmput301.cs.project.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+import com.cmput301.cs.project.controllers.TagsManager;
+import com.cmput301.cs.project.models.Tag;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Suggests existing {@link Tag Tags} for an {@link android.widget.AutoCompleteTextView AutoCompleteTextView}, the most
+ * used first, by {@link TagsManager#completeTagName(String, int)}.
+ */
+public class TagCompletionAdapter extends BaseAdapter implements Filterable {
+
+    private static final int MAX_COMPLETIONS = 8;
+
+    private final LayoutInflater mInflater;
+    private final TagsManager mManager;
+    private List<Tag> mCompletions = Collections.emptyList();
+
+    public TagCompletionAdapter(Context context) {
+        mInflater = LayoutInflater.from(context);
+        mManager = TagsManager.get(context);
+    }
+
+    @Override
+    public int getCount() {
+        return mCompletions.size();
+    }
+
+    @Override
+    public Tag getItem(int position) {
+        return mCompletions.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        if (convertView == null) {
+            convertView = mInflater.inflate(android.R.layout.simple_dropdown_item_1line, parent, false);
+        }
+        ((TextView) convertView.findViewById(android.R.id.text1)).setText(getItem(position).getName());
+        return convertView;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                final FilterResults results = new FilterResults();
+                if (constraint != null) {
+                    final List<Tag> completions = mManager.completeTagName(constraint.toString(), MAX_COMPLETIONS);
+                    results.values = completions;
+                    results.count = completions.size();
+                }
+                return results;
+            }
+
+            @SuppressWarnings("unchecked") // Know the values will be a List<Tag>
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                if (results.count > 0) {
+                    mCompletions = (List<Tag>) results.values;
+                    notifyDataSetChanged();
+                } else {
+                    mCompletions = Collections.emptyList();
+                    notifyDataSetInvalidated();
+                }
+            }
+
+            @Override
+            public CharSequence convertResultToString(Object resultValue) {
+                return ((Tag) resultValue).getName();
+            }
+        };
+    }
+}
@@ -6,12 +6,14 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.BaseAdapter;
 import android.widget.TextView;
+import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.controllers.TagsManager;
 import com.cmput301.cs.project.listeners.TagsChangedListener;
 import com.cmput301.cs.project.models.Tag;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -22,18 +24,27 @@ import java.util.List;
  * This class implements all methods in {@link TagsChangedListener}.
  * You may use {@link TagsManager#addTagChangedListener(TagsChangedListener)}
  * for this class to update the tags.
+ * <p/>
+ * Under each name, shows how many claims use the tag and the tags most often used with it, as counted by
+ * {@link TagsManager#getUsage(Tag)} and {@link TagsManager#findCooccurringTags(Collection, int)}.
  */
 public class TagsAdapter extends BaseAdapter implements TagsChangedListener {
 
+    private static final int MAX_COOCCURRING = 3;
+
     private static class ViewHolder {
         private final TextView mTextView;
+        private final TextView mStatisticsView;
 
         private ViewHolder(View parent) {
             mTextView = (TextView) parent.findViewById(android.R.id.text1);
+            mStatisticsView = (TextView) parent.findViewById(android.R.id.text2);
         }
     }
 
+    private final Context mContext;
     private final LayoutInflater mInflater;
+    private final TagsManager mManager;
     private final List<Tag> mTags = new ArrayList<Tag>();
 
     public TagsAdapter(Context context) {
@@ -41,7 +52,9 @@ public class TagsAdapter extends BaseAdapter implements TagsChangedListener {
     }
 
     public TagsAdapter(Context context, Collection<? extends Tag> tags) {
+        mContext = context;
         mInflater = LayoutInflater.from(context);
+        mManager = TagsManager.get(context);
         mTags.addAll(tags);
     }
 
@@ -64,7 +77,7 @@ public class TagsAdapter extends BaseAdapter implements TagsChangedListener {
     public View getView(int position, View convertView, ViewGroup parent) {
         final ViewHolder holder;
         if (convertView == null) {
-            convertView = mInflater.inflate(android.R.layout.simple_list_item_activated_1, parent, false);
+            convertView = mInflater.inflate(android.R.layout.simple_list_item_activated_2, parent, false);
             holder = new ViewHolder(convertView);
             convertView.setTag(holder);
         } else {
@@ -74,10 +87,27 @@ public class TagsAdapter extends BaseAdapter implements TagsChangedListener {
         final Tag tag = getItem(position);
 
         holder.mTextView.setText(tag.getName());
+        holder.mStatisticsView.setText(getStatisticsText(tag));
 
         return convertView;
     }
 
+    private String getStatisticsText(Tag tag) {
+        final int usage = mManager.getUsage(tag);
+        final List<Tag> cooccurring = mManager.findCooccurringTags(Collections.singleton(tag), MAX_COOCCURRING);
+        if (cooccurring.isEmpty()) {
+            return mContext.getString(R.string.formatted_tag_usage, usage);
+        }
+
+        final StringBuilder names = new StringBuilder();
+        String separator = "";
+        for (Tag other : cooccurring) {
+            names.append(separator).append(other.getName());
+            separator = ", ";
+        }
+        return mContext.getString(R.string.formatted_tag_usage_with, usage, names);
+    }
+
     @Override
     public void onTagRenamed(Tag tag, Tag oldTag) {
         final String id = tag.getId();
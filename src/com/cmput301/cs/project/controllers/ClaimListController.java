@@ -1,5 +1,6 @@
 package com.cmput301.cs.project.controllers;
 
+import com.cmput301.cs.project.listeners.BackgroundListener;
 import com.cmput301.cs.project.listeners.TagsChangedListener;
 import com.cmput301.cs.project.models.Claim;
 import com.cmput301.cs.project.models.ClaimsList;
@@ -11,11 +12,14 @@ import java.util.List;
 
 /**
  * Controller for {@link com.cmput301.cs.project.models.ClaimsList ClaimsList}.
+ * <p/>
+ * Renaming or deleting a tag saves and merges every claim with the tag, so it is a {@link BackgroundListener}; the
+ * claims are edited together, with one save and merge.
  *
  * @author rozsa
  */
 
-public class ClaimListController implements TagsChangedListener {
+public class ClaimListController implements TagsChangedListener, BackgroundListener {
 
     private final User mUser;
     private final ClaimsList mClaimsList;
@@ -61,22 +65,28 @@ public class ClaimListController implements TagsChangedListener {
 
     @Override
     public void onTagRenamed(Tag tag, Tag oldTag) {
+        final List<Claim> edited = new ArrayList<Claim>();
         for (Claim claim : mClaimsList.peekClaims()) {
             if (claim.peekTags().contains(oldTag)) {
-                final Claim edited = claim.edit().removeTag(oldTag).addTag(tag).build();
-                mClaimsList.editClaim(edited);
+                edited.add(claim.edit().removeTag(oldTag).addTag(tag).build());
             }
         }
+        if (!edited.isEmpty()) {
+            mClaimsList.editClaims(edited);
+        }
     }
 
     @Override
     public void onTagDeleted(Tag tag) {
+        final List<Claim> edited = new ArrayList<Claim>();
         for (Claim claim : mClaimsList.peekClaims()) {
             if (claim.peekTags().contains(tag)) {
-                final Claim edited = claim.edit().removeTag(tag).build();
-                mClaimsList.editClaim(edited);
+                edited.add(claim.edit().removeTag(tag).build());
             }
         }
+        if (!edited.isEmpty()) {
+            mClaimsList.editClaims(edited);
+        }
     }
 
     @Override
@@ -0,0 +1,193 @@
+package com.cmput301.cs.project.controllers;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ClaimSelection;
+import com.cmput301.cs.project.models.ClaimsList;
+import com.cmput301.cs.project.models.SearchIndex;
+import com.cmput301.cs.project.models.TagQuery;
+import com.cmput301.cs.project.utils.SortKeys;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filters a list of {@link Claim Claims} by a {@link TagQuery} and sorts it by start time, or by cost per kilometre, on
+ * a worker thread. With search text, only the claims that have the words, or that have expenses with the words, are
+ * kept, best match first.
+ * <p/>
+ * Each {@link #run(List, TagQuery, String, Order, Callback)} takes a new generation; results of older generations are
+ * dropped, so only the last query made reaches its callback when the filter changes quickly. Use one
+ * {@code ClaimListQuery} per list shown. Must be used on the UI thread.
+ */
+public final class ClaimListQuery {
+
+    // more than a list can reasonably show; hits are of claims and of their expenses
+    private static final int MAX_SEARCH_HITS = 1000;
+
+    // one thread for every list; a newer query waits for at most one older query that is about to be dropped
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "ClaimListQuery");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * How the claims are sorted, by {@link Claim#getStartTime() start time} unless stated otherwise. Claims that tie
+     * keep their order.
+     */
+    public enum Order {
+        NEWEST_FIRST, OLDEST_FIRST,
+        /**
+         * By {@link RouteAnalytics#orderByCostPerKm(List) cost per kilometre}, highest first; then oldest first.
+         */
+        HIGHEST_COST_PER_KM_FIRST
+    }
+
+    /**
+     * Receives the claims of a query on the UI thread.
+     */
+    public interface Callback {
+        /**
+         * @param claims the claims that match, sorted; never null
+         */
+        void onClaimsQueried(List<Claim> claims);
+    }
+
+    private final ClaimsList mClaimsList;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicLong mGeneration = new AtomicLong();
+
+    /**
+     * @param claimsList non-null {@link ClaimsList} to evaluate tag queries with
+     */
+    public ClaimListQuery(ClaimsList claimsList) {
+        mClaimsList = Utils.nonNullOrThrow(claimsList, "claimsList");
+    }
+
+    /**
+     * Filters and sorts the claims on the worker thread, then calls the callback on the UI thread, unless another
+     * query was run or {@link #cancel()} was called in the meantime.
+     *
+     * @param claims         non-null {@link List} of non-null {@link Claim Claims}; copied, so it may be changed
+     *                       afterwards
+     * @param query          non-null {@link TagQuery}; {@link TagQuery#ALL} to keep every claim
+     * @param search         non-null text to {@link ClaimsList#search(String, int) search} for; blank to keep every
+     *                       claim and sort only by {@code order}, which otherwise only breaks ties
+     * @param order          non-null {@link Order}
+     * @param routeAnalytics non-null {@link RouteAnalytics} to sort by cost per kilometre with; the current one, as
+     *                       {@link RouteAnalytics#get(android.content.Context)} gives a new one when the home currency
+     *                       changes
+     * @param callback       non-null {@link Callback}
+     */
+    public void run(List<Claim> claims, final TagQuery query, final String search, final Order order,
+                    final RouteAnalytics routeAnalytics, final Callback callback) {
+        Utils.nonNullOrThrow(query, "query");
+        Utils.nonNullOrThrow(search, "search");
+        Utils.nonNullOrThrow(order, "order");
+        Utils.nonNullOrThrow(routeAnalytics, "routeAnalytics");
+        Utils.nonNullOrThrow(callback, "callback");
+        final Claim[] input = claims.toArray(new Claim[claims.size()]);
+        final long generation = mGeneration.incrementAndGet();
+
+        WORKER.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (generation != mGeneration.get()) return;  // already outdated; skip the work
+
+                final List<Claim> result = filterAndSort(input, query, search, order, routeAnalytics);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration.get()) {
+                            callback.onClaimsQueried(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops the results of every query run so far.
+     */
+    public void cancel() {
+        mGeneration.incrementAndGet();
+    }
+
+    private List<Claim> filterAndSort(Claim[] claims, TagQuery query, String search, Order order,
+                                      RouteAnalytics routeAnalytics) {
+        final ClaimSelection selection = query == TagQuery.ALL ? null : mClaimsList.selectByTags(query);
+        final Map<String, Double> scores = search.trim().isEmpty() ? null : bestScoresByClaimId(search);
+
+        final Claim[] selected = new Claim[claims.length];
+        int size = 0;
+        for (Claim claim : claims) {
+            if ((selection == null || selection.contains(claim))
+                    && (scores == null || scores.containsKey(claim.getId()))) {
+                selected[size++] = claim;
+            }
+        }
+
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = selected[i].getStartTime();
+        }
+        int[] sorted = SortKeys.order(keys, order == Order.NEWEST_FIRST);
+
+        if (order == Order.HIGHEST_COST_PER_KM_FIRST) {
+            // stable, so equal costs stay in start time order
+            final List<Claim> byStart = new ArrayList<Claim>(size);
+            for (int index : sorted) {
+                byStart.add(selected[index]);
+            }
+            final int[] byCost = routeAnalytics.orderByCostPerKm(byStart);
+            for (int i = 0; i < size; i++) {
+                byCost[i] = sorted[byCost[i]];
+            }
+            sorted = byCost;
+        }
+
+        if (scores != null) {
+            // stable, so equal scores stay in start time order
+            for (int i = 0; i < size; i++) {
+                // positive doubles order like their bits
+                keys[i] = Double.doubleToLongBits(scores.get(selected[sorted[i]].getId()));
+            }
+            final int[] byScore = SortKeys.order(keys, true);
+            for (int i = 0; i < size; i++) {
+                byScore[i] = sorted[byScore[i]];
+            }
+            sorted = byScore;
+        }
+
+        final List<Claim> out = new ArrayList<Claim>(size);
+        for (int index : sorted) {
+            out.add(selected[index]);
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    // a claim scores as its best match, whether itself or one of its expenses
+    private Map<String, Double> bestScoresByClaimId(String search) {
+        final Map<String, Double> scores = new HashMap<String, Double>();
+        for (SearchIndex.Hit hit : mClaimsList.search(search, MAX_SEARCH_HITS)) {
+            if (!scores.containsKey(hit.getClaimId())) {  // hits come best first
+                scores.put(hit.getClaimId(), hit.getScore());
+            }
+        }
+        return scores;
+    }
+}
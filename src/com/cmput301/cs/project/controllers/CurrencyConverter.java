@@ -0,0 +1,173 @@
+package com.cmput301.cs.project.controllers;
+
+import android.content.Context;
+import com.cmput301.cs.project.R;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.CurrencyTotals;
+import com.cmput301.cs.project.models.ExchangeRates;
+import com.cmput301.cs.project.models.Expense;
+import com.cmput301.cs.project.serialization.LocalSaver;
+import com.cmput301.cs.project.utils.ParallelRanges;
+import com.cmput301.cs.project.utils.Utils;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Converts {@link Expense} amounts into the home currency, at the rate in effect on the date of each expense.
+ * This is an immutable class.
+ * <p/>
+ * Use {@link #get(Context)} to obtain the instance for the home currency in {@link SettingsController}, with rates
+ * from {@link LocalSaver#readExchangeRates()}: the saved tables, or else the table bundled with the app.
+ */
+public class CurrencyConverter {
+
+    // read by the threads that format rows, so published safely; as instances are immutable, callers racing to replace
+    // it may each get their own, equal one
+    private static volatile CurrencyConverter sInstance;
+
+    /**
+     * Obtains the {@code CurrencyConverter} for the current home currency. The rates are read once per process. May be
+     * called on any thread.
+     *
+     * @param context non-null instance of {@link Context}
+     * @return an instance of {@code CurrencyConverter}; never null
+     * @see SettingsController#loadHomeCurrency()
+     */
+    public static CurrencyConverter get(Context context) {
+        final CurrencyUnit home = SettingsController.get(context).loadHomeCurrency();
+        CurrencyConverter instance = sInstance;
+        if (instance == null) {
+            instance = new CurrencyConverter(LocalSaver.ofAndroid(context).readExchangeRates(), home);
+            sInstance = instance;
+        } else if (!instance.mHomeCurrency.equals(home)) {
+            instance = new CurrencyConverter(instance.mRates, home);
+            sInstance = instance;
+        }
+        return instance;
+    }
+
+    private final ExchangeRates mRates;
+    private final CurrencyUnit mHomeCurrency;
+
+    /**
+     * Creates an instance of {@code CurrencyConverter}.
+     *
+     * @param rates        non-null instance of {@link ExchangeRates}
+     * @param homeCurrency non-null {@link CurrencyUnit} to convert into
+     */
+    public CurrencyConverter(ExchangeRates rates, CurrencyUnit homeCurrency) {
+        mRates = Utils.nonNullOrThrow(rates, "rates");
+        mHomeCurrency = Utils.nonNullOrThrow(homeCurrency, "homeCurrency");
+    }
+
+    public CurrencyUnit getHomeCurrency() {
+        return mHomeCurrency;
+    }
+
+    /**
+     * @param money non-null {@link Money}
+     * @param time  milliseconds since epoch of the rate to use
+     * @return {@code money} in the home currency; null if there is no rate for its currency at {@code time}
+     */
+    public Money convert(Money money, long time) {
+        final CurrencyUnit unit = money.getCurrencyUnit();
+        if (unit.equals(mHomeCurrency)) return money;
+
+        final BigDecimal rate = mRates.getRate(unit, mHomeCurrency, time);
+        return rate == null ? null : money.convertedTo(mHomeCurrency, rate, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @param expense non-null {@link Expense}
+     * @return the {@link Expense#getAmount() amount} in the home currency, at the rate on {@link Expense#getTime()},
+     * or {@link Expense#getTimeOccurred()} if the date isn't set; null if there is no such rate
+     */
+    public Money convert(Expense expense) {
+        // getTime() is the date the claimant picked; getTimeOccurred() is when the expense was recorded
+        final long time = expense.getTime() >= 0 ? expense.getTime() : expense.getTimeOccurred();
+        return convert(expense.getAmount(), time);
+    }
+
+    /**
+     * Sums the {@link Expense Expenses} of a {@link Claim} in the home currency, each converted at its own rate.
+     *
+     * @param claim non-null {@link Claim}
+     * @return the total in the home currency; null if any expense cannot be converted
+     */
+    public Money convertTotal(Claim claim) {
+        long minor = 0;
+        for (Expense expense : claim.peekExpenses()) {
+            final Money converted = convert(expense);
+            if (converted == null) return null;
+            minor += converted.getAmountMinorLong();
+        }
+        return Money.ofMinor(mHomeCurrency, minor);
+    }
+
+    /**
+     * Formats the {@link Claim#getTotals() totals} of a {@link Claim}, followed by the converted total when the claim
+     * has any currency other than the home currency, as in {@code "USD 10.00, EUR 5.00 (≈ CAD 19.74)"}.
+     *
+     * @param context non-null instance of {@link Context}
+     * @param claim   non-null {@link Claim}
+     * @return the formatted totals; empty if there are no expenses
+     */
+    public String formatTotals(Context context, Claim claim) {
+        final CurrencyTotals totals = claim.getTotals();
+        if (totals.isEmpty() || (totals.size() == 1 && totals.getCurrencyUnit(0).equals(mHomeCurrency))) {
+            return totals.toString();
+        }
+
+        final Money converted = convertTotal(claim);
+        if (converted == null) return totals.toString();
+        return context.getString(R.string.formatted_converted_totals, totals.toString(), converted.toString());
+    }
+
+    /**
+     * {@link #convertTotal(Claim) Converts the total} of each {@link Claim}. Large lists are split across threads.
+     *
+     * @param claims non-null {@code List} of non-null {@code Claims}
+     * @return an unmodifiable {@code List} of totals in the same order as {@code claims}; an element is null if that
+     * claim cannot be converted
+     */
+    public List<Money> convertTotals(List<Claim> claims) {
+        final Claim[] input = claims.toArray(new Claim[claims.size()]);
+        final Money[] output = new Money[input.length];
+
+        ParallelRanges.run(input.length, new ParallelRanges.Range() {
+            @Override
+            public void run(int from, int to) {
+                convertRange(input, output, from, to);
+            }
+        });
+        return Collections.unmodifiableList(Arrays.asList(output));
+    }
+
+    /**
+     * Sums the {@link Expense Expenses} of all the {@link Claim Claims} in the home currency, for reports.
+     *
+     * @param claims non-null {@code List} of non-null {@code Claims}
+     * @return the total in the home currency; null if any expense cannot be converted
+     * @see #convertTotals(List)
+     */
+    public Money convertReportTotal(List<Claim> claims) {
+        long minor = 0;
+        for (Money total : convertTotals(claims)) {
+            if (total == null) return null;
+            minor += total.getAmountMinorLong();
+        }
+        return Money.ofMinor(mHomeCurrency, minor);
+    }
+
+    private void convertRange(Claim[] input, Money[] output, int from, int to) {
+        for (int i = from; i < to; i++) {
+            output[i] = convertTotal(input[i]);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import android.util.Log;
 import android.widget.Toast;
 import com.cmput301.cs.project.serialization.elasticsearch.SearchResponse;
 import com.cmput301.cs.project.models.User;
+import com.cmput301.cs.project.models.UserDirectory;
+import com.cmput301.cs.project.serialization.LocalSaver;
 import com.cmput301.cs.project.serialization.RemoteSaver;
 import com.google.gson.reflect.TypeToken;
 
@@ -18,13 +20,20 @@ import java.util.List;
  * If no internet is available it loads the most recent from shared_preferences.
  *
  * New ones are added automatically
+ * <p/>
+ * Users found or created on the server are remembered in a {@link UserDirectory} for {@link UserDirectory#TTL_MILLIS},
+ * so logging in as them again does not touch the network. Otherwise only the users with the name are searched for,
+ * and a new user is created by itself, instead of reading and saving every user.
  */
 
 public class LoginController {
 
     private static final String USER_INDEX = "users";
+    private static final String USER_NAME_FIELD = "name";  // of User, as Gson writes it
+    private static final int SEARCH_PAGE_SIZE = 10;
     private static final String LOG_TAG = "LoginController";
     private final Context mContext;
+    private final LocalSaver mLocalSaver;
     private RemoteSaver<User> mUserSaver;
 
     public LoginController(Context context) {
@@ -32,48 +41,60 @@ public class LoginController {
         Type type = new TypeToken<SearchResponse<User>>() {
         }.getType();
         mUserSaver = new RemoteSaver<User>(USER_INDEX, type);
+        mLocalSaver = LocalSaver.ofAndroid(context);
 
         mContext = context;
     }
 
     public void attemptLogin(String username) {
-
-        List<User> users = null;
+        final long now = System.currentTimeMillis();
+        final UserDirectory directory = mLocalSaver.readUserDirectory();
+        final User known = directory.find(username, now);
+        if (known != null) {
+            App.get(mContext).setUser(known);
+            return;
+        }
 
         //http://stackoverflow.com/questions/12650921/quick-fix-for-networkonmainthreadexception [blaine1 april 05 2015]
 
         StrictMode.ThreadPolicy policy = new StrictMode.ThreadPolicy.Builder().permitAll().build();
         StrictMode.setThreadPolicy(policy);
 
+        User user;
         try {
-            users = mUserSaver.readAll();
+            user = findRemoteUser(username);
+            if (user == null) {
+                user = User.withNameBasedId(username);
+                if (!mUserSaver.create(user)) {
+                    // created elsewhere since the search; the id is based on the name, so it is the same user
+                    Log.d(LOG_TAG, "user was created concurrently: " + username);
+                }
+            }
         } catch (IOException e) {
-            useStoredUsers();
+            final User expired = directory.findExpired(username);
+            if (expired == null) {
+                useStoredUsers();
+            } else {
+                App.get(mContext).setUser(expired);
+            }
             return;
         }
 
-        if (users == null) {
-            useStoredUsers();
-            return;
-        }
+        directory.put(user, now);
+        mLocalSaver.saveUserDirectory(directory);
+        App.get(mContext).setUser(user);
+    }
 
-        for (User user : users) {
-            if (user.getUserName().equals(username)) {
-                App.get(mContext).setUser(user);
-                return;
+    // the search ignores case, so the user may rank below others with the name in another case; pages until found
+    private User findRemoteUser(String username) throws IOException {
+        for (int from = 0; ; from += SEARCH_PAGE_SIZE) {
+            final List<User> page = mUserSaver.search(USER_NAME_FIELD, username, from, SEARCH_PAGE_SIZE);
+            for (User user : page) {
+                if (user.getUserName().equals(username)) {
+                    return user;
+                }
             }
-        }
-
-        User newUser = new User(username);
-
-        users.add(newUser);
-
-        App.get(mContext).setUser(newUser);
-
-        try {
-            mUserSaver.saveAll(users);
-        } catch (IOException e) {
-            Log.d(LOG_TAG, "uh ohhhh");
+            if (page.size() < SEARCH_PAGE_SIZE) return null;  // no more matches
         }
     }
 
@@ -0,0 +1,264 @@
+package com.cmput301.cs.project.controllers;
+
+import com.cmput301.cs.project.models.ClaimsList;
+import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.models.LocationIndex;
+import com.cmput301.cs.project.models.PlacePrediction;
+import com.cmput301.cs.project.models.PredictionCache;
+import com.cmput301.cs.project.serialization.LocalSaver;
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suggests places for what a user types into a search for places, asking a remote {@link PredictionSource}, such as
+ * the Places API, as little as possible:
+ * <ul>
+ * <li>past destinations, from a local {@code PredictionSource}, come first and are shown at once;</li>
+ * <li>the remote predictions for the same text and bounds come from a {@link PredictionCache}, kept between
+ * sessions;</li>
+ * <li>the remote source is only asked once the user has stopped typing for the debounce delay, so every keystroke in
+ * between is collapsed into the last one.</li>
+ * </ul>
+ * Thread safe: {@link #request(String)} is called on the UI thread as the user types, and {@link #suggest(String,
+ * LatLngBounds)} on a worker thread, as by {@link android.widget.Filter}.
+ */
+public final class PlaceSuggester {
+
+    /**
+     * How long the user has to stop typing before the remote source is asked, in milliseconds.
+     */
+    public static final long DEBOUNCE_MILLIS = 300;
+
+    /**
+     * The most past destinations suggested.
+     */
+    public static final int MAX_LOCAL_SUGGESTIONS = 3;
+
+    /**
+     * Tells the time for the debounce delay.
+     */
+    public interface Clock {
+        /**
+         * @return the time in milliseconds, from any fixed point; never goes back
+         */
+        long nowMillis();
+    }
+
+    /**
+     * The {@link Clock} of {@link System#nanoTime()}; monotonic, unlike the wall clock.
+     */
+    public static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nowMillis() {
+            return System.nanoTime() / 1000000;
+        }
+    };
+
+    /**
+     * Predicts places from what a user typed.
+     */
+    public interface PredictionSource {
+        /**
+         * May block, so must not be called on the UI thread.
+         *
+         * @param text   non-null, non-empty text
+         * @param bounds nullable {@link LatLngBounds} to bias the predictions to
+         * @return non-null {@link List} of predictions, best first; null if the source is not available
+         */
+        List<PlacePrediction> predict(String text, LatLngBounds bounds);
+    }
+
+    private final PredictionSource mLocal;
+    private final PredictionSource mRemote;
+    private final PredictionCache mCache;
+    private final long mDebounceMillis;
+    private final Clock mClock;
+    // held while saving the cache, so an older copy is never written over a newer one; taken before this
+    private final Object mSaveLock = new Object();
+    // guarded by this
+    private String mLatestText;
+    private long mLatestAt;
+    private boolean mUnsaved;
+
+    /**
+     * @param local          non-null {@link PredictionSource} that answers at once, such as {@link
+     *                       #pastDestinationsOf(ClaimsList)}
+     * @param remote         non-null {@link PredictionSource}, such as the Places API
+     * @param cache          non-null {@link PredictionCache} of the remote predictions; only used with this
+     *                       {@code PlaceSuggester} from now on
+     * @param debounceMillis how long the user has to stop typing before the remote source is asked; not negative
+     */
+    public PlaceSuggester(PredictionSource local, PredictionSource remote, PredictionCache cache, long debounceMillis) {
+        this(local, remote, cache, debounceMillis, SYSTEM_CLOCK);
+    }
+
+    /**
+     * @param local          non-null {@link PredictionSource} that answers at once
+     * @param remote         non-null {@link PredictionSource}
+     * @param cache          non-null {@link PredictionCache} of the remote predictions
+     * @param debounceMillis how long the user has to stop typing before the remote source is asked; not negative
+     * @param clock          non-null {@link Clock} the debounce delay is measured with, such as {@link #SYSTEM_CLOCK}
+     * @see #PlaceSuggester(PredictionSource, PredictionSource, PredictionCache, long)
+     */
+    public PlaceSuggester(PredictionSource local, PredictionSource remote, PredictionCache cache, long debounceMillis,
+                          Clock clock) {
+        mLocal = Utils.nonNullOrThrow(local, "local");
+        mRemote = Utils.nonNullOrThrow(remote, "remote");
+        mCache = Utils.nonNullOrThrow(cache, "cache");
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("negative debounceMillis: " + debounceMillis);
+        }
+        mDebounceMillis = debounceMillis;
+        mClock = Utils.nonNullOrThrow(clock, "clock");
+    }
+
+    /**
+     * @param claims non-null {@link ClaimsList}
+     * @return a {@link PredictionSource} of the destinations with a location that start with the text, the most visited
+     * first; ignores the bounds; never null
+     * @see ClaimsList#completeDestinations(String, int)
+     */
+    public static PredictionSource pastDestinationsOf(final ClaimsList claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+        return new PredictionSource() {
+            @Override
+            public List<PlacePrediction> predict(String text, LatLngBounds bounds) {
+                final List<PlacePrediction> predictions = new ArrayList<PlacePrediction>();
+                for (Destination destination : claims.completeDestinations(text, MAX_LOCAL_SUGGESTIONS)) {
+                    predictions.add(PlacePrediction.ofDestination(destination));
+                }
+                return predictions;
+            }
+        };
+    }
+
+    /**
+     * Notes that the user typed the text; a {@link #suggest(String, LatLngBounds)} of any other text that is waiting
+     * returns at once.
+     *
+     * @param text non-null text in the search box
+     */
+    public synchronized void request(String text) {
+        mLatestText = Utils.nonNullOrThrow(text, "text");
+        mLatestAt = mClock.nowMillis();
+        notifyAll();
+    }
+
+    /**
+     * The suggestions that are known without asking the remote source: the past destinations, then the cached remote
+     * predictions, if any.
+     *
+     * @param text   non-null text
+     * @param bounds nullable {@link LatLngBounds}
+     * @return non-null {@link List} of suggestions
+     */
+    public List<PlacePrediction> suggestLocally(String text, LatLngBounds bounds) {
+        final List<PlacePrediction> cached;
+        synchronized (this) {
+            cached = mCache.get(text, bounds);
+        }
+        return merge(predictLocally(text), cached);
+    }
+
+    /**
+     * The past destinations, then the remote predictions. These come from the cache if they can; otherwise this waits
+     * until the user has stopped typing, and asks the remote source only if the text is still the last one
+     * {@link #request(String) requested}. Must not be called on the UI thread.
+     *
+     * @param text   non-null text, last given to {@link #request(String)}
+     * @param bounds nullable {@link LatLngBounds}
+     * @return non-null {@link List} of suggestions; only the past destinations if the remote source is not available;
+     * null if the user typed something else meanwhile
+     */
+    public List<PlacePrediction> suggest(String text, LatLngBounds bounds) {
+        final List<PlacePrediction> local = predictLocally(text);
+        if (LocationIndex.normalize(text).isEmpty()) return local;
+
+        synchronized (this) {
+            final List<PlacePrediction> cached = mCache.get(text, bounds);
+            if (cached != null) return merge(local, cached);
+            if (!awaitQuiet(text)) return null;
+        }
+
+        // not holding the lock, as the remote source may take long
+        final List<PlacePrediction> remote = mRemote.predict(text, bounds);
+        if (remote == null) return local;  // not cached, so it is asked again next time
+
+        synchronized (this) {
+            mCache.put(text, bounds, remote);
+            mUnsaved = true;
+        }
+        return merge(local, remote);
+    }
+
+    // holding the lock
+    private boolean awaitQuiet(String text) {
+        while (text.equals(mLatestText)) {
+            final long remaining = mLatestAt + mDebounceMillis - mClock.nowMillis();
+            if (remaining <= 0) return true;
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private List<PlacePrediction> predictLocally(String text) {
+        if (LocationIndex.normalize(text).isEmpty()) return Collections.emptyList();
+
+        final List<PlacePrediction> local = mLocal.predict(text, null);
+        return local == null ? Collections.<PlacePrediction>emptyList() : local;
+    }
+
+    // past destinations first, without the remote predictions with the same text
+    private static List<PlacePrediction> merge(List<PlacePrediction> local, List<PlacePrediction> remote) {
+        if (remote == null || remote.isEmpty()) return local;
+
+        final List<PlacePrediction> merged = new ArrayList<PlacePrediction>(local.size() + remote.size());
+        final Set<String> descriptions = new HashSet<String>();
+        for (PlacePrediction prediction : local) {
+            merged.add(prediction);
+            descriptions.add(LocationIndex.normalize(prediction.getDescription()));
+        }
+        for (PlacePrediction prediction : remote) {
+            if (!descriptions.contains(LocationIndex.normalize(prediction.getDescription()))) {
+                merged.add(prediction);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Saves the cache if the remote source was asked since it was last saved. Only copies the cache under the lock, but
+     * writes a file, so call it off the UI thread when the user leaves, such as from {@code onStop}.
+     *
+     * @param saver non-null {@link LocalSaver}
+     * @return if the cache is saved
+     */
+    public boolean saveCache(LocalSaver saver) {
+        Utils.nonNullOrThrow(saver, "saver");
+        synchronized (mSaveLock) {
+            final List<PredictionCache.Entry> entries;
+            synchronized (this) {
+                if (!mUnsaved) return true;
+                entries = mCache.peekEntries();
+                mUnsaved = false;
+            }
+
+            if (saver.savePredictionCache(entries)) return true;
+            synchronized (this) {
+                mUnsaved = true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.cmput301.cs.project.controllers;
+
+import android.content.Context;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.utils.GeoUtils;
+import com.cmput301.cs.project.utils.ParallelRanges;
+import com.cmput301.cs.project.utils.SortKeys;
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLng;
+import org.joda.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures the route of a {@link Claim}, its {@link Claim#peekDestinations() destinations} in order, and how much it
+ * cost per kilometre, for approvers checking mileage claims.
+ * <p/>
+ * A {@link Route} is computed once per version of a claim, by its {@link Claim#getId() id} and
+ * {@link Claim#getModified() modified} stamp, as converting the total decodes every expense. Large lists are split
+ * across threads. Thread safe.
+ * <p/>
+ * Use {@link #get(Context)} to obtain the instance for the home currency in {@link SettingsController}.
+ */
+public final class RouteAnalytics {
+
+    // published safely, as for CurrencyConverter; callers racing to replace it may each get their own
+    private static volatile RouteAnalytics sInstance;
+
+    /**
+     * Obtains the {@code RouteAnalytics} for the current home currency. May be called on any thread.
+     *
+     * @param context non-null instance of {@link Context}
+     * @return an instance of {@code RouteAnalytics}; never null
+     * @see CurrencyConverter#get(Context)
+     */
+    public static RouteAnalytics get(Context context) {
+        final CurrencyConverter converter = CurrencyConverter.get(context);  // a new instance if the currency changed
+        RouteAnalytics instance = sInstance;
+        if (instance == null || instance.mConverter != converter) {
+            instance = new RouteAnalytics(converter);
+            sInstance = instance;
+        }
+        return instance;
+    }
+
+    /**
+     * The route of one version of a claim. This is an immutable class.
+     */
+    public static final class Route {
+        private final String mClaimId;
+        private final long mModified;
+        private final double mLengthMeters;
+        private final int mLegs;
+        private final Money mTotal;
+
+        private Route(Claim claim, double lengthMeters, int legs, Money total) {
+            mClaimId = claim.getId();
+            mModified = claim.getModified();
+            mLengthMeters = lengthMeters;
+            mLegs = legs;
+            mTotal = total;
+        }
+
+        private boolean isOf(Claim claim) {
+            return mModified == claim.getModified() && mClaimId.equals(claim.getId());
+        }
+
+        /**
+         * @return the {@link Claim#getId() id} of the claim; never null
+         */
+        public String getClaimId() {
+            return mClaimId;
+        }
+
+        /**
+         * @return the great-circle length of the route, in meters, skipping destinations without a location
+         */
+        public double getLengthMeters() {
+            return mLengthMeters;
+        }
+
+        /**
+         * @return the number of legs measured, between consecutive destinations with a location
+         */
+        public int getLegs() {
+            return mLegs;
+        }
+
+        /**
+         * @return the total of the expenses in the home currency; null if any expense cannot be converted
+         */
+        public Money getTotal() {
+            return mTotal;
+        }
+
+        /**
+         * @return if the cost per kilometre is known: the total is known and the route has a length
+         */
+        public boolean hasCostPerKm() {
+            return mTotal != null && mLengthMeters > 0;
+        }
+
+        /**
+         * @return the total divided by the length in kilometres, in the home currency; NaN if not
+         * {@link #hasCostPerKm() known}
+         */
+        public double getCostPerKmValue() {
+            return hasCostPerKm() ? mTotal.getAmount().doubleValue() * 1000 / mLengthMeters : Double.NaN;
+        }
+
+        /**
+         * @return the {@link #getCostPerKmValue() cost per kilometre}, rounded to the minor unit; null if not
+         * {@link #hasCostPerKm() known}
+         */
+        public Money getCostPerKm() {
+            if (!hasCostPerKm()) return null;
+            return mTotal.dividedBy(BigDecimal.valueOf(mLengthMeters / 1000), RoundingMode.HALF_EVEN);
+        }
+    }
+
+    private final CurrencyConverter mConverter;
+    private final ConcurrentHashMap<String, Route> mRoutesById = new ConcurrentHashMap<String, Route>();
+
+    /**
+     * @param converter non-null {@link CurrencyConverter} into the home currency
+     */
+    public RouteAnalytics(CurrencyConverter converter) {
+        mConverter = Utils.nonNullOrThrow(converter, "converter");
+    }
+
+    /**
+     * Sums the great-circle distances between consecutive destinations with a location.
+     *
+     * @param destinations non-null {@link List} of non-null {@link Destination Destinations}, in the order visited
+     * @return the length, in meters
+     */
+    public static double lengthOf(List<Destination> destinations) {
+        double length = 0;
+        LatLng previous = null;
+        for (Destination destination : destinations) {
+            final LatLng location = destination.getLocation();
+            if (location == null) continue;
+            if (previous != null) {
+                length += GeoUtils.distanceBetween(previous, location);
+            }
+            previous = location;
+        }
+        return length;
+    }
+
+    /**
+     * Finds the route of this version of the claim, computing it if it is not cached yet.
+     *
+     * @param claim non-null {@link Claim}
+     * @return the route; never null
+     */
+    public Route analyze(Claim claim) {
+        Utils.nonNullOrThrow(claim, "claim");
+        final Route cached = mRoutesById.get(claim.getId());
+        if (cached != null && cached.isOf(claim)) {
+            return cached;
+        }
+
+        final List<Destination> destinations = claim.peekDestinations();
+        int located = 0;
+        for (Destination destination : destinations) {
+            if (destination.getLocation() != null) {
+                located += 1;
+            }
+        }
+        final Route route = new Route(claim, lengthOf(destinations), Math.max(0, located - 1),
+                mConverter.convertTotal(claim));
+        mRoutesById.put(claim.getId(), route);  // two threads may both compute it; either route will do
+        return route;
+    }
+
+    /**
+     * {@link #analyze(Claim) Analyzes} each {@link Claim}. Large lists are split across threads.
+     *
+     * @param claims non-null {@code List} of non-null {@code Claims}
+     * @return an unmodifiable {@code List} of routes in the same order as {@code claims}
+     */
+    public List<Route> analyzeAll(List<Claim> claims) {
+        final Claim[] input = claims.toArray(new Claim[claims.size()]);
+        final Route[] output = new Route[input.length];
+
+        ParallelRanges.run(input.length, new ParallelRanges.Range() {
+            @Override
+            public void run(int from, int to) {
+                analyzeRange(input, output, from, to);
+            }
+        });
+        return Collections.unmodifiableList(Arrays.asList(output));
+    }
+
+    /**
+     * Sorts the claims by cost per kilometre, highest first, as the likeliest to need a closer look. Claims whose cost
+     * per kilometre is not known come last; claims with equal costs keep their order.
+     *
+     * @param claims non-null {@code List} of non-null {@code Claims}
+     * @return the positions in {@code claims}, in sorted order; never null
+     */
+    public int[] orderByCostPerKm(List<Claim> claims) {
+        final List<Route> routes = analyzeAll(claims);
+        final long[] keys = new long[routes.size()];
+        for (int i = 0; i < keys.length; i++) {
+            final Route route = routes.get(i);
+            // non-negative doubles order like their bits
+            keys[i] = route.hasCostPerKm() ? Double.doubleToLongBits(Math.max(0, route.getCostPerKmValue())) : -1;
+        }
+        return SortKeys.order(keys, true);
+    }
+
+    private void analyzeRange(Claim[] input, Route[] output, int from, int to) {
+        for (int i = from; i < to; i++) {
+            output[i] = analyze(input[i]);
+        }
+    }
+}
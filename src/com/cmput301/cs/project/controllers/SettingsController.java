@@ -5,17 +5,32 @@ import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.location.Location;
 import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.utils.DistanceClassifier;
 import com.google.android.gms.maps.model.LatLng;
+import org.joda.money.CurrencyUnit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Bridges Java objects and {@link SharedPreferences}, saves and loads items.
  * <p/>
+ * Home is read and parsed once, then cached until {@link #saveHomeAsDestination(Destination)}, as every list row
+ * coloured by its {@link #colourForLatLng(LatLng) distance from home} needs it. The cache may be read on any thread;
+ * a home read before a save is never cached after it.
+ * <p/>
  * Use {@link #get(Context)} to obtain the singleton.
  */
 public class SettingsController {
     private static final String PREF_NAME = "HOME_LOCATION";
     private static final String KEY_NAME = "HOME_NAME";
     private static final String KEY_LATLONG = "HOME_LATLONG";
+    private static final String KEY_CURRENCY = "HOME_CURRENCY";
+
+    /**
+     * The home currency until one is saved.
+     */
+    public static final CurrencyUnit DEFAULT_HOME_CURRENCY = CurrencyUnit.CAD;
 
     public static final float DISTANCE_CITY = 200f * 1000;  // 200km: Edmonton <-> Calgary
     public static final float DISTANCE_GLOBE = 800f * 1000;  // 800km: Edmonton <-> Vancouver
@@ -35,7 +50,31 @@ public class SettingsController {
 
     private static SettingsController sInstance;
 
+    // by band of the classifier: within DISTANCE_CITY, within DISTANCE_GLOBE, beyond
+    private static final int[] BAND_COLOURS = {Color.GREEN, Color.YELLOW, Color.RED};
+
+    /**
+     * Home as parsed from {@code SharedPreferences}, with a classifier around it. This is an immutable class.
+     */
+    private static final class Home {
+        private final Destination mDestination;  // null until loaded
+        private final DistanceClassifier mClassifier;  // null without a location
+
+        // not loaded yet; every save makes a new one, so a load that began before a save cannot cache what it read
+        private Home() {
+            mDestination = null;
+            mClassifier = null;
+        }
+
+        private Home(Destination destination) {
+            mDestination = destination;
+            final LatLng location = destination.getLocation();
+            mClassifier = location == null ? null : new DistanceClassifier(location, DISTANCE_CITY, DISTANCE_GLOBE);
+        }
+    }
+
     private final Context mContext;
+    private final AtomicReference<Home> mHome = new AtomicReference<Home>(new Home());
 
     private SettingsController(Context context) {
         mContext = context.getApplicationContext();
@@ -49,10 +88,7 @@ public class SettingsController {
      * @see #saveHomeAsDestination(Destination)
      */
     public boolean isLocationHome(LatLng latLng) {
-        final String latLongStr = getPreferences().getString(KEY_LATLONG, null);
-        if (latLongStr == null || latLng == null) return false;
-        final LatLng home = parseLatLng(latLongStr);
-        return latLng.equals(home);
+        return latLng != null && latLng.equals(loadHome().mDestination.getLocation());
     }
 
     /**
@@ -63,6 +99,19 @@ public class SettingsController {
      * @see #saveHomeAsDestination(Destination)
      */
     public Destination loadHomeAsDestination() {
+        return loadHome().mDestination;
+    }
+
+    private Home loadHome() {
+        final Home current = mHome.get();
+        if (current.mDestination != null) return current;
+
+        final Home home = new Home(readHomeAsDestination());  // two threads may both read it; either will do
+        mHome.compareAndSet(current, home);  // unless saved since, so the next call reads the new home
+        return home;
+    }
+
+    private Destination readHomeAsDestination() {
         final Destination.Builder builder = new Destination.Builder();
         final SharedPreferences pref = getPreferences();
         if (pref.contains(KEY_NAME)) {
@@ -89,25 +138,63 @@ public class SettingsController {
         final LatLng location = destination.getLocation();
         pref.putString(KEY_LATLONG, serializeLatLng(location));  // location is required
         pref.apply();
+        mHome.set(new Home());  // read again, as the name is kept if the new one is null
     }
 
     /**
-     * Obtains the {@link Color} code based on the {@link #distanceFromHome(LatLng) distance} from home.
+     * Loads the home currency, which {@link CurrencyConverter} converts totals into.
+     *
+     * @return the home {@link CurrencyUnit}; {@link #DEFAULT_HOME_CURRENCY} if none is saved; never null
+     * @see #saveHomeCurrency(CurrencyUnit)
+     */
+    public CurrencyUnit loadHomeCurrency() {
+        final String code = getPreferences().getString(KEY_CURRENCY, null);
+        return code == null ? DEFAULT_HOME_CURRENCY : CurrencyUnit.of(code);
+    }
+
+    /**
+     * Saves a {@link CurrencyUnit} as the home currency.
+     *
+     * @param unit non-null instance of {@code CurrencyUnit}
+     * @see #loadHomeCurrency()
+     */
+    public void saveHomeCurrency(CurrencyUnit unit) {
+        getPreferences().edit().putString(KEY_CURRENCY, unit.getCode()).apply();
+    }
+
+    /**
+     * Obtains the {@link Color} code based on the great-circle distance from home.
      *
      * @param latLng the target {@code LatLng}; nullable
      * @return the {@link Color} code
      */
     public int colourForLatLng(LatLng latLng) {
-        final LatLng home = loadHomeAsDestination().getLocation();
-        if (home == null || latLng == null) return Color.TRANSPARENT;
-
-        final float distance = distanceFromHome(latLng);
-        if (distance > DISTANCE_GLOBE) {
-            return Color.RED;
-        } else if (distance > DISTANCE_CITY) {
-            return Color.YELLOW;
-        } else {
-            return Color.GREEN;
+        final DistanceClassifier classifier = loadHome().mClassifier;
+        if (classifier == null || latLng == null) return Color.TRANSPARENT;
+
+        return BAND_COLOURS[classifier.classify(latLng)];
+    }
+
+    /**
+     * Finds the {@link #colourForLatLng(LatLng) colour} of every {@link LatLng} of the list at once, without
+     * allocating.
+     *
+     * @param latLngs non-null {@link List} of nullable {@code LatLngs}
+     * @param colours non-null array, at least as long as {@code latLngs}; {@code colours[i]} is set to the colour of
+     *                {@code latLngs.get(i)}
+     */
+    public void coloursForLatLngs(List<LatLng> latLngs, int[] colours) {
+        final DistanceClassifier classifier = loadHome().mClassifier;
+        if (classifier == null) {
+            for (int i = 0, size = latLngs.size(); i < size; i++) {
+                colours[i] = Color.TRANSPARENT;
+            }
+            return;
+        }
+
+        classifier.classifyAll(latLngs, colours);
+        for (int i = 0, size = latLngs.size(); i < size; i++) {
+            colours[i] = colours[i] == DistanceClassifier.UNKNOWN ? Color.TRANSPARENT : BAND_COLOURS[colours[i]];
         }
     }
 
@@ -119,7 +206,7 @@ public class SettingsController {
      * @see #saveHomeAsDestination(Destination)
      */
     public float distanceFromHome(LatLng latLng) {
-        final LatLng home = loadHomeAsDestination().getLocation();
+        final LatLng home = loadHome().mDestination.getLocation();
         final double homeLat = home.latitude;
         final double homeLong = home.longitude;
         final double targetLat = latLng.latitude;
@@ -1,12 +1,19 @@
 package com.cmput301.cs.project.controllers;
 
 import android.content.Context;
+import com.cmput301.cs.project.listeners.BackgroundListener;
+import com.cmput301.cs.project.listeners.ClaimsChangedListener;
 import com.cmput301.cs.project.listeners.TagsChangedListener;
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ClaimsList;
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.TagStatistics;
 import com.cmput301.cs.project.serialization.LocalSaver;
+import com.cmput301.cs.project.utils.PrefixTrie;
 import com.cmput301.cs.project.utils.Utils;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Controls the tags that are shown in {@link com.cmput301.cs.project.activities.TagManagerActivity TagManagerActivity}. <p>
@@ -16,8 +23,26 @@ import java.util.*;
  * There are getter methods, as well as the search methods, for using either the {@link #findTagByName(String) name}
  * or the {@link #findTagById(String) id} to find the tag.
  * You can also delete the tag by either its {@link #deleteTagByName(String) name} or its {@link #deleteTagById(String) id}.
+ * Both lookups are hashed, so they take constant time however many tags there are.
+ * {@link #completeTagName(String, int)} finds the most used tags whose names start with what was typed.
+ * <p/>
+ * Listens to the {@link ClaimsList} for how often each tag is used, and which tags are used together, so
+ * {@link #getUsage(Tag)} and {@link #findCooccurringTags(Collection, int)} only count each claim when it changes.
+ * <p/>
+ * Listeners are called on the caller's thread, except {@link BackgroundListener BackgroundListeners}, which are called
+ * on a worker thread so slow listeners do not block the UI.
  */
-public class TagsManager {
+public class TagsManager implements ClaimsChangedListener {
+
+    // one thread, so background callbacks run one at a time and in order
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "TagsManager");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     private static TagsManager sInstance;
 
@@ -46,20 +71,32 @@ public class TagsManager {
 
     private final LocalSaver mClaimSaves;
     private final SortedSet<Tag> mTags = new TreeSet<Tag>();
+    // indexes of mTags; only changed by addInternal(Tag) and removeInternal(Tag)
+    private final Map<String, Tag> mTagsByName = new HashMap<String, Tag>();
+    private final Map<String, Tag> mTagsById = new HashMap<String, Tag>();
+    // by Tag.normalizeName(String); names only differing in case share their statistics; guarded by mStatistics
+    private final Map<String, List<Tag>> mTagsByNormalizedName = new HashMap<String, List<Tag>>();
+    // by completionKeyOf(Tag), weighted by usage; guarded by itself, as completions are made on a filter thread
+    private final PrefixTrie<Tag> mCompletions = new PrefixTrie<Tag>();
+    // guarded by itself, as claims may change on the background thread; lock it before mCompletions
+    private final TagStatistics mStatistics = new TagStatistics();
     private final List<TagsChangedListener> mListeners = new ArrayList<TagsChangedListener>();
 
     private TagsManager(Context context) {
         this(LocalSaver.ofAndroid(context));
+        ClaimsList.getInstance(context).addClaimsChangedListener(this);
     }
 
     private TagsManager(LocalSaver claimSaves) {
         mClaimSaves = claimSaves;
-        mTags.addAll(claimSaves.readAllTags());
+        for (Tag tag : claimSaves.readAllTags()) {
+            addInternal(tag);
+        }
     }
 
     /**
      * Adds a {@link TagsChangedListener} for listening to changes of {@link Tag Tags}. Refer to specific methods for
-     * info of callbacks.
+     * info of callbacks. If it is a {@link BackgroundListener}, it is called on the background thread.
      *
      * @param listener non-null instance of {@code TagsChangedListener}
      * @see #removeTagChangedListener(TagsChangedListener)
@@ -88,6 +125,32 @@ public class TagsManager {
         }
     }
 
+    /**
+     * Waits for the callbacks of {@link BackgroundListener BackgroundListeners} for the changes made so far to return.
+     * Mostly for tests; never call it on the UI thread.
+     *
+     * @param timeout the most time to wait
+     * @param unit    the unit of {@code timeout}
+     * @return true if the callbacks returned; false if the time ran out first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitBackgroundListeners(long timeout, TimeUnit unit) throws InterruptedException {
+        final Future<?> marker = BACKGROUND.submit(new Runnable() {
+            @Override
+            public void run() {
+                // the queue is in order, so every callback before this has returned
+            }
+        });
+        try {
+            marker.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new AssertionError(e);  // the marker does nothing
+        }
+    }
+
     /**
      * Finds or <em>creates</em> a {@link Tag} with the supplied {@code name}. If a new {@code Tag} is created,
      * {@link TagsChangedListener#onTagCreated(Tag)} is called after the creation.
@@ -101,7 +164,7 @@ public class TagsManager {
         final Tag out;
         if (tag == null) {
             out = new Tag(name, this);
-            mTags.add(out);
+            addInternal(out);
             tagCreatedInternal(out);
         } else {
             out = tag;
@@ -116,13 +179,7 @@ public class TagsManager {
      * @return an instance of {@code Tag} with the same name; null if not found
      */
     public Tag findTagByName(String name) {
-        name = name.trim();
-        for (Tag tag : mTags) {
-            if (tag.getName().equals(name)) {
-                return tag;
-            }
-        }
-        return null;
+        return mTagsByName.get(name.trim());
     }
 
     /**
@@ -132,12 +189,96 @@ public class TagsManager {
      * @return an instance of {@code Tag} with the same id; null if not found
      */
     public Tag findTagById(String id) {
-        for (Tag tag : mTags) {
-            if (tag.getId().equals(id)) {
-                return tag;
+        return mTagsById.get(id);
+    }
+
+    /**
+     * Finds the tags whose names start with the prefix, ignoring case, the most used first.
+     * May be called from any thread.
+     *
+     * @param prefix non-null {@code String} prefix, as typed
+     * @param limit  the most tags to return
+     * @return non-null {@link List} of at most {@code limit} tags
+     * @see #getUsage(Tag)
+     */
+    public List<Tag> completeTagName(String prefix, int limit) {
+        // a name may be all spaces before the trim
+        final String normalized = prefix.trim().isEmpty() ? "" : Tag.normalizeName(prefix);
+        synchronized (mCompletions) {
+            return mCompletions.complete(normalized, limit);
+        }
+    }
+
+    /**
+     * @param tag non-null {@link Tag}
+     * @return the number of claims with a tag of the same name, ignoring case
+     */
+    public int getUsage(Tag tag) {
+        synchronized (mStatistics) {
+            return mStatistics.getUsage(tag.getName());
+        }
+    }
+
+    /**
+     * Finds the tags most often used together with all of the given tags, such as to suggest tags for a claim. A tag
+     * never used with one of them is left out; see {@link TagStatistics#findCooccurring(Collection, int)}.
+     *
+     * @param tags  non-null {@link Collection} of non-null {@link Tag Tags}
+     * @param limit the most tags to return
+     * @return non-null {@link List} of at most {@code limit} tags, not in {@code tags}, most often used together first
+     */
+    public List<Tag> findCooccurringTags(Collection<? extends Tag> tags, int limit) {
+        final List<String> names = new ArrayList<String>(tags.size());
+        for (Tag tag : tags) {
+            names.add(tag.getName());
+        }
+
+        final List<Tag> out = new ArrayList<Tag>();
+        synchronized (mStatistics) {
+            // other claimants' tags may not exist here, so more names than limit may be needed
+            for (String name : mStatistics.findCooccurring(names, Integer.MAX_VALUE)) {
+                if (out.size() >= limit) break;
+
+                final List<Tag> variants = mTagsByNormalizedName.get(name);
+                if (variants != null) {
+                    out.add(variants.get(0));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void onClaimAdded(Claim claim) {
+        synchronized (mStatistics) {
+            final List<String> replaced = mStatistics.peekCountedNames(claim);  // of the claim with the same id, if any
+            mStatistics.onClaimAdded(claim);
+            updateCompletionWeights(replaced);
+            updateCompletionWeights(mStatistics.peekCountedNames(claim));
+        }
+    }
+
+    @Override
+    public void onClaimRemoved(Claim claim) {
+        synchronized (mStatistics) {
+            final List<String> names = mStatistics.peekCountedNames(claim);
+            mStatistics.onClaimRemoved(claim);
+            updateCompletionWeights(names);
+        }
+    }
+
+    // only the names of the changed claim changed usage; holds mStatistics
+    private void updateCompletionWeights(List<String> normalizedNames) {
+        synchronized (mCompletions) {
+            for (String name : normalizedNames) {
+                final List<Tag> variants = mTagsByNormalizedName.get(name);
+                if (variants == null) continue;
+
+                for (Tag tag : variants) {
+                    mCompletions.setWeight(completionKeyOf(tag), getUsage(tag));
+                }
             }
         }
-        return null;
     }
 
     /**
@@ -151,8 +292,8 @@ public class TagsManager {
      */
     public Tag renameTag(Tag oldTag, String newName) {
         final Tag newTag = new Tag(newName, this, oldTag.getId());
-        mTags.remove(oldTag);
-        mTags.add(newTag);
+        removeInternal(oldTag);
+        addInternal(newTag);
         tagRenamedInternal(newTag, oldTag);
         return newTag;
     }
@@ -166,7 +307,7 @@ public class TagsManager {
     public void deleteTagById(String id) {
         final Tag tag = findTagById(id);
         if (tag != null) {
-            mTags.remove(tag);
+            removeInternal(tag);
             tagDeletedInternal(tag);
         }
     }
@@ -180,11 +321,54 @@ public class TagsManager {
     public void deleteTagByName(String name) {
         final Tag tag = findTagByName(name);
         if (tag != null) {
-            mTags.remove(tag);
+            removeInternal(tag);
             tagDeletedInternal(tag);
         }
     }
 
+    // keeps the indexes in step with mTags, which holds one tag per name
+    private void addInternal(Tag tag) {
+        if (mTags.add(tag)) {
+            mTagsByName.put(tag.getName(), tag);
+            mTagsById.put(tag.getId(), tag);
+            final String normalized = Tag.normalizeName(tag.getName());
+            synchronized (mStatistics) {
+                List<Tag> variants = mTagsByNormalizedName.get(normalized);
+                if (variants == null) {
+                    variants = new ArrayList<Tag>(1);
+                    mTagsByNormalizedName.put(normalized, variants);
+                }
+                variants.add(tag);
+                synchronized (mCompletions) {
+                    mCompletions.put(completionKeyOf(tag), tag, mStatistics.getUsage(normalized));
+                }
+            }
+        }
+    }
+
+    private void removeInternal(Tag tag) {
+        if (mTags.remove(tag)) {  // by name, as per Tag.compareTo(Tag)
+            final Tag removed = mTagsByName.remove(tag.getName());
+            mTagsById.remove(removed.getId());
+            final String normalized = Tag.normalizeName(removed.getName());
+            synchronized (mStatistics) {
+                final List<Tag> variants = mTagsByNormalizedName.get(normalized);
+                variants.remove(removed);
+                if (variants.isEmpty()) {
+                    mTagsByNormalizedName.remove(normalized);
+                }
+            }
+            synchronized (mCompletions) {
+                mCompletions.remove(completionKeyOf(removed));
+            }
+        }
+    }
+
+    // the normalized name, then the name itself, since names only differing in case are different tags
+    private static String completionKeyOf(Tag tag) {
+        return Tag.normalizeName(tag.getName()) + '\u0000' + tag.getName();
+    }
+
     private void tagCreatedInternal(Tag tag) {
         mClaimSaves.saveAllTags(peekTags());
         notifyListenersCreated(tag);
@@ -200,22 +384,44 @@ public class TagsManager {
         notifyListenersDeleted(tag);
     }
 
-    private void notifyListenersCreated(Tag tag) {
-        for (TagsChangedListener listener : mListeners) {
-            listener.onTagCreated(tag);
+    private void notifyListenersCreated(final Tag tag) {
+        for (final TagsChangedListener listener : mListeners) {
+            dispatch(listener, new Runnable() {
+                @Override
+                public void run() {
+                    listener.onTagCreated(tag);
+                }
+            });
         }
     }
 
+    private void notifyListenersRenamed(final Tag tag, final Tag oldTag) {
+        for (final TagsChangedListener listener : mListeners) {
+            dispatch(listener, new Runnable() {
+                @Override
+                public void run() {
+                    listener.onTagRenamed(tag, oldTag);
+                }
+            });
+        }
+    }
 
-    private void notifyListenersRenamed(Tag tag, Tag oldTag) {
-        for (TagsChangedListener listener : mListeners) {
-            listener.onTagRenamed(tag, oldTag);
+    private void notifyListenersDeleted(final Tag tag) {
+        for (final TagsChangedListener listener : mListeners) {
+            dispatch(listener, new Runnable() {
+                @Override
+                public void run() {
+                    listener.onTagDeleted(tag);
+                }
+            });
         }
     }
 
-    private void notifyListenersDeleted(Tag tag) {
-        for (TagsChangedListener listener : mListeners) {
-            listener.onTagDeleted(tag);
+    private static void dispatch(TagsChangedListener listener, Runnable callback) {
+        if (listener instanceof BackgroundListener) {
+            BACKGROUND.execute(callback);
+        } else {
+            callback.run();
         }
     }
 
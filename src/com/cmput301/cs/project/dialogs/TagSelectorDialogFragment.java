@@ -8,16 +8,20 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.CompoundButton;
+import android.widget.EditText;
 import android.widget.ListView;
+import android.widget.RadioGroup;
 import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.adapters.TagsCheckboxesAdapter;
 import com.cmput301.cs.project.listeners.TagSelectorListener;
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.TagQuery;
 
 import java.util.ArrayList;
 
 /*
- * Will allow the user to select the tags that they want to filter by
+ * Will allow the user to select the tags that they want to filter by, or to type a TagQuery such as
+ * "travel AND NOT personal"; a typed query takes the place of the selected tags
  * WARNING: The activity running this class MUST implement TagSelectorListener
  *
  * In the tagsList, every CheckBox getTag will correspond with the Tag it is displaying
@@ -25,16 +29,22 @@ import java.util.ArrayList;
 public class TagSelectorDialogFragment extends DialogFragment implements CompoundButton.OnCheckedChangeListener {
     private static final String ALL_TAGS = "all_tags";
     private static final String SELECTED_TAGS = "selected_tags";
+    private static final String FILTER_MODE = "filter_mode";
+    private static final String TAG_QUERY = "tag_query";
     private ArrayList<Tag> mWantedTags;
+    private TagQuery.Mode mMode;
 
     private TagSelectorListener mListener;
 
-    public static TagSelectorDialogFragment newInstance(ArrayList<Tag> allTags, ArrayList<Tag> currentlyWantedTags) {
+    public static TagSelectorDialogFragment newInstance(ArrayList<Tag> allTags, ArrayList<Tag> currentlyWantedTags,
+                                                        TagQuery.Mode currentMode, String currentQuery) {
         TagSelectorDialogFragment f = new TagSelectorDialogFragment();
 
         Bundle args = new Bundle();
         args.putParcelableArrayList(ALL_TAGS, allTags);
         args.putParcelableArrayList(SELECTED_TAGS, new ArrayList<Tag>(currentlyWantedTags));
+        args.putString(FILTER_MODE, currentMode.name());
+        args.putString(TAG_QUERY, currentQuery);
         f.setArguments(args);
 
         return f;
@@ -59,6 +69,7 @@ public class TagSelectorDialogFragment extends DialogFragment implements Compoun
 
         // Will load all tags inOnCreateView
         mWantedTags = getArguments().getParcelableArrayList(SELECTED_TAGS);
+        mMode = TagQuery.Mode.valueOf(getArguments().getString(FILTER_MODE));
     }
 
     @Override
@@ -73,10 +84,30 @@ public class TagSelectorDialogFragment extends DialogFragment implements Compoun
 
         tagsList.setAdapter(adapter);
 
+        RadioGroup modeGroup = (RadioGroup) view.findViewById(R.id.filterModeGroup);
+        modeGroup.check(radioIdForMode(mMode));
+        modeGroup.setOnCheckedChangeListener(new RadioGroup.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(RadioGroup group, int checkedId) {
+                mMode = modeForRadioId(checkedId);
+            }
+        });
+
+        final EditText queryText = (EditText) view.findViewById(R.id.tagQuery);
+        queryText.setText(getArguments().getString(TAG_QUERY));
+
         Button filterButton = (Button) view.findViewById(R.id.filterButton);
         filterButton.setOnClickListener(new View.OnClickListener() {
             public void onClick(View v) {
-                mListener.wantedTagsChanged(mWantedTags);
+                final String query = queryText.getText().toString();
+                try {
+                    TagQuery.parse(query);
+                } catch (IllegalArgumentException e) {
+                    queryText.setError(getActivity().getString(R.string.invalid_tag_query));
+                    return;
+                }
+
+                mListener.wantedTagsChanged(mWantedTags, mMode, query);
                 dismiss();
             }
         });
@@ -93,6 +124,28 @@ public class TagSelectorDialogFragment extends DialogFragment implements Compoun
         return view;
     }
 
+    private static int radioIdForMode(TagQuery.Mode mode) {
+        switch (mode) {
+            case ALL:
+                return R.id.filterModeAll;
+            case NONE:
+                return R.id.filterModeNone;
+            default:
+                return R.id.filterModeAny;
+        }
+    }
+
+    private static TagQuery.Mode modeForRadioId(int id) {
+        switch (id) {
+            case R.id.filterModeAll:
+                return TagQuery.Mode.ALL;
+            case R.id.filterModeNone:
+                return TagQuery.Mode.NONE;
+            default:
+                return TagQuery.Mode.ANY;
+        }
+    }
+
     @Override
     public void onCheckedChanged(CompoundButton button, boolean b) {
         Tag correspondingTag = (Tag) button.getTag();
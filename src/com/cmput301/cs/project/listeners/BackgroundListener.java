@@ -0,0 +1,15 @@
+package com.cmput301.cs.project.listeners;
+
+import com.cmput301.cs.project.controllers.TagsManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a listener whose callbacks are slow, such as ones that save or send claims.
+ * {@link TagsManager TagsManager} calls such listeners on a worker thread instead of the caller's thread, one
+ * callback at a time, in the order of the changes. Other listeners are still called on the caller's thread.
+ *
+ * @see TagsManager#awaitBackgroundListeners(long, TimeUnit)
+ */
+public interface BackgroundListener {
+}
@@ -0,0 +1,26 @@
+package com.cmput301.cs.project.listeners;
+
+import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ClaimsList;
+
+/**
+ * Interface for listeners that {@link ClaimsList ClaimsList} uses. An edited claim is reported as the old claim being
+ * removed, then the new claim being added. Deleted claims are reported as removed.
+ *
+ * @see ClaimsList#addClaimsChangedListener(ClaimsChangedListener)
+ */
+public interface ClaimsChangedListener {
+    /**
+     * Called after a {@link Claim} is added, or a new version of it replaced the old one.
+     *
+     * @param claim the claim; never null, never deleted
+     */
+    void onClaimAdded(Claim claim);
+
+    /**
+     * Called after a {@link Claim} is removed, deleted, or replaced by a new version of it.
+     *
+     * @param claim the claim as it was added; never null
+     */
+    void onClaimRemoved(Claim claim);
+}
@@ -1,12 +1,14 @@
 package com.cmput301.cs.project.listeners;
 
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.TagQuery;
 
 import java.util.ArrayList;
 
 /*
  *   If this listeners is used by TagSelectorDialogFragment, must be implemented by the Activity
+ *   query is a TagQuery that parses, or blank to use the tags and mode instead
  */
 public interface TagSelectorListener {
-    public void wantedTagsChanged(ArrayList<Tag> newWantedTags);
+    public void wantedTagsChanged(ArrayList<Tag> newWantedTags, TagQuery.Mode mode, String query);
 }
@@ -16,13 +16,13 @@
 
 package com.cmput301.cs.project.models;
 
+import com.cmput301.cs.project.serialization.LazyExpenseList;
 import com.cmput301.cs.project.utils.Utils;
 import com.google.gson.InstanceCreator;
-import org.joda.money.CurrencyUnit;
-import org.joda.money.Money;
 
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class that contains a set of {@link com.cmput301.cs.project.models.Expense Expenses}, and details of a trip. <p>
@@ -44,17 +44,19 @@ public final class Claim implements Comparable<Claim>, Saveable {
     public static final Comparator<? super Claim> START_DESCENDING = new Comparator<Claim>() {
         @Override
         public int compare(Claim lhs, Claim rhs) {
-            return ((Long) lhs.getStartTime()).compareTo(rhs.getStartTime());
+            return lhs.getStartTime() < rhs.getStartTime() ? -1 : (lhs.getStartTime() == rhs.getStartTime() ? 0 : 1);
         }
     };
 
     public static final Comparator<? super Claim> START_ASCENDING = new Comparator<Claim>() {
         @Override
         public int compare(Claim lhs, Claim rhs) {
-            return ((Long) rhs.getStartTime()).compareTo(lhs.getStartTime());
+            return rhs.getStartTime() < lhs.getStartTime() ? -1 : (rhs.getStartTime() == lhs.getStartTime() ? 0 : 1);
         }
     };
 
+    private static final AtomicLong sLastModified = new AtomicLong();
+
     private final User mClaimant;
     private final long mModified;
     private boolean mDeleted;
@@ -90,32 +92,22 @@ public final class Claim implements Comparable<Claim>, Saveable {
         return sb.toString();
     }
 
-    //http://stackoverflow.com/a/669165/1036813 March 17 2015 blaine1
+    /**
+     * Sums the {@link com.cmput301.cs.project.models.Expense Expenses} by currency. Computed once per {@code Claim},
+     * and saved with it, so this does not decode the expenses of a claim read from storage.
+     *
+     * @return the totals; never null
+     */
+    public CurrencyTotals getTotals() {
+        return getSummary().getTotals();
+    }
 
+    /**
+     * @return the totals formatted as {@code "CAD 10.00, USD 5.00"}
+     * @see #getTotals()
+     */
     public String getTotalsAsString() {
-        Map<CurrencyUnit, Money> totals = new HashMap<CurrencyUnit, Money>();
-
-        for (Expense expense : mExpenses) {
-            Money amount = expense.getAmount();
-            if (totals.containsKey(amount.getCurrencyUnit())) {
-                Money newAmount = totals.get(amount.getCurrencyUnit()).plus(amount.getAmount());
-                totals.put(amount.getCurrencyUnit(), newAmount);
-            } else {
-                totals.put(amount.getCurrencyUnit(), amount);
-            }
-
-        }
-
-        StringBuilder sb = new StringBuilder();
-        String separator = "";
-
-        for (Map.Entry<CurrencyUnit, Money> amount : totals.entrySet()) {
-            sb.append(separator).append(amount.getValue().toString());
-            separator = ", ";
-        }
-
-        return sb.toString();
-
+        return getTotals().toString();
     }
 
     public String getDestinationsAsString() {
@@ -217,6 +209,8 @@ public final class Claim implements Comparable<Claim>, Saveable {
         private final boolean mGsonToFill;
         private final List<Comment> mComments = new ArrayList<Comment>();
         private final User mClaimant;
+        // the claim edited, if its expenses could not be decoded; they are kept as they are, and cannot be changed
+        private final Claim mUndecodedExpensesOf;
 
 
         private long mStartTime = -1;
@@ -231,6 +225,7 @@ public final class Claim implements Comparable<Claim>, Saveable {
         private Builder() {
             mGsonToFill = true;
             mClaimant = null;
+            mUndecodedExpensesOf = null;
         }
 
         /**
@@ -240,14 +235,22 @@ public final class Claim implements Comparable<Claim>, Saveable {
             Utils.nonNullOrThrow(claimaint, "claimaint");
             mGsonToFill = false;
             mClaimant = claimaint;
+            mUndecodedExpensesOf = null;
         }
 
         /**
          * Creates an instance of {@code Builder} with the given {@code Claim}.
+         * <p/>
+         * If the expenses of the {@code Claim} were saved but could not be decoded, the built claim keeps them as they
+         * were saved, and changing them throws {@code IllegalStateException}.
          *
          * @param claim non-null instance of {@code Claim}
+         * @see LazyExpenseList#isMalformed()
          */
         private Builder(Claim claim) {
+            final boolean undecoded = claim.mExpenses instanceof LazyExpenseList
+                    && ((LazyExpenseList) claim.mExpenses).isMalformed();
+            mUndecodedExpensesOf = undecoded ? claim : null;
             mExpenses.addAll(claim.peekExpenses());
             mDestinations.addAll(claim.peekDestinations());
 
@@ -286,6 +289,7 @@ public final class Claim implements Comparable<Claim>, Saveable {
          */
         public Builder putExpense(Expense expense) {
             Utils.nonNullOrThrow(expense, "expense");
+            checkExpensesDecoded();
             for (Iterator<Expense> iterator = mExpenses.iterator(); iterator.hasNext(); ) {
                 final Expense e = iterator.next();
                 if (e.getId().equals(expense.getId())) {
@@ -308,6 +312,7 @@ public final class Claim implements Comparable<Claim>, Saveable {
          */
         private Builder addExpense(Expense expense) {
             Utils.nonNullOrThrow(expense, "expense");
+            checkExpensesDecoded();
             mExpenses.add(expense);
             return this;
         }
@@ -320,6 +325,7 @@ public final class Claim implements Comparable<Claim>, Saveable {
          */
         public Builder removeExpense(Expense expense) {
             Utils.nonNullOrThrow(expense, "expense");
+            checkExpensesDecoded();
             final String id = expense.getId();
             for (Iterator<Expense> iterator = mExpenses.iterator(); iterator.hasNext(); ) {
                 final Expense e = iterator.next();
@@ -331,6 +337,13 @@ public final class Claim implements Comparable<Claim>, Saveable {
             return this;
         }
 
+        // a change would be saved over the expenses that could not be decoded, and lose them
+        private void checkExpensesDecoded() {
+            if (mUndecodedExpensesOf != null) {
+                throw new IllegalStateException("the expenses of claim " + mId + " could not be read");
+            }
+        }
+
         public Builder addTag(Tag tag) {
             Utils.nonNullOrThrow(tag, "tag");
             mTags.add(tag);
@@ -555,20 +568,71 @@ public final class Claim implements Comparable<Claim>, Saveable {
     private final Status mStatus;
     private final List<Comment> mComments;
 
+    // derived from mExpenses; null for claims saved before it was added, see getSummary()
+    private ExpenseSummary mSummary;
+    // lazily computed; see hashCode()
+    private transient int mHashCode;
+    // lazily computed, plus one so that 0 is unset; see getOrdinal()
+    private transient int mOrdinalPlusOne;
+
     // Effective Java Item 2
     private Claim(Builder b) {
-        mExpenses = b.mExpenses;
-        mDestinations = b.mDestinations;
-        mTags = b.mTags;
+        // Effective Java Item 39, the Builder may still be modified after build()
+        mExpenses = b.mUndecodedExpensesOf == null
+                ? new ArrayList<Expense>(b.mExpenses)
+                : b.mUndecodedExpensesOf.mExpenses;  // immutable, and written back as it was read
+        mDestinations = new ArrayList<Destination>(b.mDestinations);
+        mTags = new TreeSet<Tag>(b.mTags);
 
         mStartTime = b.mStartTime;
         mEndTime = b.mEndTime;
         mId = b.mId;
         mStatus = b.mStatus;
-        mComments = b.mComments;
+        mComments = new ArrayList<Comment>(b.mComments);
         mClaimant = b.mClaimant;
-        mModified = System.currentTimeMillis();
+        mModified = nextModified();
         mDeleted = b.mDeleted;
+        if (b.mUndecodedExpensesOf != null) {
+            mSummary = b.mUndecodedExpensesOf.mSummary;  // as it was saved
+        } else {
+            mSummary = b.mGsonToFill ? null : ExpenseSummary.of(mExpenses);  // Gson fills it, if it was saved
+        }
+    }
+
+    // the current time, but strictly increasing, so an id and modified stamp identify one build() in this process
+    private static long nextModified() {
+        final long now = System.currentTimeMillis();
+        while (true) {
+            final long last = sLastModified.get();
+            final long next = Math.max(now, last + 1);
+            if (sLastModified.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    private ExpenseSummary getSummary() {
+        // Effective Java Item 71, racy single-check idiom; ExpenseSummary is immutable
+        ExpenseSummary summary = mSummary;
+        if (summary == null) {
+            summary = ExpenseSummary.of(mExpenses);
+            mSummary = summary;
+        }
+        return summary;
+    }
+
+    /**
+     * @return the {@link Ordinals#CLAIMS ordinal} of the id
+     * @see TagIndex
+     */
+    int getOrdinal() {
+        // Effective Java Item 71, racy single-check idiom
+        int ordinalPlusOne = mOrdinalPlusOne;
+        if (ordinalPlusOne == 0) {
+            ordinalPlusOne = Ordinals.CLAIMS.of(mId) + 1;
+            mOrdinalPlusOne = ordinalPlusOne;
+        }
+        return ordinalPlusOne - 1;
     }
 
     /**
@@ -580,13 +644,11 @@ public final class Claim implements Comparable<Claim>, Saveable {
         return new Claim.Builder(this);
     }
 
+    /**
+     * @return if every {@link Expense} is {@link Expense#isCompleted() completed}; does not decode the expenses of a claim read from storage
+     */
     public boolean isCompleted() {
-        for (Expense expense : mExpenses) {
-            if (!expense.isCompleted()) {
-                return false;
-            }
-        }
-        return true;
+        return getSummary().isCompleted();
     }
 
     public List<Destination> getDestinations() {
@@ -687,6 +749,12 @@ public final class Claim implements Comparable<Claim>, Saveable {
         return 0;
     }
 
+    /**
+     * Two claims are equal if all their fields except {@link #getModified()} and {@link #isDeleted()} are equal.
+     * <p/>
+     * Compares the {@link #getId() ids} and cached {@link #hashCode() hash codes} first, so claims that differ rarely
+     * have their expenses compared.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -694,11 +762,13 @@ public final class Claim implements Comparable<Claim>, Saveable {
 
         final Claim claim = (Claim) o;
 
+        if (!mId.equals(claim.mId)) return false;
+        if (hashCode() != claim.hashCode()) return false;
+
         if (mEndTime != claim.mEndTime) return false;
         if (mStartTime != claim.mStartTime) return false;
         if (!mDestinations.equals(claim.mDestinations)) return false;
         if (!mExpenses.equals(claim.mExpenses)) return false;
-        if (!mId.equals(claim.mId)) return false;
         if (mStatus != claim.mStatus) return false;
         if (!mTags.equals(claim.mTags)) return false;
         if (!mClaimant.equals(claim.mClaimant)) return false;
@@ -707,11 +777,23 @@ public final class Claim implements Comparable<Claim>, Saveable {
         return true;
     }
 
+    /**
+     * Computed once. Leaves out the {@link #peekExpenses() expenses}, so hashing a claim read from storage does not
+     * decode them; {@link #equals(Object)} still compares them.
+     */
     @Override
     public int hashCode() {
+        // Effective Java Item 71, racy single-check idiom, as in String.hashCode()
+        int result = mHashCode;
+        if (result == 0) {
+            result = computeHashCode();
+            mHashCode = result;
+        }
+        return result;
+    }
 
-        int result = mExpenses.hashCode();
-        result = 31 * result + mDestinations.hashCode();
+    private int computeHashCode() {
+        int result = mDestinations.hashCode();
         result = 31 * result + mTags.hashCode();
         result = 31 * result + (int) (mStartTime ^ (mStartTime >>> 32));
         result = 31 * result + (int) (mEndTime ^ (mEndTime >>> 32));
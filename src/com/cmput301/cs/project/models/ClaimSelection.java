@@ -0,0 +1,33 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.CompressedBitmap;
+
+/**
+ * The {@link Claim Claims} that matched a {@link TagQuery}. This is an immutable class, so it can be read from a
+ * background thread, such as by a {@link android.widget.Filter Filter}.
+ *
+ * @see TagIndex#select(TagQuery)
+ */
+public final class ClaimSelection {
+
+    private final CompressedBitmap mOrdinals;
+
+    ClaimSelection(CompressedBitmap ordinals) {
+        mOrdinals = ordinals;
+    }
+
+    /**
+     * @param claim non-null {@link Claim}
+     * @return if a claim with the same {@link Claim#getId() id} was selected
+     */
+    public boolean contains(Claim claim) {
+        return mOrdinals.contains(claim.getOrdinal());
+    }
+
+    /**
+     * @return the number of claims selected
+     */
+    public int size() {
+        return mOrdinals.size();
+    }
+}
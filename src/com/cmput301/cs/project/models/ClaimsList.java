@@ -1,18 +1,29 @@
 package com.cmput301.cs.project.models;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.StrictMode;
 import android.util.Log;
 import android.widget.Toast;
+import com.cmput301.cs.project.listeners.ClaimsChangedListener;
 import com.cmput301.cs.project.serialization.elasticsearch.SearchResponse;
 import com.cmput301.cs.project.serialization.LocalSaver;
 import com.cmput301.cs.project.serialization.RemoteSaver;
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Singleton<p>
@@ -28,6 +39,14 @@ import java.util.List;
  * It is used in the {@link com.cmput301.cs.project.controllers.ClaimListController ClaimListController} to control this activities as well.
  *
  * mergeAllClaims() takes both local and remote claims and decides which claim is the most recent and keeps that one.
+ * Then it tells every {@link ClaimsChangedListener} which claims were added, edited or removed.
+ * <p/>
+ * Thread safe, as {@link com.cmput301.cs.project.listeners.BackgroundListener background listeners} edit claims off
+ * the UI thread; {@code ClaimsChangedListeners} are called on the thread that made the change. An edit only holds the
+ * lock to change the list and, after saving and merging a snapshot of it, to swap the merged claims in, so reading
+ * claims never waits on the disk or the network. The indices are built, synced and queried under their own locks,
+ * from a snapshot of the claims, and listeners are called after the lock is released, so reading claims does not
+ * wait on those either.
  * @author rozsa
  * @author jbenson
  */
@@ -43,8 +62,28 @@ public class ClaimsList {
     private final LocalSaver mClaimSaver;
     private final RemoteSaver<Claim> mRemoteSaver;
     private final Context mContext;
-
-    public static ClaimsList getInstance(Context context) {
+    // each index is built on first use, and used holding its own lock, taken before this; see getLocationIndex()
+    // it decodes the expenses of every claim
+    private ReceiptIndex mReceiptIndex;
+    private TagIndex mTagIndex;
+    private DateRangeIndex mDateRangeIndex;
+    // it decodes the expenses of every claim
+    private LocationIndex mLocationIndex;
+    // read from the last session on first use, so only the claims changed since are tokenized
+    private SearchIndex mSearchIndex;
+    // if mSearchIndex changed since it was read or saved
+    private boolean mSearchIndexUnsaved;
+    // held while saving mSearchIndex, so an older copy is never written over a newer one; taken before this
+    private final Object mSearchIndexSaveLock = new Object();
+    // the claims listeners were last told about, by id; never deleted ones
+    private final Map<String, Claim> mNotifiedById = new HashMap<String, Claim>();
+    private final List<ClaimsChangedListener> mListeners = new ArrayList<ClaimsChangedListener>();
+    // held while saving and merging, so merges happen one at a time; never taken while holding this
+    private final Object mMergeLock = new Object();
+    // held while calling listeners, so each is told about changes in order; never taken while holding this
+    private final Object mNotifyLock = new Object();
+
+    public static synchronized ClaimsList getInstance(Context context) {
         if (instance == null) {
             instance = new ClaimsList(context);
         }
@@ -61,15 +100,19 @@ public class ClaimsList {
 
         mRemoteSaver = new RemoteSaver<Claim>(CLAIM_ELASTIC_SEARCH_INDEX, type);
 
-        mergeAllClaims();
+        swapIn(mergeAllClaims());
     }
 
     /**
      * Loads claims from elastic search and local and uses Claim.getModified() to determine the newest claim to keep
      * It is fault tolerant in the sense that if the server is not available due to any reason, it will still save them
      * once connectivity is back.
+     * <p/>
+     * Reads the disk and the network, so it is called holding {@link #mMergeLock}, but not the lock of this.
+     *
+     * @return the merged claims; never null
      */
-    private void mergeAllClaims() {
+    private List<Claim> mergeAllClaims() {
         List<Claim> claims = new ArrayList<Claim>();
         List<Claim> remoteClaims = new ArrayList<Claim>();
 
@@ -81,7 +124,13 @@ public class ClaimsList {
         try {
             remoteClaims = mRemoteSaver.readAll();
         } catch (IOException ex) {
-            Toast.makeText(mContext, "Failed to connect to server. In Local mode.", Toast.LENGTH_LONG).show();
+            // may be merging on a background thread, but a Toast must be shown on the UI thread
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    Toast.makeText(mContext, "Failed to connect to server. In Local mode.", Toast.LENGTH_LONG).show();
+                }
+            });
         }
 
         for (Claim next : mClaimSaver.readAllClaims()) {
@@ -114,16 +163,442 @@ public class ClaimsList {
             Log.d(LOG_TAG, "Failed to save claims remotely.");
         }
 
-        this.mClaims = claims;
+        return claims;
+    }
+
+    /**
+     * Replaces the claims with the merged ones, keeping any version in the list that is newer than the merged one; it
+     * was edited during the merge, and is saved by the merge after. Then updates the indices and tells the listeners,
+     * without the lock of this.
+     * <p/>
+     * Called holding {@link #mMergeLock}, so the indices and listeners are updated one merge at a time.
+     */
+    private void swapIn(List<Claim> merged) {
+        final List<Claim> snapshot;
+        final ReceiptIndex receiptIndex;
+        final TagIndex tagIndex;
+        final DateRangeIndex dateRangeIndex;
+        final LocationIndex locationIndex;
+        final SearchIndex searchIndex;
+        final List<ClaimsChangedListener> listeners;
+        final List<Change> changes;
+        synchronized (this) {
+            final Map<String, Claim> currentById = new HashMap<String, Claim>();
+            for (Claim claim : mClaims) {
+                currentById.put(claim.getId(), claim);
+            }
+
+            final List<Claim> claims = new ArrayList<Claim>(Math.max(merged.size(), mClaims.size()));
+            for (Claim claim : merged) {
+                final Claim current = currentById.remove(claim.getId());
+                claims.add(current != null && current.getModified() > claim.getModified() ? current : claim);
+            }
+            for (Claim claim : mClaims) {
+                if (currentById.containsKey(claim.getId())) {
+                    claims.add(claim);  // added during the merge
+                }
+            }
+
+            this.mClaims = claims;
+            snapshot = new ArrayList<Claim>(claims);  // mClaims is changed in place by the next edit
+            receiptIndex = mReceiptIndex;
+            tagIndex = mTagIndex;
+            dateRangeIndex = mDateRangeIndex;
+            locationIndex = mLocationIndex;
+            searchIndex = mSearchIndex;
+            listeners = new ArrayList<ClaimsChangedListener>(mListeners);
+            changes = diffNotified(snapshot);
+        }
+
+        // an index built after the snapshot above was built from these claims or newer ones
+        if (receiptIndex != null) {
+            synchronized (receiptIndex) {
+                receiptIndex.sync(snapshot);
+            }
+        }
+        if (tagIndex != null) {
+            synchronized (tagIndex) {
+                tagIndex.sync(snapshot);
+            }
+        }
+        if (dateRangeIndex != null) {
+            synchronized (dateRangeIndex) {
+                dateRangeIndex.sync(snapshot);
+            }
+        }
+        if (locationIndex != null) {
+            synchronized (locationIndex) {
+                locationIndex.sync(snapshot);
+            }
+        }
+        if (searchIndex != null) {
+            syncSearchIndex(searchIndex, snapshot);
+        }
+
+        synchronized (mNotifyLock) {
+            for (Change change : changes) {
+                change.tell(listeners);
+            }
+        }
+    }
+
+    /**
+     * Adds a {@link ClaimsChangedListener} for listening to changes of {@link Claim Claims}. It is told about every
+     * current claim as added right away, then only about the claims that change.
+     *
+     * @param listener non-null instance of {@code ClaimsChangedListener}
+     * @see #removeClaimsChangedListener(ClaimsChangedListener)
+     */
+    public void addClaimsChangedListener(ClaimsChangedListener listener) {
+        Utils.nonNullOrThrow(listener, "listener");
+        synchronized (mNotifyLock) {
+            final List<Claim> notified;
+            synchronized (this) {
+                mListeners.add(listener);
+                notified = new ArrayList<Claim>(mNotifiedById.values());
+            }
+            for (Claim claim : notified) {
+                listener.onClaimAdded(claim);
+            }
+        }
+    }
+
+    /**
+     * Removes the listener by reference checking ({@code==} operator). A change being told to the listeners on
+     * another thread may still reach it.
+     *
+     * @param removing an instance of {@link ClaimsChangedListener}
+     */
+    public synchronized void removeClaimsChangedListener(ClaimsChangedListener removing) {
+        for (Iterator<ClaimsChangedListener> iterator = mListeners.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == removing) {  // ref. check
+                iterator.remove();
+                break;
+            }
+        }
+    }
+
+    // a claim added or removed, to tell the listeners about after the lock of this is released
+    private static final class Change {
+        private final Claim mClaim;
+        private final boolean mAdded;
+
+        Change(Claim claim, boolean added) {
+            mClaim = claim;
+            mAdded = added;
+        }
+
+        void tell(List<ClaimsChangedListener> listeners) {
+            for (ClaimsChangedListener listener : listeners) {
+                if (mAdded) {
+                    listener.onClaimAdded(mClaim);
+                } else {
+                    listener.onClaimRemoved(mClaim);
+                }
+            }
+        }
+    }
+
+    // diffs by id and modified stamp, as addClaim(Claim) and editClaim(Claim) change mClaims before the merge; called
+    // holding the lock of this
+    private List<Change> diffNotified(List<Claim> claims) {
+        final List<Change> changes = new ArrayList<Change>();
+        final Map<String, Claim> removed = new HashMap<String, Claim>(mNotifiedById);
+        for (Claim claim : claims) {
+            final Claim old = removed.remove(claim.getId());
+            if (old != null && old.getModified() == claim.getModified()) continue;
+
+            if (old != null) {
+                mNotifiedById.remove(old.getId());
+                changes.add(new Change(old, false));
+            }
+            if (!claim.isDeleted()) {
+                mNotifiedById.put(claim.getId(), claim);
+                changes.add(new Change(claim, true));
+            }
+        }
+        for (Claim old : removed.values()) {
+            mNotifiedById.remove(old.getId());
+            changes.add(new Change(old, false));
+        }
+        return changes;
+    }
+
+    /**
+     * Finds the claims whose tags match the query.
+     *
+     * @param query non-null {@link TagQuery}
+     * @return the matching claims; never null
+     */
+    public ClaimSelection selectByTags(TagQuery query) {
+        final TagIndex index = getTagIndex();
+        synchronized (index) {
+            return index.select(query);
+        }
+    }
+
+    // as getLocationIndex()
+    private TagIndex getTagIndex() {
+        synchronized (this) {
+            if (mTagIndex != null) return mTagIndex;
+        }
+
+        final TagIndex index = new TagIndex();
+        synchronized (index) {
+            final List<Claim> claims;
+            synchronized (this) {
+                if (mTagIndex != null) return mTagIndex;
+                mTagIndex = index;
+                claims = new ArrayList<Claim>(mClaims);
+            }
+            index.sync(claims);
+        }
+        return index;
+    }
+
+    /**
+     * Finds the claims of the claimant whose dates overlap the range, such as the trips of a week on a calendar, or the
+     * claims that a new claim would overlap.
+     *
+     * @param claimant non-null {@link User}
+     * @param start    the start of the range, in milliseconds since the epoch
+     * @param end      the end of the range, inclusive; not before {@code start}
+     * @return non-null {@link List} of the claims, by start time
+     * @see DateRangeIndex#findOverlapping(long, long)
+     */
+    public List<Claim> findOverlappingClaims(User claimant, long start, long end) {
+        Utils.nonNullOrThrow(claimant, "claimant");
+        final DateRangeIndex index = getDateRangeIndex();
+        final List<Claim> overlapping;
+        synchronized (index) {
+            overlapping = index.findOverlapping(start, end);
+        }
+        for (Iterator<Claim> iterator = overlapping.iterator(); iterator.hasNext(); ) {
+            if (!claimant.equals(iterator.next().getClaimant())) {
+                iterator.remove();
+            }
+        }
+        return overlapping;
+    }
+
+    // as getLocationIndex()
+    private DateRangeIndex getDateRangeIndex() {
+        synchronized (this) {
+            if (mDateRangeIndex != null) return mDateRangeIndex;
+        }
+
+        final DateRangeIndex index = new DateRangeIndex();
+        synchronized (index) {
+            final List<Claim> claims;
+            synchronized (this) {
+                if (mDateRangeIndex != null) return mDateRangeIndex;
+                mDateRangeIndex = index;
+                claims = new ArrayList<Claim>(mClaims);
+            }
+            index.sync(claims);
+        }
+        return index;
+    }
+
+    /**
+     * Finds the destinations of claims and expenses near a point, such as the expenses within 50 km of Calgary.
+     *
+     * @param centre non-null {@link LatLng}
+     * @param radius the distance, in meters; not negative
+     * @return non-null {@link List} of the places, nearest first
+     * @see LocationIndex#findWithin(LatLng, double)
+     */
+    public List<LocationIndex.Place> findPlacesWithin(LatLng centre, double radius) {
+        final LocationIndex index = getLocationIndex();
+        synchronized (index) {
+            return index.findWithin(centre, radius);
+        }
+    }
+
+    /**
+     * Finds the destinations of claims and expenses inside bounds, such as the part of a map on screen.
+     *
+     * @param bounds non-null {@link LatLngBounds}
+     * @return non-null {@link List} of the places, in no set order
+     * @see LocationIndex#findInside(LatLngBounds)
+     */
+    public List<LocationIndex.Place> findPlacesInside(LatLngBounds bounds) {
+        final LocationIndex index = getLocationIndex();
+        synchronized (index) {
+            return index.findInside(bounds);
+        }
+    }
+
+    /**
+     * Completes the name of a destination with the destinations of claims and expenses that have a location, such as
+     * "Calgary" for "cal", so places a user travels to often are suggested without asking Google.
+     *
+     * @param prefix non-null start of the name
+     * @param limit  the most destinations to return
+     * @return non-null {@link List} of destinations with different names, the most visited first
+     * @see LocationIndex#completeName(String, int)
+     */
+    public List<Destination> completeDestinations(String prefix, int limit) {
+        final LocationIndex index = getLocationIndex();
+        final List<LocationIndex.Place> places;
+        synchronized (index) {
+            places = index.completeName(prefix, limit);
+        }
+
+        final List<Destination> destinations = new ArrayList<Destination>();
+        for (LocationIndex.Place place : places) {
+            destinations.add(place.getDestination());
+        }
+        return destinations;
+    }
+
+    // builds the index on first use from a snapshot of the claims, holding the lock of the index but not the lock of
+    // this, so reading claims does not wait for it; it is published with the snapshot, so a merge swapped in after
+    // syncs it once the lock of the index is released, and a query waits for that lock too
+    private LocationIndex getLocationIndex() {
+        synchronized (this) {
+            if (mLocationIndex != null) return mLocationIndex;
+        }
+
+        final LocationIndex index = new LocationIndex();
+        synchronized (index) {
+            final List<Claim> claims;
+            synchronized (this) {
+                if (mLocationIndex != null) return mLocationIndex;  // built by another thread
+                mLocationIndex = index;
+                claims = new ArrayList<Claim>(mClaims);
+            }
+            index.sync(claims);
+        }
+        return index;
+    }
+
+    /**
+     * Finds the claims and expenses with the words of the text.
+     *
+     * @param text  non-null text
+     * @param limit the most hits to return
+     * @return non-null {@link List} of at most {@code limit} hits, best first
+     * @see SearchIndex#search(String, int)
+     */
+    public List<SearchIndex.Hit> search(String text, int limit) {
+        final SearchIndex index = getSearchIndex();
+        synchronized (index) {
+            return index.search(text, limit);
+        }
+    }
+
+    // as getLocationIndex(), but read from the disk first
+    private SearchIndex getSearchIndex() {
+        synchronized (this) {
+            if (mSearchIndex != null) return mSearchIndex;
+        }
+
+        final SearchIndex index = mClaimSaver.readSearchIndex();
+        synchronized (index) {
+            final List<Claim> claims;
+            synchronized (this) {
+                if (mSearchIndex != null) return mSearchIndex;
+                mSearchIndex = index;
+                claims = new ArrayList<Claim>(mClaims);
+            }
+            syncSearchIndex(index, claims);
+        }
+        return index;
+    }
+
+    private void syncSearchIndex(SearchIndex index, List<Claim> claims) {
+        synchronized (index) {
+            if (index.sync(claims)) {
+                synchronized (this) {
+                    mSearchIndexUnsaved = true;  // saved by saveSearchIndex(), not on every merge
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the search index if it changed since it was last saved. Only copies the index under the lock, but writes a
+     * file, so call it off the UI thread when the user leaves, such as from {@code onStop}. An index not saved is only
+     * slower to bring up to date next time, as the claims changed since are tokenized again.
+     *
+     * @return if the index is saved
+     */
+    public boolean saveSearchIndex() {
+        synchronized (mSearchIndexSaveLock) {
+            final SearchIndex index;
+            synchronized (this) {
+                if (!mSearchIndexUnsaved) return true;
+                index = mSearchIndex;
+            }
+
+            final List<SearchIndex.Document> documents;
+            synchronized (index) {
+                documents = index.peekDocuments();
+                synchronized (this) {
+                    mSearchIndexUnsaved = false;  // a sync after this sets it again
+                }
+            }
+
+            if (mClaimSaver.saveSearchIndex(documents)) return true;
+            synchronized (this) {
+                mSearchIndexUnsaved = true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Finds the expenses, in any claim, with receipts that look like the receipts of the given claim. Used to warn
+     * approvers about the same receipt being claimed twice.
+     *
+     * @param claim non-null {@link Claim}
+     * @return matches, by the {@link Expense#getId() id} of the expense in {@code claim}; never null
+     */
+    public Map<String, List<ReceiptIndex.Match>> findDuplicateReceipts(Claim claim) {
+        final ReceiptIndex index = getReceiptIndex();
+        final Map<String, List<ReceiptIndex.Match>> duplicates = new HashMap<String, List<ReceiptIndex.Match>>();
+        synchronized (index) {
+            for (Expense expense : claim.peekExpenses()) {
+                if (expense.hasReceipt()) {
+                    final List<ReceiptIndex.Match> matches = index.find(expense.getReceipt(), expense.getId());
+                    if (!matches.isEmpty()) {
+                        duplicates.put(expense.getId(), matches);
+                    }
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    // as getLocationIndex()
+    private ReceiptIndex getReceiptIndex() {
+        synchronized (this) {
+            if (mReceiptIndex != null) return mReceiptIndex;
+        }
+
+        final ReceiptIndex index = new ReceiptIndex();
+        synchronized (index) {
+            final List<Claim> claims;
+            synchronized (this) {
+                if (mReceiptIndex != null) return mReceiptIndex;
+                mReceiptIndex = index;
+                claims = new ArrayList<Claim>(mClaims);
+            }
+            index.sync(claims);
+        }
+        return index;
     }
 
     public void addClaim(Claim claim) {
-        mClaims.add(claim);
+        synchronized (this) {
+            mClaims.add(claim);
+        }
 
         serialize();
     }
 
-    public Claim getClaim(String claimId) {
+    public synchronized Claim getClaim(String claimId) {
         for (Claim claim : mClaims) {
             if (claim.getId().equals(claimId)) {
                 return claim;
@@ -135,8 +610,6 @@ public class ClaimsList {
 
     public void deleteClaim(Claim claim) {
         editClaim(claim.edit().delete().build());
-
-        serialize();
     }
 
     /**
@@ -146,29 +619,45 @@ public class ClaimsList {
      * @param newClaim
      */
     public void editClaim(Claim newClaim) {
-        for (int i = 0, mClaimsSize = mClaims.size(); i < mClaimsSize; i++) {
-            final Claim claim = mClaims.get(i);
-            if (claim.getId().equals(newClaim.getId())) {
-                mClaims.remove(i);
-                mClaims.add(i, newClaim);
-                break;
+        editClaims(Collections.singletonList(newClaim));
+    }
+
+    /**
+     * Updates several claims as {@link #editClaim(Claim)} does, but saves and merges only once, such as for every claim
+     * with a renamed tag.
+     *
+     * @param newClaims non-null {@link Collection} of non-null {@link Claim Claims}
+     */
+    public void editClaims(Collection<Claim> newClaims) {
+        synchronized (this) {
+            for (Claim newClaim : newClaims) {
+                for (int i = 0, mClaimsSize = mClaims.size(); i < mClaimsSize; i++) {
+                    if (mClaims.get(i).getId().equals(newClaim.getId())) {
+                        mClaims.set(i, newClaim);
+                        break;
+                    }
+                }
             }
         }
 
         serialize();
     }
 
+    // saves a snapshot and merges it without the lock of this, then swaps the merged claims in
     private void serialize() {
-        mClaimSaver.saveAllClaims(mClaims);
+        synchronized (mMergeLock) {
+            final List<Claim> snapshot = peekClaims();
+            mClaimSaver.saveAllClaims(snapshot);
 
-        mergeAllClaims();
+            swapIn(mergeAllClaims());
+        }
     }
 
-    public List<Claim> peekClaims() {
+    public synchronized List<Claim> peekClaims() {
         return new ArrayList<Claim>(mClaims);
     }
 
-    public Claim getClaimById(String id) {
+    public synchronized Claim getClaimById(String id) {
         for (Claim claim : mClaims) {
             if (claim.getId().equals(id)) {
                 return claim;
@@ -0,0 +1,201 @@
+package com.cmput301.cs.project.models;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * Immutable per-currency sums of {@link com.cmput301.cs.project.models.Expense Expense} amounts.
+ * <p/>
+ * The sums are kept as {@code long} minor units (cents for {@code CAD}, yen for {@code JPY}) in a pair of parallel
+ * arrays, so summing a claim does not allocate a {@link Money} per expense. There are only a handful of
+ * {@link Expense#CURRENCIES currencies}, so a linear scan beats hashing here.
+ * <p/>
+ * Obtain an instance with {@link Claim#getTotals()}, which computes it once per {@code Claim}; or with
+ * {@link #of(Iterable)}.
+ *
+ * @see Claim#getTotalsAsString()
+ */
+public final class CurrencyTotals {
+
+    /**
+     * Totals of no expenses.
+     */
+    public static final CurrencyTotals EMPTY = new CurrencyTotals(new CurrencyUnit[0], new long[0], 0);
+
+    /**
+     * Sums the amounts of the given expenses by currency, in the order each currency first appears.
+     *
+     * @param expenses non-null {@code Iterable} of non-null {@code Expenses}
+     * @return an instance of {@code CurrencyTotals}; never null
+     */
+    public static CurrencyTotals of(Iterable<Expense> expenses) {
+        final Accumulator accumulator = new Accumulator();
+        for (Expense expense : expenses) {
+            accumulator.add(expense.getAmount());
+        }
+        return accumulator.build();
+    }
+
+    /**
+     * Mutable counterpart of {@code CurrencyTotals}. Not thread safe.
+     */
+    public static final class Accumulator {
+        private CurrencyUnit[] mUnits = new CurrencyUnit[4];
+        private long[] mMinorAmounts = new long[4];
+        private int mSize;
+
+        /**
+         * @param money non-null instance of {@link Money}
+         * @return this instance of {@code Accumulator}
+         */
+        public Accumulator add(Money money) {
+            return addMinor(money.getCurrencyUnit(), money.getAmountMinorLong());
+        }
+
+        /**
+         * @param unit        non-null {@link CurrencyUnit}
+         * @param minorAmount the amount in minor units of {@code unit}
+         * @return this instance of {@code Accumulator}
+         */
+        public Accumulator addMinor(CurrencyUnit unit, long minorAmount) {
+            final int index = indexOf(mUnits, mSize, unit);
+            if (index >= 0) {
+                mMinorAmounts[index] += minorAmount;
+                return this;
+            }
+
+            if (mSize == mUnits.length) {
+                final CurrencyUnit[] units = new CurrencyUnit[mSize * 2];
+                final long[] minorAmounts = new long[mSize * 2];
+                System.arraycopy(mUnits, 0, units, 0, mSize);
+                System.arraycopy(mMinorAmounts, 0, minorAmounts, 0, mSize);
+                mUnits = units;
+                mMinorAmounts = minorAmounts;
+            }
+            mUnits[mSize] = unit;
+            mMinorAmounts[mSize] = minorAmount;
+            mSize += 1;
+            return this;
+        }
+
+        /**
+         * @return an immutable snapshot of the sums so far; never null
+         */
+        public CurrencyTotals build() {
+            if (mSize == 0) return EMPTY;
+
+            final CurrencyUnit[] units = new CurrencyUnit[mSize];
+            final long[] minorAmounts = new long[mSize];
+            System.arraycopy(mUnits, 0, units, 0, mSize);
+            System.arraycopy(mMinorAmounts, 0, minorAmounts, 0, mSize);
+            return new CurrencyTotals(units, minorAmounts, mSize);
+        }
+    }
+
+    private final CurrencyUnit[] mUnits;
+    private final long[] mMinorAmounts;
+    private final int mSize;
+
+    // lazily formatted; see toString()
+    private String mString;
+
+    private CurrencyTotals(CurrencyUnit[] units, long[] minorAmounts, int size) {
+        mUnits = units;
+        mMinorAmounts = minorAmounts;
+        mSize = size;
+    }
+
+    /**
+     * @return the number of distinct currencies
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @param index {@code 0 <= index < }{@link #size()}
+     * @return the currency at {@code index}; never null
+     */
+    public CurrencyUnit getCurrencyUnit(int index) {
+        checkIndex(index);
+        return mUnits[index];
+    }
+
+    /**
+     * @param index {@code 0 <= index < }{@link #size()}
+     * @return the sum at {@code index}, in minor units of {@link #getCurrencyUnit(int)}
+     */
+    public long getAmountMinor(int index) {
+        checkIndex(index);
+        return mMinorAmounts[index];
+    }
+
+    /**
+     * @param unit non-null {@link CurrencyUnit}
+     * @return the sum in minor units of {@code unit}; {@code 0} if there are no expenses in {@code unit}
+     */
+    public long getAmountMinor(CurrencyUnit unit) {
+        final int index = indexOf(mUnits, mSize, unit);
+        return index < 0 ? 0 : mMinorAmounts[index];
+    }
+
+    /**
+     * @param index {@code 0 <= index < }{@link #size()}
+     * @return the sum at {@code index} as {@link Money}; never null
+     */
+    public Money getMoney(int index) {
+        checkIndex(index);
+        return Money.ofMinor(mUnits[index], mMinorAmounts[index]);
+    }
+
+    /**
+     * @param unit non-null {@link CurrencyUnit}
+     * @return the sum in {@code unit} as {@link Money}; zero if there are no expenses in {@code unit}; never null
+     */
+    public Money getMoney(CurrencyUnit unit) {
+        return Money.ofMinor(unit, getAmountMinor(unit));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+        }
+    }
+
+    private static int indexOf(CurrencyUnit[] units, int size, CurrencyUnit unit) {
+        for (int i = 0; i < size; i++) {
+            if (units[i].equals(unit)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //http://stackoverflow.com/a/669165/1036813 March 17 2015 blaine1
+
+    /**
+     * Formats the totals as {@code "CAD 10.00, USD 5.00"}. The result is computed once and reused.
+     *
+     * @return the formatted totals; empty if there are no expenses
+     */
+    @Override
+    public String toString() {
+        // Effective Java Item 71, racy single-check idiom; Strings are immutable
+        String string = mString;
+        if (string == null) {
+            final StringBuilder sb = new StringBuilder();
+            String separator = "";
+            for (int i = 0; i < mSize; i++) {
+                sb.append(separator).append(getMoney(i).toString());
+                separator = ", ";
+            }
+            string = sb.toString();
+            mString = string;
+        }
+        return string;
+    }
+}
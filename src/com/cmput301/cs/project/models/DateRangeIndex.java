@@ -0,0 +1,139 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.SortKeys;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Finds the {@link Claim Claims} whose dates, from {@link Claim#getStartTime() start} to {@link Claim#getEndTime() end}
+ * inclusive, cover a time or overlap a range. Claims without both dates, and deleted claims, are never found.
+ * <p/>
+ * An interval tree laid out in an array: the claims are sorted by start time, the middle of each range of the array is
+ * the root of a subtree over that range, and each root remembers the latest end time in its subtree. A query skips
+ * every subtree that ends before it and every subtree right of a claim that starts after it, so it costs
+ * {@code O(log n + k)} for {@code k} claims found.
+ * <p/>
+ * Not thread safe. {@link #sync(Collection)} only notes the claims that changed; the tree is rebuilt on the next query.
+ *
+ * @see ClaimsList#findOverlappingClaims(User, long, long)
+ */
+public final class DateRangeIndex {
+
+    private final Map<String, Claim> mClaimsById = new HashMap<String, Claim>();
+    // null when a claim changed since they were built
+    private Claim[] mSorted;
+    private long[] mStarts;
+    private long[] mEnds;
+    private long[] mMaxEnds;  // of the subtree rooted at each index
+
+    /**
+     * Makes the index hold exactly the given claims. Claims with the same {@link Claim#getModified() modified} time as
+     * when they were last indexed are skipped.
+     *
+     * @param claims non-null {@link Collection} of non-null {@link Claim Claims}
+     */
+    public void sync(Collection<Claim> claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+
+        final Set<String> removedIds = new HashSet<String>(mClaimsById.keySet());
+        for (Claim claim : claims) {
+            removedIds.remove(claim.getId());
+            final boolean ranged = !claim.isDeleted() && claim.getStartTime() >= 0 && claim.getEndTime() >= 0;
+            final Claim indexed = mClaimsById.get(claim.getId());
+            if (indexed != null && indexed.getModified() == claim.getModified()) continue;
+
+            if (ranged) {
+                mClaimsById.put(claim.getId(), claim);
+                mSorted = null;
+            } else if (indexed != null) {
+                mClaimsById.remove(claim.getId());
+                mSorted = null;
+            }
+        }
+        for (String removedId : removedIds) {
+            mClaimsById.remove(removedId);
+            mSorted = null;
+        }
+    }
+
+    /**
+     * @param time the time, in milliseconds since the epoch
+     * @return non-null {@link List} of the claims that cover the time, by start time
+     */
+    public List<Claim> findCovering(long time) {
+        return findOverlapping(time, time);
+    }
+
+    /**
+     * @param start the start of the range, in milliseconds since the epoch
+     * @param end   the end of the range, inclusive; not before {@code start}
+     * @return non-null {@link List} of the claims that overlap the range, by start time
+     * @throws IllegalArgumentException if {@code end} is before {@code start}
+     */
+    public List<Claim> findOverlapping(long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("end " + end + " is before start " + start);
+        }
+        if (mSorted == null) {
+            build();
+        }
+
+        final List<Claim> out = new ArrayList<Claim>();
+        collect(0, mSorted.length, start, end, out);
+        return out;
+    }
+
+    // in order over [low, high); the root of the range is its middle
+    private void collect(int low, int high, long start, long end, List<Claim> out) {
+        if (low >= high) return;
+
+        final int middle = (low + high) >>> 1;
+        if (mMaxEnds[middle] < start) return;  // everything below ends too early
+
+        collect(low, middle, start, end, out);
+        if (mStarts[middle] > end) return;  // this and everything right of it start too late
+
+        if (mEnds[middle] >= start) {
+            out.add(mSorted[middle]);
+        }
+        collect(middle + 1, high, start, end, out);
+    }
+
+    private void build() {
+        final Claim[] claims = mClaimsById.values().toArray(new Claim[mClaimsById.size()]);
+        final long[] starts = new long[claims.length];
+        for (int i = 0; i < claims.length; i++) {
+            starts[i] = claims[i].getStartTime();
+        }
+        final int[] order = SortKeys.order(starts, false);
+
+        final Claim[] sorted = new Claim[claims.length];
+        mStarts = new long[claims.length];
+        mEnds = new long[claims.length];
+        for (int i = 0; i < claims.length; i++) {
+            sorted[i] = claims[order[i]];
+            mStarts[i] = sorted[i].getStartTime();
+            mEnds[i] = sorted[i].getEndTime();
+        }
+        mMaxEnds = new long[sorted.length];
+        buildMaxEnds(0, sorted.length);
+        mSorted = sorted;
+    }
+
+    private long buildMaxEnds(int low, int high) {
+        if (low >= high) return Long.MIN_VALUE;
+
+        final int middle = (low + high) >>> 1;
+        final long maxEnd = Math.max(mEnds[middle], Math.max(buildMaxEnds(low, middle), buildMaxEnds(middle + 1, high)));
+        mMaxEnds[middle] = maxEnd;
+        return maxEnd;
+    }
+
+    /**
+     * @return the number of claims that can be found
+     */
+    public int size() {
+        return mClaimsById.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.Utils;
+import com.google.gson.annotations.SerializedName;
+import org.joda.money.CurrencyUnit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exchange rates published on one day, relative to a base currency. This is an immutable class.
+ * <p/>
+ * Tables are stored in {@code exchange_rates.json} as
+ * <pre>
+ * [{"date": "2015-03-20", "base": "USD", "rates": {"CAD": 1.2601, "EUR": 0.9228, ...}}, ...]
+ * </pre>
+ * where each rate is the number of units of that currency one unit of {@code base} buys.
+ *
+ * @see ExchangeRates
+ * @see com.cmput301.cs.project.serialization.LocalSaver#readExchangeRates()
+ */
+public final class ExchangeRateTable {
+
+    @SerializedName("date")
+    private final String mDate;
+    @SerializedName("base")
+    private final String mBase;
+    @SerializedName("rates")
+    private final Map<String, BigDecimal> mRates;
+
+    /**
+     * Creates an instance of {@code ExchangeRateTable}.
+     *
+     * @param date  non-null date in the form {@code yyyy-MM-dd}
+     * @param base  non-null base {@link CurrencyUnit}
+     * @param rates non-null {@code Map} of units of each currency that one unit of {@code base} buys
+     */
+    public ExchangeRateTable(String date, CurrencyUnit base, Map<CurrencyUnit, BigDecimal> rates) {
+        mDate = Utils.nonNullOrThrow(date, "date");
+        mBase = Utils.nonNullOrThrow(base, "base").getCode();
+        mRates = new HashMap<String, BigDecimal>();
+        for (Map.Entry<CurrencyUnit, BigDecimal> entry : Utils.nonNullOrThrow(rates, "rates").entrySet()) {
+            mRates.put(entry.getKey().getCode(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return the date in the form {@code yyyy-MM-dd}; never null
+     */
+    public String getDate() {
+        return mDate;
+    }
+
+    /**
+     * @return the base currency; never null
+     */
+    public CurrencyUnit getBase() {
+        return CurrencyUnit.of(mBase);
+    }
+
+    /**
+     * @param unit non-null {@link CurrencyUnit}
+     * @return units of {@code unit} that one unit of the {@link #getBase() base} buys; null if the table has no rate for {@code unit}
+     */
+    public BigDecimal getRate(CurrencyUnit unit) {
+        final String code = unit.getCode();
+        if (code.equals(mBase)) return BigDecimal.ONE;
+        return mRates == null ? null : mRates.get(code);
+    }
+
+    /**
+     * Computes the cross rate between two currencies through the {@link #getBase() base}.
+     *
+     * @param from non-null {@link CurrencyUnit} to convert from
+     * @param to   non-null {@link CurrencyUnit} to convert to
+     * @return units of {@code to} that one unit of {@code from} buys; null if either rate is missing
+     */
+    public BigDecimal getRate(CurrencyUnit from, CurrencyUnit to) {
+        if (from.equals(to)) return BigDecimal.ONE;
+
+        final BigDecimal fromRate = getRate(from);
+        final BigDecimal toRate = getRate(to);
+        if (fromRate == null || toRate == null || fromRate.signum() == 0) return null;
+        return toRate.divide(fromRate, MathContext.DECIMAL64);
+    }
+}
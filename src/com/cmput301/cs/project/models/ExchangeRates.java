@@ -0,0 +1,120 @@
+package com.cmput301.cs.project.models;
+
+import org.joda.money.CurrencyUnit;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A history of {@link ExchangeRateTable ExchangeRateTables}, looked up by time. Thread safe.
+ * <p/>
+ * A time resolves to the latest table published on or before its (local) day; times before the earliest table use the
+ * earliest table. The day to table resolution is memoized, so converting many expenses from the same few days only
+ * binary searches once per day.
+ *
+ * @see com.cmput301.cs.project.controllers.CurrencyConverter
+ */
+public final class ExchangeRates {
+
+    /**
+     * No tables; every lookup returns null.
+     */
+    public static final ExchangeRates EMPTY = new ExchangeRates(new long[0], new ExchangeRateTable[0]);
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000;
+
+    /**
+     * Creates an instance of {@code ExchangeRates} from tables in any order. For tables of the same date, the last one wins.
+     *
+     * @param tables non-null {@code Collection} of non-null {@code ExchangeRateTables}
+     * @return an instance of {@code ExchangeRates}; never null
+     * @throws IllegalArgumentException if a date is not in the form {@code yyyy-MM-dd}
+     */
+    public static ExchangeRates of(Collection<ExchangeRateTable> tables) {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+
+        final TreeMap<Long, ExchangeRateTable> byDay = new TreeMap<Long, ExchangeRateTable>();
+        for (ExchangeRateTable table : tables) {
+            try {
+                byDay.put(format.parse(table.getDate()).getTime() / DAY_MILLIS, table);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("invalid date: " + table.getDate(), e);
+            }
+        }
+        if (byDay.isEmpty()) return EMPTY;
+
+        final long[] days = new long[byDay.size()];
+        final ExchangeRateTable[] sorted = new ExchangeRateTable[byDay.size()];
+        int i = 0;
+        for (Map.Entry<Long, ExchangeRateTable> entry : byDay.entrySet()) {
+            days[i] = entry.getKey();
+            sorted[i] = entry.getValue();
+            i += 1;
+        }
+        return new ExchangeRates(days, sorted);
+    }
+
+    private final long[] mDays;  // days since epoch, ascending
+    private final ExchangeRateTable[] mTables;
+    private final Map<Long, ExchangeRateTable> mTableByDay = new ConcurrentHashMap<Long, ExchangeRateTable>();
+
+    private ExchangeRates(long[] days, ExchangeRateTable[] tables) {
+        mDays = days;
+        mTables = tables;
+    }
+
+    /**
+     * @return the number of tables
+     */
+    public int size() {
+        return mTables.length;
+    }
+
+    public boolean isEmpty() {
+        return mTables.length == 0;
+    }
+
+    /**
+     * @param time milliseconds since epoch, as in {@link Expense#getTime()}
+     * @return the table in effect at {@code time}; null if there are no tables
+     */
+    public ExchangeRateTable getTable(long time) {
+        if (mTables.length == 0) return null;
+
+        final Long day = localDay(time);
+        ExchangeRateTable table = mTableByDay.get(day);
+        if (table == null) {
+            final int found = Arrays.binarySearch(mDays, day);
+            // not found: the insertion point is -found - 1, and the table before it is in effect
+            final int index = found >= 0 ? found : Math.max(0, -found - 2);
+            table = mTables[index];
+            mTableByDay.put(day, table);
+        }
+        return table;
+    }
+
+    /**
+     * @param from non-null {@link CurrencyUnit} to convert from
+     * @param to   non-null {@link CurrencyUnit} to convert to
+     * @param time milliseconds since epoch, as in {@link Expense#getTime()}
+     * @return units of {@code to} that one unit of {@code from} bought at {@code time}; null if unknown
+     */
+    public BigDecimal getRate(CurrencyUnit from, CurrencyUnit to, long time) {
+        if (from.equals(to)) return BigDecimal.ONE;
+
+        final ExchangeRateTable table = getTable(time);
+        return table == null ? null : table.getRate(from, to);
+    }
+
+    // expenses are dated at local midnight; shift into the local day before truncating
+    private static long localDay(long time) {
+        final long local = time + TimeZone.getDefault().getOffset(time);
+        final long day = local / DAY_MILLIS;
+        return local < 0 && local % DAY_MILLIS != 0 ? day - 1 : day;
+    }
+}
@@ -394,6 +394,9 @@ public final class Expense implements Comparable<Expense> {
     private final Receipt mReceipt;
     private final Destination mDestination;
 
+    // lazily computed; see hashCode()
+    private transient int mHashCode;
+
     // Effective Java Item 2
     private Expense(Builder b) {
         mDescription = b.mDescription;
@@ -454,7 +457,7 @@ public final class Expense implements Comparable<Expense> {
         return 0;
     }
 
-    // Generated by IntelliJ
+    // Generated by IntelliJ; id and cached hash code first, they tell most expenses apart
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -462,6 +465,8 @@ public final class Expense implements Comparable<Expense> {
 
         final Expense expense = (Expense) o;
 
+        if (!mId.equals(expense.mId)) return false;
+        if (hashCode() != expense.hashCode()) return false;
         if (mTimeOccurred != expense.mTimeOccurred) return false;
         if (mTime != expense.mTime) return false;
         if (mCompleted != expense.mCompleted) return false;
@@ -469,14 +474,26 @@ public final class Expense implements Comparable<Expense> {
             return false;
         if (mAmount != null ? !mAmount.equals(expense.mAmount) : expense.mAmount != null) return false;
         if (mCategory != null ? !mCategory.equals(expense.mCategory) : expense.mCategory != null) return false;
-        if (!mId.equals(expense.mId)) return false;
         if (mReceipt != null ? !mReceipt.equals(expense.mReceipt) : expense.mReceipt != null) return false;
         return !(mDestination != null ? !mDestination.equals(expense.mDestination) : expense.mDestination != null);
     }
 
-    // Generated by IntelliJ
+    /**
+     * Computed once.
+     */
     @Override
     public int hashCode() {
+        // Effective Java Item 71, racy single-check idiom, as in String.hashCode()
+        int result = mHashCode;
+        if (result == 0) {
+            result = computeHashCode();
+            mHashCode = result;
+        }
+        return result;
+    }
+
+    // Generated by IntelliJ
+    private int computeHashCode() {
         int result = (int) (mTimeOccurred ^ (mTimeOccurred >>> 32));
         result = 31 * result + (mDescription != null ? mDescription.hashCode() : 0);
         result = 31 * result + (mAmount != null ? mAmount.hashCode() : 0);
@@ -0,0 +1,77 @@
+package com.cmput301.cs.project.models;
+
+import org.joda.money.CurrencyUnit;
+
+import java.util.List;
+
+/**
+ * What the claim lists need to know about the {@link Expense Expenses} of a {@link Claim}: the
+ * {@link CurrencyTotals totals} and whether every expense is completed. This is an immutable class.
+ * <p/>
+ * It is saved along with the {@code Claim}, so a claim read from storage can be listed without decoding its
+ * expenses, which {@link com.cmput301.cs.project.serialization.LocalSaver LocalSaver} reads lazily.
+ */
+final class ExpenseSummary {
+
+    /**
+     * Summarizes the given expenses.
+     *
+     * @param expenses non-null {@code List} of non-null {@code Expenses}
+     * @return an instance of {@code ExpenseSummary}; never null
+     */
+    static ExpenseSummary of(List<Expense> expenses) {
+        final CurrencyTotals totals = CurrencyTotals.of(expenses);
+        boolean completed = true;
+        for (Expense expense : expenses) {
+            if (!expense.isCompleted()) {
+                completed = false;
+                break;
+            }
+        }
+        return new ExpenseSummary(totals, completed);
+    }
+
+    // the totals are saved as currency codes and minor amounts; Gson would not restore canonical CurrencyUnits
+    private final String[] mCurrencies;
+    private final long[] mMinorAmounts;
+    private final boolean mCompleted;
+
+    // derived from mCurrencies and mMinorAmounts, not serialized
+    private transient CurrencyTotals mTotals;
+
+    private ExpenseSummary(CurrencyTotals totals, boolean completed) {
+        final int size = totals.size();
+        mCurrencies = new String[size];
+        mMinorAmounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            mCurrencies[i] = totals.getCurrencyUnit(i).getCode();
+            mMinorAmounts[i] = totals.getAmountMinor(i);
+        }
+        mCompleted = completed;
+        mTotals = totals;
+    }
+
+    /**
+     * @return the totals by currency; never null
+     */
+    CurrencyTotals getTotals() {
+        // Effective Java Item 71, racy single-check idiom; CurrencyTotals is immutable
+        CurrencyTotals totals = mTotals;
+        if (totals == null) {
+            final CurrencyTotals.Accumulator accumulator = new CurrencyTotals.Accumulator();
+            for (int i = 0; i < mCurrencies.length; i++) {
+                accumulator.addMinor(CurrencyUnit.of(mCurrencies[i]), mMinorAmounts[i]);
+            }
+            totals = accumulator.build();
+            mTotals = totals;
+        }
+        return totals;
+    }
+
+    /**
+     * @return if every expense is completed; true if there are no expenses
+     */
+    boolean isCompleted() {
+        return mCompleted;
+    }
+}
@@ -0,0 +1,333 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.GeoUtils;
+import com.cmput301.cs.project.utils.PrefixTrie;
+import com.cmput301.cs.project.utils.SortKeys;
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.util.*;
+
+/**
+ * Finds the {@link Destination Destinations} of {@link Claim Claims} and of their {@link Expense Expenses} that lie
+ * within a distance of a point, or inside bounds. Destinations without a location, and deleted claims, are never
+ * found.
+ * <p/>
+ * A grid of {@link #CELL_DEGREES} by {@link #CELL_DEGREES} degree cells, each holding the places inside it. A query
+ * only looks at the cells that its bounds touch, or at every occupied cell if there are fewer of those, so it costs
+ * about the number of places nearby, however many there are elsewhere. The names of the places are also kept in a
+ * {@link PrefixTrie}, to complete what a user types with where they have been before. {@link #sync(Collection)} only
+ * re-indexes the claims that changed.
+ * <p/>
+ * Not thread safe.
+ *
+ * @see ClaimsList#findPlacesWithin(LatLng, double)
+ * @see ClaimsList#findPlacesInside(LatLngBounds)
+ * @see ClaimsList#completeDestinations(String, int)
+ */
+public final class LocationIndex {
+
+    /**
+     * The size of a cell, in degrees; about 55 km of latitude.
+     */
+    public static final double CELL_DEGREES = 0.5;
+
+    private static final int ROWS = (int) (180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) (360 / CELL_DEGREES);
+
+    /**
+     * The destination of a claim, or the destination of one of its expenses. This is an immutable class.
+     */
+    public static final class Place {
+        private final String mClaimId;
+        private final String mExpenseId;
+        private final Destination mDestination;
+
+        private Place(String claimId, String expenseId, Destination destination) {
+            mClaimId = claimId;
+            mExpenseId = expenseId;
+            mDestination = destination;
+        }
+
+        /**
+         * @return the {@link Claim#getId() id} of the claim, or of the claim that has the expense; never null
+         */
+        public String getClaimId() {
+            return mClaimId;
+        }
+
+        /**
+         * @return the {@link Expense#getId() id} of the expense; null if it is a destination of the claim itself
+         */
+        public String getExpenseId() {
+            return mExpenseId;
+        }
+
+        /**
+         * @return the destination, with a location; never null
+         */
+        public Destination getDestination() {
+            return mDestination;
+        }
+    }
+
+    // row * COLUMNS + column -> places
+    private final Map<Integer, List<Place>> mCells = new HashMap<Integer, List<Place>>();
+    private final Map<String, List<Place>> mPlacesByClaimId = new HashMap<String, List<Place>>();
+    private final Map<String, Long> mModifiedByClaimId = new HashMap<String, Long>();
+    // normalized name -> the latest place with that name, weighed by how many places have it
+    private final PrefixTrie<Place> mNames = new PrefixTrie<Place>();
+    private final Map<String, List<Place>> mPlacesByName = new HashMap<String, List<Place>>();
+    private int mSize;
+
+    /**
+     * Makes the index hold exactly the given claims. Claims with the same {@link Claim#getModified() modified} time as
+     * when they were last indexed are skipped, so their expenses are not decoded again.
+     *
+     * @param claims non-null {@link Collection} of non-null {@link Claim Claims}
+     */
+    public void sync(Collection<Claim> claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+
+        final Set<String> removedIds = new HashSet<String>(mModifiedByClaimId.keySet());
+        for (Claim claim : claims) {
+            removedIds.remove(claim.getId());
+            final Long modified = mModifiedByClaimId.get(claim.getId());
+            if (modified == null || modified != claim.getModified()) {
+                remove(claim.getId());
+                add(claim);
+            }
+        }
+        for (String removedId : removedIds) {
+            remove(removedId);
+        }
+    }
+
+    private void add(Claim claim) {
+        mModifiedByClaimId.put(claim.getId(), claim.getModified());
+        if (claim.isDeleted()) return;
+
+        final List<Place> places = new ArrayList<Place>();
+        for (Destination destination : claim.getDestinations()) {
+            if (destination.getLocation() != null) {
+                places.add(new Place(claim.getId(), null, destination));
+            }
+        }
+        for (Expense expense : claim.peekExpenses()) {
+            final Destination destination = expense.getDestination();
+            if (destination != null && destination.getLocation() != null) {
+                places.add(new Place(claim.getId(), expense.getId(), destination));
+            }
+        }
+        if (places.isEmpty()) return;
+
+        for (Place place : places) {
+            final Integer cell = cellOf(place.mDestination.getLocation());
+            List<Place> inCell = mCells.get(cell);
+            if (inCell == null) {
+                inCell = new ArrayList<Place>(2);
+                mCells.put(cell, inCell);
+            }
+            inCell.add(place);
+
+            final String name = normalizedNameOf(place);
+            if (name != null) {
+                List<Place> named = mPlacesByName.get(name);
+                if (named == null) {
+                    named = new ArrayList<Place>(1);
+                    mPlacesByName.put(name, named);
+                }
+                named.add(place);
+                mNames.put(name, place, named.size());
+            }
+        }
+        mPlacesByClaimId.put(claim.getId(), places);
+        mSize += places.size();
+    }
+
+    private void remove(String claimId) {
+        mModifiedByClaimId.remove(claimId);
+        final List<Place> places = mPlacesByClaimId.remove(claimId);
+        if (places == null) return;
+
+        for (Place place : places) {
+            final Integer cell = cellOf(place.mDestination.getLocation());
+            final List<Place> inCell = mCells.get(cell);
+            for (Iterator<Place> iterator = inCell.iterator(); iterator.hasNext(); ) {
+                if (iterator.next() == place) {  // ref. check
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (inCell.isEmpty()) {
+                mCells.remove(cell);
+            }
+
+            final String name = normalizedNameOf(place);
+            if (name != null) {
+                final List<Place> named = mPlacesByName.get(name);
+                named.remove(place);
+                if (named.isEmpty()) {
+                    mPlacesByName.remove(name);
+                    mNames.remove(name);
+                } else {
+                    mNames.put(name, named.get(named.size() - 1), named.size());
+                }
+            }
+        }
+        mSize -= places.size();
+    }
+
+    private static String normalizedNameOf(Place place) {
+        final String name = place.mDestination.getName();
+        return name == null ? null : normalize(name);
+    }
+
+    /**
+     * @param text non-null text
+     * @return the text in lower case, without spaces at the ends and with one space between words; never null
+     */
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.US);
+    }
+
+    private static int rowOf(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int columnOf(double longitude) {
+        return Math.max(0, Math.min(COLUMNS - 1, (int) Math.floor((longitude + 180) / CELL_DEGREES)));
+    }
+
+    private static Integer cellOf(LatLng latLng) {
+        return rowOf(latLng.latitude) * COLUMNS + columnOf(latLng.longitude);
+    }
+
+    /**
+     * Finds the places at most {@code radius} meters from the centre, along the surface of the Earth.
+     *
+     * @param centre non-null {@link LatLng}
+     * @param radius the distance, in meters; not negative
+     * @return non-null {@link List} of the places, nearest first
+     * @throws IllegalArgumentException if {@code radius} is negative
+     */
+    public List<Place> findWithin(LatLng centre, double radius) {
+        Utils.nonNullOrThrow(centre, "centre");
+        if (radius < 0) {
+            throw new IllegalArgumentException("negative radius: " + radius);
+        }
+
+        // the bounds of the circle; every longitude if it reaches a pole
+        final double latitudeSpan = radius / GeoUtils.METERS_PER_DEGREE;
+        final double south = centre.latitude - latitudeSpan;
+        final double north = centre.latitude + latitudeSpan;
+        final double widest = Math.cos(Math.toRadians(Math.max(Math.abs(south), Math.abs(north))));
+        final double longitudeSpan = north >= 90 || south <= -90 ? 180 : latitudeSpan / widest;
+
+        final List<Place> candidates = longitudeSpan >= 180
+                ? collect(south, north, -180, 180)
+                : collect(south, north, wrap(centre.longitude - longitudeSpan), wrap(centre.longitude + longitudeSpan));
+
+        final List<Place> within = new ArrayList<Place>();
+        final List<Double> distances = new ArrayList<Double>();
+        for (Place place : candidates) {
+            final double distance = GeoUtils.distanceBetween(centre, place.mDestination.getLocation());
+            if (distance <= radius) {
+                within.add(place);
+                distances.add(distance);
+            }
+        }
+
+        final long[] keys = new long[within.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Double.doubleToLongBits(distances.get(i));  // non-negative doubles order like their bits
+        }
+        final List<Place> nearestFirst = new ArrayList<Place>(within.size());
+        for (int index : SortKeys.order(keys, false)) {
+            nearestFirst.add(within.get(index));
+        }
+        return nearestFirst;
+    }
+
+    /**
+     * @param bounds non-null {@link LatLngBounds}; may cross the 180th meridian
+     * @return non-null {@link List} of the places inside the bounds, edges included, in no set order
+     */
+    public List<Place> findInside(LatLngBounds bounds) {
+        Utils.nonNullOrThrow(bounds, "bounds");
+        final List<Place> inside = new ArrayList<Place>();
+        for (Place place : collect(bounds.southwest.latitude, bounds.northeast.latitude,
+                bounds.southwest.longitude, bounds.northeast.longitude)) {
+            if (GeoUtils.contains(bounds, place.mDestination.getLocation())) {
+                inside.add(place);
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Completes the name of a destination from the names of the places, ignoring case and extra spaces.
+     *
+     * @param prefix non-null start of the name
+     * @param limit  the most places to return
+     * @return non-null {@link List} of at most {@code limit} places with different names, the most visited names first;
+     * each is the place added last with its name
+     */
+    public List<Place> completeName(String prefix, int limit) {
+        Utils.nonNullOrThrow(prefix, "prefix");
+        return mNames.complete(normalize(prefix), limit);
+    }
+
+    // into [-180, 180)
+    private static double wrap(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    // the places in the cells the bounds touch, wrapping past the 180th meridian if west > east
+    private List<Place> collect(double south, double north, double west, double east) {
+        final int southRow = rowOf(south);
+        final int northRow = rowOf(north);
+        final int westColumn = columnOf(west);
+        final int eastColumn = columnOf(east);
+        final int columns;
+        if (west <= east) {
+            columns = eastColumn - westColumn + 1;
+        } else if (westColumn == eastColumn) {
+            columns = COLUMNS;  // all but a sliver of one cell
+        } else {
+            columns = eastColumn + COLUMNS - westColumn + 1;
+        }
+        final List<Place> out = new ArrayList<Place>();
+
+        if ((long) (northRow - southRow + 1) * columns > mCells.size()) {
+            // fewer occupied cells than cells in the bounds
+            for (Map.Entry<Integer, List<Place>> entry : mCells.entrySet()) {
+                final int row = entry.getKey() / COLUMNS;
+                final int column = entry.getKey() % COLUMNS;
+                final int offset = (column - westColumn + COLUMNS) % COLUMNS;
+                if (row >= southRow && row <= northRow && offset < columns) {
+                    out.addAll(entry.getValue());
+                }
+            }
+            return out;
+        }
+
+        for (int row = southRow; row <= northRow; row++) {
+            for (int i = 0; i < columns; i++) {
+                final List<Place> inCell = mCells.get(row * COLUMNS + (westColumn + i) % COLUMNS);
+                if (inCell != null) {
+                    out.addAll(inCell);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return the number of places that can be found
+     */
+    public int size() {
+        return mSize;
+    }
+}
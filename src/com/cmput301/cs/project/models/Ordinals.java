@@ -0,0 +1,33 @@
+package com.cmput301.cs.project.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Numbers ids densely from {@code 0}, so a set of them fits in a bitset. {@link #CLAIMS} numbers {@link Claim Claims},
+ * by id. Ordinals are not saved; they last as long as the process.
+ *
+ * @see TagIndex
+ */
+final class Ordinals {
+
+    static final Ordinals CLAIMS = new Ordinals();
+
+    private final Map<String, Integer> mOrdinals = new HashMap<String, Integer>();
+
+    private Ordinals() {
+    }
+
+    /**
+     * @param id non-null id
+     * @return the ordinal of the id, assigned on first use; never negative
+     */
+    synchronized int of(String id) {
+        Integer ordinal = mOrdinals.get(id);
+        if (ordinal == null) {
+            ordinal = mOrdinals.size();
+            mOrdinals.put(id, ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLng;
+
+/**
+ * A suggestion for what a user is typing into a search for places: either a prediction of the Places API, which has a
+ * place id to look the place up by, or a destination the user has been to, which already has its location. This is an
+ * immutable class.
+ *
+ * @see PredictionCache
+ */
+public final class PlacePrediction {
+    private final String mPlaceId;
+    private final String mDescription;
+    private final LatLng mLocation;
+
+    private PlacePrediction(String placeId, String description, LatLng location) {
+        mPlaceId = placeId;
+        mDescription = description;
+        mLocation = location;
+    }
+
+    /**
+     * @param placeId     non-null id of the place, for {@code GeoDataApi.getPlaceById}
+     * @param description non-null text to show
+     * @return a new {@code PlacePrediction}; never null
+     */
+    public static PlacePrediction ofPlace(String placeId, String description) {
+        return new PlacePrediction(Utils.nonNullOrThrow(placeId, "placeId"),
+                Utils.nonNullOrThrow(description, "description"), null);
+    }
+
+    /**
+     * @param destination non-null {@link Destination} with a name and a location
+     * @return a new {@code PlacePrediction} without a place id; never null
+     */
+    public static PlacePrediction ofDestination(Destination destination) {
+        Utils.nonNullOrThrow(destination, "destination");
+        return new PlacePrediction(null, Utils.nonNullOrThrow(destination.getName(), "name"),
+                Utils.nonNullOrThrow(destination.getLocation(), "location"));
+    }
+
+    /**
+     * @return the id of the place; null if it is a past destination
+     */
+    public String getPlaceId() {
+        return mPlaceId;
+    }
+
+    /**
+     * @return the text to show; never null
+     */
+    public String getDescription() {
+        return mDescription;
+    }
+
+    /**
+     * @return the location of a past destination; null if it is a prediction of the Places API
+     */
+    public LatLng getLocation() {
+        return mLocation;
+    }
+
+    // from a malformed file, Gson leaves fields null
+    boolean isValid() {
+        return mDescription != null && (mPlaceId != null || mLocation != null);
+    }
+
+    @Override
+    public String toString() {
+        return mDescription;  // what ArrayAdapter shows
+    }
+}
@@ -0,0 +1,152 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.Utils;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.util.*;
+
+/**
+ * Remembers the {@link PlacePrediction predictions} of the Places API for what users typed, so typing the same thing
+ * again, even in a later session, does not ask Google again.
+ * <p/>
+ * Keyed by the {@link LocationIndex#normalize(String) normalized} text and by the bounds the predictions were biased
+ * to, with the corners of the bounds rounded to {@link LocationIndex#CELL_DEGREES}, so panning the map a little still
+ * finds them. Holds at most {@link #getCapacity() capacity} entries, and forgets the least recently used first.
+ * <p/>
+ * Saved as its {@link #peekEntries() entries} by
+ * {@link com.cmput301.cs.project.serialization.LocalSaver#savePredictionCache(List) LocalSaver}. Not thread safe.
+ *
+ * @see com.cmput301.cs.project.controllers.PlaceSuggester
+ */
+public final class PredictionCache {
+
+    /**
+     * The capacity of a {@code PredictionCache} made by {@link #of(Iterable)}.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The predictions for a text in some bounds. This is an immutable class.
+     */
+    public static final class Entry {
+        private final String mKey;
+        private final List<PlacePrediction> mPredictions;
+
+        private Entry(String key, List<PlacePrediction> predictions) {
+            mKey = key;
+            mPredictions = predictions;
+        }
+
+        // from a malformed file, Gson leaves fields null
+        private boolean isValid() {
+            if (mKey == null || mPredictions == null) return false;
+            for (PlacePrediction prediction : mPredictions) {
+                if (prediction == null || !prediction.isValid()) return false;
+            }
+            return true;
+        }
+    }
+
+    private final int mCapacity;
+    // in access order, least recently used first
+    private final LinkedHashMap<String, Entry> mEntries;
+
+    /**
+     * @param capacity the most entries to hold; positive
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public PredictionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        mCapacity = capacity;
+        mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > mCapacity;
+            }
+        };
+    }
+
+    /**
+     * @param entries non-null {@link Iterable} of entries, least recently used first, such as from
+     *                {@link #peekEntries()}; null and malformed entries, as from a malformed file, are skipped
+     * @return a new {@code PredictionCache} of {@link #DEFAULT_CAPACITY} with the entries; never null
+     */
+    public static PredictionCache of(Iterable<Entry> entries) {
+        Utils.nonNullOrThrow(entries, "entries");
+        final PredictionCache cache = new PredictionCache(DEFAULT_CAPACITY);
+        for (Entry entry : entries) {
+            if (entry != null && entry.isValid()) {
+                cache.mEntries.put(entry.mKey, entry);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @param text   non-null text that was typed
+     * @param bounds nullable {@link LatLngBounds} the predictions were biased to
+     * @return the key of the predictions; equal for texts that differ only in case and spaces, and for bounds whose
+     * corners are in the same cells; never null
+     */
+    public static String keyOf(String text, LatLngBounds bounds) {
+        Utils.nonNullOrThrow(text, "text");
+        final String normalized = LocationIndex.normalize(text);
+        if (bounds == null) return normalized;
+
+        return normalized + '|' + cellOf(bounds.southwest.latitude) + ',' + cellOf(bounds.southwest.longitude)
+                + '|' + cellOf(bounds.northeast.latitude) + ',' + cellOf(bounds.northeast.longitude);
+    }
+
+    private static long cellOf(double degrees) {
+        return Math.round(degrees / LocationIndex.CELL_DEGREES);
+    }
+
+    /**
+     * Looks up the predictions, and marks them as the most recently used.
+     *
+     * @param text   non-null text that was typed
+     * @param bounds nullable {@link LatLngBounds}
+     * @return unmodifiable {@link List} of the predictions; null if there are none for the text and bounds
+     */
+    public List<PlacePrediction> get(String text, LatLngBounds bounds) {
+        final Entry entry = mEntries.get(keyOf(text, bounds));
+        return entry == null ? null : Collections.unmodifiableList(entry.mPredictions);
+    }
+
+    /**
+     * Remembers the predictions as the most recently used, forgetting the least recently used entry if it is full.
+     *
+     * @param text        non-null text that was typed
+     * @param bounds      nullable {@link LatLngBounds}
+     * @param predictions non-null {@link List} of non-null predictions; may be empty
+     */
+    public void put(String text, LatLngBounds bounds, List<PlacePrediction> predictions) {
+        Utils.nonNullOrThrow(predictions, "predictions");
+        final String key = keyOf(text, bounds);
+        mEntries.remove(key);  // so it is the most recently used even if it was there
+        mEntries.put(key, new Entry(key, new ArrayList<PlacePrediction>(predictions)));
+    }
+
+    /**
+     * @return the most entries it holds
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * @return unmodifiable {@link List} of the entries, least recently used first; never null
+     */
+    public List<Entry> peekEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(mEntries.values()));
+    }
+}
@@ -5,16 +5,29 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.util.Base64;
 import android.util.Log;
+import com.cmput301.cs.project.utils.PerceptualHash;
 
 /**
  * This class creates an instance that will hold the receipt image for a particular expense.
  * If the image exceeds the size limit of 65536 bytes, an exception error occurs.
- * Stores the receipt in String {@code Base64} format compatible with ElasticSearch
+ * Holds the JPEG bytes of the receipt; it is saved in {@code Base64} format compatible with ElasticSearch.
+ * <p/>
+ * Use {@link com.cmput301.cs.project.utils.ReceiptCompressor ReceiptCompressor} to fit a photo in the size limit.
  */
 public class Receipt {
     public static final int MAX_FILE_SIZE = 65535;
 
+    /**
+     * The most bytes a receipt can hold, so that its {@link #toBase64() Base64 encoding} fits in {@link #MAX_FILE_SIZE}.
+     */
+    public static final int MAX_BYTES = MAX_FILE_SIZE / 4 * 3;
+
+    // only set by Receipt(String); decoded into mBytes on first use
     private final String mBase64String;
+    private volatile byte[] mBytes;
+    // written before mHashed
+    private long mPerceptualHash;
+    private volatile boolean mHashed;
 
     public Receipt(String base64String) {
         if (base64String == null) {
@@ -29,13 +42,138 @@ public class Receipt {
         mBase64String = base64String;
     }
 
+    /**
+     * Creates a {@code Receipt} that holds the given image. The array is copied.
+     *
+     * @param bytes non-null encoded image, such as JPEG, of at most {@link #MAX_BYTES}
+     * @return an instance of {@code Receipt}
+     */
+    public static Receipt ofBytes(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("Image cannot be null");
+        }
+        if (bytes.length > MAX_BYTES) {
+            throw new IllegalArgumentException("Image is too large");
+        }
+
+        return new Receipt(bytes.clone());  // Effective Java Item 39
+    }
+
+    /**
+     * Creates a {@code Receipt} that holds the given image, whose {@link #getPerceptualHash() hash} is already known.
+     * The array is copied.
+     *
+     * @param bytes          non-null encoded image, such as JPEG, of at most {@link #MAX_BYTES}
+     * @param perceptualHash the {@link PerceptualHash} of the image
+     * @return an instance of {@code Receipt}
+     */
+    public static Receipt ofBytes(byte[] bytes, long perceptualHash) {
+        final Receipt receipt = ofBytes(bytes);
+        receipt.mPerceptualHash = perceptualHash;
+        receipt.mHashed = true;
+        return receipt;
+    }
+
+    private Receipt(byte[] bytes) {
+        mBase64String = null;
+        mBytes = bytes;
+    }
+
+    /**
+     * @return the size of the encoded image in bytes
+     */
+    public int getSize() {
+        return getBytes().length;
+    }
+
+    /**
+     * @return the receipt in {@code Base64}, as saved; never null
+     */
+    public String toBase64() {
+        if (mBase64String != null) return mBase64String;
+        return Base64.encodeToString(getBytes(), Base64.NO_WRAP);
+    }
+
     /*
      * @return the receipt as a {@code Bitmap}
      */
     public Bitmap getBitmap() {
-        // http://stackoverflow.com/questions/3801760/android-code-to-convert-base64-string-to-bitmap
-        // April 6, 2015
-        byte[] imageAsBytes = Base64.decode(mBase64String.getBytes(), Base64.DEFAULT);
+        final byte[] imageAsBytes = getBytes();
         return BitmapFactory.decodeByteArray(imageAsBytes, 0, imageAsBytes.length);
     }
+
+    /**
+     * Decodes the receipt at a reduced size, at least {@code maxWidth} by {@code maxHeight} where possible, using less
+     * memory than {@link #getBitmap()}.
+     *
+     * @param maxWidth  the width it will be shown at, in pixels
+     * @param maxHeight the height it will be shown at, in pixels
+     * @return the receipt as a {@code Bitmap}; null if it cannot be decoded
+     * @see com.cmput301.cs.project.utils.ReceiptImageLoader
+     */
+    public Bitmap getBitmap(int maxWidth, int maxHeight) {
+        final byte[] imageAsBytes = getBytes();
+
+        // http://developer.android.com/training/displaying-bitmaps/load-bitmap.html
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(imageAsBytes, 0, imageAsBytes.length, options);
+
+        options.inSampleSize = sampleSizeFor(options.outWidth, options.outHeight, maxWidth, maxHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeByteArray(imageAsBytes, 0, imageAsBytes.length, options);
+    }
+
+    /**
+     * @return the largest power of two to divide {@code width} and {@code height} by, keeping them at least
+     * {@code maxWidth} and {@code maxHeight}; {@code 1} if either is unknown
+     */
+    static int sampleSizeFor(int width, int height, int maxWidth, int maxHeight) {
+        int sampleSize = 1;
+        if (maxWidth <= 0 || maxHeight <= 0) return sampleSize;
+
+        while (width / (sampleSize * 2) >= maxWidth && height / (sampleSize * 2) >= maxHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Receipts that look alike have hashes with a small {@link PerceptualHash#distance(long, long) distance}. Computed
+     * from the image the first time if it was not given to {@link #ofBytes(byte[], long)}.
+     *
+     * @return the {@link PerceptualHash} of the receipt; {@code 0} if it cannot be decoded
+     */
+    public long getPerceptualHash() {
+        if (!mHashed) {
+            // a 9x8 hash needs no more than a thumbnail
+            final Bitmap bitmap = getBitmap(PerceptualHash.WIDTH * 4, PerceptualHash.HEIGHT * 4);
+            if (bitmap != null) {
+                mPerceptualHash = PerceptualHash.of(bitmap);
+                bitmap.recycle();
+            }
+            mHashed = true;
+        }
+        return mPerceptualHash;
+    }
+
+    /**
+     * @return if {@link #getPerceptualHash()} returns without decoding the image
+     */
+    public boolean hasPerceptualHash() {
+        return mHashed;
+    }
+
+    // must not be modified
+    private byte[] getBytes() {
+        // Effective Java Item 71, racy single-check idiom
+        byte[] bytes = mBytes;
+        if (bytes == null) {
+            // http://stackoverflow.com/questions/3801760/android-code-to-convert-base64-string-to-bitmap
+            // April 6, 2015
+            bytes = Base64.decode(mBase64String.getBytes(), Base64.DEFAULT);
+            mBytes = bytes;
+        }
+        return bytes;
+    }
 }
@@ -0,0 +1,213 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.PerceptualHash;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Finds receipts that look like the same photo, across every {@link Claim} it holds, by the
+ * {@link Receipt#getPerceptualHash() perceptual hashes} of their receipts.
+ * <p/>
+ * Uses multi-index hashing: each hash is split into {@link #CHUNKS} bytes, and each byte is a key of a hash table. Two
+ * hashes at most {@link #MAX_DISTANCE} bits apart have at least one byte in common, so a lookup only compares hashes
+ * that share a byte with it, instead of every hash. {@link #sync(Collection)} only re-indexes the claims that changed.
+ * <p/>
+ * Not thread safe.
+ *
+ * @see ClaimsList#findDuplicateReceipts(Claim)
+ */
+public final class ReceiptIndex {
+
+    /**
+     * The most bits two hashes can differ by to be reported; the same photo compressed twice differs by a few bits.
+     */
+    public static final int MAX_DISTANCE = 5;
+
+    // pigeonhole: with CHUNKS - 1 bits differing, one chunk must still be equal
+    private static final int CHUNKS = 8;
+    private static final int CHUNK_BITS = Long.SIZE / CHUNKS;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    /**
+     * An {@link Expense} with a receipt that looks like the one looked up.
+     */
+    public static final class Match {
+        private final String mClaimId;
+        private final String mExpenseId;
+        private final int mDistance;
+
+        private Match(String claimId, String expenseId, int distance) {
+            mClaimId = claimId;
+            mExpenseId = expenseId;
+            mDistance = distance;
+        }
+
+        /**
+         * @return the {@link Claim#getId() id} of the claim that has the expense; never null
+         */
+        public String getClaimId() {
+            return mClaimId;
+        }
+
+        /**
+         * @return the {@link Expense#getId() id} of the expense; never null
+         */
+        public String getExpenseId() {
+            return mExpenseId;
+        }
+
+        /**
+         * @return how many bits the hashes differ by, {@code 0..}{@link #MAX_DISTANCE}
+         */
+        public int getDistance() {
+            return mDistance;
+        }
+    }
+
+    private static final class Entry {
+        private final long mHash;
+        private final String mClaimId;
+        private final String mExpenseId;
+
+        private Entry(long hash, String claimId, String expenseId) {
+            mHash = hash;
+            mClaimId = claimId;
+            mExpenseId = expenseId;
+        }
+    }
+
+    // (chunk index << CHUNK_BITS | chunk value) -> entries
+    private final Map<Integer, List<Entry>> mBuckets = new HashMap<Integer, List<Entry>>();
+    private final Map<String, List<Entry>> mEntriesByClaimId = new HashMap<String, List<Entry>>();
+    private final Map<String, Long> mModifiedByClaimId = new HashMap<String, Long>();
+
+    /**
+     * Makes the index hold exactly the given claims. Claims with the same {@link Claim#getModified() modified} time as
+     * when they were last indexed are skipped, so their expenses are not decoded again.
+     *
+     * @param claims non-null {@link Collection} of non-null {@link Claim Claims}
+     */
+    public void sync(Collection<Claim> claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+
+        final Set<String> removedIds = new HashSet<String>(mModifiedByClaimId.keySet());
+        for (Claim claim : claims) {
+            removedIds.remove(claim.getId());
+            final Long modified = mModifiedByClaimId.get(claim.getId());
+            if (modified == null || modified != claim.getModified()) {
+                add(claim);
+            }
+        }
+        for (String removedId : removedIds) {
+            remove(removedId);
+        }
+    }
+
+    /**
+     * Adds the receipts of the claim, replacing those of the claim with the same id, if any. Deleted claims are only
+     * removed.
+     *
+     * @param claim non-null {@link Claim}
+     */
+    public void add(Claim claim) {
+        Utils.nonNullOrThrow(claim, "claim");
+        remove(claim.getId());
+        mModifiedByClaimId.put(claim.getId(), claim.getModified());
+        if (claim.isDeleted()) return;
+
+        final List<Entry> entries = new ArrayList<Entry>();
+        for (Expense expense : claim.peekExpenses()) {
+            if (expense.hasReceipt()) {
+                final Entry entry = new Entry(expense.getReceipt().getPerceptualHash(), claim.getId(), expense.getId());
+                entries.add(entry);
+                for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                    final Integer key = keyOf(entry.mHash, chunk);
+                    List<Entry> bucket = mBuckets.get(key);
+                    if (bucket == null) {
+                        bucket = new ArrayList<Entry>(2);
+                        mBuckets.put(key, bucket);
+                    }
+                    bucket.add(entry);
+                }
+            }
+        }
+        if (!entries.isEmpty()) {
+            mEntriesByClaimId.put(claim.getId(), entries);
+        }
+    }
+
+    /**
+     * Removes the receipts of the claim with the given id, if any.
+     *
+     * @param claimId non-null {@link Claim#getId() id}
+     */
+    public void remove(String claimId) {
+        mModifiedByClaimId.remove(claimId);
+        final List<Entry> entries = mEntriesByClaimId.remove(claimId);
+        if (entries == null) return;
+
+        for (Entry entry : entries) {
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                final Integer key = keyOf(entry.mHash, chunk);
+                final List<Entry> bucket = mBuckets.get(key);
+                bucket.remove(entry);  // by identity; Entry does not override equals(Object)
+                if (bucket.isEmpty()) {
+                    mBuckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the receipts that look like the given one, leaving out the receipt of the expense itself.
+     *
+     * @param receipt   non-null {@link Receipt}
+     * @param expenseId the {@link Expense#getId() id} of the expense to leave out; may be null
+     * @return matches, closest first; never null
+     */
+    public List<Match> find(Receipt receipt, String expenseId) {
+        Utils.nonNullOrThrow(receipt, "receipt");
+
+        final long hash = receipt.getPerceptualHash();
+        final Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<Entry, Boolean>());
+        final List<Match> matches = new ArrayList<Match>();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            final List<Entry> bucket = mBuckets.get(keyOf(hash, chunk));
+            if (bucket == null) continue;
+
+            for (Entry entry : bucket) {
+                if (!seen.add(entry) || entry.mExpenseId.equals(expenseId)) continue;
+
+                final int distance = PerceptualHash.distance(hash, entry.mHash);
+                if (distance <= MAX_DISTANCE) {
+                    matches.add(new Match(entry.mClaimId, entry.mExpenseId, distance));
+                }
+            }
+        }
+
+        Collections.sort(matches, new Comparator<Match>() {
+            @Override
+            public int compare(Match lhs, Match rhs) {
+                return lhs.mDistance - rhs.mDistance;
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * @return the number of receipts indexed
+     */
+    public int size() {
+        int size = 0;
+        for (List<Entry> entries : mEntriesByClaimId.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    private static Integer keyOf(long hash, int chunk) {
+        final int value = (int) (hash >>> (chunk * CHUNK_BITS)) & CHUNK_MASK;
+        return chunk << CHUNK_BITS | value;
+    }
+}
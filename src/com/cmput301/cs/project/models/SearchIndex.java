@@ -0,0 +1,385 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Finds {@link Claim Claims} and {@link Expense Expenses} by the words in them: the names and reasons of the
+ * destinations, the tag names and the comments of a claim, and the descriptions and categories of its expenses. An
+ * expense also has the destination names of its claim, so "calgary hotel" finds the hotel of a trip to Calgary.
+ * <p/>
+ * An inverted index: each term maps to the documents that have it. The terms are sorted, so each word of a query also
+ * matches every term it starts. A document must match every word, and is ranked by tf-idf; a term that a word only
+ * starts counts for {@link #PREFIX_WEIGHT} of an exact one.
+ * <p/>
+ * Saved as its {@link #peekDocuments() documents} by
+ * {@link com.cmput301.cs.project.serialization.LocalSaver#saveSearchIndex(List) LocalSaver}, so a restart does
+ * not tokenize every claim again. {@link #sync(Collection)} only re-indexes the claims that changed. Not thread safe.
+ *
+ * @see ClaimsList#search(String, int)
+ */
+public final class SearchIndex {
+
+    /**
+     * How much a term that a word of the query only starts counts, relative to a term equal to the word.
+     */
+    public static final double PREFIX_WEIGHT = 0.5;
+
+    /**
+     * A claim or an expense that matches a query.
+     */
+    public static final class Hit {
+        private final String mClaimId;
+        private final String mExpenseId;
+        private final double mScore;
+
+        private Hit(String claimId, String expenseId, double score) {
+            mClaimId = claimId;
+            mExpenseId = expenseId;
+            mScore = score;
+        }
+
+        /**
+         * @return the {@link Claim#getId() id} of the claim, or of the claim that has the expense; never null
+         */
+        public String getClaimId() {
+            return mClaimId;
+        }
+
+        /**
+         * @return the {@link Expense#getId() id} of the expense; null if the claim itself matched
+         */
+        public String getExpenseId() {
+            return mExpenseId;
+        }
+
+        /**
+         * @return how well it matched; only comparable with the other hits of the same query
+         */
+        public double getScore() {
+            return mScore;
+        }
+    }
+
+    /**
+     * The terms of a claim, or of one of its expenses, and how often each occurs. This is an immutable class.
+     */
+    public static final class Document {
+        private final String mClaimId;
+        private final String mExpenseId;  // null for the text of the claim itself
+        private final long mModified;     // of the claim
+        private final String[] mTerms;    // sorted, distinct
+        private final int[] mCounts;
+
+        private Document(String claimId, String expenseId, long modified, String[] terms, int[] counts) {
+            mClaimId = claimId;
+            mExpenseId = expenseId;
+            mModified = modified;
+            mTerms = terms;
+            mCounts = counts;
+        }
+
+        private static Document of(String claimId, String expenseId, long modified, List<String> tokens) {
+            final SortedMap<String, int[]> counts = new TreeMap<String, int[]>();
+            for (String token : tokens) {
+                int[] count = counts.get(token);
+                if (count == null) {
+                    count = new int[1];
+                    counts.put(token, count);
+                }
+                count[0] += 1;
+            }
+
+            final String[] terms = new String[counts.size()];
+            final int[] termCounts = new int[counts.size()];
+            int i = 0;
+            for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+                terms[i] = entry.getKey();
+                termCounts[i++] = entry.getValue()[0];
+            }
+            return new Document(claimId, expenseId, modified, terms, termCounts);
+        }
+
+        // from a malformed file, Gson leaves fields null
+        private boolean isValid() {
+            if (mClaimId == null || mTerms == null || mCounts == null || mTerms.length != mCounts.length) {
+                return false;
+            }
+            for (int i = 0; i < mTerms.length; i++) {
+                if (mTerms[i] == null || (i > 0 && mTerms[i - 1].compareTo(mTerms[i]) >= 0)) return false;
+            }
+            return true;
+        }
+    }
+
+    private final TreeMap<String, Set<Document>> mPostings = new TreeMap<String, Set<Document>>();
+    private final Map<String, List<Document>> mDocumentsByClaimId = new HashMap<String, List<Document>>();
+    // deleted claims have no documents, but are not tokenized again either
+    private final Map<String, Long> mModifiedByClaimId = new HashMap<String, Long>();
+    private int mDocumentCount;
+
+    /**
+     * @param documents non-null {@link Iterable} of documents, such as from {@link #peekDocuments()}; null and
+     *                  malformed documents, as from a malformed file, are skipped
+     * @return a new {@code SearchIndex} with the documents; never null
+     */
+    public static SearchIndex of(Iterable<Document> documents) {
+        Utils.nonNullOrThrow(documents, "documents");
+        final SearchIndex index = new SearchIndex();
+        final Set<String> malformedClaimIds = new HashSet<String>();
+        for (Document document : documents) {
+            if (document == null) continue;
+            if (!document.isValid()) {
+                if (document.mClaimId != null) {
+                    malformedClaimIds.add(document.mClaimId);
+                }
+                continue;
+            }
+            index.addDocument(document);
+            index.mModifiedByClaimId.put(document.mClaimId, document.mModified);
+        }
+        for (String claimId : malformedClaimIds) {
+            index.remove(claimId);  // tokenized again on the next sync
+        }
+        return index;
+    }
+
+    /**
+     * Splits the text into lower case words of letters and digits.
+     *
+     * @param text nullable text
+     * @return non-null {@link List} of the words, in order, with repeats
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null) return Collections.emptyList();
+
+        final String lower = text.toLowerCase(Locale.US);
+        final List<String> tokens = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            final boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Makes the index hold exactly the given claims. Claims with the same {@link Claim#getModified() modified} time as
+     * when they were last indexed are skipped, so their expenses are not decoded again. Deleted claims are never
+     * matched.
+     *
+     * @param claims non-null {@link Collection} of non-null {@link Claim Claims}
+     * @return if anything changed, so the index should be saved again
+     */
+    public boolean sync(Collection<Claim> claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+
+        boolean changed = false;
+        final Set<String> removedIds = new HashSet<String>(mModifiedByClaimId.keySet());
+        for (Claim claim : claims) {
+            removedIds.remove(claim.getId());
+            final Long modified = mModifiedByClaimId.get(claim.getId());
+            if (modified == null || modified != claim.getModified()) {
+                remove(claim.getId());
+                add(claim);
+                changed = true;
+            }
+        }
+        for (String removedId : removedIds) {
+            remove(removedId);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void add(Claim claim) {
+        mModifiedByClaimId.put(claim.getId(), claim.getModified());
+        if (claim.isDeleted()) return;
+
+        final List<String> destinationTokens = new ArrayList<String>();
+        final List<String> claimTokens = new ArrayList<String>();
+        for (Destination destination : claim.getDestinations()) {
+            destinationTokens.addAll(tokenize(destination.getName()));
+            claimTokens.addAll(tokenize(destination.getReason()));
+        }
+        claimTokens.addAll(destinationTokens);
+        for (Tag tag : claim.peekTags()) {
+            claimTokens.addAll(tokenize(tag.getName()));
+        }
+        for (Comment comment : claim.peekComments()) {
+            claimTokens.addAll(tokenize(comment.getText()));
+        }
+        // always added, even without terms, so the version of the claim is saved
+        addDocument(Document.of(claim.getId(), null, claim.getModified(), claimTokens));
+
+        for (Expense expense : claim.peekExpenses()) {
+            final List<String> expenseTokens = new ArrayList<String>(destinationTokens);
+            expenseTokens.addAll(tokenize(expense.getDescription()));
+            expenseTokens.addAll(tokenize(expense.getCategory()));
+            addDocument(Document.of(claim.getId(), expense.getId(), claim.getModified(), expenseTokens));
+        }
+    }
+
+    private void addDocument(Document document) {
+        List<Document> documents = mDocumentsByClaimId.get(document.mClaimId);
+        if (documents == null) {
+            documents = new ArrayList<Document>(1);
+            mDocumentsByClaimId.put(document.mClaimId, documents);
+        }
+        documents.add(document);
+        mDocumentCount += 1;
+
+        for (String term : document.mTerms) {
+            Set<Document> postings = mPostings.get(term);
+            if (postings == null) {
+                postings = new HashSet<Document>();  // by identity
+                mPostings.put(term, postings);
+            }
+            postings.add(document);
+        }
+    }
+
+    private void remove(String claimId) {
+        mModifiedByClaimId.remove(claimId);
+        final List<Document> documents = mDocumentsByClaimId.remove(claimId);
+        if (documents == null) return;
+
+        mDocumentCount -= documents.size();
+        for (Document document : documents) {
+            for (String term : document.mTerms) {
+                final Set<Document> postings = mPostings.get(term);
+                postings.remove(document);
+                if (postings.isEmpty()) {
+                    mPostings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the claims and expenses that have every word of the text, or a term that the word starts.
+     *
+     * @param text  non-null text; {@link #tokenize(String) tokenized} like the claims
+     * @param limit the most hits to return
+     * @return non-null {@link List} of at most {@code limit} hits, best first
+     */
+    public List<Hit> search(String text, int limit) {
+        Utils.nonNullOrThrow(text, "text");
+        final List<String> words = new ArrayList<String>(new LinkedHashSet<String>(tokenize(text)));
+        if (words.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        // candidates come from the word with the fewest documents; the others are looked up in each candidate
+        String rarest = null;
+        int rarestCount = Integer.MAX_VALUE;
+        for (String word : words) {
+            int count = 0;
+            for (Set<Document> postings : prefixed(word).values()) {
+                count += postings.size();
+            }
+            if (count < rarestCount) {
+                rarest = word;
+                rarestCount = count;
+            }
+        }
+        if (rarestCount == 0) return Collections.emptyList();
+
+        final Set<Document> candidates = new HashSet<Document>(rarestCount * 2);
+        for (Set<Document> postings : prefixed(rarest).values()) {
+            candidates.addAll(postings);
+        }
+
+        // a min-heap of the best hits so far
+        final PriorityQueue<Hit> best = new PriorityQueue<Hit>(Math.min(limit, candidates.size()) + 1,
+                new Comparator<Hit>() {
+                    @Override
+                    public int compare(Hit lhs, Hit rhs) {
+                        return Double.compare(lhs.mScore, rhs.mScore);
+                    }
+                });
+        final Map<String, Double> idfs = new HashMap<String, Double>();
+        for (Document document : candidates) {
+            double score = 0;
+            for (String word : words) {
+                final double wordScore = score(document, word, idfs);
+                if (wordScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += wordScore;
+            }
+            if (score > 0 && (best.size() < limit || score > best.peek().mScore)) {
+                best.add(new Hit(document.mClaimId, document.mExpenseId, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        final List<Hit> hits = new ArrayList<Hit>(best);
+        Collections.sort(hits, new Comparator<Hit>() {
+            @Override
+            public int compare(Hit lhs, Hit rhs) {
+                final int byScore = Double.compare(rhs.mScore, lhs.mScore);
+                if (byScore != 0) return byScore;
+                final int byClaim = lhs.mClaimId.compareTo(rhs.mClaimId);
+                if (byClaim != 0) return byClaim;
+                // the claim itself first
+                if (lhs.mExpenseId == null || rhs.mExpenseId == null) {
+                    return lhs.mExpenseId == null ? (rhs.mExpenseId == null ? 0 : -1) : 1;
+                }
+                return lhs.mExpenseId.compareTo(rhs.mExpenseId);
+            }
+        });
+        return hits;
+    }
+
+    // the terms the word starts, including itself
+    private SortedMap<String, Set<Document>> prefixed(String word) {
+        return mPostings.subMap(word, word + Character.MAX_VALUE);
+    }
+
+    // the tf-idf of the terms of the document that the word starts; 0 if none
+    private double score(Document document, String word, Map<String, Double> idfs) {
+        int i = Arrays.binarySearch(document.mTerms, word);
+        if (i < 0) {
+            i = -i - 1;
+        }
+
+        double score = 0;
+        for (; i < document.mTerms.length && document.mTerms[i].startsWith(word); i++) {
+            final String term = document.mTerms[i];
+            Double idf = idfs.get(term);
+            if (idf == null) {
+                idf = Math.log(1 + (double) mDocumentCount / mPostings.get(term).size());
+                idfs.put(term, idf);
+            }
+            final double tf = 1 + Math.log(document.mCounts[i]);
+            score += tf * idf * (term.length() == word.length() ? 1 : PREFIX_WEIGHT);
+        }
+        return score;
+    }
+
+    /**
+     * @return the number of documents: one for each claim that is not deleted, and one for each of its expenses
+     */
+    public int size() {
+        return mDocumentCount;
+    }
+
+    /**
+     * @return non-null {@link List} of every document, in no set order
+     */
+    public List<Document> peekDocuments() {
+        final List<Document> documents = new ArrayList<Document>(mDocumentCount);
+        for (List<Document> ofClaim : mDocumentsByClaimId.values()) {
+            documents.addAll(ofClaim);
+        }
+        return Collections.unmodifiableList(documents);
+    }
+}
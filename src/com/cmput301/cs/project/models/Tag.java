@@ -6,6 +6,7 @@ import android.os.Parcelable;
 import com.cmput301.cs.project.controllers.TagsManager;
 import com.cmput301.cs.project.utils.Utils;
 
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -57,6 +58,16 @@ public class Tag implements Comparable<Tag>, Parcelable {
         mId = Utils.nonNullOrThrow(id, "id");
     }
 
+    /**
+     * Tags are searched by name without regard to case, such as in a {@link TagQuery} or when completing a name.
+     *
+     * @param name non-null name
+     * @return the name as it is searched: trimmed and in lower case
+     */
+    public static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.US);
+    }
+
     /**
      * @return non-null instance of {@code String}
      */
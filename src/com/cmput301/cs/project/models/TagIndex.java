@@ -0,0 +1,120 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.CompressedBitmap;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Evaluates {@link TagQuery TagQueries} over a set of {@link Claim Claims}. Keeps, for each tag name, a
+ * {@link CompressedBitmap} of the {@link Ordinals#CLAIMS ordinals} of the claims with a tag of that name, so a query
+ * is a few bitmap operations however many claims there are.
+ * <p/>
+ * Not thread safe. {@link #sync(Collection)} only re-indexes the claims that changed.
+ *
+ * @see ClaimsList#selectByTags(TagQuery)
+ */
+public final class TagIndex {
+
+    // never modified
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    private static final class Indexed {
+        private final long mModified;
+        private final int mOrdinal;
+        private final Set<String> mNames;
+
+        private Indexed(long modified, int ordinal, Set<String> names) {
+            mModified = modified;
+            mOrdinal = ordinal;
+            mNames = names;
+        }
+    }
+
+    private final Map<String, Indexed> mIndexedById = new HashMap<String, Indexed>();
+    private final Map<String, CompressedBitmap> mPostingsByName = new HashMap<String, CompressedBitmap>();
+    // every claim that is not deleted; the universe of NOT
+    private final CompressedBitmap mAll = new CompressedBitmap();
+
+    /**
+     * Makes the index hold exactly the given claims. Claims with the same {@link Claim#getModified() modified} time as
+     * when they were last indexed are skipped. Deleted claims are never matched.
+     *
+     * @param claims non-null {@link Collection} of non-null {@link Claim Claims}
+     */
+    public void sync(Collection<Claim> claims) {
+        Utils.nonNullOrThrow(claims, "claims");
+
+        final Set<String> removedIds = new HashSet<String>(mIndexedById.keySet());
+        for (Claim claim : claims) {
+            removedIds.remove(claim.getId());
+            final Indexed indexed = mIndexedById.get(claim.getId());
+            if (indexed == null || indexed.mModified != claim.getModified()) {
+                remove(claim.getId());
+                add(claim);
+            }
+        }
+        for (String removedId : removedIds) {
+            remove(removedId);
+        }
+    }
+
+    private void add(Claim claim) {
+        final int ordinal = claim.getOrdinal();
+        final Set<String> names = new HashSet<String>();
+        if (!claim.isDeleted()) {
+            mAll.add(ordinal);
+            for (Tag tag : claim.peekTags()) {
+                final String name = Tag.normalizeName(tag.getName());
+                if (names.add(name)) {
+                    CompressedBitmap postings = mPostingsByName.get(name);
+                    if (postings == null) {
+                        postings = new CompressedBitmap();
+                        mPostingsByName.put(name, postings);
+                    }
+                    postings.add(ordinal);
+                }
+            }
+        }
+        mIndexedById.put(claim.getId(), new Indexed(claim.getModified(), ordinal, names));
+    }
+
+    private void remove(String claimId) {
+        final Indexed indexed = mIndexedById.remove(claimId);
+        if (indexed == null) return;
+
+        mAll.remove(indexed.mOrdinal);
+        for (String name : indexed.mNames) {
+            final CompressedBitmap postings = mPostingsByName.get(name);
+            postings.remove(indexed.mOrdinal);
+            if (postings.isEmpty()) {
+                mPostingsByName.remove(name);
+            }
+        }
+    }
+
+    /**
+     * @param query non-null {@link TagQuery}
+     * @return the claims that match; never null
+     */
+    public ClaimSelection select(TagQuery query) {
+        Utils.nonNullOrThrow(query, "query");
+        // a copy, as the postings keep changing but a selection does not
+        return new ClaimSelection(CompressedBitmap.or(query.evaluate(this), EMPTY));
+    }
+
+    /**
+     * @return the claims with a tag of the name, by ordinal; must not be modified
+     */
+    CompressedBitmap postingsOf(String normalizedName) {
+        final CompressedBitmap postings = mPostingsByName.get(normalizedName);
+        return postings == null ? EMPTY : postings;
+    }
+
+    /**
+     * @return every claim, by ordinal; must not be modified
+     */
+    CompressedBitmap all() {
+        return mAll;
+    }
+}
@@ -0,0 +1,336 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.CompressedBitmap;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A boolean query over tag names, such as {@code travel AND (conference OR client) AND NOT personal}.
+ * <p/>
+ * <pre>
+ * query   = or
+ * or      = and { "OR" and }
+ * and     = not { ["AND"] not }        adjacent terms are ANDed
+ * not     = "NOT" not | "(" or ")" | name
+ * name    = word | "\"" quoted "\""    quoted names may hold spaces, parentheses and keywords
+ * </pre>
+ * Keywords and names are case insensitive. A name matches the claims with a tag of that name, whoever made the tag.
+ * <p/>
+ * This is an immutable class. Queries are evaluated by a {@link TagIndex} into a {@link ClaimSelection}.
+ */
+public abstract class TagQuery {
+
+    /**
+     * How the tags of a claim are matched against the tags of a selection.
+     *
+     * @see #of(Mode, Collection)
+     */
+    public enum Mode {
+        /**
+         * Matches claims with at least one of the tags.
+         */
+        ANY,
+        /**
+         * Matches claims with every one of the tags.
+         */
+        ALL,
+        /**
+         * Matches claims with none of the tags.
+         */
+        NONE
+    }
+
+    /**
+     * Matches every claim; the query of an empty tag selection.
+     */
+    public static final TagQuery ALL = new TagQuery() {
+        @Override
+        CompressedBitmap evaluate(TagIndex index) {
+            return index.all();
+        }
+
+        @Override
+        void append(StringBuilder builder, int precedence) {
+            // nothing; an empty query
+        }
+    };
+
+    // precedences, loosest first; used by toString() to leave out parentheses
+    private static final int OR = 0;
+    private static final int AND = 1;
+    private static final int NOT = 2;
+
+    private TagQuery() {
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param query non-null query
+     * @return an instance of {@code TagQuery}; {@link #ALL} if {@code query} is blank
+     * @throws IllegalArgumentException if the query is malformed; the message says where
+     */
+    public static TagQuery parse(String query) {
+        Utils.nonNullOrThrow(query, "query");
+        final Parser parser = new Parser(query);
+        if (parser.peek() == null) return ALL;
+
+        final TagQuery parsed = parser.parseOr();
+        if (parser.peek() != null) {
+            throw parser.error("unexpected " + parser.peek());
+        }
+        return parsed;
+    }
+
+    /**
+     * The query of a tag selection, as made by {@link com.cmput301.cs.project.dialogs.TagSelectorDialogFragment
+     * TagSelectorDialogFragment}.
+     *
+     * @param mode non-null {@link Mode}
+     * @param tags non-null {@link Collection} of non-null {@link Tag Tags}
+     * @return an instance of {@code TagQuery}; {@link #ALL} if {@code tags} is empty
+     */
+    public static TagQuery of(Mode mode, Collection<Tag> tags) {
+        Utils.nonNullOrThrow(mode, "mode");
+        if (tags.isEmpty()) return ALL;
+
+        final List<TagQuery> names = new ArrayList<TagQuery>(tags.size());
+        for (Tag tag : tags) {
+            names.add(new Name(tag.getName()));
+        }
+        switch (mode) {
+            case ANY:
+                return new Junction(OR, names);
+            case ALL:
+                return new Junction(AND, names);
+            case NONE:
+                return new Not(new Junction(OR, names));
+            default:
+                throw new AssertionError(mode);
+        }
+    }
+
+    /**
+     * @param index non-null {@link TagIndex}
+     * @return the matching claims, by ordinal; a new instance, or one that is never modified
+     */
+    abstract CompressedBitmap evaluate(TagIndex index);
+
+    abstract void append(StringBuilder builder, int precedence);
+
+    /**
+     * @return the query with the fewest parentheses; {@link #parse(String) parses} back into the same query
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        append(builder, OR);
+        return builder.toString();
+    }
+
+    private static final class Name extends TagQuery {
+        private final String mName;
+
+        private Name(String name) {
+            mName = Tag.normalizeName(name);
+        }
+
+        @Override
+        CompressedBitmap evaluate(TagIndex index) {
+            return index.postingsOf(mName);
+        }
+
+        @Override
+        void append(StringBuilder builder, int precedence) {
+            if (needsQuotes(mName)) {
+                builder.append('"').append(mName.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            } else {
+                builder.append(mName);
+            }
+        }
+
+        private static boolean needsQuotes(String name) {
+            if (name.isEmpty() || Parser.isKeyword(name)) return true;
+            for (int i = 0; i < name.length(); i++) {
+                if (!Parser.isWordChar(name.charAt(i))) return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Not extends TagQuery {
+        private final TagQuery mOperand;
+
+        private Not(TagQuery operand) {
+            mOperand = operand;
+        }
+
+        @Override
+        CompressedBitmap evaluate(TagIndex index) {
+            return CompressedBitmap.andNot(index.all(), mOperand.evaluate(index));
+        }
+
+        @Override
+        void append(StringBuilder builder, int precedence) {
+            builder.append("NOT ");
+            mOperand.append(builder, NOT);
+        }
+    }
+
+    // AND or OR of two or more operands
+    private static final class Junction extends TagQuery {
+        private final int mOperator;
+        private final TagQuery[] mOperands;
+
+        private Junction(int operator, List<TagQuery> operands) {
+            mOperator = operator;
+            mOperands = operands.toArray(new TagQuery[operands.size()]);
+        }
+
+        @Override
+        CompressedBitmap evaluate(TagIndex index) {
+            CompressedBitmap result = mOperands[0].evaluate(index);
+            for (int i = 1; i < mOperands.length; i++) {
+                if (mOperator == AND) {
+                    if (result.isEmpty()) break;
+                    result = CompressedBitmap.and(result, mOperands[i].evaluate(index));
+                } else {
+                    result = CompressedBitmap.or(result, mOperands[i].evaluate(index));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        void append(StringBuilder builder, int precedence) {
+            final boolean parenthesized = precedence > mOperator;
+            if (parenthesized) builder.append('(');
+            for (int i = 0; i < mOperands.length; i++) {
+                if (i > 0) builder.append(mOperator == AND ? " AND " : " OR ");
+                mOperands[i].append(builder, mOperator + 1);
+            }
+            if (parenthesized) builder.append(')');
+        }
+    }
+
+    // recursive descent over tokens; a token is "(", ")", a keyword in upper case, or a name
+    private static final class Parser {
+        private final String mQuery;
+        private int mPosition;
+        private String mToken;
+        private boolean mQuoted;
+        private int mTokenStart;
+
+        private Parser(String query) {
+            mQuery = query;
+            advance();
+        }
+
+        private static boolean isKeyword(String word) {
+            return "AND".equalsIgnoreCase(word) || "OR".equalsIgnoreCase(word) || "NOT".equalsIgnoreCase(word);
+        }
+
+        private static boolean isWordChar(char c) {
+            return !Character.isWhitespace(c) && c != '(' && c != ')' && c != '"';
+        }
+
+        private String peek() {
+            return mToken;
+        }
+
+        private boolean peekKeyword(String keyword) {
+            return mToken != null && !mQuoted && keyword.equalsIgnoreCase(mToken);
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + mTokenStart + " in: " + mQuery);
+        }
+
+        private void advance() {
+            while (mPosition < mQuery.length() && Character.isWhitespace(mQuery.charAt(mPosition))) {
+                mPosition++;
+            }
+            mTokenStart = mPosition;
+            mQuoted = false;
+            if (mPosition == mQuery.length()) {
+                mToken = null;
+                return;
+            }
+
+            final char c = mQuery.charAt(mPosition);
+            if (c == '(' || c == ')') {
+                mToken = String.valueOf(c);
+                mPosition++;
+            } else if (c == '"') {
+                final StringBuilder name = new StringBuilder();
+                mPosition++;
+                while (true) {
+                    if (mPosition == mQuery.length()) throw error("unterminated quote");
+                    char next = mQuery.charAt(mPosition++);
+                    if (next == '"') break;
+                    if (next == '\\' && mPosition < mQuery.length()) {
+                        next = mQuery.charAt(mPosition++);
+                    }
+                    name.append(next);
+                }
+                mToken = name.toString();
+                mQuoted = true;
+            } else {
+                final int start = mPosition;
+                while (mPosition < mQuery.length() && isWordChar(mQuery.charAt(mPosition))) {
+                    mPosition++;
+                }
+                mToken = mQuery.substring(start, mPosition);
+            }
+        }
+
+        private TagQuery parseOr() {
+            final List<TagQuery> operands = new ArrayList<TagQuery>();
+            operands.add(parseAnd());
+            while (peekKeyword("OR")) {
+                advance();
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(OR, operands);
+        }
+
+        private TagQuery parseAnd() {
+            final List<TagQuery> operands = new ArrayList<TagQuery>();
+            operands.add(parseNot());
+            while (mToken != null && !peekKeyword("OR") && !(")".equals(mToken) && !mQuoted)) {
+                if (peekKeyword("AND")) {
+                    advance();
+                }
+                operands.add(parseNot());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Junction(AND, operands);
+        }
+
+        private TagQuery parseNot() {
+            if (mToken == null) throw error("expected a tag name");
+
+            if (peekKeyword("NOT")) {
+                advance();
+                return new Not(parseNot());
+            }
+            if (!mQuoted && "(".equals(mToken)) {
+                advance();
+                final TagQuery inner = parseOr();
+                if (mQuoted || !")".equals(mToken)) throw error("expected )");
+                advance();
+                return inner;
+            }
+            if (!mQuoted && (")".equals(mToken) || isKeyword(mToken))) {
+                throw error("expected a tag name but got " + mToken.toUpperCase(Locale.US));
+            }
+
+            final Name name = new Name(mToken);
+            advance();
+            return name;
+        }
+    }
+}
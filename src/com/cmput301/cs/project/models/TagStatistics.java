@@ -0,0 +1,177 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.listeners.ClaimsChangedListener;
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+
+/**
+ * Counts how many claims use each tag name, and how many claims use each pair of tag names together. Names are
+ * {@link Tag#normalizeName(String) normalized}, so the tags of every claimant count.
+ * <p/>
+ * Updated one claim at a time as a {@link ClaimsChangedListener}; the co-occurrence matrix is sparse, keeping only
+ * the pairs that occur. Not thread safe.
+ */
+public final class TagStatistics implements ClaimsChangedListener {
+
+    // int[1] so counts can be changed in place
+    private final Map<String, int[]> mUsage = new HashMap<String, int[]>();
+    private final Map<String, Map<String, int[]>> mCooccurrences = new HashMap<String, Map<String, int[]>>();
+    // the names counted for each claim, so a removal undoes exactly what was added
+    private final Map<String, String[]> mNamesByClaimId = new HashMap<String, String[]>();
+
+    @Override
+    public void onClaimAdded(Claim claim) {
+        Utils.nonNullOrThrow(claim, "claim");
+        onClaimRemoved(claim);
+        if (claim.isDeleted() || claim.peekTags().isEmpty()) return;
+
+        final Set<String> distinct = new HashSet<String>();
+        for (Tag tag : claim.peekTags()) {
+            distinct.add(Tag.normalizeName(tag.getName()));
+        }
+        final String[] names = distinct.toArray(new String[distinct.size()]);
+        count(names, 1);
+        mNamesByClaimId.put(claim.getId(), names);
+    }
+
+    @Override
+    public void onClaimRemoved(Claim claim) {
+        final String[] names = mNamesByClaimId.remove(claim.getId());
+        if (names != null) {
+            count(names, -1);
+        }
+    }
+
+    private void count(String[] names, int delta) {
+        for (String name : names) {
+            add(mUsage, name, delta);
+            for (String other : names) {
+                if (other.equals(name)) continue;
+
+                Map<String, int[]> row = mCooccurrences.get(name);
+                if (row == null) {
+                    row = new HashMap<String, int[]>();
+                    mCooccurrences.put(name, row);
+                }
+                add(row, other, delta);
+                if (row.isEmpty()) {
+                    mCooccurrences.remove(name);
+                }
+            }
+        }
+    }
+
+    private static void add(Map<String, int[]> counts, String key, int delta) {
+        int[] count = counts.get(key);
+        if (count == null) {
+            count = new int[1];
+            counts.put(key, count);
+        }
+        count[0] += delta;
+        if (count[0] == 0) {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * @param claim non-null {@link Claim}
+     * @return the normalized names counted for the claim with the same {@link Claim#getId() id}, which may differ from
+     * the names of {@code claim} itself; empty if none
+     */
+    public List<String> peekCountedNames(Claim claim) {
+        final String[] names = mNamesByClaimId.get(claim.getId());
+        return names == null ? Collections.<String>emptyList() : Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @param name non-null tag name
+     * @return the number of claims with a tag of the name
+     */
+    public int getUsage(String name) {
+        final int[] count = mUsage.get(Tag.normalizeName(name));
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * @param name  non-null tag name
+     * @param other non-null tag name
+     * @return the number of claims with tags of both names; {@code 0} if they are the same name
+     */
+    public int getCooccurrence(String name, String other) {
+        final Map<String, int[]> row = mCooccurrences.get(Tag.normalizeName(name));
+        final int[] count = row == null ? null : row.get(Tag.normalizeName(other));
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Finds the names that occur most often together with all of the given names, scored by the least of their
+     * {@link #getCooccurrence(String, String) co-occurrences} with each given name. A name that never occurs with one
+     * of them is left out.
+     *
+     * @param names non-null {@link Collection} of non-null tag names
+     * @param limit the most names to return
+     * @return non-null {@link List} of at most {@code limit} normalized names, not in {@code names}, most often first
+     */
+    public List<String> findCooccurring(Collection<String> names, int limit) {
+        final Set<String> given = new HashSet<String>();
+        for (String name : names) {
+            given.add(Tag.normalizeName(name));
+        }
+
+        // every candidate is in each row of the given names, so only the shortest row is scanned
+        final List<Map<String, int[]>> rows = new ArrayList<Map<String, int[]>>(given.size());
+        for (String name : given) {
+            final Map<String, int[]> row = mCooccurrences.get(name);
+            if (row == null) return Collections.emptyList();
+            rows.add(row);
+        }
+        Map<String, int[]> shortest = null;
+        for (Map<String, int[]> row : rows) {
+            if (shortest == null || row.size() < shortest.size()) {
+                shortest = row;
+            }
+        }
+        if (shortest == null) return Collections.emptyList();
+
+        final Map<String, int[]> scores = new HashMap<String, int[]>();
+        candidates:
+        for (String candidate : shortest.keySet()) {
+            if (given.contains(candidate)) continue;
+
+            int score = Integer.MAX_VALUE;
+            for (Map<String, int[]> row : rows) {
+                final int[] count = row.get(candidate);
+                if (count == null) continue candidates;
+                score = Math.min(score, count[0]);
+            }
+            scores.put(candidate, new int[]{score});
+        }
+        return top(scores, limit);
+    }
+
+    /**
+     * @param limit the most names to return
+     * @return non-null {@link List} of at most {@code limit} normalized names, most used first
+     */
+    public List<String> findMostUsed(int limit) {
+        return top(mUsage, limit);
+    }
+
+    private static List<String> top(Map<String, int[]> counts, int limit) {
+        final List<Map.Entry<String, int[]>> entries = new ArrayList<Map.Entry<String, int[]>>(counts.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, int[]>>() {
+            @Override
+            public int compare(Map.Entry<String, int[]> lhs, Map.Entry<String, int[]> rhs) {
+                final int byCount = rhs.getValue()[0] - lhs.getValue()[0];
+                return byCount != 0 ? byCount : lhs.getKey().compareTo(rhs.getKey());
+            }
+        });
+
+        final List<String> out = new ArrayList<String>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            out.add(entries.get(i).getKey());
+        }
+        return out;
+    }
+}
@@ -3,6 +3,7 @@ package com.cmput301.cs.project.models;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.nio.charset.Charset;
 import java.util.UUID;
 
 /**
@@ -51,6 +52,21 @@ public class User implements Parcelable, Saveable {
     private final String name;
     private final UUID userId;
 
+    /**
+     * Creates a new user whose id is derived from the name, so two devices creating the same user at once agree on its
+     * id and only one of them can {@link com.cmput301.cs.project.serialization.RemoteSaver#create(Saveable) create} it.
+     *
+     * @param userName non-null, non-empty name
+     * @return a new {@code User}; never null
+     */
+    public static User withNameBasedId(String userName) {
+        if (userName == null || userName.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        final UUID id = UUID.nameUUIDFromBytes(("user:" + userName).getBytes(Charset.forName("UTF-8")));
+        return new User(userName, id.toString());
+    }
+
     public User(String userName) {
         this(userName, UUID.randomUUID().toString());
     }
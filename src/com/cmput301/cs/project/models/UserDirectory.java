@@ -0,0 +1,104 @@
+package com.cmput301.cs.project.models;
+
+import com.cmput301.cs.project.utils.Utils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the {@link User Users} known to exist on the server, by {@link User#getUserName() name}, so logging in as
+ * a known user again does not look the user up over the network.
+ * <p/>
+ * Each user is trusted for {@link #TTL_MILLIS} after it was last looked up; older users are only used when the server
+ * cannot be reached. Saved by {@link com.cmput301.cs.project.serialization.LocalSaver#saveUserDirectory(UserDirectory)
+ * LocalSaver}. Not thread safe.
+ */
+public final class UserDirectory {
+
+    /**
+     * How long a user is trusted after it was looked up, in milliseconds.
+     */
+    public static final long TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * A {@link User} and when it was last looked up. This is an immutable class.
+     */
+    public static final class Entry {
+        private final User mUser;
+        private final long mVerified;
+
+        private Entry(User user, long verified) {
+            mUser = user;
+            mVerified = verified;
+        }
+
+        /**
+         * @return the user; never null
+         */
+        public User getUser() {
+            return mUser;
+        }
+
+        /**
+         * @return when the user was last looked up, in milliseconds since the epoch
+         */
+        public long getVerified() {
+            return mVerified;
+        }
+    }
+
+    private final Map<String, Entry> mEntriesByName = new HashMap<String, Entry>();
+
+    /**
+     * @param entries non-null {@link Iterable} of entries, such as from {@link #peekEntries()}; null entries and
+     *                entries without users, as from a malformed file, are skipped
+     * @return a new {@code UserDirectory} with the entries; never null
+     */
+    public static UserDirectory of(Iterable<Entry> entries) {
+        Utils.nonNullOrThrow(entries, "entries");
+        final UserDirectory directory = new UserDirectory();
+        for (Entry entry : entries) {
+            if (entry != null && entry.mUser != null) {
+                directory.mEntriesByName.put(entry.mUser.getUserName(), entry);
+            }
+        }
+        return directory;
+    }
+
+    /**
+     * Remembers the user, replacing any user with the same name.
+     *
+     * @param user non-null {@link User} that was just looked up or created on the server
+     * @param now  the current time, in milliseconds since the epoch
+     */
+    public void put(User user, long now) {
+        Utils.nonNullOrThrow(user, "user");
+        mEntriesByName.put(user.getUserName(), new Entry(user, now));
+    }
+
+    /**
+     * @param userName non-null name
+     * @param now      the current time, in milliseconds since the epoch
+     * @return the user with the name, if it was looked up less than {@link #TTL_MILLIS} ago; otherwise null
+     */
+    public User find(String userName, long now) {
+        final Entry entry = mEntriesByName.get(userName);
+        return entry == null || now - entry.mVerified >= TTL_MILLIS ? null : entry.mUser;
+    }
+
+    /**
+     * @param userName non-null name
+     * @return the user with the name, however long ago it was looked up; null if none
+     */
+    public User findExpired(String userName) {
+        final Entry entry = mEntriesByName.get(userName);
+        return entry == null ? null : entry.mUser;
+    }
+
+    /**
+     * @return unmodifiable {@link Collection} of the entries, in no set order; never null
+     */
+    public Collection<Entry> peekEntries() {
+        return Collections.unmodifiableCollection(mEntriesByName.values());
+    }
+}
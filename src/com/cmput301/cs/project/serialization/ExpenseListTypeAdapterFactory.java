@@ -0,0 +1,124 @@
+package com.cmput301.cs.project.serialization;
+
+import com.cmput301.cs.project.models.Expense;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads {@code List<Expense>}, as in {@link com.cmput301.cs.project.models.Claim Claim}, into a {@link LazyExpenseList}
+ * that is decoded only when the expenses are first needed. Most screens only need the claim summary.
+ * <p/>
+ * Reads a JSON array, or the same array saved as a {@code String}. Writes a {@code String} if {@code segmented},
+ * which the next read keeps as is; otherwise writes an array, which the server indexes. A list that was never decoded
+ * is written back from the JSON it was read from.
+ * <p/>
+ * A segment is checked to be a well-formed JSON array when it is read, so malformed JSON fails with the rest of the
+ * file rather than on first access.
+ */
+final class ExpenseListTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeToken<List<Expense>> EXPENSES_TYPE = new TypeToken<List<Expense>>() {
+    };
+
+    // nothing to decode later
+    private static final String EMPTY_SEGMENT = "[]";
+
+    private final boolean mSegmented;
+
+    /**
+     * @param segmented if the expenses should be written as a {@code String} instead of an array
+     */
+    ExpenseListTypeAdapterFactory(boolean segmented) {
+        mSegmented = segmented;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")  // checked by EXPENSES_TYPE.equals(type)
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!EXPENSES_TYPE.equals(type)) return null;
+
+        final TypeAdapter<List<Expense>> delegate = gson.getDelegateAdapter(this, EXPENSES_TYPE);
+        final TypeAdapter<JsonElement> trees = gson.getAdapter(JsonElement.class);
+        return (TypeAdapter<T>) new TypeAdapter<List<Expense>>() {
+            @Override
+            public void write(JsonWriter out, List<Expense> value) throws IOException {
+                if (value instanceof LazyExpenseList) {
+                    final LazyExpenseList lazy = (LazyExpenseList) value;
+                    final String segment = lazy.peekSegment();
+                    final JsonElement tree = lazy.peekTree();
+                    if (segment != null) {
+                        if (mSegmented) {
+                            out.value(segment);
+                        } else {
+                            trees.write(out, new JsonParser().parse(segment));
+                        }
+                        return;
+                    } else if (tree != null) {
+                        if (mSegmented) {
+                            out.value(tree.toString());
+                        } else {
+                            trees.write(out, tree);
+                        }
+                        return;
+                    }
+                }
+
+                if (value == null) {
+                    out.nullValue();
+                } else if (mSegmented) {
+                    out.value(delegate.toJson(value));
+                } else {
+                    delegate.write(out, value);
+                }
+            }
+
+            @Override
+            public List<Expense> read(JsonReader in) throws IOException {
+                final JsonToken token = in.peek();
+                if (token == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                } else if (token == JsonToken.STRING) {
+                    final String segment = in.nextString();
+                    if (EMPTY_SEGMENT.equals(segment)) return Collections.emptyList();
+                    checkIsArray(segment);
+                    return new LazyExpenseList(delegate, segment);
+                } else {
+                    final JsonElement tree = trees.read(in);
+                    return tree.isJsonArray() && tree.getAsJsonArray().size() == 0
+                            ? Collections.<Expense>emptyList()
+                            : new LazyExpenseList(delegate, tree);
+                }
+            }
+        };
+    }
+
+    // scans the JSON without decoding it
+    private static void checkIsArray(String segment) {
+        final JsonReader reader = new JsonReader(new StringReader(segment));
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                throw new JsonSyntaxException("expenses are not an array");
+            }
+            reader.skipValue();
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("expenses are followed by more JSON");
+            }
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+}
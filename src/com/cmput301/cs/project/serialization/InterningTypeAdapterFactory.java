@@ -0,0 +1,96 @@
+package com.cmput301.cs.project.serialization;
+
+import com.cmput301.cs.project.models.Destination;
+import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.User;
+import com.cmput301.cs.project.utils.Interner;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Replaces every {@link User}, {@link Tag}, {@link Destination} and {@link LatLng} that {@code Gson} reads with the
+ * canonical equal instance. A team has a few dozen users and tags, but without this every
+ * {@link com.cmput301.cs.project.models.Claim Claim} read would carry its own copies.
+ * <p/>
+ * The interners are shared by every {@code Gson} that uses this factory, so claims read from local storage and from
+ * the server share instances after {@link com.cmput301.cs.project.models.ClaimsList ClaimsList} merges them.
+ *
+ * @see LocalSaver#getGson()
+ */
+public final class InterningTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final Interner<User> USERS = new Interner<User>();
+    private static final Interner<Tag> TAGS = new Interner<Tag>();
+    private static final Interner<Destination> DESTINATIONS = new Interner<Destination>();
+    private static final Interner<LatLng> LAT_LNGS = new Interner<LatLng>();
+
+    /**
+     * @param user nullable {@link User}
+     * @return the canonical {@code User} equal to {@code user}
+     */
+    public static User intern(User user) {
+        return USERS.intern(user);
+    }
+
+    /**
+     * @param tag nullable {@link Tag}
+     * @return the canonical {@code Tag} equal to {@code tag}
+     */
+    public static Tag intern(Tag tag) {
+        return TAGS.intern(tag);
+    }
+
+    /**
+     * @param destination nullable {@link Destination}
+     * @return the canonical {@code Destination} equal to {@code destination}
+     */
+    public static Destination intern(Destination destination) {
+        return DESTINATIONS.intern(destination);
+    }
+
+    /**
+     * @param latLng nullable {@link LatLng}
+     * @return the canonical {@code LatLng} equal to {@code latLng}
+     */
+    public static LatLng intern(LatLng latLng) {
+        return LAT_LNGS.intern(latLng);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")  // the raw type is checked before each cast
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        final Class<? super T> rawType = type.getRawType();
+        final Interner<T> interner;
+        if (rawType == User.class) {
+            interner = (Interner<T>) USERS;
+        } else if (rawType == Tag.class) {
+            interner = (Interner<T>) TAGS;
+        } else if (rawType == Destination.class) {
+            interner = (Interner<T>) DESTINATIONS;
+        } else if (rawType == LatLng.class) {
+            interner = (Interner<T>) LAT_LNGS;
+        } else {
+            return null;  // let other factories handle it
+        }
+
+        final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                return interner.intern(delegate.read(in));
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.cmput301.cs.project.serialization;
+
+import android.util.Log;
+import com.cmput301.cs.project.models.Expense;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An unmodifiable list of {@link Expense Expenses} that keeps the JSON it was read from, and decodes it on first
+ * access. Thread safe.
+ * <p/>
+ * JSON that does not decode into expenses is logged and read as no expenses, but kept, so it is written back as it was;
+ * see {@link #isMalformed()}.
+ *
+ * @see ExpenseListTypeAdapterFactory
+ */
+public final class LazyExpenseList extends AbstractList<Expense> {
+
+    private static final String LOG_TAG = "LazyExpenseList";
+
+    private final TypeAdapter<List<Expense>> mDelegate;
+
+    // exactly one of these is non-null until decoded; both are dropped after, unless the JSON was malformed
+    private String mSegment;
+    private JsonElement mTree;
+    private volatile List<Expense> mExpenses;
+
+    /**
+     * @param delegate non-null {@code TypeAdapter} that decodes the JSON
+     * @param segment  non-null JSON array of expenses, as a {@code String}
+     */
+    LazyExpenseList(TypeAdapter<List<Expense>> delegate, String segment) {
+        mDelegate = delegate;
+        mSegment = segment;
+    }
+
+    /**
+     * @param delegate non-null {@code TypeAdapter} that decodes the JSON
+     * @param tree     non-null JSON array of expenses
+     */
+    LazyExpenseList(TypeAdapter<List<Expense>> delegate, JsonElement tree) {
+        mDelegate = delegate;
+        mTree = tree;
+    }
+
+    /**
+     * @return the JSON array this list was read from, as a {@code String}; null if it was read as a tree or has been
+     * decoded successfully
+     */
+    synchronized String peekSegment() {
+        return mSegment;
+    }
+
+    /**
+     * @return the JSON array this list was read from; null if it was read as a {@code String} or has been decoded
+     * successfully
+     */
+    synchronized JsonElement peekTree() {
+        return mTree;
+    }
+
+    /**
+     * Decodes the JSON if it has not been.
+     *
+     * @return if the JSON did not decode into expenses, so this list is empty but the JSON is kept; a copy of this
+     * list would lose the expenses
+     */
+    public boolean isMalformed() {
+        decode();
+        return peekSegment() != null || peekTree() != null;
+    }
+
+    @Override
+    public Expense get(int location) {
+        return decode().get(location);
+    }
+
+    @Override
+    public int size() {
+        return decode().size();
+    }
+
+    private List<Expense> decode() {
+        // Effective Java Item 71, double-check idiom
+        List<Expense> expenses = mExpenses;
+        if (expenses == null) {
+            synchronized (this) {
+                expenses = mExpenses;
+                if (expenses == null) {
+                    try {
+                        expenses = read();
+                        mSegment = null;
+                        mTree = null;
+                    } catch (JsonParseException e) {
+                        // called from list rows and indices, which cannot recover from an exception
+                        Log.e(LOG_TAG, "malformed expenses, read as none", e);
+                        expenses = Collections.emptyList();
+                    }
+                    mExpenses = expenses;
+                }
+            }
+        }
+        return expenses;
+    }
+
+    private List<Expense> read() {
+        final List<Expense> expenses;
+        if (mSegment != null) {
+            try {
+                expenses = mDelegate.fromJson(mSegment);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e);
+            }
+        } else {
+            expenses = mDelegate.fromJsonTree(mTree);
+        }
+        return expenses == null ? Collections.<Expense>emptyList() : Collections.unmodifiableList(expenses);
+    }
+}
@@ -19,9 +19,16 @@ package com.cmput301.cs.project.serialization;
 
 import android.content.Context;
 import android.util.Log;
+import com.cmput301.cs.project.R;
 import com.cmput301.cs.project.models.Claim;
+import com.cmput301.cs.project.models.ExchangeRateTable;
+import com.cmput301.cs.project.models.ExchangeRates;
 import com.cmput301.cs.project.models.Expense;
+import com.cmput301.cs.project.models.Receipt;
+import com.cmput301.cs.project.models.PredictionCache;
+import com.cmput301.cs.project.models.SearchIndex;
 import com.cmput301.cs.project.models.Tag;
+import com.cmput301.cs.project.models.UserDirectory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
@@ -48,10 +55,25 @@ public abstract class LocalSaver {
     private static final Type TAGS_COLLECTION_TYPE = new TypeToken<List<Tag>>() {
     }.getType();
 
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(Expense.class, Expense.getInstanceCreator())
-            .registerTypeAdapter(Claim.class, Claim.getInstanceCreator())
-            .create();
+    private static final String EXCHANGE_RATES_FILE_NAME = "exchange_rates.json";
+    private static final Type EXCHANGE_RATES_COLLECTION_TYPE = new TypeToken<List<ExchangeRateTable>>() {
+    }.getType();
+
+    private static final String USER_DIRECTORY_FILE_NAME = "users.json";
+    private static final Type USER_DIRECTORY_COLLECTION_TYPE = new TypeToken<List<UserDirectory.Entry>>() {
+    }.getType();
+
+    private static final String SEARCH_INDEX_FILE_NAME = "search_index.json";
+    private static final Type SEARCH_INDEX_COLLECTION_TYPE = new TypeToken<List<SearchIndex.Document>>() {
+    }.getType();
+
+    private static final String PREDICTION_CACHE_FILE_NAME = "place_predictions.json";
+    private static final Type PREDICTION_CACHE_COLLECTION_TYPE = new TypeToken<List<PredictionCache.Entry>>() {
+    }.getType();
+
+    private static final Gson GSON = createGson(true);
+    // the server indexes the expenses, so it gets them as an array
+    private static final Gson REMOTE_GSON = createGson(false);
 
     private static LocalSaver sInstance;
 
@@ -69,12 +91,30 @@ public abstract class LocalSaver {
     }
 
     /**
-     * @return the {@code Gson} instance that {@code ClaimSaves} uses
+     * @return the {@code Gson} instance that {@code ClaimSaves} uses; it {@link InterningTypeAdapterFactory interns} users, tags and destinations,
+     * and {@link ExpenseListTypeAdapterFactory decodes the expenses} of a claim only when they are needed
      */
     public static Gson getGson() {
         return GSON;
     }
 
+    /**
+     * @return the {@code Gson} instance that {@link RemoteSaver} uses; same as {@link #getGson()}, but writes the expenses of a claim as an array
+     */
+    static Gson getRemoteGson() {
+        return REMOTE_GSON;
+    }
+
+    private static Gson createGson(boolean segmentedExpenses) {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new InterningTypeAdapterFactory())
+                .registerTypeAdapterFactory(new ExpenseListTypeAdapterFactory(segmentedExpenses))
+                .registerTypeAdapter(Receipt.class, new ReceiptTypeAdapter())
+                .registerTypeAdapter(Expense.class, Expense.getInstanceCreator())
+                .registerTypeAdapter(Claim.class, Claim.getInstanceCreator())
+                .create();
+    }
+
     /**
      * Obtain the {@code InputStream} for reading the JSON string.
      * <em>Multiple calls should not return the same stream as it might have been closed externally.</em>
@@ -95,6 +135,17 @@ public abstract class LocalSaver {
      */
     protected abstract OutputStream getOutputStreamForSaving(String fileName) throws IOException;
 
+    /**
+     * Obtain the {@code InputStream} of the exchange rates bundled with the app, read when none have been saved.
+     * There are none by default.
+     *
+     * @return the stream of a JSON array of {@link ExchangeRateTable ExchangeRateTables}; must not be null
+     * @throws IOException fails to obtain the stream; could mean there are no bundled rates ({@link java.io.FileNotFoundException FileNotFoundException})
+     */
+    protected InputStream getBundledExchangeRatesForReading() throws IOException {
+        throw new FileNotFoundException("no bundled exchange rates");
+    }
+
     /**
      * Saves all the claims to the file {@link #CLAIMS_FILE_NAME}. Overwrites the previous contents in the file.
      *
@@ -107,6 +158,7 @@ public abstract class LocalSaver {
 
     /**
      * Reads all the {@link Claim Claims} in the file {@link #CLAIMS_FILE_NAME}, in the same order in the file. The returned list is safe to be modified.
+     * The expenses of each claim are decoded on first access.
      *
      * @return a list of {@code Claims} in the file; otherwise, an empty list if the file does not exist; never null
      */
@@ -122,20 +174,122 @@ public abstract class LocalSaver {
         return readToList(TAGS_FILE_NAME, TAGS_COLLECTION_TYPE);
     }
 
+    /**
+     * Saves the {@link ExchangeRateTable ExchangeRateTables} to the file {@link #EXCHANGE_RATES_FILE_NAME}. Overwrites the previous contents in the file.
+     *
+     * @param tables non-null instance of an {@link java.lang.Iterable Iterable}
+     * @return if the operation is successful
+     */
+    public boolean saveExchangeRates(Iterable<ExchangeRateTable> tables) {
+        return saveAll(tables, EXCHANGE_RATES_FILE_NAME, EXCHANGE_RATES_COLLECTION_TYPE);
+    }
+
+    /**
+     * Reads the {@link ExchangeRateTable ExchangeRateTables} in the file {@link #EXCHANGE_RATES_FILE_NAME}, or the
+     * {@link #getBundledExchangeRatesForReading() bundled} ones if the file does not exist or is empty.
+     *
+     * @return the rates read; otherwise, {@link ExchangeRates#EMPTY} if there are none or they are malformed; never null
+     */
+    public ExchangeRates readExchangeRates() {
+        List<ExchangeRateTable> tables = readToList(EXCHANGE_RATES_FILE_NAME, EXCHANGE_RATES_COLLECTION_TYPE);
+        if (tables.isEmpty()) {
+            try {
+                tables = readToList(getBundledExchangeRatesForReading(), EXCHANGE_RATES_COLLECTION_TYPE);
+            } catch (IOException e) {
+                // no bundled rates either; nothing can be converted
+            }
+        }
+        try {
+            return ExchangeRates.of(tables);
+        } catch (IllegalArgumentException e) {
+            Log.e(LOG_TAG, "malformed exchange rates", e);
+            return ExchangeRates.EMPTY;
+        }
+    }
+
+    /**
+     * Saves the {@link UserDirectory} to the file {@link #USER_DIRECTORY_FILE_NAME}. Overwrites the previous contents in the file.
+     *
+     * @param directory non-null instance of {@code UserDirectory}
+     * @return if the operation is successful
+     */
+    public boolean saveUserDirectory(UserDirectory directory) {
+        return saveAll(directory.peekEntries(), USER_DIRECTORY_FILE_NAME, USER_DIRECTORY_COLLECTION_TYPE);
+    }
+
+    /**
+     * Reads the {@link UserDirectory} in the file {@link #USER_DIRECTORY_FILE_NAME}.
+     *
+     * @return the directory in the file; an empty one if the file does not exist; never null
+     */
+    public UserDirectory readUserDirectory() {
+        final List<UserDirectory.Entry> entries = readToList(USER_DIRECTORY_FILE_NAME, USER_DIRECTORY_COLLECTION_TYPE);
+        return UserDirectory.of(entries);
+    }
+
+    /**
+     * Saves the {@link SearchIndex#peekDocuments() documents} of a {@link SearchIndex} to the file
+     * {@link #SEARCH_INDEX_FILE_NAME}. Overwrites the previous contents in the file.
+     *
+     * @param documents non-null {@link List} of the documents; taken from the index, so the index itself, which is not
+     *                  thread safe, need not be used while saving
+     * @return if the operation is successful
+     */
+    public boolean saveSearchIndex(List<SearchIndex.Document> documents) {
+        return saveAll(documents, SEARCH_INDEX_FILE_NAME, SEARCH_INDEX_COLLECTION_TYPE);
+    }
+
+    /**
+     * Reads the {@link SearchIndex} in the file {@link #SEARCH_INDEX_FILE_NAME}.
+     *
+     * @return the index in the file; an empty one if the file does not exist; never null
+     */
+    public SearchIndex readSearchIndex() {
+        final List<SearchIndex.Document> documents = readToList(SEARCH_INDEX_FILE_NAME, SEARCH_INDEX_COLLECTION_TYPE);
+        return SearchIndex.of(documents);
+    }
+
+    /**
+     * Saves the {@link PredictionCache#peekEntries() entries} of a {@link PredictionCache} to the file
+     * {@link #PREDICTION_CACHE_FILE_NAME}. Overwrites the previous contents in the file.
+     *
+     * @param entries non-null {@link List} of the entries, least recently used first; taken from the cache, so the
+     *                cache itself, which is not thread safe, need not be used while saving
+     * @return if the operation is successful
+     */
+    public boolean savePredictionCache(List<PredictionCache.Entry> entries) {
+        return saveAll(entries, PREDICTION_CACHE_FILE_NAME, PREDICTION_CACHE_COLLECTION_TYPE);
+    }
+
+    /**
+     * Reads the {@link PredictionCache} in the file {@link #PREDICTION_CACHE_FILE_NAME}.
+     *
+     * @return the cache in the file; an empty one if the file does not exist; never null
+     */
+    public PredictionCache readPredictionCache() {
+        final List<PredictionCache.Entry> entries = readToList(PREDICTION_CACHE_FILE_NAME, PREDICTION_CACHE_COLLECTION_TYPE);
+        return PredictionCache.of(entries);
+    }
+
     private <T> List<T> readToList(String fileName, Type type) {
-        List<T> out = null;
-        InputStreamReader reader = null;
+        final InputStream in;
         try {
-            reader = new InputStreamReader(getInputStreamForReading(fileName));
-            out = GSON.fromJson(reader, type);
+            in = getInputStreamForReading(fileName);
         } catch (IOException e) {
             // fresh start
-            out = new ArrayList<T>();
+            return new ArrayList<T>();
+        }
+        return readToList(in, type);
+    }
+
+    private static <T> List<T> readToList(InputStream in, Type type) {
+        List<T> out = null;
+        final InputStreamReader reader = new InputStreamReader(in);
+        try {
+            out = GSON.fromJson(reader, type);
         } finally {
             try {
-                if (reader != null) {
-                    reader.close();
-                }
+                reader.close();
             } catch (IOException e) {
                 Log.e(LOG_TAG, "failed to close reader", e);
                 if (out == null) {
@@ -195,5 +349,10 @@ public abstract class LocalSaver {
         protected InputStream getInputStreamForReading(String fileName) throws IOException {
             return mContext.openFileInput(fileName);
         }
+
+        @Override
+        protected InputStream getBundledExchangeRatesForReading() throws IOException {
+            return mContext.getResources().openRawResource(R.raw.exchange_rates);
+        }
     }
 }
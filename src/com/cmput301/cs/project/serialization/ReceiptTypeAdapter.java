@@ -0,0 +1,68 @@
+package com.cmput301.cs.project.serialization;
+
+import android.util.Base64;
+import com.cmput301.cs.project.models.Receipt;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Receipt} as {@code {"mBase64String": "..."}}, the format receipts have always been saved in, and
+ * reads it back into raw bytes. The {@link Receipt#getPerceptualHash() perceptual hash} is saved as well, once known,
+ * so it is not computed again.
+ */
+final class ReceiptTypeAdapter extends TypeAdapter<Receipt> {
+
+    private static final String NAME_BASE64 = "mBase64String";
+    private static final String NAME_HASH = "mPerceptualHash";
+
+    @Override
+    public void write(JsonWriter out, Receipt value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name(NAME_BASE64).value(value.toBase64());
+        if (value.hasPerceptualHash()) {
+            out.name(NAME_HASH).value(value.getPerceptualHash());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Receipt read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String base64 = null;
+        Long hash = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            if (NAME_BASE64.equals(name) && in.peek() == JsonToken.STRING) {
+                base64 = in.nextString();
+            } else if (NAME_HASH.equals(name) && in.peek() == JsonToken.NUMBER) {
+                hash = in.nextLong();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (base64 == null) return null;
+        try {
+            final byte[] bytes = Base64.decode(base64, Base64.DEFAULT);
+            return hash == null ? Receipt.ofBytes(bytes) : Receipt.ofBytes(bytes, hash);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("invalid receipt", e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import android.util.Log;
 import com.cmput301.cs.project.serialization.elasticsearch.SearchResponse;
 import com.cmput301.cs.project.models.Saveable;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 
 import java.io.*;
 import java.lang.reflect.Type;
@@ -34,6 +35,8 @@ import java.util.List;
  *
  * loadAll() will block and wait until the action is complete.
  *
+ * search() and create() also block; they read or write only the items they need, instead of the whole index.
+ *
  */
 
 public class RemoteSaver<T extends Saveable> {
@@ -80,7 +83,7 @@ public class RemoteSaver<T extends Saveable> {
                         urlConnection.setRequestMethod("POST");
                         urlConnection.setDoOutput(true);
 
-                        Gson gson = new Gson();
+                        Gson gson = LocalSaver.getRemoteGson();
                         OutputStreamWriter writer = new OutputStreamWriter(urlConnection.getOutputStream());
                         gson.toJson(item, writer);
 
@@ -123,7 +126,8 @@ public class RemoteSaver<T extends Saveable> {
 
             InputStreamReader in = new InputStreamReader(urlConnection.getInputStream());
 
-            Gson gson = new Gson();
+            // shares canonical users, tags and destinations with the local claims
+            Gson gson = LocalSaver.getRemoteGson();
 
             SearchResponse<T> resp = gson.fromJson(in, mType);
 
@@ -160,4 +164,90 @@ public class RemoteSaver<T extends Saveable> {
         return items;
     }
 
+    /**
+     * Finds the items whose field contains the value as a phrase. The server's analyzer may ignore case and
+     * punctuation, so callers should check the field of each item for an exact match, and ask for the next page while
+     * a page is full, as the exact match may rank below other matches.
+     *
+     * @param field the name of the field in the JSON of an item
+     * @param value the value to look for
+     * @param from  the number of items to skip, for the pages after the first
+     * @param size  the most items to return
+     * @return the items found; never null
+     * @throws IOException if the server cannot be reached
+     */
+    public List<T> search(String field, String value, int from, int size) throws IOException {
+        final JsonObject phrase = new JsonObject();
+        phrase.addProperty(field, value);
+        final JsonObject match = new JsonObject();
+        match.add("match_phrase", phrase);
+        final JsonObject query = new JsonObject();
+        query.add("query", match);
+        query.addProperty("from", from);
+        query.addProperty("size", size);
+
+        HttpURLConnection urlConnection = null;
+        try {
+            URL url = new URL(ES_URL + mIndex + "/_search");
+
+            urlConnection = (HttpURLConnection) url.openConnection();
+            urlConnection.setRequestMethod("POST");
+            urlConnection.setDoOutput(true);
+            urlConnection.setDoInput(true);
+
+            OutputStreamWriter writer = new OutputStreamWriter(urlConnection.getOutputStream(), "UTF-8");
+            writer.write(query.toString());
+            writer.close();
+
+            InputStreamReader in = new InputStreamReader(urlConnection.getInputStream(), "UTF-8");
+            SearchResponse<T> resp = LocalSaver.getRemoteGson().fromJson(in, mType);
+            List<T> items = resp == null ? null : resp.getSources();
+
+            return items == null ? new ArrayList<T>() : items;
+        } catch (IOError e) {
+            Log.d(LOG_TAG, "IO error " + e.toString());
+            throw new IOException(e);
+        } finally {
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Saves the item only if no item with the same {@link Saveable#getId() id} exists yet. Unlike
+     * {@link #saveAll(List)}, this blocks until the server answers.
+     *
+     * @param item the item to be saved
+     * @return true if the item was created; false if an item with the same id already exists
+     * @throws IOException if the server cannot be reached or refuses the item
+     */
+    public boolean create(T item) throws IOException {
+        HttpURLConnection urlConnection = null;
+        try {
+            // http://www.elastic.co/guide/en/elasticsearch/reference/1.x/docs-index_.html#operation-type
+            URL url = new URL(ES_URL + mIndex + "/" + item.getId() + "/_create");
+
+            urlConnection = (HttpURLConnection) url.openConnection();
+            urlConnection.setRequestMethod("PUT");
+            urlConnection.setDoOutput(true);
+
+            OutputStreamWriter writer = new OutputStreamWriter(urlConnection.getOutputStream(), "UTF-8");
+            LocalSaver.getRemoteGson().toJson(item, writer);
+            writer.close();
+
+            final int code = urlConnection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_CONFLICT) {
+                return false;
+            }
+            if (code / 100 != 2) {
+                throw new IOException("failed to create " + item.getId() + ": " + code);
+            }
+            return true;
+        } finally {
+            if (urlConnection != null) {
+                urlConnection.disconnect();
+            }
+        }
+    }
 }
@@ -0,0 +1,379 @@
+package com.cmput301.cs.project.utils;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative {@code int}s, compressed in the style of Roaring bitmaps. Values are grouped by their high 16
+ * bits into chunks of {@code 65536}. A chunk with at most {@link #ARRAY_MAX} values is a sorted {@code char[]}; a fuller
+ * chunk is a {@code long[1024]} bitmap. Sparse sets take two bytes per value, dense sets one bit per value, and
+ * {@link #and(CompressedBitmap, CompressedBitmap) and}, {@link #or(CompressedBitmap, CompressedBitmap) or} and
+ * {@link #andNot(CompressedBitmap, CompressedBitmap) andNot} work a chunk, or 64 values, at a time.
+ * <p/>
+ * Not thread safe. The results of the set operations are new instances that are never modified afterwards, so they
+ * may be shared once published.
+ *
+ * @see <a href="http://roaringbitmap.org/">Roaring Bitmaps</a>
+ */
+public final class CompressedBitmap {
+
+    /**
+     * The most values a chunk keeps as an array; at this point the array takes as much memory as a bitmap.
+     */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int WORDS = 65536 / 64;
+
+    private static final char[] NO_VALUES = new char[0];
+
+    // one of the two is null
+    private static final class Chunk {
+        private char[] mValues;  // sorted, of which mSize are used
+        private long[] mWords;
+        private int mSize;
+
+        private static Chunk ofWords(long[] words) {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            final Chunk chunk = new Chunk();
+            chunk.mSize = size;
+            if (size <= ARRAY_MAX) {
+                chunk.mValues = new char[size];
+                int i = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        chunk.mValues[i++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                chunk.mWords = words;
+            }
+            return chunk;
+        }
+
+        private static Chunk ofValues(char[] values, int size) {
+            if (size > ARRAY_MAX) {
+                final long[] words = new long[WORDS];
+                for (int i = 0; i < size; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                return ofWords(words);
+            }
+            final Chunk chunk = new Chunk();
+            chunk.mValues = values;
+            chunk.mSize = size;
+            return chunk;
+        }
+
+        private long[] toWords() {
+            if (mWords != null) return mWords;
+
+            final long[] words = new long[WORDS];
+            for (int i = 0; i < mSize; i++) {
+                words[mValues[i] >>> 6] |= 1L << mValues[i];
+            }
+            return words;
+        }
+
+        private boolean contains(char low) {
+            if (mWords != null) return (mWords[low >>> 6] & 1L << low) != 0;
+            return Arrays.binarySearch(mValues, 0, mSize, low) >= 0;
+        }
+
+        private boolean add(char low) {
+            if (mWords != null) {
+                final long before = mWords[low >>> 6];
+                mWords[low >>> 6] = before | 1L << low;
+                if (before == mWords[low >>> 6]) return false;
+                mSize += 1;
+                return true;
+            }
+
+            final int index = Arrays.binarySearch(mValues, 0, mSize, low);
+            if (index >= 0) return false;
+
+            final int insertion = -index - 1;
+            if (mSize == ARRAY_MAX) {
+                mWords = toWords();
+                mValues = null;
+                mWords[low >>> 6] |= 1L << low;
+            } else {
+                if (mSize == mValues.length) {
+                    mValues = Arrays.copyOf(mValues, Math.min(ARRAY_MAX, Math.max(4, mSize * 2)));
+                }
+                System.arraycopy(mValues, insertion, mValues, insertion + 1, mSize - insertion);
+                mValues[insertion] = low;
+            }
+            mSize += 1;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (mWords != null) {
+                final long before = mWords[low >>> 6];
+                mWords[low >>> 6] = before & ~(1L << low);
+                if (before == mWords[low >>> 6]) return false;
+                mSize -= 1;
+                if (mSize <= ARRAY_MAX) {
+                    final Chunk array = ofWords(mWords);
+                    mValues = array.mValues;
+                    mWords = null;
+                }
+                return true;
+            }
+
+            final int index = Arrays.binarySearch(mValues, 0, mSize, low);
+            if (index < 0) return false;
+            System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+            mSize -= 1;
+            return true;
+        }
+    }
+
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int AND_NOT = 2;
+
+    // sorted high 16 bits, of which mChunkCount are used; mChunks[i] holds the values with the high bits mKeys[i]
+    private char[] mKeys = NO_VALUES;
+    private Chunk[] mChunks = new Chunk[0];
+    private int mChunkCount;
+
+    /**
+     * @param size the number of values, starting from {@code 0}; not negative
+     * @return a bitmap of {@code 0..size-1}
+     */
+    public static CompressedBitmap range(int size) {
+        if (size < 0) throw new IllegalArgumentException("size must not be negative; got " + size);
+
+        final CompressedBitmap bitmap = new CompressedBitmap();
+        for (int high = 0; high << 16 < size && high < 0x8000; high++) {
+            final int count = Math.min(65536, size - (high << 16));
+            final long[] words = new long[WORDS];
+            for (int w = 0; w < count >>> 6; w++) {
+                words[w] = -1L;
+            }
+            if ((count & 63) != 0) {
+                words[count >>> 6] = (1L << count) - 1;
+            }
+            bitmap.appendChunk((char) high, Chunk.ofWords(words));
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param value not negative
+     * @return if the value was not in the set
+     */
+    public boolean add(int value) {
+        checkValue(value);
+        final char high = (char) (value >>> 16);
+        final int index = Arrays.binarySearch(mKeys, 0, mChunkCount, high);
+        if (index >= 0) return mChunks[index].add((char) value);
+
+        final Chunk chunk = Chunk.ofValues(new char[4], 0);
+        chunk.add((char) value);
+        insertChunk(-index - 1, high, chunk);
+        return true;
+    }
+
+    /**
+     * @return if the value was in the set
+     */
+    public boolean remove(int value) {
+        if (value < 0) return false;
+        final int index = Arrays.binarySearch(mKeys, 0, mChunkCount, (char) (value >>> 16));
+        if (index < 0) return false;
+
+        final Chunk chunk = mChunks[index];
+        final boolean removed = chunk.remove((char) value);
+        if (chunk.mSize == 0) {
+            System.arraycopy(mKeys, index + 1, mKeys, index, mChunkCount - index - 1);
+            System.arraycopy(mChunks, index + 1, mChunks, index, mChunkCount - index - 1);
+            mChunkCount -= 1;
+            mChunks[mChunkCount] = null;
+        }
+        return removed;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        final int index = Arrays.binarySearch(mKeys, 0, mChunkCount, (char) (value >>> 16));
+        return index >= 0 && mChunks[index].contains((char) value);
+    }
+
+    /**
+     * @return the number of values in the set
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < mChunkCount; i++) {
+            size += mChunks[i].mSize;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return mChunkCount == 0;
+    }
+
+    /**
+     * @return the values in ascending order; never null
+     */
+    public int[] toArray() {
+        final int[] values = new int[size()];
+        int i = 0;
+        for (int c = 0; c < mChunkCount; c++) {
+            final int high = mKeys[c] << 16;
+            final Chunk chunk = mChunks[c];
+            if (chunk.mWords == null) {
+                for (int v = 0; v < chunk.mSize; v++) {
+                    values[i++] = high | chunk.mValues[v];
+                }
+            } else {
+                for (int w = 0; w < WORDS; w++) {
+                    long word = chunk.mWords[w];
+                    while (word != 0) {
+                        values[i++] = high | w * 64 + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return a new bitmap with the values in both
+     */
+    public static CompressedBitmap and(CompressedBitmap lhs, CompressedBitmap rhs) {
+        return combine(lhs, rhs, AND);
+    }
+
+    /**
+     * @return a new bitmap with the values in either
+     */
+    public static CompressedBitmap or(CompressedBitmap lhs, CompressedBitmap rhs) {
+        return combine(lhs, rhs, OR);
+    }
+
+    /**
+     * @return a new bitmap with the values in {@code lhs} but not in {@code rhs}
+     */
+    public static CompressedBitmap andNot(CompressedBitmap lhs, CompressedBitmap rhs) {
+        return combine(lhs, rhs, AND_NOT);
+    }
+
+    private static CompressedBitmap combine(CompressedBitmap lhs, CompressedBitmap rhs, int operation) {
+        final CompressedBitmap result = new CompressedBitmap();
+        int l = 0;
+        int r = 0;
+        while (l < lhs.mChunkCount || r < rhs.mChunkCount) {
+            final int lKey = l < lhs.mChunkCount ? lhs.mKeys[l] : Integer.MAX_VALUE;
+            final int rKey = r < rhs.mChunkCount ? rhs.mKeys[r] : Integer.MAX_VALUE;
+            if (lKey < rKey) {
+                if (operation != AND) {
+                    result.appendChunk((char) lKey, copy(lhs.mChunks[l]));
+                }
+                l++;
+            } else if (rKey < lKey) {
+                if (operation == OR) {
+                    result.appendChunk((char) rKey, copy(rhs.mChunks[r]));
+                }
+                r++;
+            } else {
+                final Chunk chunk = combine(lhs.mChunks[l], rhs.mChunks[r], operation);
+                if (chunk.mSize != 0) {
+                    result.appendChunk((char) lKey, chunk);
+                }
+                l++;
+                r++;
+            }
+        }
+        return result;
+    }
+
+    private static Chunk combine(Chunk lhs, Chunk rhs, int operation) {
+        if (lhs.mWords == null && rhs.mWords == null) {
+            return mergeValues(lhs, rhs, operation);
+        }
+
+        final long[] lWords = lhs.toWords();
+        final long[] rWords = rhs.toWords();
+        final long[] words = new long[WORDS];
+        for (int w = 0; w < WORDS; w++) {
+            switch (operation) {
+                case AND:
+                    words[w] = lWords[w] & rWords[w];
+                    break;
+                case OR:
+                    words[w] = lWords[w] | rWords[w];
+                    break;
+                default:
+                    words[w] = lWords[w] & ~rWords[w];
+                    break;
+            }
+        }
+        return Chunk.ofWords(words);
+    }
+
+    // both are arrays; merges as in merge sort
+    private static Chunk mergeValues(Chunk lhs, Chunk rhs, int operation) {
+        final char[] values = new char[operation == OR ? lhs.mSize + rhs.mSize : lhs.mSize];
+        int size = 0;
+        int l = 0;
+        int r = 0;
+        while (l < lhs.mSize && r < rhs.mSize) {
+            final char lValue = lhs.mValues[l];
+            final char rValue = rhs.mValues[r];
+            if (lValue < rValue) {
+                if (operation != AND) values[size++] = lValue;
+                l++;
+            } else if (rValue < lValue) {
+                if (operation == OR) values[size++] = rValue;
+                r++;
+            } else {
+                if (operation != AND_NOT) values[size++] = lValue;
+                l++;
+                r++;
+            }
+        }
+        if (operation != AND) {
+            while (l < lhs.mSize) values[size++] = lhs.mValues[l++];
+        }
+        if (operation == OR) {
+            while (r < rhs.mSize) values[size++] = rhs.mValues[r++];
+        }
+        return Chunk.ofValues(values, size);
+    }
+
+    private static Chunk copy(Chunk chunk) {
+        return chunk.mWords == null
+                ? Chunk.ofValues(Arrays.copyOf(chunk.mValues, chunk.mSize), chunk.mSize)
+                : Chunk.ofWords(chunk.mWords.clone());
+    }
+
+    private void appendChunk(char key, Chunk chunk) {
+        insertChunk(mChunkCount, key, chunk);
+    }
+
+    private void insertChunk(int index, char key, Chunk chunk) {
+        if (mChunkCount == mKeys.length) {
+            final int capacity = Math.max(4, mChunkCount * 2);
+            mKeys = Arrays.copyOf(mKeys, capacity);
+            mChunks = Arrays.copyOf(mChunks, capacity);
+        }
+        System.arraycopy(mKeys, index, mKeys, index + 1, mChunkCount - index);
+        System.arraycopy(mChunks, index, mChunks, index + 1, mChunkCount - index);
+        mKeys[index] = key;
+        mChunks[index] = chunk;
+        mChunkCount += 1;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) throw new IllegalArgumentException("value must not be negative; got " + value);
+    }
+}
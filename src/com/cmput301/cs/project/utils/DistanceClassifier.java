@@ -0,0 +1,92 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+
+import java.util.List;
+
+/**
+ * Sorts points into bands by their distance from a fixed centre, such as near, far and very far from home.
+ * <p/>
+ * The distance is the great-circle distance of {@link GeoUtils#distanceBetween(LatLng, LatLng)}, but it is never
+ * computed: each threshold is turned into the cosine of its central angle once, and a point beyond the threshold has a
+ * smaller cosine, which takes a sine and two cosines to find. {@link #classifyAll(List, int[])} does a whole list
+ * without allocating. This is an immutable class.
+ */
+public final class DistanceClassifier {
+
+    /**
+     * The band of a null point.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final double mSinLatitude;
+    private final double mCosLatitude;
+    private final double mLongitude;         // in radians
+    private final double[] mCosThresholds;   // descending, as the thresholds ascend
+
+    /**
+     * @param centre     non-null {@link LatLng}
+     * @param thresholds the upper bounds of the bands, in meters, ascending; a point exactly at a threshold is in the
+     *                   nearer band
+     * @throws IllegalArgumentException if the thresholds are not ascending
+     */
+    public DistanceClassifier(LatLng centre, double... thresholds) {
+        Utils.nonNullOrThrow(centre, "centre");
+        final double latitude = Math.toRadians(centre.latitude);
+        mSinLatitude = Math.sin(latitude);
+        mCosLatitude = Math.cos(latitude);
+        mLongitude = Math.toRadians(centre.longitude);
+
+        mCosThresholds = new double[thresholds.length];
+        for (int i = 0; i < thresholds.length; i++) {
+            if (i > 0 && thresholds[i] < thresholds[i - 1]) {
+                throw new IllegalArgumentException("thresholds must ascend: " + thresholds[i - 1] + ", " + thresholds[i]);
+            }
+            mCosThresholds[i] = Math.cos(Math.min(Math.PI, thresholds[i] / GeoUtils.EARTH_RADIUS_METERS));
+        }
+    }
+
+    /**
+     * @param latLng nullable {@link LatLng}
+     * @return the band of the point: {@code 0} if within the first threshold, {@code 1} if within the second, and so
+     * on, up to the number of thresholds if beyond them all; {@link #UNKNOWN} if {@code latLng} is null
+     */
+    public int classify(LatLng latLng) {
+        return latLng == null ? UNKNOWN : classify(latLng.latitude, latLng.longitude);
+    }
+
+    /**
+     * @param latitude  the latitude of the point, in degrees
+     * @param longitude the longitude of the point, in degrees
+     * @return the band of the point; see {@link #classify(LatLng)}
+     */
+    public int classify(double latitude, double longitude) {
+        final double lat = Math.toRadians(latitude);
+        // spherical law of cosines; the cosine of the central angle
+        final double cosAngle = mSinLatitude * Math.sin(lat)
+                + mCosLatitude * Math.cos(lat) * Math.cos(Math.toRadians(longitude) - mLongitude);
+
+        int band = 0;
+        while (band < mCosThresholds.length && cosAngle < mCosThresholds[band]) {
+            band += 1;
+        }
+        return band;
+    }
+
+    /**
+     * Classifies every point of the list.
+     *
+     * @param latLngs non-null {@link List} of nullable {@link LatLng LatLngs}
+     * @param bands   non-null array, at least as long as {@code latLngs}; {@code bands[i]} is set to the band of
+     *                {@code latLngs.get(i)}
+     * @throws IllegalArgumentException if {@code bands} is too short
+     */
+    public void classifyAll(List<LatLng> latLngs, int[] bands) {
+        if (bands.length < latLngs.size()) {
+            throw new IllegalArgumentException("bands too short: " + bands.length + " < " + latLngs.size());
+        }
+        for (int i = 0, size = latLngs.size(); i < size; i++) {  // no Iterator
+            bands[i] = classify(latLngs.get(i));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+/**
+ * Distances and bounds on the globe, treated as a sphere. Unlike {@link android.location.Location#distanceBetween(
+ * double, double, double, double, float[]) Location.distanceBetween}, usable off Android and without an output array.
+ */
+public final class GeoUtils {
+
+    /**
+     * The mean radius of the Earth, in meters.
+     */
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    /**
+     * The length of a degree of latitude, in meters.
+     */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private GeoUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Finds the great-circle distance by the haversine formula; within half a percent of the distance on the
+     * ellipsoid.
+     *
+     * @param from non-null {@link LatLng}
+     * @param to   non-null {@link LatLng}
+     * @return the distance, in meters
+     */
+    public static double distanceBetween(LatLng from, LatLng to) {
+        final double lat1 = Math.toRadians(from.latitude);
+        final double lat2 = Math.toRadians(to.latitude);
+        final double sinLat = Math.sin((lat2 - lat1) / 2);
+        final double sinLng = Math.sin(Math.toRadians(to.longitude - from.longitude) / 2);
+        final double h = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * @param bounds non-null {@link LatLngBounds}; crosses the 180th meridian if its west is east of its east
+     * @param latLng non-null {@link LatLng}
+     * @return if the bounds contain the point, edges included
+     */
+    public static boolean contains(LatLngBounds bounds, LatLng latLng) {
+        if (latLng.latitude < bounds.southwest.latitude || latLng.latitude > bounds.northeast.latitude) return false;
+
+        final double west = bounds.southwest.longitude;
+        final double east = bounds.northeast.longitude;
+        return west <= east
+                ? latLng.longitude >= west && latLng.longitude <= east
+                : latLng.longitude >= west || latLng.longitude <= east;
+    }
+}
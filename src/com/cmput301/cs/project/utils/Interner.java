@@ -0,0 +1,44 @@
+package com.cmput301.cs.project.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps one canonical instance of each distinct value, like {@link String#intern()} for immutable models.
+ * Canonical instances are held weakly, so values no longer referenced elsewhere can still be collected. Thread safe.
+ * <p/>
+ * Only intern immutable classes with proper {@code equals} and {@code hashCode}.
+ *
+ * @param <T> the type of the values
+ */
+public final class Interner<T> {
+
+    // the value is a WeakReference, or the canonical key would strongly reference itself and never be collected
+    private final Map<T, WeakReference<T>> mCanonical = new WeakHashMap<T, WeakReference<T>>();
+
+    /**
+     * @param value nullable value
+     * @return the canonical instance equal to {@code value}; {@code value} itself if it is the first of its kind; null if {@code value} is null
+     */
+    public synchronized T intern(T value) {
+        if (value == null) return null;
+
+        final WeakReference<T> reference = mCanonical.get(value);
+        if (reference != null) {
+            final T canonical = reference.get();
+            if (canonical != null) {
+                return canonical;
+            }
+        }
+        mCanonical.put(value, new WeakReference<T>(value));
+        return value;
+    }
+
+    /**
+     * @return the number of canonical instances still reachable, approximately
+     */
+    public synchronized int size() {
+        return mCanonical.size();
+    }
+}
@@ -0,0 +1,261 @@
+package com.cmput301.cs.project.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The changes that turn one list into another, matching items by a unique key such as an id: which items were
+ * removed, inserted, moved or changed.
+ * <p/>
+ * The items that keep their place are a longest increasing subsequence of the old positions, in new order, so the
+ * fewest items are reported as moved. Costs {@code O(n log n)} for {@code n} items, unlike a {@code O(n^2)} LCS.
+ * This is an immutable class.
+ */
+public final class ListDiff {
+
+    /**
+     * Tells how items are matched between the lists.
+     *
+     * @param <T> the type of the items
+     */
+    public interface Keys<T> {
+        /**
+         * @param item non-null item
+         * @return the key; unique in each list, and the same for every version of the item
+         */
+        String keyOf(T item);
+
+        /**
+         * @param oldItem non-null item of the old list
+         * @param newItem non-null item of the new list with the same key
+         * @return if the item did not change, so it need not be shown again
+         */
+        boolean isSameVersion(T oldItem, T newItem);
+    }
+
+    /**
+     * Receives the changes of {@link #applyTo(Target, List)}.
+     *
+     * @param <T> the type of the items
+     */
+    public interface Target<T> {
+        void remove(int position);
+
+        void insert(T item, int position);
+
+        void set(T item, int position);
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final int[] mRemoved;   // old positions, ascending
+    private final int[] mInserted;  // new positions, ascending
+    private final int[] mMoved;     // new positions, ascending
+    private final int[] mMovedFrom; // old positions, in the same order as mMoved
+    private final int[] mChanged;   // new positions, ascending
+
+    private ListDiff(int[] removed, int[] inserted, int[] moved, int[] movedFrom, int[] changed) {
+        mRemoved = removed;
+        mInserted = inserted;
+        mMoved = moved;
+        mMovedFrom = movedFrom;
+        mChanged = changed;
+    }
+
+    /**
+     * @param oldItems non-null {@link List} of non-null items
+     * @param newItems non-null {@link List} of non-null items
+     * @param keys     non-null {@link Keys}
+     * @param <T>      the type of the items
+     * @return the changes from {@code oldItems} to {@code newItems}; never null
+     * @throws IllegalArgumentException if a key occurs twice in a list
+     */
+    public static <T> ListDiff of(List<? extends T> oldItems, List<? extends T> newItems, Keys<T> keys) {
+        Utils.nonNullOrThrow(keys, "keys");
+        final int oldSize = oldItems.size();
+        final int newSize = newItems.size();
+
+        final Map<String, Integer> oldPositions = new HashMap<String, Integer>(oldSize * 2);
+        for (int i = 0; i < oldSize; i++) {
+            if (oldPositions.put(keys.keyOf(oldItems.get(i)), i) != null) {
+                throw new IllegalArgumentException("duplicate key in old items: " + keys.keyOf(oldItems.get(i)));
+            }
+        }
+
+        // the old position of each new item; -1 if it is inserted
+        final int[] from = new int[newSize];
+        final boolean[] kept = new boolean[oldSize];
+        final Set<String> newKeys = new HashSet<String>(newSize * 2);
+        for (int j = 0; j < newSize; j++) {
+            final String key = keys.keyOf(newItems.get(j));
+            if (!newKeys.add(key)) {
+                throw new IllegalArgumentException("duplicate key in new items: " + key);
+            }
+            final Integer i = oldPositions.get(key);
+            from[j] = i == null ? -1 : i;
+            if (i != null) {
+                kept[i] = true;
+            }
+        }
+
+        final boolean[] stays = longestIncreasing(from);
+
+        final int[] removed = new int[oldSize];
+        int removedCount = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (!kept[i]) {
+                removed[removedCount++] = i;
+            }
+        }
+
+        final int[] inserted = new int[newSize];
+        final int[] moved = new int[newSize];
+        final int[] movedFrom = new int[newSize];
+        final int[] changed = new int[newSize];
+        int insertedCount = 0;
+        int movedCount = 0;
+        int changedCount = 0;
+        for (int j = 0; j < newSize; j++) {
+            if (from[j] < 0) {
+                inserted[insertedCount++] = j;
+                continue;
+            }
+            if (!stays[j]) {
+                moved[movedCount] = j;
+                movedFrom[movedCount++] = from[j];
+            }
+            if (!keys.isSameVersion(oldItems.get(from[j]), newItems.get(j))) {
+                changed[changedCount++] = j;
+            }
+        }
+
+        return new ListDiff(trim(removed, removedCount), trim(inserted, insertedCount), trim(moved, movedCount),
+                trim(movedFrom, movedCount), trim(changed, changedCount));
+    }
+
+    // marks one longest strictly increasing subsequence of the non-negative values; patience sorting
+    private static boolean[] longestIncreasing(int[] values) {
+        final int[] tailIndices = new int[values.length];  // of the smallest tail of each length
+        final int[] previous = new int[values.length];
+        int length = 0;
+        for (int j = 0; j < values.length; j++) {
+            if (values[j] < 0) continue;
+
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (values[tailIndices[middle]] < values[j]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[j] = low > 0 ? tailIndices[low - 1] : -1;
+            tailIndices[low] = j;
+            if (low == length) {
+                length += 1;
+            }
+        }
+
+        final boolean[] marked = new boolean[values.length];
+        for (int j = length > 0 ? tailIndices[length - 1] : -1; j >= 0; j = previous[j]) {
+            marked[j] = true;
+        }
+        return marked;
+    }
+
+    private static int[] trim(int[] array, int size) {
+        return size == 0 ? NONE : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * @return if the lists hold the same versions of the same items in the same order
+     */
+    public boolean isEmpty() {
+        return mRemoved.length == 0 && mInserted.length == 0 && mMoved.length == 0 && mChanged.length == 0;
+    }
+
+    /**
+     * @return the positions in the old list of the items that are gone, ascending; never null
+     */
+    public int[] getRemoved() {
+        return mRemoved.clone();
+    }
+
+    /**
+     * @return the positions in the new list of the items that are new, ascending; never null
+     */
+    public int[] getInserted() {
+        return mInserted.clone();
+    }
+
+    /**
+     * @return the positions in the new list of the items that moved, ascending; never null
+     */
+    public int[] getMoved() {
+        return mMoved.clone();
+    }
+
+    /**
+     * @return the positions in the new list of the items with a new version, whether they moved or not, ascending;
+     * never null
+     */
+    public int[] getChanged() {
+        return mChanged.clone();
+    }
+
+    /**
+     * @return the number of removes, inserts and sets {@link #applyTo(Target, List)} makes on its target; a move is a
+     * remove and an insert
+     */
+    public int getOperations() {
+        int changedInPlace = 0;
+        for (int position : mChanged) {
+            if (Arrays.binarySearch(mMoved, position) < 0) changedInPlace += 1;
+        }
+        return mRemoved.length + mInserted.length + 2 * mMoved.length + changedInPlace;
+    }
+
+    /**
+     * Makes the target, which holds the old list, hold the new list, by removing and inserting only the items that
+     * were removed, inserted or moved, and setting only the items that changed in place.
+     *
+     * @param target   non-null {@link Target} that holds the old list
+     * @param newItems non-null {@link List}; the same as given to {@link #of(List, List, Keys)}
+     * @param <T>      the type of the items
+     */
+    public <T> void applyTo(Target<T> target, List<? extends T> newItems) {
+        // take out everything that goes away or moves, from the end so positions stay valid
+        final int[] taken = new int[mRemoved.length + mMovedFrom.length];
+        System.arraycopy(mRemoved, 0, taken, 0, mRemoved.length);
+        System.arraycopy(mMovedFrom, 0, taken, mRemoved.length, mMovedFrom.length);
+        Arrays.sort(taken);
+        for (int k = taken.length - 1; k >= 0; k--) {
+            target.remove(taken[k]);
+        }
+
+        // what is left is in new order; walking forwards, every earlier position is already right
+        int inserted = 0;
+        int moved = 0;
+        int changed = 0;
+        for (int j = 0; j < newItems.size(); j++) {
+            final boolean isInserted = inserted < mInserted.length && mInserted[inserted] == j;
+            final boolean isMoved = moved < mMoved.length && mMoved[moved] == j;
+            final boolean isChanged = changed < mChanged.length && mChanged[changed] == j;
+            if (isInserted) inserted += 1;
+            if (isMoved) moved += 1;
+            if (isChanged) changed += 1;
+
+            if (isInserted || isMoved) {
+                target.insert(newItems.get(j), j);
+            } else if (isChanged) {
+                target.set(newItems.get(j), j);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cmput301.cs.project.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Splits work over the indices of a list into one range per core, run on a shared pool of daemon threads, for work on
+ * every claim of a list such as converting totals or measuring routes.
+ * <p/>
+ * The pool has one thread per core and the caller waits for every range, so a range must not use
+ * {@code ParallelRanges} itself; it would wait for threads that are all busy waiting.
+ */
+public final class ParallelRanges {
+
+    /**
+     * The work on one range of indices.
+     */
+    public interface Range {
+        /**
+         * @param from the first index, inclusive
+         * @param to   the last index, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Below this many items, handing work to other threads costs more than it saves.
+     */
+    public static final int PARALLEL_THRESHOLD = 64;
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "ParallelRanges");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private ParallelRanges() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Runs the ranges that make up {@code [0, size)}, and returns once all of them have. Fewer than
+     * {@link #PARALLEL_THRESHOLD} items are run as one range on the calling thread.
+     *
+     * @param size  the number of items
+     * @param range non-null {@link Range}; called on several threads at once, with ranges that do not overlap
+     * @throws IllegalStateException if interrupted while waiting; an exception a range throws is rethrown as it is
+     */
+    public static void run(int size, final Range range) {
+        Utils.nonNullOrThrow(range, "range");
+        if (size < PARALLEL_THRESHOLD || THREADS == 1) {
+            range.run(0, size);
+            return;
+        }
+
+        final int chunk = (size + THREADS - 1) / THREADS;
+        final List<Future<?>> futures = new ArrayList<Future<?>>(THREADS);
+        for (int start = 0; start < size; start += chunk) {
+            final int from = start;
+            final int to = Math.min(size, start + chunk);
+            futures.add(EXECUTOR.submit(new Runnable() {
+                @Override
+                public void run() {
+                    range.run(from, to);
+                }
+            }));
+        }
+        awaitAll(futures);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a range", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("failed to run a range", cause);  // a Range cannot throw checked ones
+        }
+    }
+}
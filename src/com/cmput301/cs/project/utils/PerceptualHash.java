@@ -0,0 +1,81 @@
+package com.cmput301.cs.project.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+/**
+ * Computes a 64-bit difference hash ("dHash") of an image. Images that look alike have hashes that differ in few bits,
+ * even after being scaled or compressed again, so the {@link #distance(long, long) Hamming distance} between two
+ * hashes tells how alike they are.
+ * <p/>
+ * The image is shrunk to {@code 9x8} grey pixels; each bit tells if a pixel is brighter than its right neighbour.
+ *
+ * @see <a href="http://www.hackerfactor.com/blog/index.php?/archives/529-Kind-of-Like-That.html">Kind of Like That</a>
+ */
+public final class PerceptualHash {
+
+    /**
+     * The width in pixels the image is shrunk to; decoding at a few times this is enough.
+     */
+    public static final int WIDTH = 9;
+
+    /**
+     * The height in pixels the image is shrunk to.
+     */
+    public static final int HEIGHT = 8;
+
+    private PerceptualHash() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param image non-null {@link Bitmap}; not recycled
+     * @return the hash of the image
+     */
+    public static long of(Bitmap image) {
+        Utils.nonNullOrThrow(image, "image");
+
+        final Bitmap small = Bitmap.createScaledBitmap(image, WIDTH, HEIGHT, true);
+        final int[] pixels = new int[WIDTH * HEIGHT];
+        small.getPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+        if (small != image) {
+            small.recycle();
+        }
+
+        for (int i = 0; i < pixels.length; i++) {
+            final int color = pixels[i];
+            // ITU-R BT.601 luma, in integers
+            pixels[i] = (299 * Color.red(color) + 587 * Color.green(color) + 114 * Color.blue(color)) / 1000;
+        }
+        return ofGrey(pixels);
+    }
+
+    /**
+     * @param grey {@code 9x8} brightness values, row by row
+     * @return the hash of the image
+     */
+    static long ofGrey(int[] grey) {
+        if (grey.length != WIDTH * HEIGHT) {
+            throw new IllegalArgumentException("expected " + WIDTH * HEIGHT + " pixels, got " + grey.length);
+        }
+
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            final int row = y * WIDTH;
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (grey[row + x] > grey[row + x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @return the number of bits that differ between the two hashes, {@code 0..64}
+     */
+    public static int distance(long lhs, long rhs) {
+        return Long.bitCount(lhs ^ rhs);
+    }
+}
@@ -0,0 +1,226 @@
+package com.cmput301.cs.project.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Maps {@code String} keys to values with a weight, and finds the heaviest values whose keys start with a prefix.
+ * <p/>
+ * Each node remembers the heaviest weight below it, so {@link #complete(String, int)} visits the heaviest branches
+ * first and skips the branches that cannot beat the {@code k} values found so far. A lookup costs about the length of
+ * the prefix plus {@code k} branches, however many keys there are.
+ * <p/>
+ * Not thread safe.
+ *
+ * @param <V> the type of the values
+ */
+public final class PrefixTrie<V> {
+
+    private static final char[] NO_CHARS = new char[0];
+
+    private static final class Node<V> {
+        private char[] mChars = NO_CHARS;  // sorted
+        private Node<V>[] mChildren = newNodes(0);
+        private V mValue;  // null if no key ends here
+        private int mWeight;
+        private int mMaxWeight = Integer.MIN_VALUE;  // of mValue and every value below
+
+        @SuppressWarnings("unchecked")  // arrays of generics
+        private static <V> Node<V>[] newNodes(int size) {
+            return (Node<V>[]) new Node[size];
+        }
+
+        private Node<V> child(char c) {
+            final int index = Arrays.binarySearch(mChars, c);
+            return index < 0 ? null : mChildren[index];
+        }
+
+        private Node<V> childOrNew(char c) {
+            int index = Arrays.binarySearch(mChars, c);
+            if (index < 0) {
+                index = -index - 1;
+                final char[] chars = new char[mChars.length + 1];
+                final Node<V>[] children = newNodes(mChars.length + 1);
+                System.arraycopy(mChars, 0, chars, 0, index);
+                System.arraycopy(mChildren, 0, children, 0, index);
+                System.arraycopy(mChars, index, chars, index + 1, mChars.length - index);
+                System.arraycopy(mChildren, index, children, index + 1, mChars.length - index);
+                chars[index] = c;
+                children[index] = new Node<V>();
+                mChars = chars;
+                mChildren = children;
+            }
+            return mChildren[index];
+        }
+
+        private void removeChild(char c) {
+            final int index = Arrays.binarySearch(mChars, c);
+            final char[] chars = new char[mChars.length - 1];
+            final Node<V>[] children = newNodes(mChars.length - 1);
+            System.arraycopy(mChars, 0, chars, 0, index);
+            System.arraycopy(mChildren, 0, children, 0, index);
+            System.arraycopy(mChars, index + 1, chars, index, chars.length - index);
+            System.arraycopy(mChildren, index + 1, children, index, chars.length - index);
+            mChars = chars;
+            mChildren = children;
+        }
+
+        private void updateMaxWeight() {
+            int max = mValue == null ? Integer.MIN_VALUE : mWeight;
+            for (Node<V> child : mChildren) {
+                max = Math.max(max, child.mMaxWeight);
+            }
+            mMaxWeight = max;
+        }
+    }
+
+    private final Node<V> mRoot = new Node<V>();
+    private int mSize;
+
+    /**
+     * Maps the key to the value, replacing its previous value and weight, if any.
+     *
+     * @param key    non-null key
+     * @param value  non-null value
+     * @param weight the higher, the earlier {@link #complete(String, int)} returns the value
+     */
+    public void put(String key, V value, int weight) {
+        Utils.nonNullOrThrow(value, "value");
+        final Node<V>[] path = pathOf(key, true);
+        final Node<V> node = path[key.length()];
+        if (node.mValue == null) {
+            mSize += 1;
+        }
+        node.mValue = value;
+        node.mWeight = weight;
+        updateMaxWeights(path);
+    }
+
+    /**
+     * Changes the weight of the key; no-op if it is not in the trie.
+     *
+     * @param key    non-null key
+     * @param weight the new weight
+     */
+    public void setWeight(String key, int weight) {
+        final Node<V>[] path = pathOf(key, false);
+        if (path == null || path[key.length()].mValue == null) return;
+
+        path[key.length()].mWeight = weight;
+        updateMaxWeights(path);
+    }
+
+    /**
+     * @param key non-null key
+     * @return the value that was mapped to the key; null if none
+     */
+    public V remove(String key) {
+        final Node<V>[] path = pathOf(key, false);
+        if (path == null) return null;
+
+        final Node<V> node = path[key.length()];
+        final V removed = node.mValue;
+        if (removed == null) return null;
+
+        node.mValue = null;
+        mSize -= 1;
+        // prune the branches left without values
+        for (int depth = key.length(); depth > 0 && path[depth].mValue == null && path[depth].mChars.length == 0; depth--) {
+            path[depth - 1].removeChild(key.charAt(depth - 1));
+        }
+        updateMaxWeights(path);
+        return removed;
+    }
+
+    /**
+     * @param key non-null key
+     * @return the value mapped to the key; null if none
+     */
+    public V get(String key) {
+        final Node<V>[] path = pathOf(key, false);
+        return path == null ? null : path[key.length()].mValue;
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Finds the heaviest values whose keys start with the prefix; values of equal weight come in no set order.
+     *
+     * @param prefix non-null prefix; empty to match every key
+     * @param k      the most values to return
+     * @return at most {@code k} values, heaviest first; never null
+     */
+    public List<V> complete(String prefix, int k) {
+        Node<V> node = mRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null || k <= 0 || node.mMaxWeight == Integer.MIN_VALUE) return Collections.emptyList();
+
+        // best-first search: always expands the node with the heaviest value below it
+        final PriorityQueue<Node<V>> frontier = new PriorityQueue<Node<V>>(16, new Comparator<Node<V>>() {
+            @Override
+            public int compare(Node<V> lhs, Node<V> rhs) {
+                return rhs.mMaxWeight < lhs.mMaxWeight ? -1 : (rhs.mMaxWeight == lhs.mMaxWeight ? 0 : 1);
+            }
+        });
+        final List<V> out = new ArrayList<V>(k);
+        frontier.add(node);
+        while (!frontier.isEmpty() && out.size() < k) {
+            final Node<V> next = frontier.poll();
+            if (next.mValue != null && next.mWeight == next.mMaxWeight) {
+                // nothing below is heavier; emit it, then look below it again
+                out.add(next.mValue);
+                for (Node<V> child : next.mChildren) {
+                    frontier.add(child);
+                }
+            } else {
+                // a heavier value lies below; keep this one as a leaf entry
+                if (next.mValue != null) {
+                    frontier.add(leaf(next));
+                }
+                for (Node<V> child : next.mChildren) {
+                    frontier.add(child);
+                }
+            }
+        }
+        return out;
+    }
+
+    // a childless copy that stands for the value of the node alone
+    private static <V> Node<V> leaf(Node<V> node) {
+        final Node<V> leaf = new Node<V>();
+        leaf.mValue = node.mValue;
+        leaf.mWeight = node.mWeight;
+        leaf.mMaxWeight = node.mWeight;
+        return leaf;
+    }
+
+    // path[i] is the node of key.substring(0, i); null if not found and not create
+    private Node<V>[] pathOf(String key, boolean create) {
+        Utils.nonNullOrThrow(key, "key");
+        final Node<V>[] path = Node.newNodes(key.length() + 1);
+        path[0] = mRoot;
+        for (int i = 0; i < key.length(); i++) {
+            final Node<V> child = create ? path[i].childOrNew(key.charAt(i)) : path[i].child(key.charAt(i));
+            if (child == null) return null;
+            path[i + 1] = child;
+        }
+        return path;
+    }
+
+    private static <V> void updateMaxWeights(Node<V>[] path) {
+        for (int depth = path.length - 1; depth >= 0; depth--) {
+            path[depth].updateMaxWeight();
+        }
+    }
+}
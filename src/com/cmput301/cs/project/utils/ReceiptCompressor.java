@@ -0,0 +1,116 @@
+package com.cmput301.cs.project.utils;
+
+import android.graphics.Bitmap;
+import com.cmput301.cs.project.models.Receipt;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Fits a photo into a {@link Receipt}: scales it down to at most {@link #MAX_DIMENSION} pixels on the longest side,
+ * then finds the highest JPEG quality that is still within {@link Receipt#MAX_BYTES}. If even the lowest quality is
+ * too large, the resolution is halved and the search repeats, so every photo is accepted. The {@link PerceptualHash}
+ * is computed while the photo is still decoded.
+ * <p/>
+ * Encoding takes a few hundred milliseconds; call {@link #compress(Bitmap)} off the UI thread.
+ */
+public final class ReceiptCompressor {
+
+    /**
+     * The longest side of a receipt in pixels; enough to read a printed receipt.
+     */
+    public static final int MAX_DIMENSION = 1024;
+
+    static final int MIN_QUALITY = 20;
+    static final int MAX_QUALITY = 90;
+
+    /**
+     * Encodes an image at a given quality.
+     */
+    interface Encoder {
+        /**
+         * @param quality JPEG quality, {@code 0..100}
+         * @return the encoded image; never null
+         */
+        byte[] encode(int quality);
+    }
+
+    private ReceiptCompressor() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param photo non-null {@link Bitmap}; not recycled
+     * @return a {@code Receipt} of the photo; never null
+     */
+    public static Receipt compress(Bitmap photo) {
+        Utils.nonNullOrThrow(photo, "photo");
+
+        Bitmap scaled = scaleToFit(photo, MAX_DIMENSION);
+        while (true) {
+            final byte[] bytes = fitQuality(jpegEncoder(scaled), Receipt.MAX_BYTES);
+            if (bytes != null) {
+                final long hash = PerceptualHash.of(scaled);
+                if (scaled != photo) {
+                    scaled.recycle();
+                }
+                return Receipt.ofBytes(bytes, hash);
+            }
+
+            final Bitmap smaller = Bitmap.createScaledBitmap(scaled,
+                    Math.max(1, scaled.getWidth() / 2), Math.max(1, scaled.getHeight() / 2), true);
+            if (scaled != photo) {
+                scaled.recycle();
+            }
+            scaled = smaller;
+        }
+    }
+
+    /**
+     * Binary searches the JPEG quality between {@link #MIN_QUALITY} and {@link #MAX_QUALITY}. The encoded size grows
+     * with the quality, so this takes at most 7 encodes instead of up to 71.
+     *
+     * @param encoder non-null {@link Encoder}
+     * @param budget  the most bytes allowed
+     * @return the encoding at the highest quality within {@code budget}; null if none is
+     */
+    static byte[] fitQuality(Encoder encoder, int budget) {
+        int low = MIN_QUALITY;
+        int high = MAX_QUALITY;
+        byte[] best = null;
+        while (low <= high) {
+            final int quality = (low + high) >>> 1;
+            final byte[] bytes = encoder.encode(quality);
+            if (bytes.length <= budget) {
+                best = bytes;
+                low = quality + 1;
+            } else {
+                high = quality - 1;
+            }
+        }
+        return best;
+    }
+
+    private static Bitmap scaleToFit(Bitmap bitmap, int maxDimension) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final int longest = Math.max(width, height);
+        if (longest <= maxDimension) return bitmap;
+
+        final float scale = (float) maxDimension / longest;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)), true);
+    }
+
+    private static Encoder jpegEncoder(final Bitmap bitmap) {
+        // reused between encodes; toByteArray() copies
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Receipt.MAX_BYTES);
+        return new Encoder() {
+            @Override
+            public byte[] encode(int quality) {
+                out.reset();
+                bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out);
+                return out.toByteArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.cmput301.cs.project.utils;
+
+import android.graphics.Bitmap;
+import android.os.AsyncTask;
+import android.util.LruCache;
+import android.widget.ImageView;
+import com.cmput301.cs.project.models.Receipt;
+
+/**
+ * Shows {@link Receipt Receipts} in {@link ImageView ImageViews}. Decodes each receipt at the size it is shown at, off
+ * the UI thread, and keeps the results in a memory-bounded LRU cache, so redrawing a screen does not decode again.
+ * <p/>
+ * Use {@link #get()} to obtain the singleton. Must be used on the UI thread.
+ */
+public final class ReceiptImageLoader {
+
+    private static ReceiptImageLoader sInstance;
+
+    /**
+     * @return the singleton; never null
+     */
+    public static ReceiptImageLoader get() {
+        if (sInstance == null) {
+            sInstance = new ReceiptImageLoader();
+        }
+        return sInstance;
+    }
+
+    // Receipt has no equals(Object), so the same instance at the same size
+    private static final class Key {
+        private final Receipt mReceipt;
+        private final int mWidth;
+        private final int mHeight;
+
+        private Key(Receipt receipt, int width, int height) {
+            mReceipt = receipt;
+            mWidth = width;
+            mHeight = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            final Key key = (Key) o;
+            return mReceipt == key.mReceipt && mWidth == key.mWidth && mHeight == key.mHeight;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mReceipt);
+            result = 31 * result + mWidth;
+            result = 31 * result + mHeight;
+            return result;
+        }
+    }
+
+    private final LruCache<Key, Bitmap> mCache;
+
+    private ReceiptImageLoader() {
+        // http://developer.android.com/training/displaying-bitmaps/cache-bitmap.html
+        // an eighth of the heap, in bytes
+        final int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        mCache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Shows the receipt in the view, right away if it is cached. Otherwise the view keeps its current image until the
+     * receipt is decoded. A later call for the same view replaces this one.
+     *
+     * @param receipt non-null {@link Receipt}
+     * @param view    non-null {@link ImageView}
+     * @param width   the width it will be shown at, in pixels
+     * @param height  the height it will be shown at, in pixels
+     */
+    public void load(Receipt receipt, ImageView view, int width, int height) {
+        Utils.nonNullOrThrow(receipt, "receipt");
+        Utils.nonNullOrThrow(view, "view");
+
+        final Key key = new Key(receipt, width, height);
+        final Bitmap cached = mCache.get(key);
+        if (cached != null) {
+            view.setTag(null);
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setTag(key);
+        new DecodeTask(key, view).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Stops a pending {@link #load(Receipt, ImageView, int, int)} from showing its receipt in the view.
+     *
+     * @param view non-null {@link ImageView}
+     */
+    public void cancel(ImageView view) {
+        view.setTag(null);
+    }
+
+    private final class DecodeTask extends AsyncTask<Void, Void, Bitmap> {
+        private final Key mKey;
+        private final ImageView mView;
+
+        private DecodeTask(Key key, ImageView view) {
+            mKey = key;
+            mView = view;
+        }
+
+        @Override
+        protected Bitmap doInBackground(Void... params) {
+            return mKey.mReceipt.getBitmap(mKey.mWidth, mKey.mHeight);
+        }
+
+        @Override
+        protected void onPostExecute(Bitmap bitmap) {
+            if (bitmap == null) return;
+
+            mCache.put(mKey, bitmap);
+            if (mKey.equals(mView.getTag())) {  // the view still wants this receipt
+                mView.setTag(null);
+                mView.setImageBitmap(bitmap);
+            }
+        }
+    }
+}
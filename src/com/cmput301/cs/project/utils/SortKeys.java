@@ -0,0 +1,55 @@
+package com.cmput301.cs.project.utils;
+
+/**
+ * Sorts by primitive {@code long} keys, such as times, without boxing each key into a {@link Long} for every
+ * comparison as a {@link java.util.Comparator} would.
+ */
+public final class SortKeys {
+
+    private SortKeys() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Finds the order of the keys. The sort is stable: equal keys keep their relative order, ascending or not.
+     *
+     * @param keys       non-null keys; not changed
+     * @param descending true to put the largest key first
+     * @return the indices of {@code keys}, in sorted order; never null
+     */
+    public static int[] order(long[] keys, boolean descending) {
+        Utils.nonNullOrThrow(keys, "keys");
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        // bottom-up merge sort, swapping the roles of the two buffers after each pass
+        int[] buffer = new int[keys.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int start = 0; start < order.length; start += 2 * width) {
+                final int middle = Math.min(start + width, order.length);
+                final int end = Math.min(start + 2 * width, order.length);
+                int left = start;
+                int right = middle;
+                for (int out = start; out < end; out++) {
+                    // takes from the left on ties, which keeps the sort stable
+                    if (right >= end || (left < middle && !before(keys[order[right]], keys[order[left]], descending))) {
+                        buffer[out] = order[left++];
+                    } else {
+                        buffer[out] = order[right++];
+                    }
+                }
+            }
+            final int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    // if lhs must strictly come before rhs
+    private static boolean before(long lhs, long rhs, boolean descending) {
+        return descending ? lhs > rhs : lhs < rhs;
+    }
+}
@@ -0,0 +1,334 @@
+package com.cmput301.cs.project.utils;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups points on a map into clusters for each zoom level, so a map shows one marker per cluster instead of one per
+ * point. Knows nothing of markers, so it is usable off Android.
+ * <p/>
+ * The clusters of every zoom level from {@link #MAX_ZOOM} down to 0 are computed once: each level greedily merges the
+ * clusters of the level above that are within {@link #RADIUS_DP} of one another on screen, into a cluster at their
+ * weighted centre. Above {@code MAX_ZOOM}, every point is its own cluster. Each level keeps its clusters in a grid of
+ * cells as big as its radius, so {@link #getClusters(LatLngBounds, float)} only looks at the cells on screen, a few
+ * hundred at any zoom, however many points there are.
+ * <p/>
+ * Distances are measured on the Web Mercator projection that Google Maps uses, and clusters do not span the 180th
+ * meridian. This is an immutable class.
+ */
+public final class ZoomClusters {
+
+    /**
+     * The highest zoom level with clusters of more than one point.
+     */
+    public static final int MAX_ZOOM = 16;
+
+    /**
+     * How close clusters have to be to merge, in density-independent pixels on screen.
+     */
+    public static final double RADIUS_DP = 48;
+
+    // the width of the world at zoom 0, in density-independent pixels
+    private static final double WORLD_DP = 256;
+    private static final double MAX_LATITUDE = 85.05112878;  // where Web Mercator is square
+
+    /**
+     * A group of points close together at some zoom level, or a single point. This is an immutable class.
+     */
+    public static final class Cluster {
+        private final double mX;  // Web Mercator, in [0, 1]
+        private final double mY;
+        private final int mCount;
+        private final int mPointIndex;  // -1 unless a single point
+        private final int mZoom;
+        private final Cluster[] mChildren;  // on the level above; empty for a point
+        private final LatLng mPosition;
+
+        private Cluster(double x, double y, int count, int pointIndex, int zoom, Cluster[] children) {
+            mX = x;
+            mY = y;
+            mCount = count;
+            mPointIndex = pointIndex;
+            mZoom = zoom;
+            mChildren = children;
+            mPosition = new LatLng(latitudeOf(y), longitudeOf(x));
+        }
+
+        /**
+         * @return the weighted centre of the points; never null
+         */
+        public LatLng getPosition() {
+            return mPosition;
+        }
+
+        /**
+         * @return the number of points in the cluster; at least 1
+         */
+        public int getCount() {
+            return mCount;
+        }
+
+        /**
+         * @return the index of the point, in the list given to {@link #ZoomClusters(List)}; -1 if there are several
+         */
+        public int getPointIndex() {
+            return mPointIndex;
+        }
+    }
+
+    // the clusters of one zoom level, in a grid of cells as big as its radius
+    private static final class Level {
+        private final Cluster[] mClusters;
+        private final double mCellSize;
+        private final long mColumns;
+        // row * mColumns + column -> {count, indices of mClusters…}
+        private final Map<Long, int[]> mCells = new HashMap<Long, int[]>();
+
+        private Level(Cluster[] clusters, double cellSize) {
+            mClusters = clusters;
+            mCellSize = cellSize;
+            mColumns = (long) Math.ceil(1 / cellSize) + 1;
+            for (int i = 0; i < clusters.length; i++) {
+                final Long cell = row(clusters[i].mY) * mColumns + column(clusters[i].mX);
+                int[] inCell = mCells.get(cell);
+                if (inCell == null) {
+                    inCell = new int[3];
+                    mCells.put(cell, inCell);
+                } else if (inCell[0] + 1 == inCell.length) {
+                    inCell = Arrays.copyOf(inCell, inCell.length * 2);
+                    mCells.put(cell, inCell);
+                }
+                inCell[++inCell[0]] = i;
+            }
+        }
+
+        private long row(double y) {
+            return (long) (y / mCellSize);
+        }
+
+        private long column(double x) {
+            return (long) (x / mCellSize);
+        }
+
+        // [count, indices…] of the cell; null if empty
+        private int[] cell(long row, long column) {
+            if (row < 0 || column < 0 || column >= mColumns) return null;
+            return mCells.get(row * mColumns + column);
+        }
+    }
+
+    private final Level[] mLevels = new Level[MAX_ZOOM + 2];  // MAX_ZOOM + 1 holds the points
+    private final int mSize;
+
+    /**
+     * Clusters the points at every zoom level. Takes about {@code MAX_ZOOM} passes over the points, so large sets
+     * should be clustered off the UI thread.
+     *
+     * @param points non-null {@link List} of non-null {@link LatLng LatLngs}; may repeat
+     */
+    public ZoomClusters(List<LatLng> points) {
+        Utils.nonNullOrThrow(points, "points");
+        mSize = points.size();
+
+        final Cluster[] leaves = new Cluster[points.size()];
+        for (int i = 0; i < leaves.length; i++) {
+            final LatLng point = Utils.nonNullOrThrow(points.get(i), "point");
+            leaves[i] = new Cluster(xOf(point.longitude), yOf(point.latitude), 1, i, MAX_ZOOM + 1, new Cluster[0]);
+        }
+        mLevels[MAX_ZOOM + 1] = new Level(leaves, radiusOf(MAX_ZOOM + 1));
+        for (int zoom = MAX_ZOOM; zoom >= 0; zoom--) {
+            mLevels[zoom] = new Level(merge(mLevels[zoom + 1], zoom), radiusOf(zoom));
+        }
+    }
+
+    // the radius at a zoom level, as a fraction of the width of the world
+    private static double radiusOf(int zoom) {
+        return RADIUS_DP / (WORLD_DP * Math.pow(2, zoom));
+    }
+
+    // greedily merges the clusters of the level above within the radius of this zoom level; twice that of the level
+    // above, so the neighbours of a cluster are at most two cells away
+    private static Cluster[] merge(Level above, int zoom) {
+        final double radius = radiusOf(zoom);
+        final double radiusSquared = radius * radius;
+        final Cluster[] clusters = above.mClusters;
+        final boolean[] merged = new boolean[clusters.length];
+        final List<Cluster> out = new ArrayList<Cluster>();
+        final List<Cluster> children = new ArrayList<Cluster>();
+
+        for (int i = 0; i < clusters.length; i++) {
+            if (merged[i]) continue;
+            merged[i] = true;
+
+            final Cluster centre = clusters[i];
+            children.clear();
+            children.add(centre);
+            double x = centre.mX * centre.mCount;
+            double y = centre.mY * centre.mCount;
+            int count = centre.mCount;
+
+            final long row = above.row(centre.mY);
+            final long column = above.column(centre.mX);
+            for (long r = row - 2; r <= row + 2; r++) {
+                for (long c = column - 2; c <= column + 2; c++) {
+                    final int[] inCell = above.cell(r, c);
+                    if (inCell == null) continue;
+                    for (int k = 1; k <= inCell[0]; k++) {
+                        final int j = inCell[k];
+                        if (merged[j]) continue;
+
+                        final Cluster neighbour = clusters[j];
+                        final double dx = neighbour.mX - centre.mX;
+                        final double dy = neighbour.mY - centre.mY;
+                        if (dx * dx + dy * dy <= radiusSquared) {
+                            merged[j] = true;
+                            children.add(neighbour);
+                            x += neighbour.mX * neighbour.mCount;
+                            y += neighbour.mY * neighbour.mCount;
+                            count += neighbour.mCount;
+                        }
+                    }
+                }
+            }
+
+            if (children.size() == 1) {
+                // alone, so the same cluster one level down
+                out.add(new Cluster(centre.mX, centre.mY, centre.mCount, centre.mPointIndex, zoom,
+                        new Cluster[]{centre}));
+            } else {
+                out.add(new Cluster(x / count, y / count, count, -1, zoom,
+                        children.toArray(new Cluster[children.size()])));
+            }
+        }
+        return out.toArray(new Cluster[out.size()]);
+    }
+
+    private static double xOf(double longitude) {
+        return Math.max(0, Math.min(1, (longitude + 180) / 360));
+    }
+
+    private static double yOf(double latitude) {
+        final double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return Math.max(0, Math.min(1, 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)));
+    }
+
+    private static double longitudeOf(double x) {
+        return x * 360 - 180;
+    }
+
+    private static double latitudeOf(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+
+    /**
+     * Finds the clusters to show on a map, such as on every camera change.
+     *
+     * @param bounds non-null {@link LatLngBounds} on screen; may cross the 180th meridian
+     * @param zoom   the zoom level of the camera; rounded down
+     * @return non-null {@link List} of the clusters whose position is inside the bounds, in no set order; the same
+     * instances for the same zoom level, so markers can be kept for the clusters still shown
+     */
+    public List<Cluster> getClusters(LatLngBounds bounds, float zoom) {
+        Utils.nonNullOrThrow(bounds, "bounds");
+        final Level level = mLevels[Math.max(0, Math.min(MAX_ZOOM + 1, (int) Math.floor(zoom)))];
+
+        final double north = yOf(bounds.northeast.latitude);
+        final double south = yOf(bounds.southwest.latitude);
+        final double west = xOf(bounds.southwest.longitude);
+        final double east = xOf(bounds.northeast.longitude);
+        final List<Cluster> out = new ArrayList<Cluster>();
+        if (west <= east) {
+            collect(level, north, south, west, east, out);
+        } else {
+            collect(level, north, south, west, 1, out);
+            collect(level, north, south, 0, east, out);
+        }
+        return out;
+    }
+
+    // y grows southwards
+    private static void collect(Level level, double north, double south, double west, double east, List<Cluster> out) {
+        final long northRow = level.row(north);
+        final long southRow = level.row(south);
+        final long westColumn = level.column(west);
+        final long eastColumn = level.column(east);
+
+        if ((southRow - northRow + 1) * (eastColumn - westColumn + 1) > level.mCells.size()) {
+            // fewer occupied cells than cells in the bounds
+            for (int[] inCell : level.mCells.values()) {
+                collectInside(level, inCell, north, south, west, east, out);
+            }
+            return;
+        }
+
+        for (long row = northRow; row <= southRow; row++) {
+            for (long column = westColumn; column <= eastColumn; column++) {
+                final int[] inCell = level.cell(row, column);
+                if (inCell != null) {
+                    collectInside(level, inCell, north, south, west, east, out);
+                }
+            }
+        }
+    }
+
+    private static void collectInside(Level level, int[] inCell, double north, double south, double west, double east,
+                                      List<Cluster> out) {
+        for (int k = 1; k <= inCell[0]; k++) {
+            final Cluster cluster = level.mClusters[inCell[k]];
+            if (cluster.mY >= north && cluster.mY <= south && cluster.mX >= west && cluster.mX <= east) {
+                out.add(cluster);
+            }
+        }
+    }
+
+    /**
+     * @param cluster non-null {@link Cluster} of this {@code ZoomClusters}
+     * @return the indices of its points, in the list given to {@link #ZoomClusters(List)}, ascending; never null
+     */
+    public int[] getPointIndices(Cluster cluster) {
+        final int[] indices = new int[cluster.mCount];
+        final int size = collectPoints(cluster, indices, 0);
+        if (size != indices.length) {
+            throw new AssertionError("expected " + indices.length + " points but found " + size);
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    private static int collectPoints(Cluster cluster, int[] out, int size) {
+        if (cluster.mChildren.length == 0) {
+            out[size++] = cluster.mPointIndex;
+            return size;
+        }
+        for (Cluster child : cluster.mChildren) {
+            size = collectPoints(child, out, size);
+        }
+        return size;
+    }
+
+    /**
+     * @param cluster non-null {@link Cluster} of this {@code ZoomClusters}
+     * @return the lowest zoom level at which the cluster splits up; {@code MAX_ZOOM + 1} if it never does, as its
+     * points are at the same place
+     */
+    public int getExpansionZoom(Cluster cluster) {
+        Cluster current = cluster;
+        while (current.mChildren.length == 1) {
+            current = current.mChildren[0];
+        }
+        return current.mChildren.length == 0 ? MAX_ZOOM + 1 : current.mZoom + 1;
+    }
+
+    /**
+     * @return the number of points
+     */
+    public int size() {
+        return mSize;
+    }
+}